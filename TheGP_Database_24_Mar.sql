@@ -33,12 +33,14 @@ CREATE TABLE `booking` (
   `type` varchar(100) NOT NULL DEFAULT 'Unknown',
   `details` varchar(1000) DEFAULT NULL,
   `prescription` varchar(1000) DEFAULT NULL,
+  `version` int NOT NULL DEFAULT '0',
   PRIMARY KEY (`id_booking`),
   UNIQUE KEY `id_booking_UNIQUE` (`id_booking`),
   UNIQUE KEY `booking` (`id_patient`,`booking_time`),
   UNIQUE KEY `id_doctor` (`id_doctor`,`booking_time`),
   KEY `id_patient_idx` (`id_patient`),
   KEY `id_doctor_idx` (`id_doctor`),
+  KEY `booking_time_idx` (`booking_time`),
   CONSTRAINT `id_doctor_booking` FOREIGN KEY (`id_doctor`) REFERENCES `doctor` (`id_doctor`),
   CONSTRAINT `id_patient_booking` FOREIGN KEY (`id_patient`) REFERENCES `patient` (`id_patient`)
 ) ENGINE=InnoDB AUTO_INCREMENT=21 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -50,7 +52,7 @@ CREATE TABLE `booking` (
 
 LOCK TABLES `booking` WRITE;
 /*!40000 ALTER TABLE `booking` DISABLE KEYS */;
-INSERT INTO `booking` VALUES (1,1,1,'2021-01-01 12:00:00','2022-03-24 17:49:46','Blood Testing',NULL,NULL),(2,1,1,'2023-06-10 15:10:00','2022-03-24 17:49:46','Other',NULL,NULL),(3,2,2,'2021-01-02 12:00:00','2022-03-24 17:49:46','Mental Health Checkup',NULL,NULL),(4,2,2,'2022-11-15 17:30:00','2022-03-24 17:49:46','Routine Checkup',NULL,NULL),(5,3,1,'2021-01-03 12:00:00','2022-03-24 17:49:46','Blood Testing',NULL,NULL),(6,3,1,'2022-04-08 09:40:00','2022-03-24 17:49:46','Emergency Checkup',NULL,NULL),(7,4,3,'2021-01-04 12:00:00','2022-03-24 17:49:46','Routine Checkup',NULL,NULL),(8,4,3,'2023-06-10 12:30:00','2022-03-24 17:49:46','Routine Checkup',NULL,NULL),(9,5,5,'2021-01-05 12:00:00','2022-03-24 17:49:46','Physical Checkup',NULL,NULL),(10,5,5,'2023-06-10 16:20:00','2022-03-24 17:49:46','Telephone Session',NULL,NULL),(11,6,6,'2021-01-06 12:00:00','2022-03-24 17:49:46','Routine Checkup',NULL,NULL),(12,6,6,'2023-10-01 12:30:00','2022-03-24 17:49:46','Physical Checkup',NULL,NULL),(13,7,5,'2021-01-07 12:00:00','2022-03-24 17:49:46','General Consultation',NULL,NULL),(14,7,5,'2023-10-11 18:20:00','2022-03-24 17:49:46','Mental Health Checkup',NULL,NULL),(15,8,7,'2021-01-08 12:00:00','2022-03-24 17:49:46','Blood Testing',NULL,NULL),(16,8,7,'2023-06-10 16:50:00','2022-03-24 17:49:46','General Consultation',NULL,NULL),(17,9,4,'2021-01-09 12:00:00','2022-03-24 17:49:46','Surgery',NULL,NULL),(18,9,4,'2022-03-29 12:00:00','2022-03-24 17:49:46','General Consultation',NULL,NULL),(19,10,8,'2021-01-10 12:00:00','2022-03-24 17:49:46','Surgery',NULL,NULL),(20,10,8,'2022-12-19 09:50:00','2022-03-24 17:49:46','Physical Checkup',NULL,NULL);
+INSERT INTO `booking` VALUES (1,1,1,'2021-01-01 12:00:00','2022-03-24 17:49:46','Blood Testing',NULL,NULL,0),(2,1,1,'2023-06-10 15:10:00','2022-03-24 17:49:46','Other',NULL,NULL,0),(3,2,2,'2021-01-02 12:00:00','2022-03-24 17:49:46','Mental Health Checkup',NULL,NULL,0),(4,2,2,'2022-11-15 17:30:00','2022-03-24 17:49:46','Routine Checkup',NULL,NULL,0),(5,3,1,'2021-01-03 12:00:00','2022-03-24 17:49:46','Blood Testing',NULL,NULL,0),(6,3,1,'2022-04-08 09:40:00','2022-03-24 17:49:46','Emergency Checkup',NULL,NULL,0),(7,4,3,'2021-01-04 12:00:00','2022-03-24 17:49:46','Routine Checkup',NULL,NULL,0),(8,4,3,'2023-06-10 12:30:00','2022-03-24 17:49:46','Routine Checkup',NULL,NULL,0),(9,5,5,'2021-01-05 12:00:00','2022-03-24 17:49:46','Physical Checkup',NULL,NULL,0),(10,5,5,'2023-06-10 16:20:00','2022-03-24 17:49:46','Telephone Session',NULL,NULL,0),(11,6,6,'2021-01-06 12:00:00','2022-03-24 17:49:46','Routine Checkup',NULL,NULL,0),(12,6,6,'2023-10-01 12:30:00','2022-03-24 17:49:46','Physical Checkup',NULL,NULL,0),(13,7,5,'2021-01-07 12:00:00','2022-03-24 17:49:46','General Consultation',NULL,NULL,0),(14,7,5,'2023-10-11 18:20:00','2022-03-24 17:49:46','Mental Health Checkup',NULL,NULL,0),(15,8,7,'2021-01-08 12:00:00','2022-03-24 17:49:46','Blood Testing',NULL,NULL,0),(16,8,7,'2023-06-10 16:50:00','2022-03-24 17:49:46','General Consultation',NULL,NULL,0),(17,9,4,'2021-01-09 12:00:00','2022-03-24 17:49:46','Surgery',NULL,NULL,0),(18,9,4,'2022-03-29 12:00:00','2022-03-24 17:49:46','General Consultation',NULL,NULL,0),(19,10,8,'2021-01-10 12:00:00','2022-03-24 17:49:46','Surgery',NULL,NULL,0),(20,10,8,'2022-12-19 09:50:00','2022-03-24 17:49:46','Physical Checkup',NULL,NULL,0);
 /*!40000 ALTER TABLE `booking` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -162,6 +164,7 @@ CREATE TABLE `notification` (
   PRIMARY KEY (`id_notif`),
   UNIQUE KEY `id_notif_UNIQUE` (`id_notif`),
   KEY `id_patient_idx` (`id_patient`),
+  KEY `patient_new_notif_idx` (`id_patient`,`is_new`,`id_notif`),
   CONSTRAINT `id_patient` FOREIGN KEY (`id_patient`) REFERENCES `patient` (`id_patient`)
 ) ENGINE=InnoDB AUTO_INCREMENT=11 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
@@ -215,6 +218,31 @@ UNLOCK TABLES;
 --
 -- Dumping routines for database 'thegeneralpractitioner'
 --
+/*!50003 DROP PROCEDURE IF EXISTS `count_notifications_patient` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `count_notifications_patient`(
+	id_patient INT,
+    is_new BOOLEAN
+)
+BEGIN
+
+	SELECT COUNT(*) AS notification_count FROM notification
+    WHERE notification.id_patient = id_patient AND notification.is_new = is_new;
+
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
 /*!50003 DROP PROCEDURE IF EXISTS `delete_booking` */;
 /*!50003 SET @saved_cs_client      = @@character_set_client */ ;
 /*!50003 SET @saved_cs_results     = @@character_set_results */ ;
@@ -416,6 +444,60 @@ BEGIN
 
 	select * from booking where booking.id_booking = id_booking;
 
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `get_booking_times_between` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `get_booking_times_between`(
+    window_start DATETIME,
+    window_end DATETIME
+)
+BEGIN
+
+	SELECT booking.id_doctor, booking.booking_time FROM booking
+    WHERE booking.booking_time >= window_start AND booking.booking_time < window_end
+    ORDER BY booking.id_doctor, booking.booking_time;
+
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `get_booking_times_doctor_between` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `get_booking_times_doctor_between`(
+	id_doctor INT,
+    window_start DATETIME,
+    window_end DATETIME
+)
+BEGIN
+
+	SELECT booking.booking_time FROM booking
+    WHERE booking.id_doctor = id_doctor
+		AND booking.booking_time >= window_start AND booking.booking_time < window_end
+    ORDER BY booking.booking_time;
+
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -483,6 +565,78 @@ BEGIN
 
 	select * from booking where booking.id_patient = id_patient;
 
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `get_bookings_patient_between` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `get_bookings_patient_between`(
+	id_patient INT,
+    start_time DATETIME,
+    end_time DATETIME,
+    ascending BOOLEAN
+)
+BEGIN
+
+	IF ascending THEN
+		select * from booking b
+		where b.id_patient = id_patient and b.booking_time >= start_time and b.booking_time < end_time
+		order by b.booking_time asc;
+	ELSE
+		select * from booking b
+		where b.id_patient = id_patient and b.booking_time >= start_time and b.booking_time < end_time
+		order by b.booking_time desc;
+	END IF;
+
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `get_bookings_with_doctor_patient_between` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `get_bookings_with_doctor_patient_between`(
+	id_patient INT,
+    start_time DATETIME,
+    end_time DATETIME,
+    ascending BOOLEAN
+)
+BEGIN
+
+	IF ascending THEN
+		select b.*, d.email, d.first_name, d.middle_name, d.last_name, d.date_of_birth, d.gender, d.telephone_number
+		from booking b
+		join doctor d on d.id_doctor = b.id_doctor
+		where b.id_patient = id_patient and b.booking_time >= start_time and b.booking_time < end_time
+		order by b.booking_time asc;
+	ELSE
+		select b.*, d.email, d.first_name, d.middle_name, d.last_name, d.date_of_birth, d.gender, d.telephone_number
+		from booking b
+		join doctor d on d.id_doctor = b.id_doctor
+		where b.id_patient = id_patient and b.booking_time >= start_time and b.booking_time < end_time
+		order by b.booking_time desc;
+	END IF;
+
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -659,6 +813,34 @@ BEGIN
 
 	SELECT * FROM log WHERE log.id_patient = id_patient;
 
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `get_logs_patient_before` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `get_logs_patient_before`(
+	id_patient INT,
+    before_id INT,
+    page_size INT
+)
+BEGIN
+
+	SELECT * FROM log
+    WHERE log.id_patient = id_patient AND log.id_log < before_id
+    ORDER BY log.id_log DESC
+    LIMIT page_size;
+
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -682,6 +864,40 @@ BEGIN
 
 	SELECT * from notification where notification.id_notif = id_notif;
 
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `get_notification_changes_patient` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `get_notification_changes_patient`(
+	id_patient INT,
+    after_id INT,
+    id_notifs TEXT
+)
+BEGIN
+
+	SELECT * FROM notification
+    WHERE notification.id_patient = id_patient AND notification.id_notif > after_id
+    ORDER BY notification.id_notif;
+
+	SELECT notification.id_notif FROM notification
+    WHERE notification.id_patient = id_patient AND notification.is_new = 0
+		AND FIND_IN_SET(notification.id_notif, id_notifs);
+
+	SELECT COUNT(*) AS unread_count FROM notification
+    WHERE notification.id_patient = id_patient AND notification.is_new = 1;
+
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -726,6 +942,35 @@ BEGIN
 
 	SELECT * FROM notification WHERE notification.id_patient=id_patient;
 
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `get_notifications_patient_before` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `get_notifications_patient_before`(
+	id_patient INT,
+    is_new BOOLEAN,
+    before_id INT,
+    page_size INT
+)
+BEGIN
+
+	SELECT * FROM notification
+    WHERE notification.id_patient = id_patient AND notification.is_new = is_new AND notification.id_notif < before_id
+    ORDER BY notification.id_notif DESC
+    LIMIT page_size;
+
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -792,13 +1037,63 @@ CREATE DEFINER=`root`@`localhost` PROCEDURE `insert_booking`(
     booking_time DATETIME,
     booking_type VARCHAR(100),
     booking_details VARCHAR(1000),
-    prescription VARCHAR(1000)
+    prescription VARCHAR(1000),
+    OUT id_booking INT
 )
 BEGIN
 
 	insert into booking (id_patient, id_doctor, booking_time, type, details, prescription)
     values (id_patient, id_doctor, booking_time, booking_type, booking_details, prescription);
 
+	SET id_booking = LAST_INSERT_ID();
+
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `insert_booking_with_audit` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `insert_booking_with_audit`(
+	id_patient INT,
+    id_doctor INT,
+    booking_time DATETIME,
+    booking_type VARCHAR(100),
+    notif_header VARCHAR(100),
+    notif_message VARCHAR(1000),
+    log_message VARCHAR(1000)
+)
+BEGIN
+	DECLARE new_booking INT;
+	DECLARE EXIT HANDLER FOR SQLEXCEPTION
+	BEGIN
+		ROLLBACK;
+		RESIGNAL;
+	END;
+
+	START TRANSACTION;
+
+	insert into booking (id_patient, id_doctor, booking_time, type)
+    values (id_patient, id_doctor, booking_time, booking_type);
+	SET new_booking = LAST_INSERT_ID();
+
+	INSERT INTO notification (id_patient, header, message) VALUES (id_patient, notif_header, notif_message);
+
+	INSERT INTO log (message, id_patient) VALUES (log_message, id_patient);
+
+	COMMIT;
+
+	select * from booking where booking.id_booking = new_booking;
+
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -872,13 +1167,16 @@ DELIMITER ;
 DELIMITER ;;
 CREATE DEFINER=`root`@`localhost` PROCEDURE `insert_log`(
 	message VARCHAR(1000),
-    id_patient INT
+    id_patient INT,
+    OUT id_log INT
 )
 BEGIN
 	
     INSERT INTO log (message, id_patient)
     VALUES (message, id_patient);
     
+    SET id_log = LAST_INSERT_ID();
+    
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -898,12 +1196,15 @@ DELIMITER ;;
 CREATE DEFINER=`root`@`localhost` PROCEDURE `insert_notification`(
 	id_patient INT,
     header VARCHAR (100),
-    message VARCHAR(1000)
+    message VARCHAR(1000),
+    OUT id_notif INT
 )
 BEGIN
 
 	INSERT INTO notification (id_patient, header, message) VALUES (id_patient, header, message);
 
+	SET id_notif = LAST_INSERT_ID();
+
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -940,6 +1241,34 @@ DELIMITER ;
 /*!50003 SET character_set_client  = @saved_cs_client */ ;
 /*!50003 SET character_set_results = @saved_cs_results */ ;
 /*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `is_booking_slot_taken` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `is_booking_slot_taken`(
+	id_patient INT,
+    id_doctor INT,
+    booking_time DATETIME
+)
+BEGIN
+
+	select
+		exists(select 1 from booking b where b.id_patient = id_patient and b.booking_time = booking_time)
+        or exists(select 1 from booking b where b.id_doctor = id_doctor and b.booking_time = booking_time)
+        as taken;
+
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
 /*!50003 DROP PROCEDURE IF EXISTS `notificationNotNew` */;
 /*!50003 SET @saved_cs_client      = @@character_set_client */ ;
 /*!50003 SET @saved_cs_results     = @@character_set_results */ ;
@@ -961,6 +1290,37 @@ BEGIN
 	WHERE
 		notification.id_notif = id_notif;
 
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `notifications_not_new_patient` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `notifications_not_new_patient`(
+	id_patient INT,
+    id_notifs TEXT
+)
+BEGIN
+
+	UPDATE notification
+    SET
+		is_new = false
+	WHERE
+		notification.id_patient = id_patient AND notification.is_new = true
+        AND (id_notifs IS NULL OR FIND_IN_SET(notification.id_notif, id_notifs));
+
+	SELECT ROW_COUNT() AS updated_count;
+
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -984,9 +1344,66 @@ CREATE DEFINER=`root`@`localhost` PROCEDURE `update_booking`(
     booking_time DATETIME,
     booking_type VARCHAR(100),
     booking_details VARCHAR(1000),
-    prescription VARCHAR(1000)
+    prescription VARCHAR(1000),
+    expected_version INT
+)
+BEGIN
+	DECLARE updated_count INT;
+
+	update booking
+    set
+		booking.id_patient = id_patient,
+        booking.id_doctor = id_doctor,
+        booking.booking_time = booking_time,
+        booking.type = booking_type,
+        booking.details = booking_details,
+        booking.prescription = prescription,
+        booking.version = booking.version + 1
+	where
+		booking.id_booking = id_booking and booking.version = expected_version;
+
+	SET updated_count = ROW_COUNT();
+
+	select booking.*, updated_count from booking where booking.id_booking = id_booking;
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `update_booking_with_audit` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8mb4 */ ;
+/*!50003 SET character_set_results = utf8mb4 */ ;
+/*!50003 SET collation_connection  = utf8mb4_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'STRICT_TRANS_TABLES,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`localhost` PROCEDURE `update_booking_with_audit`(
+	id_booking INT,
+	id_patient INT,
+    id_doctor INT,
+    booking_time DATETIME,
+    booking_type VARCHAR(100),
+    booking_details VARCHAR(1000),
+    prescription VARCHAR(1000),
+    expected_version INT,
+    notif_header VARCHAR(100),
+    notif_message VARCHAR(1000),
+    log_message VARCHAR(1000)
 )
 BEGIN
+	DECLARE updated_count INT;
+	DECLARE EXIT HANDLER FOR SQLEXCEPTION
+	BEGIN
+		ROLLBACK;
+		RESIGNAL;
+	END;
+
+	START TRANSACTION;
+
 	update booking
     set
 		booking.id_patient = id_patient,
@@ -994,9 +1411,23 @@ BEGIN
         booking.booking_time = booking_time,
         booking.type = booking_type,
         booking.details = booking_details,
-        booking.prescription = prescription
+        booking.prescription = prescription,
+        booking.version = booking.version + 1
 	where
-		booking.id_booking = id_booking;
+		booking.id_booking = id_booking and booking.version = expected_version;
+
+	SET updated_count = ROW_COUNT();
+
+	IF updated_count = 1 THEN
+		INSERT INTO notification (id_patient, header, message) VALUES (id_patient, notif_header, notif_message);
+
+		INSERT INTO log (message, id_patient) VALUES (log_message, id_patient);
+	END IF;
+
+	COMMIT;
+
+	select booking.*, updated_count from booking where booking.id_booking = id_booking;
+
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -0,0 +1,131 @@
+package com.group15A.Benchmarks;
+
+import com.group15A.DataAccess.CachingDataAccess;
+import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataAccess.InMemoryDataAccess;
+import com.group15A.DataAccess.LogWriter;
+import com.group15A.DataModel.Patient;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Timestamp;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The backend the benchmarks run against, loaded with the fixture once per trial.
+ *
+ * The embedded backend is the real DataAccess, talking to an embedded MariaDB server through the stored procedures.
+ * The in-memory backend is InMemoryDataAccess. The logic classes are given either backend behind a CachingDataAccess,
+ * as the application does.
+ *
+ * The embedded backend is chosen through a system property read by DataAccess,
+ * so every trial must run in its own fork.
+ *
+ * @author Andrei Constantin
+ */
+@State(Scope.Benchmark)
+public class Backend {
+    public static final String IN_MEMORY = "in-memory";
+    public static final String EMBEDDED = "embedded";
+
+    private static final String DB_URL_PROPERTY = "thegp.db.url";
+    private static final String DUMP_PROPERTY = "thegp.bench.dump";
+    private static final String DEFAULT_DUMP = "../TheGP_Database_24_Mar.sql";
+
+    @Param({IN_MEMORY, EMBEDDED})
+    public String backend;
+
+    @Param({"500"})
+    public int doctors;
+
+    @Param({"100000"})
+    public int patients;
+
+    @Param({"2000000"})
+    public int bookings;
+
+    @Param({"500000"})
+    public int notifications;
+
+    @Param({"2000000"})
+    public int logs;
+
+    private Fixture fixture;
+    private EmbeddedDatabase database;
+    private IDataAccess dataAccess;
+    private IDataAccess logicDataAccess;
+    private LogWriter logWriter;
+    private final AtomicLong nextFreeSlot = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new Fixture(doctors, patients, bookings, notifications, logs);
+        switch (backend) {
+            case IN_MEMORY -> {
+                var inMemory = new InMemoryDataAccess();
+                fixture.load(inMemory);
+                dataAccess = inMemory;
+            }
+            case EMBEDDED -> {
+                database = new EmbeddedDatabase(Path.of(System.getProperty(DUMP_PROPERTY, DEFAULT_DUMP)));
+                try (Connection connection = DriverManager.getConnection(database.getUrl())) {
+                    fixture.load(connection);
+                }
+                System.setProperty(DB_URL_PROPERTY, database.getUrl());
+                dataAccess = new DataAccess();
+            }
+            default -> throw new IllegalArgumentException("Unknown backend "+backend);
+        }
+        logicDataAccess = new CachingDataAccess(dataAccess);
+        logWriter = new LogWriter(logicDataAccess);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        logWriter.close();
+        if (database != null) {
+            database.stop();
+        }
+    }
+
+    public Fixture getFixture() {return fixture;}
+
+    public IDataAccess getDataAccess() {return dataAccess;}
+
+    public IDataAccess getLogicDataAccess() {return logicDataAccess;}
+
+    public LogWriter getLogWriter() {return logWriter;}
+
+    /**
+     * @return the id of a patient of the fixture, picked at random
+     */
+    public int randomPatientID() {
+        return 1 + ThreadLocalRandom.current().nextInt(fixture.getPatientCount());
+    }
+
+    /**
+     * @return a patient of the fixture, picked at random
+     */
+    public Patient randomPatient() {
+        return fixture.getPatient(randomPatientID());
+    }
+
+    /**
+     * Get a booking time nobody has booked yet, after the bookings of the fixture.
+     * Every call returns a different time, so new bookings never clash with each other, whichever doctor they are with
+     *
+     * @return the booking time
+     */
+    public Timestamp nextFreeTime() {
+        return Fixture.getSlotTime(fixture.getFirstFreeDay(), nextFreeSlot.getAndIncrement());
+    }
+}
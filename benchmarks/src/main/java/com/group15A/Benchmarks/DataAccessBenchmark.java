@@ -0,0 +1,75 @@
+package com.group15A.Benchmarks;
+
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataModel.Booking;
+import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.Log;
+import com.group15A.DataModel.Notification;
+import com.group15A.DataModel.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmarks of the Data Access Layer operations used on every page, and of reading a whole table,
+ * run directly against each backend, without the caches
+ *
+ * @author Andrei Constantin
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class DataAccessBenchmark {
+
+    @Benchmark
+    public Patient getPatientByEmail(Backend backend) throws CustomException {
+        return backend.getDataAccess().getPatient(backend.getFixture().getPatientEmail(backend.randomPatientID()));
+    }
+
+    @Benchmark
+    public Patient getPatientByID(Backend backend) throws CustomException {
+        return backend.getDataAccess().getPatient(backend.randomPatientID());
+    }
+
+    @Benchmark
+    public List<Booking> getBookingsOfPatient(Backend backend) throws CustomException {
+        return backend.getDataAccess().getBookings(backend.randomPatient());
+    }
+
+    @Benchmark
+    public Booking createBooking(Backend backend) throws CustomException {
+        IDataAccess dataAccess = backend.getDataAccess();
+        int patientID = backend.randomPatientID();
+        Doctor doctor = dataAccess.getDoctor(backend.getFixture().getPatientDoctorID(patientID));
+        return dataAccess.createBooking(backend.getFixture().getPatient(patientID), doctor, backend.nextFreeTime(), "Routine Checkup");
+    }
+
+    @Benchmark
+    public Log createLog(Backend backend) throws CustomException {
+        return backend.getDataAccess().createLog(backend.randomPatient(), "Benchmark log");
+    }
+
+    @Benchmark
+    public List<Notification> getNotifications(Backend backend) throws CustomException {
+        return backend.getDataAccess().getNotifications(backend.randomPatient());
+    }
+
+    @Benchmark
+    public long streamLogsOfPatient(Backend backend) throws CustomException {
+        int patientID = backend.randomPatientID();
+        try (Stream<Log> logs = backend.getDataAccess().streamLogs()) {
+            return logs.filter(log -> log.getPatientID() == patientID).count();
+        }
+    }
+}
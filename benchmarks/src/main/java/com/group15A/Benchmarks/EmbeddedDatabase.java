@@ -0,0 +1,101 @@
+package com.group15A.Benchmarks;
+
+import ch.vorburger.mariaDB4j.DB;
+import ch.vorburger.mariaDB4j.DBConfiguration;
+import ch.vorburger.mariaDB4j.DBConfigurationBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * An embedded MariaDB server holding the application's tables and stored procedures,
+ * so the database backend can be benchmarked without a MySQL server being installed.
+ * The server listens on a free port and keeps its data in a temporary directory.
+ *
+ * @author Andrei Constantin
+ */
+public class EmbeddedDatabase {
+    private static final String DATABASE_NAME = "thegeneralpractitioner";
+    // MariaDB runs MySQL's versioned comments too, but does not know this one
+    private static final String MYSQL_ONLY_OPTION = "/*!80016 DEFAULT ENCRYPTION='N' */";
+
+    private final DB database;
+    private final String serverUrl;
+
+    /**
+     * Start the server and create the application's database from the given dump
+     *
+     * @param dumpFile the dump which creates the database, such as TheGP_Database_24_Mar.sql
+     * @throws Exception if the server could not be started or the dump could not be run
+     */
+    public EmbeddedDatabase(Path dumpFile) throws Exception {
+        DBConfiguration configuration = DBConfigurationBuilder.newBuilder()
+                .setPort(0)
+                .build();
+        this.database = DB.newEmbeddedDB(configuration);
+        this.database.start();
+        this.serverUrl = "jdbc:mysql://localhost:"+configuration.getPort()+"/";
+
+        try (Connection connection = DriverManager.getConnection(serverUrl+"?user=root&useSSL=false")) {
+            runScript(connection, Files.readString(dumpFile, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * @return the JDBC url of the application's database, in the form DataAccess expects
+     */
+    public String getUrl() {
+        return serverUrl+DATABASE_NAME+"?user=root&useSSL=false&rewriteBatchedStatements=true";
+    }
+
+    /**
+     * Run a dump made by mysqldump, statement by statement,
+     * following the DELIMITER commands which surround the stored procedures
+     *
+     * @param connection the connection to run the dump on
+     * @param script the contents of the dump
+     * @throws SQLException if any statement failed
+     */
+    private static void runScript(Connection connection, String script) throws SQLException {
+        String delimiter = ";";
+        StringBuilder sql = new StringBuilder();
+        try (Statement statement = connection.createStatement()) {
+            for (String line : script.replace(MYSQL_ONLY_OPTION, "").split("\r?\n")) {
+                String trimmed = line.trim();
+                if (sql.length() == 0 && (trimmed.isEmpty() || trimmed.startsWith("--"))) {
+                    continue;
+                }
+                if (trimmed.startsWith("DELIMITER ")) {
+                    delimiter = trimmed.substring("DELIMITER ".length()).trim();
+                    continue;
+                }
+
+                sql.append(line).append('\n');
+                if (trimmed.endsWith(delimiter)) {
+                    String command = sql.toString().trim();
+                    statement.execute(command.substring(0, command.length() - delimiter.length()));
+                    sql.setLength(0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the server
+     *
+     * @throws IOException if the server could not be stopped
+     */
+    public void stop() throws IOException {
+        try {
+            database.stop();
+        } catch (Exception ex) {
+            throw new IOException("Could not stop the embedded database", ex);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.group15A.Benchmarks;
+
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.DataAccess.InMemoryDataAccess;
+import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.Log;
+import com.group15A.DataModel.Notification;
+import com.group15A.DataModel.Patient;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+
+/**
+ * The data the benchmarks run against, generated the same way for every backend so their results can be compared.
+ *
+ * The first 10 doctors are the doctors of the sample database, and the rest are generated.
+ * Every booking is 5 minutes long and falls within the working hours of a day,
+ * with the days of the bookings centred on today, so there are both past and future bookings.
+ * A doctor never has two bookings at the same time, and neither does a patient,
+ * so the fixture keeps the unique keys of the database.
+ *
+ * @author Andrei Constantin
+ */
+public class Fixture {
+    public static final String PASSWORD = "Password1*";
+    private static final String PASS_HASH = "$2a$10$fVYakvqMZGndhiGBISmi8OQo6lwXQuml9xVdTtckogT1Td1H0JG5e";
+    private static final int SAMPLE_DOCTORS = 10;
+    private static final int SLOTS_PER_DAY = 108;
+    private static final LocalTime FIRST_SLOT = LocalTime.of(9, 0);
+    private static final int SLOT_MINUTES = 5;
+    private static final int BATCH_SIZE = 10_000;
+
+    private final int doctorCount;
+    private final int patientCount;
+    private final int bookingCount;
+    private final int notificationCount;
+    private final int logCount;
+    private final LocalDate firstBookingDay;
+    private final Timestamp firstLogTime;
+
+    /**
+     * Constructor for the fixture
+     *
+     * @param doctorCount the number of doctors, including the doctors of the sample database
+     * @param patientCount the number of patients, which must be more than the number of doctors
+     * @param bookingCount the number of bookings
+     * @param notificationCount the number of notifications, half of which are unread
+     * @param logCount the number of logs, spread over the last year
+     */
+    public Fixture(int doctorCount, int patientCount, int bookingCount, int notificationCount, int logCount) {
+        this.doctorCount = Math.max(doctorCount, SAMPLE_DOCTORS);
+        if (patientCount <= this.doctorCount) {
+            throw new IllegalArgumentException("There must be more patients than doctors");
+        }
+        this.patientCount = patientCount;
+        this.bookingCount = bookingCount;
+        this.notificationCount = notificationCount;
+        this.logCount = logCount;
+        this.firstBookingDay = LocalDate.now().minusDays(getBookingDays() / 2);
+        this.firstLogTime = Timestamp.valueOf(LocalDate.now().minusYears(1).atStartOfDay());
+    }
+
+    public int getPatientCount() {return patientCount;}
+
+    /**
+     * @return the number of days the bookings of the fixture are spread over
+     */
+    private long getBookingDays() {
+        long slotsPerDoctor = (bookingCount + doctorCount - 1) / doctorCount;
+        return (slotsPerDoctor + SLOTS_PER_DAY - 1) / SLOTS_PER_DAY;
+    }
+
+    /**
+     * @return the first day after all the bookings of the fixture, and after today,
+     * from which new bookings can be made without clashing with the fixture
+     */
+    public LocalDate getFirstFreeDay() {
+        LocalDate afterBookings = firstBookingDay.plusDays(getBookingDays() + 1);
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        return afterBookings.isAfter(tomorrow) ? afterBookings : tomorrow;
+    }
+
+    /**
+     * Get the time of a slot, counting the slots of every day from the given day
+     *
+     * @param firstDay the day of the first slot
+     * @param slot the index of the slot
+     * @return the start of the slot
+     */
+    public static Timestamp getSlotTime(LocalDate firstDay, long slot) {
+        LocalDate day = firstDay.plusDays(slot / SLOTS_PER_DAY);
+        LocalTime time = FIRST_SLOT.plusMinutes((slot % SLOTS_PER_DAY) * SLOT_MINUTES);
+        return Timestamp.valueOf(day.atTime(time));
+    }
+
+    /**
+     * Get one of the generated doctors
+     *
+     * @param doctorID the id of the doctor, after the doctors of the sample database
+     * @return the doctor
+     */
+    private Doctor getGeneratedDoctor(int doctorID) {
+        return new Doctor(doctorID, "doctor"+doctorID+"@nhs.net", "Doctor", "", "Number"+doctorID,
+                Date.valueOf("1980-01-01"), "Female", "07000000000");
+    }
+
+    /**
+     * Get a patient of the fixture
+     *
+     * @param patientID the id of the patient, from 1 to the number of patients
+     * @return the patient
+     */
+    public Patient getPatient(int patientID) {
+        return new Patient(patientID, getPatientEmail(patientID), PASS_HASH, "Patient", "", "Number"+patientID,
+                Date.valueOf(LocalDate.of(1940, 1, 1).plusDays(patientID % 25_000)), "Male", "07111111111");
+    }
+
+    public String getPatientEmail(int patientID) {
+        return "patient"+patientID+"@email.com";
+    }
+
+    public int getPatientDoctorID(int patientID) {
+        return 1 + patientID % doctorCount;
+    }
+
+    private int getBookingDoctorID(int booking) {
+        return 1 + booking % doctorCount;
+    }
+
+    private int getBookingPatientID(int booking) {
+        return 1 + booking % patientCount;
+    }
+
+    private Timestamp getBookingTime(int booking) {
+        return getSlotTime(firstBookingDay, booking / doctorCount);
+    }
+
+    private int getNotificationPatientID(int notification) {
+        return 1 + notification % patientCount;
+    }
+
+    private int getLogPatientID(int log) {
+        return 1 + log % patientCount;
+    }
+
+    private Timestamp getLogTime(int log) {
+        long yearMs = 365L * 24 * 60 * 60 * 1000;
+        return new Timestamp(firstLogTime.getTime() + (yearMs / Math.max(logCount, 1)) * log);
+    }
+
+    /**
+     * Load the fixture into the in-memory backend
+     *
+     * @param dataAccess the empty in-memory backend
+     * @throws CustomException if the fixture does not fit the keys of the backend
+     */
+    public void load(InMemoryDataAccess dataAccess) throws CustomException {
+        dataAccess.addSampleDoctors();
+        var doctors = new ArrayList<>(dataAccess.getDoctors());
+        for (int doctorID = SAMPLE_DOCTORS + 1; doctorID <= doctorCount; doctorID++) {
+            doctors.add(dataAccess.addDoctor(getGeneratedDoctor(doctorID)));
+        }
+
+        var patients = new ArrayList<Patient>(patientCount);
+        for (int patientID = 1; patientID <= patientCount; patientID++) {
+            Patient patient = getPatient(patientID);
+            patients.add(dataAccess.registerPatient(
+                    new Patient(patient.getEmail(), patient.getPassHash(), patient.getFirstName(), patient.getMiddleName(),
+                            patient.getLastName(), patient.getDob(), patient.getGender(), patient.getPhoneNo()),
+                    doctors.get(getPatientDoctorID(patientID) - 1)
+            ));
+        }
+
+        for (int booking = 0; booking < bookingCount; booking++) {
+            dataAccess.createBooking(
+                    patients.get(getBookingPatientID(booking) - 1),
+                    doctors.get(getBookingDoctorID(booking) - 1),
+                    getBookingTime(booking),
+                    "Routine Checkup"
+            );
+        }
+
+        for (int notification = 0; notification < notificationCount; notification++) {
+            Notification created = dataAccess.createNotification(
+                    patients.get(getNotificationPatientID(notification) - 1), "Notification "+notification, "A benchmark notification");
+            if (notification % 2 == 1) {
+                dataAccess.setNotificationSeen(created);
+            }
+        }
+
+        var logs = new ArrayList<Log>(BATCH_SIZE);
+        for (int log = 0; log < logCount; log++) {
+            logs.add(new Log(null, "Benchmark log "+log, getLogPatientID(log), getLogTime(log)));
+            if (logs.size() == BATCH_SIZE || log == logCount - 1) {
+                dataAccess.createLogs(logs);
+                logs.clear();
+            }
+        }
+    }
+
+    /**
+     * Load the fixture into a database holding the application's schema and the doctors of the sample database.
+     * The rows are inserted directly in batches, since inserting millions of rows one procedure call at a time takes too long
+     *
+     * @param connection a connection to the database
+     * @throws SQLException if the fixture could not be inserted
+     */
+    public void load(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            statement.execute("DELETE FROM log");
+            statement.execute("DELETE FROM notification");
+            statement.execute("DELETE FROM booking");
+            statement.execute("DELETE FROM patient");
+            statement.execute("DELETE FROM doctor WHERE id_doctor > " + SAMPLE_DOCTORS);
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO doctor (id_doctor, email, first_name, middle_name, last_name, date_of_birth, gender, telephone_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int doctorID = SAMPLE_DOCTORS + 1; doctorID <= doctorCount; doctorID++) {
+                Doctor doctor = getGeneratedDoctor(doctorID);
+                statement.setInt(1, doctor.getDoctorID());
+                statement.setString(2, doctor.getEmail());
+                statement.setString(3, doctor.getFirstName());
+                statement.setString(4, doctor.getMiddleName());
+                statement.setString(5, doctor.getLastName());
+                statement.setDate(6, new Date(doctor.getDob().getTime()));
+                statement.setString(7, doctor.getGender());
+                statement.setString(8, doctor.getPhoneNo());
+                addToBatch(connection, statement, doctorID);
+            }
+            statement.executeBatch();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO patient (id_patient, email, password, first_name, middle_name, last_name, date_of_birth, gender, telephone_number, id_doctor) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int patientID = 1; patientID <= patientCount; patientID++) {
+                Patient patient = getPatient(patientID);
+                statement.setInt(1, patient.getPatientID());
+                statement.setString(2, patient.getEmail());
+                statement.setString(3, patient.getPassHash());
+                statement.setString(4, patient.getFirstName());
+                statement.setString(5, patient.getMiddleName());
+                statement.setString(6, patient.getLastName());
+                statement.setDate(7, new Date(patient.getDob().getTime()));
+                statement.setString(8, patient.getGender());
+                statement.setString(9, patient.getPhoneNo());
+                statement.setInt(10, getPatientDoctorID(patientID));
+                addToBatch(connection, statement, patientID);
+            }
+            statement.executeBatch();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO booking (id_patient, id_doctor, booking_time, type) VALUES (?, ?, ?, ?)")) {
+            for (int booking = 0; booking < bookingCount; booking++) {
+                statement.setInt(1, getBookingPatientID(booking));
+                statement.setInt(2, getBookingDoctorID(booking));
+                statement.setTimestamp(3, getBookingTime(booking));
+                statement.setString(4, "Routine Checkup");
+                addToBatch(connection, statement, booking + 1);
+            }
+            statement.executeBatch();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO notification (id_patient, header, message, is_new) VALUES (?, ?, ?, ?)")) {
+            for (int notification = 0; notification < notificationCount; notification++) {
+                statement.setInt(1, getNotificationPatientID(notification));
+                statement.setString(2, "Notification "+notification);
+                statement.setString(3, "A benchmark notification");
+                statement.setBoolean(4, notification % 2 == 0);
+                addToBatch(connection, statement, notification + 1);
+            }
+            statement.executeBatch();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO log (message, id_patient, timestamp) VALUES (?, ?, ?)")) {
+            for (int log = 0; log < logCount; log++) {
+                statement.setString(1, "Benchmark log "+log);
+                statement.setInt(2, getLogPatientID(log));
+                statement.setTimestamp(3, getLogTime(log));
+                addToBatch(connection, statement, log + 1);
+            }
+            statement.executeBatch();
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Add the current row to the batch, sending the batch every BATCH_SIZE rows
+     *
+     * @param connection the connection the batch is committed on
+     * @param statement the statement holding the row
+     * @param rowCount the number of rows added so far, including this one
+     * @throws SQLException if the batch could not be sent
+     */
+    private static void addToBatch(Connection connection, PreparedStatement statement, int rowCount) throws SQLException {
+        statement.addBatch();
+        if (rowCount % BATCH_SIZE == 0) {
+            statement.executeBatch();
+            connection.commit();
+        }
+    }
+}
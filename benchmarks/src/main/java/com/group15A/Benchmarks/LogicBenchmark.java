@@ -0,0 +1,92 @@
+package com.group15A.Benchmarks;
+
+import com.group15A.BusinessLogic.AddBookingLogic;
+import com.group15A.BusinessLogic.AvailabilityEngine;
+import com.group15A.BusinessLogic.DoctorLogic;
+import com.group15A.BusinessLogic.LogInLogic;
+import com.group15A.BusinessLogic.ViewBookingLogic;
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.DataModel.BookingWithDoctor;
+import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.DoctorSlot;
+import com.group15A.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the logic flows behind the pages patients use most:
+ * making a booking, finding the doctor with the earliest free slot, filtering the booking list and logging in
+ *
+ * @author Milovan Gveric
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+public class LogicBenchmark {
+
+    /**
+     * The logic classes, created once per trial on top of the backend
+     */
+    @State(Scope.Benchmark)
+    public static class Logic {
+        private AddBookingLogic addBookingLogic;
+        private DoctorLogic doctorLogic;
+        private ViewBookingLogic viewBookingLogic;
+        private LogInLogic logInLogic;
+        private List<Doctor> doctors;
+
+        @Setup(Level.Trial)
+        public void setUp(Backend backend) throws CustomException {
+            AvailabilityEngine availability = new AvailabilityEngine(backend.getLogicDataAccess());
+            addBookingLogic = new AddBookingLogic(backend.getLogicDataAccess(), availability);
+            doctorLogic = new DoctorLogic(backend.getLogicDataAccess(), availability);
+            doctors = doctorLogic.getDoctors();
+            viewBookingLogic = new ViewBookingLogic(backend.getLogicDataAccess());
+            logInLogic = new LogInLogic(backend.getLogicDataAccess(), backend.getLogWriter());
+        }
+    }
+
+    @Benchmark
+    public LocalDateTime createNewBooking(Backend backend, Logic logic) throws CustomException {
+        LocalDateTime time = backend.nextFreeTime().toLocalDateTime();
+        logic.addBookingLogic.createNewBooking(
+                time.toLocalDate().toString(),
+                String.format("%02d", time.getHour()),
+                String.format("%02d", time.getMinute()),
+                "Routine Checkup",
+                backend.randomPatientID()
+        );
+        return time;
+    }
+
+    @Benchmark
+    public List<DoctorSlot> getEarliestSlots(Logic logic) throws CustomException {
+        return logic.doctorLogic.getEarliestSlots(logic.doctors, logic.doctors.size(), true);
+    }
+
+    @Benchmark
+    public List<BookingWithDoctor> filterBookings(Backend backend, Logic logic) throws CustomException {
+        return logic.viewBookingLogic.filterBookings("Month (All)", String.valueOf(LocalDate.now().getYear()), backend.randomPatientID(), false);
+    }
+
+    @Benchmark
+    public Session login(Backend backend, Logic logic) throws CustomException {
+        return logic.logInLogic.login(backend.getFixture().getPatientEmail(backend.randomPatientID()), Fixture.PASSWORD, false);
+    }
+}
@@ -1,7 +1,8 @@
 package com.group15A.BusinessLogic;
 
 import com.group15A.CustomExceptions.*;
-import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
 import com.group15A.DataModel.Booking;
 import com.group15A.DataModel.Doctor;
 import com.group15A.DataModel.Patient;
@@ -10,6 +11,9 @@ import com.group15A.Utils.ErrorCode;
 import com.group15A.Validator.Validator;
 
 import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -20,15 +24,38 @@ import java.util.List;
  */
 public class AddBookingLogic implements IAddBooking {
     private final Validator validator;
-    private final DataAccess dataAccessLayer;
+    private final IDataAccess dataAccessLayer;
+    private final AvailabilityEngine availability;
+    private final BookingUpdateRetry bookingUpdateRetry;
 
     /**
      * Constructor for the add booking logic
      * @throws DatabaseException if there was an issue connecting to the database
      */
     public AddBookingLogic() throws DatabaseException {
+        this(DataAccessProvider.getDataAccess(), AvailabilityEngine.getShared());
+    }
+
+    /**
+     * Constructor for the add booking logic, using the given data access layer
+     *
+     * @param dataAccessLayer the data access layer to use
+     */
+    public AddBookingLogic(IDataAccess dataAccessLayer) {
+        this(dataAccessLayer, new AvailabilityEngine(dataAccessLayer));
+    }
+
+    /**
+     * Constructor for the add booking logic, using the given data access layer and availability engine
+     *
+     * @param dataAccessLayer the data access layer to use
+     * @param availability the availability engine to use, shared with the other logic classes using the same data access layer
+     */
+    public AddBookingLogic(IDataAccess dataAccessLayer, AvailabilityEngine availability) {
         this.validator = new Validator();
-        this.dataAccessLayer = new DataAccess();
+        this.dataAccessLayer = dataAccessLayer;
+        this.availability = availability;
+        this.bookingUpdateRetry = new BookingUpdateRetry(this.dataAccessLayer);
     }
 
     /**
@@ -52,21 +79,26 @@ public class AddBookingLogic implements IAddBooking {
         Patient patient = this.dataAccessLayer.getPatient(patientID);
         Doctor doctor = this.getPatientDoctor(patient);
         Timestamp bookingDateTime = Timestamp.valueOf(timestamp);
-        // Checks if booking is unique
-        this.isNewBooking(bookingDateTime, patient);
-
-        Booking newBooking = this.dataAccessLayer.createBooking(
-                patient,
-                doctor,
-                bookingDateTime,
-                type
-        );
-
-        // Show a new notification that the booking has been made to the user on the home panel
-        this.dataAccessLayer.createNotification(patient, "Created New Booking", "Created a booking on "+ DataModification.fullDate(bookingDateTime)+" with Dr "+doctor.getFullName());
+        this.isFreeSlot(patient, doctor, bookingDateTime);
 
-        // Create a log to register the scheduling of a booking
-        this.dataAccessLayer.createLog(patient, "Patient "+patient.getFirstName()+" "+patient.getLastName()+" has scheduled a booking with Dr. " + dataAccessLayer.getDoctor(patient).getLastName() + " on " + DataModification.shortDateTime(newBooking.getBookingTime()));
+        // The booking, the notification shown on the home panel and the log are all written in one transaction.
+        // If the patient or the doctor has taken the slot since it was checked, an ExistingBookingException is thrown
+        try {
+            this.dataAccessLayer.createBookingWithAudit(
+                    patient,
+                    doctor,
+                    bookingDateTime,
+                    type,
+                    "Created New Booking",
+                    "Created a booking on "+ DataModification.fullDate(bookingDateTime)+" with Dr "+doctor.getFullName(),
+                    "Patient "+patient.getFirstName()+" "+patient.getLastName()+" has scheduled a booking with Dr. " + doctor.getLastName() + " on " + DataModification.shortDateTime(bookingDateTime)
+            );
+        } catch (ExistingBookingException e) {
+            // Someone else took the slot, so the doctor's free slots for that day are out of date
+            this.availability.invalidate(doctor.getDoctorID(), bookingDateTime.toLocalDateTime().toLocalDate());
+            throw e;
+        }
+        this.availability.markTaken(doctor.getDoctorID(), bookingDateTime);
     }
 
     /**
@@ -96,38 +128,6 @@ public class AddBookingLogic implements IAddBooking {
         }
     }
 
-    /**
-     * Checks if the patient hasn't already made the booking
-     * @param bookingDateTime the booking time
-     * @param patient the patient object
-     * @throws CustomException if booking is not unique
-     */
-    private void isNewBooking(Timestamp bookingDateTime, Patient patient) throws CustomException {
-        // Finally, check if booking with the same time had already been made
-        if (!this.verifyBookingIsNew(bookingDateTime, patient)) {
-            throw new ExistingBookingException();
-        }
-    }
-
-    /**
-     * Used by isNewBooking to check against all patient bookings for no matching booking
-     * @param bookingTime the booking to be checked
-     * @param patient
-     * @return true or false if booking is unique or not
-     * @throws CustomException if issues with getBookings from the DAL
-     */
-    private Boolean verifyBookingIsNew(Timestamp bookingTime, Patient patient) throws CustomException {
-        List<Booking> allPatientBookings = this.dataAccessLayer.getBookings(patient);
-
-        for (Booking b : allPatientBookings) {
-            if (b.getBookingTime().equals(bookingTime)) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     /**
      * Checks if date + hour + minute is in the format: yyyy-mm-dd hh:mm:ss
      * @param hour
@@ -151,34 +151,105 @@ public class AddBookingLogic implements IAddBooking {
      * @param hour new hour
      * @param minute new minute
      * @param patientID
-     * @param booking booking to be edited and then updated in the database
-     * @throws CustomException If any issues connecting to the database or updating the booking
+     * @param booking booking to be rescheduled, which is not changed
+     * @return the rescheduled booking, as it was saved
+     * @throws CustomException If any issues connecting to the database or updating the booking,
+     *                         including a BookingConflictException if the booking kept being changed by someone else
      */
     @Override
-    public void rescheduleBooking(String date, String hour, String minute, String type, Integer patientID, Booking booking) throws CustomException {
+    public Booking rescheduleBooking(String date, String hour, String minute, String type, Integer patientID, Booking booking) throws CustomException {
         this.correctDateTimeFormat(hour, minute, date);
         this.correctBookingType(type);
 
-        Timestamp oldBookingTime = booking.getBookingTime();
-        String oldBookingTimestamp = DataModification.fullDate(oldBookingTime);
-
-        booking.setBookingTime(Timestamp.valueOf(date+" "+hour+":"+minute+":00"));
-        booking.setType(type);
-        this.isImpossibleBooking(booking.getBookingTime().toString());
+        Timestamp newBookingTime = Timestamp.valueOf(date+" "+hour+":"+minute+":00");
+        this.isImpossibleBooking(newBookingTime.toString());
+        this.isNewBookingTime(booking, newBookingTime);
         Patient patient = this.dataAccessLayer.getPatient(patientID);
         Doctor doctor = this.getPatientDoctor(patient);
-        this.isNewBooking(booking.getBookingTime(), patient);
-
-        booking = this.dataAccessLayer.updateBooking(booking);
-        this.dataAccessLayer.createNotification(
-                patient,
-                "Rescheduled Booking",
-                "Changed booking with Dr "+doctor.getFullName()+", from "+oldBookingTimestamp+
-                        " to "+DataModification.fullDate(booking.getBookingTime())
-        );
-
-        // Create a log to register the rescheduling of a booking
-        this.dataAccessLayer.createLog(patient, "Patient "+patient.getFirstName()+" "+patient.getLastName()+" has rescheduled a booking with Dr. " + dataAccessLayer.getDoctor(patient).getLastName() + " from " + DataModification.shortDateTime(oldBookingTime) + " to " + DataModification.shortDateTime(booking.getBookingTime()));
+        this.isFreeSlot(patient, doctor, newBookingTime);
+
+        // The booking is updated, and its notification and log are written, in one transaction.
+        // If the booking was changed by someone else in the meantime, the change is made again to the latest copy
+        Booking rescheduledBooking;
+        try {
+            rescheduledBooking = this.bookingUpdateRetry.update(booking, latest -> {
+                Timestamp previousTime = latest.getBookingTime();
+                latest.setBookingTime(newBookingTime);
+                latest.setType(type);
+                Booking updatedBooking = this.dataAccessLayer.updateBookingWithAudit(
+                        latest,
+                        "Rescheduled Booking",
+                        "Changed booking with Dr "+doctor.getFullName()+", from "+DataModification.fullDate(previousTime)+
+                                " to "+DataModification.fullDate(newBookingTime),
+                        "Patient "+patient.getFirstName()+" "+patient.getLastName()+" has rescheduled a booking with Dr. " + doctor.getLastName() + " from " + DataModification.shortDateTime(previousTime) + " to " + DataModification.shortDateTime(newBookingTime)
+                );
+                // Only the attempt which was saved frees the time it moved the booking from
+                this.availability.markFree(latest.getDoctorID(), previousTime);
+                return updatedBooking;
+            });
+        } catch (ExistingBookingException e) {
+            this.availability.invalidate(booking.getDoctorID(), newBookingTime.toLocalDateTime().toLocalDate());
+            throw e;
+        }
+        this.availability.markTaken(rescheduledBooking.getDoctorID(), newBookingTime);
+
+        return rescheduledBooking;
+    }
+
+    /**
+     * Checks with a single indexed lookup that neither the patient nor the doctor has a booking at the given time,
+     * so a taken slot is rejected before the transaction which writes the booking is started.
+     * A booking made after the check is still rejected by the database's unique keys
+     * @param patient the patient making the booking
+     * @param doctor the patient's doctor
+     * @param bookingTime the time of the booking
+     * @throws ExistingBookingException if the patient or the doctor already has a booking at that time
+     * @throws CustomException if any issues connecting to the database
+     */
+    private void isFreeSlot(Patient patient, Doctor doctor, Timestamp bookingTime) throws CustomException {
+        if (this.dataAccessLayer.isBookingSlotTaken(patient.getPatientID(), doctor.getDoctorID(), bookingTime)) {
+            // The slot looked free, so the doctor's free slots for that day are out of date
+            this.availability.invalidate(doctor.getDoctorID(), bookingTime.toLocalDateTime().toLocalDate());
+            throw new ExistingBookingException();
+        }
+    }
+
+    /**
+     * Checks that a booking is being moved to a different time.
+     * Clashes with other bookings are caught by the database, but the booking cannot clash with itself,
+     * so moving it to the time it already has is caught here
+     * @param booking the booking being rescheduled
+     * @param newBookingTime the time it is being moved to
+     * @throws ExistingBookingException if the booking is already at that time
+     */
+    private void isNewBookingTime(Booking booking, Timestamp newBookingTime) throws ExistingBookingException {
+        if (newBookingTime.equals(booking.getBookingTime())) {
+            throw new ExistingBookingException();
+        }
+    }
+
+    /**
+     * Gets the times on the given day at which the doctor has no booking, leaving out the times which have passed
+     * @param doctor the doctor
+     * @param day the day
+     * @return the start times of the free slots, from the earliest to the latest
+     * @throws CustomException if any issues connecting to the database or loading the doctor's bookings
+     */
+    @Override
+    public List<LocalTime> getFreeSlots(Doctor doctor, LocalDate day) throws CustomException {
+        return this.availability.getFreeSlots(doctor, day);
+    }
+
+    /**
+     * Gets the earliest times from now on at which the doctor has no booking
+     * @param doctor the doctor
+     * @param count the maximum number of times to return
+     * @return the free slots, from the earliest to the latest
+     * @throws CustomException if any issues connecting to the database or loading the doctor's bookings
+     */
+    @Override
+    public List<LocalDateTime> getNextFreeSlots(Doctor doctor, int count) throws CustomException {
+        return this.availability.getNextFreeSlots(doctor, LocalDateTime.now(), count);
     }
 
     /**
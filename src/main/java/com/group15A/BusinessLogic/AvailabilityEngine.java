@@ -0,0 +1,351 @@
+package com.group15A.BusinessLogic;
+
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.CustomExceptions.DatabaseException;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.DoctorSlot;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Keeps track of which booking slots of each doctor are free
+ *
+ * A day has a slot every 5 minutes from 9:00 to 17:55, and the taken slots of a doctor's day
+ * are kept in a bitmap. The bitmaps are built from one range query over several days,
+ * updated when bookings are made, rescheduled or deleted through this program,
+ * and loaded again once they are old enough that other users may have booked in the meantime.
+ * When searching across doctors, the bookings of all doctors are loaded together, one window of days at a time.
+ * The logic classes of the application share one engine, so a booking made on one page is seen by the others
+ *
+ * @author Milovan Gveric
+ */
+public class AvailabilityEngine {
+    public static final LocalTime FIRST_SLOT = LocalTime.of(9, 0);
+    public static final int SLOT_MINUTES = 5;
+    public static final int SLOTS_PER_DAY = 108;
+
+    private static final int DAYS_PER_LOAD = 14;
+    private static final long STALE_AFTER_MS = 60_000;
+    private static final int MAX_SEARCH_DAYS = 366;
+
+    private static AvailabilityEngine sharedEngine;
+
+    private final IDataAccess dataAccessLayer;
+    private final long staleAfterMs;
+    private final Map<Integer, Map<LocalDate, DaySlots>> takenSlots = new HashMap<>();
+
+    /**
+     * Constructor for the availability engine
+     *
+     * @param dataAccessLayer the data access layer used to load the bookings
+     */
+    public AvailabilityEngine(IDataAccess dataAccessLayer) {
+        this(dataAccessLayer, STALE_AFTER_MS);
+    }
+
+    /**
+     * Constructor for the availability engine
+     *
+     * @param dataAccessLayer the data access layer used to load the bookings
+     * @param staleAfterMs how long loaded bookings are used before they are loaded again
+     */
+    public AvailabilityEngine(IDataAccess dataAccessLayer, long staleAfterMs) {
+        this.dataAccessLayer = dataAccessLayer;
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    /**
+     * Gets the engine of the shared data access layer, creating it on first use
+     *
+     * @return the shared availability engine
+     * @throws DatabaseException if there was an issue connecting to the database
+     */
+    public static synchronized AvailabilityEngine getShared() throws DatabaseException {
+        if (sharedEngine == null) {
+            sharedEngine = new AvailabilityEngine(DataAccessProvider.getDataAccess());
+        }
+        return sharedEngine;
+    }
+
+    /**
+     * Gets the free slots of the doctor on the given day, leaving out the slots which have already passed
+     *
+     * @param doctor the doctor
+     * @param day the day
+     * @return the start times of the free slots, from the earliest to the latest
+     * @throws CustomException if there were issues loading the doctor's bookings
+     */
+    public synchronized List<LocalTime> getFreeSlots(Doctor doctor, LocalDate day) throws CustomException {
+        List<LocalTime> freeSlots = new ArrayList<>();
+        int firstIndex = firstBookableIndex(day, LocalDateTime.now());
+        if (firstIndex >= SLOTS_PER_DAY) {
+            return freeSlots;
+        }
+
+        BitSet taken = getDay(doctor, day).taken;
+        for (int i = taken.nextClearBit(firstIndex); i < SLOTS_PER_DAY; i = taken.nextClearBit(i + 1)) {
+            freeSlots.add(slotTime(i));
+        }
+        return freeSlots;
+    }
+
+    /**
+     * Gets the earliest free slots of the doctor after the given time, searching up to a year ahead
+     *
+     * @param doctor the doctor
+     * @param from the time to search from
+     * @param count the maximum number of slots to return
+     * @return the free slots, from the earliest to the latest
+     * @throws CustomException if there were issues loading the doctor's bookings
+     */
+    public synchronized List<LocalDateTime> getNextFreeSlots(Doctor doctor, LocalDateTime from, int count) throws CustomException {
+        List<LocalDateTime> freeSlots = new ArrayList<>();
+        LocalDate day = from.toLocalDate();
+        for (int d = 0; d < MAX_SEARCH_DAYS && freeSlots.size() < count; d++, day = day.plusDays(1)) {
+            int firstIndex = firstBookableIndex(day, from);
+            if (firstIndex >= SLOTS_PER_DAY) {
+                continue;
+            }
+
+            BitSet taken = getDay(doctor, day).taken;
+            for (int i = taken.nextClearBit(firstIndex); i < SLOTS_PER_DAY && freeSlots.size() < count; i = taken.nextClearBit(i + 1)) {
+                freeSlots.add(LocalDateTime.of(day, slotTime(i)));
+            }
+        }
+        return freeSlots;
+    }
+
+    /**
+     * Gets the earliest free slots across the given doctors after the given time, searching up to a year ahead.
+     *
+     * Each doctor has a cursor in a priority queue, ordered by time. A cursor which has not been resolved
+     * stands for the start of a day (or the time after a returned slot), and resolving it looks at that day only,
+     * so the search never loads more days than are needed for the slots it returns
+     *
+     * @param doctors the doctors to search, where earlier doctors come first if two slots start at the same time
+     * @param from the time to search from
+     * @param count the maximum number of slots to return
+     * @param onePerDoctor true to return only the earliest slot of each doctor
+     * @return the free slots with their doctors, from the earliest to the latest
+     * @throws CustomException if there were issues loading the bookings
+     */
+    public synchronized List<DoctorSlot> getEarliestSlots(List<Doctor> doctors, LocalDateTime from, int count, boolean onePerDoctor) throws CustomException {
+        List<DoctorSlot> earliestSlots = new ArrayList<>();
+        LocalDate lastDay = from.toLocalDate().plusDays(MAX_SEARCH_DAYS - 1);
+        PriorityQueue<SlotCursor> cursors = new PriorityQueue<>(
+                Comparator.comparing((SlotCursor cursor) -> cursor.time).thenComparingInt(cursor -> cursor.doctorIndex)
+        );
+        for (int i = 0; i < doctors.size(); i++) {
+            cursors.add(new SlotCursor(i, from, false));
+        }
+
+        while (earliestSlots.size() < count && !cursors.isEmpty()) {
+            SlotCursor cursor = cursors.poll();
+            Doctor doctor = doctors.get(cursor.doctorIndex);
+
+            if (cursor.isSlot) {
+                earliestSlots.add(new DoctorSlot(doctor, cursor.time));
+                if (!onePerDoctor) {
+                    cursors.add(new SlotCursor(cursor.doctorIndex, cursor.time, false));
+                }
+                continue;
+            }
+
+            LocalDate day = cursor.time.toLocalDate();
+            int firstIndex = firstBookableIndex(day, cursor.time);
+            int index = (firstIndex < SLOTS_PER_DAY) ? getDayOfAll(doctors, doctor, day).taken.nextClearBit(firstIndex) : SLOTS_PER_DAY;
+            if (index < SLOTS_PER_DAY) {
+                cursors.add(new SlotCursor(cursor.doctorIndex, LocalDateTime.of(day, slotTime(index)), true));
+            } else if (day.isBefore(lastDay)) {
+                cursors.add(new SlotCursor(cursor.doctorIndex, day.plusDays(1).atStartOfDay(), false));
+            }
+        }
+        return earliestSlots;
+    }
+
+    /**
+     * Marks a slot as taken, after a booking has been made or moved to it
+     *
+     * @param doctorID the id of the booking's doctor
+     * @param bookingTime the time of the booking
+     */
+    public synchronized void markTaken(int doctorID, Timestamp bookingTime) {
+        setSlot(doctorID, bookingTime.toLocalDateTime(), true);
+    }
+
+    /**
+     * Marks a slot as free, after a booking has been deleted or moved away from it
+     *
+     * @param doctorID the id of the booking's doctor
+     * @param bookingTime the time of the booking
+     */
+    public synchronized void markFree(int doctorID, Timestamp bookingTime) {
+        setSlot(doctorID, bookingTime.toLocalDateTime(), false);
+    }
+
+    /**
+     * Forget what is known about a doctor's day, so it is loaded again next time,
+     * e.g. when a booking was rejected for a slot which looked free
+     *
+     * @param doctorID the id of the doctor
+     * @param day the day
+     */
+    public synchronized void invalidate(int doctorID, LocalDate day) {
+        Map<LocalDate, DaySlots> days = takenSlots.get(doctorID);
+        if (days != null) {
+            days.remove(day);
+        }
+    }
+
+    private void setSlot(int doctorID, LocalDateTime time, boolean isTaken) {
+        int index = slotIndex(time.toLocalTime());
+        DaySlots daySlots = takenSlots.getOrDefault(doctorID, Map.of()).get(time.toLocalDate());
+        if (index >= 0 && daySlots != null) {
+            daySlots.taken.set(index, isTaken);
+        }
+    }
+
+    /**
+     * Gets the taken slots of the doctor's day, loading them (and the following days) if they are unknown or stale
+     */
+    private DaySlots getDay(Doctor doctor, LocalDate day) throws CustomException {
+        Map<LocalDate, DaySlots> days = takenSlots.computeIfAbsent(doctor.getDoctorID(), id -> new HashMap<>());
+        DaySlots daySlots = days.get(day);
+        if (daySlots == null || System.currentTimeMillis() - daySlots.loadedAt > staleAfterMs) {
+            loadDays(doctor, days, day);
+            daySlots = days.get(day);
+        }
+        return daySlots;
+    }
+
+    /**
+     * Gets the taken slots of the doctor's day, loading the bookings of all the doctors searched if they are unknown or stale
+     */
+    private DaySlots getDayOfAll(List<Doctor> doctors, Doctor doctor, LocalDate day) throws CustomException {
+        DaySlots daySlots = takenSlots.computeIfAbsent(doctor.getDoctorID(), id -> new HashMap<>()).get(day);
+        if (daySlots == null || System.currentTimeMillis() - daySlots.loadedAt > staleAfterMs) {
+            loadDays(doctors, day);
+            daySlots = takenSlots.get(doctor.getDoctorID()).get(day);
+        }
+        return daySlots;
+    }
+
+    /**
+     * Build the bitmaps of several days from a single query of the doctor's booking times
+     */
+    private void loadDays(Doctor doctor, Map<LocalDate, DaySlots> days, LocalDate firstDay) throws CustomException {
+        LocalDate endDay = firstDay.plusDays(DAYS_PER_LOAD);
+        List<Timestamp> bookingTimes = this.dataAccessLayer.getBookingTimes(
+                doctor,
+                Timestamp.valueOf(firstDay.atStartOfDay()),
+                Timestamp.valueOf(endDay.atStartOfDay())
+        );
+        fillDays(days, firstDay, endDay, bookingTimes);
+    }
+
+    /**
+     * Build the bitmaps of several days for all the given doctors from a single query of every doctor's booking times
+     */
+    private void loadDays(List<Doctor> doctors, LocalDate firstDay) throws CustomException {
+        LocalDate endDay = firstDay.plusDays(DAYS_PER_LOAD);
+        Map<Integer, List<Timestamp>> bookingTimes = this.dataAccessLayer.getBookingTimes(
+                Timestamp.valueOf(firstDay.atStartOfDay()),
+                Timestamp.valueOf(endDay.atStartOfDay())
+        );
+
+        for (Doctor doctor : doctors) {
+            fillDays(
+                    takenSlots.computeIfAbsent(doctor.getDoctorID(), id -> new HashMap<>()),
+                    firstDay,
+                    endDay,
+                    bookingTimes.getOrDefault(doctor.getDoctorID(), List.of())
+            );
+        }
+    }
+
+    /**
+     * Replace the bitmaps of a doctor's days from the first day up to (not including) the end day
+     */
+    private void fillDays(Map<LocalDate, DaySlots> days, LocalDate firstDay, LocalDate endDay, List<Timestamp> bookingTimes) {
+        long now = System.currentTimeMillis();
+        for (LocalDate day = firstDay; day.isBefore(endDay); day = day.plusDays(1)) {
+            days.put(day, new DaySlots(now));
+        }
+        for (Timestamp bookingTime : bookingTimes) {
+            LocalDateTime time = bookingTime.toLocalDateTime();
+            int index = slotIndex(time.toLocalTime());
+            if (index >= 0) {
+                days.get(time.toLocalDate()).taken.set(index);
+            }
+        }
+
+        // Days which have passed can no longer be booked
+        days.keySet().removeIf(day -> day.isBefore(firstDay) && day.isBefore(LocalDate.now()));
+    }
+
+    /**
+     * @return the index of the first slot of the day which starts after the given time
+     */
+    private static int firstBookableIndex(LocalDate day, LocalDateTime from) {
+        if (day.isBefore(from.toLocalDate())) {
+            return SLOTS_PER_DAY;
+        }
+        if (day.isAfter(from.toLocalDate()) || from.toLocalTime().isBefore(FIRST_SLOT)) {
+            return 0;
+        }
+
+        long minutes = Duration.between(FIRST_SLOT, from.toLocalTime()).toMinutes();
+        return (int) Math.min(SLOTS_PER_DAY, minutes / SLOT_MINUTES + 1);
+    }
+
+    /**
+     * @return the index of the slot starting at the given time, or -1 if no slot starts then
+     */
+    private static int slotIndex(LocalTime time) {
+        long minutes = Duration.between(FIRST_SLOT, time).toMinutes();
+        if (minutes < 0 || minutes % SLOT_MINUTES != 0 || minutes / SLOT_MINUTES >= SLOTS_PER_DAY
+                || time.getSecond() != 0 || time.getNano() != 0) {
+            return -1;
+        }
+        return (int) (minutes / SLOT_MINUTES);
+    }
+
+    private static LocalTime slotTime(int index) {
+        return FIRST_SLOT.plusMinutes((long) index * SLOT_MINUTES);
+    }
+
+    /**
+     * Where the search for one of the doctors has got to: either a free slot of the doctor,
+     * or a time after which the doctor's next free slot has not been looked for yet
+     */
+    private static class SlotCursor {
+        private final int doctorIndex;
+        private final LocalDateTime time;
+        private final boolean isSlot;
+
+        private SlotCursor(int doctorIndex, LocalDateTime time, boolean isSlot) {
+            this.doctorIndex = doctorIndex;
+            this.time = time;
+            this.isSlot = isSlot;
+        }
+    }
+
+    /**
+     * The taken slots of one of a doctor's days, and when they were loaded
+     */
+    private static class DaySlots {
+        private final BitSet taken = new BitSet(SLOTS_PER_DAY);
+        private final long loadedAt;
+
+        private DaySlots(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.group15A.BusinessLogic;
+
+import com.group15A.CustomExceptions.BookingConflictException;
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataModel.Booking;
+
+/**
+ * Retries booking updates which were rejected because the booking was changed by someone else.
+ *
+ * Bookings are updated optimistically: an update only succeeds if the booking's version is unchanged
+ * since it was read. When it has changed, the latest copy of the booking is read,
+ * the change is applied to it again and the update is retried, up to MAX_ATTEMPTS times.
+ * Each attempt changes a copy of the booking, so the caller's booking is left as it was,
+ * and the caller is given the result of the update which succeeded
+ *
+ * @author Milovan Gveric
+ */
+public class BookingUpdateRetry {
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final IDataAccess dataAccessLayer;
+
+    /**
+     * Constructor for the booking update retry helper
+     *
+     * @param dataAccessLayer the data access layer used to read the latest copy of a booking
+     */
+    public BookingUpdateRetry(IDataAccess dataAccessLayer) {
+        this.dataAccessLayer = dataAccessLayer;
+    }
+
+    /**
+     * Apply a change to a booking, reading the booking again and retrying if it was changed by someone else
+     *
+     * @param booking the booking as it was read, which is not changed
+     * @param update applies the change to the given copy of the booking and saves it
+     * @param <T> the type of the update's result
+     * @return the result of the update which succeeded
+     * @throws BookingConflictException if the booking kept being changed by someone else
+     * @throws CustomException if the update failed for any other reason
+     */
+    public <T> T update(Booking booking, BookingUpdate<T> update) throws CustomException {
+        Booking latest = booking;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return update.apply(copyOf(latest));
+            } catch (BookingConflictException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                latest = this.dataAccessLayer.getBooking(booking.getBookingID());
+            }
+        }
+    }
+
+    /**
+     * @param booking the booking to copy
+     * @return a copy of the booking, which can be changed without changing the original
+     */
+    private static Booking copyOf(Booking booking) {
+        return new Booking(
+                booking.getBookingID(),
+                booking.getDoctorID(),
+                booking.getPatientID(),
+                booking.getBookingTime(),
+                booking.getTimestamp(),
+                booking.getType(),
+                booking.getDetails(),
+                booking.getPrescription(),
+                booking.getVersion()
+        );
+    }
+
+    /**
+     * A change to a booking, which can be applied again to a newer copy of the booking
+     *
+     * @param <T> the type of the update's result
+     */
+    @FunctionalInterface
+    public interface BookingUpdate<T> {
+        /**
+         * Apply the change to the given copy of the booking and save it
+         *
+         * @param booking the copy of the booking to change
+         * @return the result of the update
+         * @throws CustomException if the booking could not be saved
+         */
+        T apply(Booking booking) throws CustomException;
+    }
+}
@@ -1,9 +1,13 @@
 package com.group15A.BusinessLogic;
 
+import com.group15A.CustomExceptions.CustomException;
 import com.group15A.CustomExceptions.DatabaseException;
-import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
 import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.DoctorSlot;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -14,14 +18,35 @@ import java.util.List;
  * @author Wenbo Wu
  */
 public class DoctorLogic implements IDoctor {
-    private final DataAccess dataAccessLayer;
+    private final IDataAccess dataAccessLayer;
+    private final AvailabilityEngine availability;
 
     /**
      * Constructor for the doctor logic
      * @throws DatabaseException if there was an issue connecting to the database
      */
     public DoctorLogic() throws DatabaseException {
-        this.dataAccessLayer = new DataAccess();
+        this(DataAccessProvider.getDataAccess(), AvailabilityEngine.getShared());
+    }
+
+    /**
+     * Constructor for the doctor logic, using the given data access layer
+     *
+     * @param dataAccessLayer the data access layer to use
+     */
+    public DoctorLogic(IDataAccess dataAccessLayer) {
+        this(dataAccessLayer, new AvailabilityEngine(dataAccessLayer));
+    }
+
+    /**
+     * Constructor for the doctor logic, using the given data access layer and availability engine
+     *
+     * @param dataAccessLayer the data access layer to use
+     * @param availability the availability engine to use, shared with the other logic classes using the same data access layer
+     */
+    public DoctorLogic(IDataAccess dataAccessLayer, AvailabilityEngine availability) {
+        this.dataAccessLayer = dataAccessLayer;
+        this.availability = availability;
     }
 
     /**
@@ -34,4 +59,19 @@ public class DoctorLogic implements IDoctor {
     public List<Doctor> getDoctors() throws DatabaseException {
         return dataAccessLayer.getDoctors();
     }
+
+    /**
+     * Finds the earliest free booking slots from now on across the given doctors,
+     * e.g. to find out which doctor can see a patient soonest
+     *
+     * @param doctors the doctors to search
+     * @param count the maximum number of slots to return
+     * @param onePerDoctor true to return only the earliest slot of each doctor
+     * @return the free slots with their doctors, from the earliest to the latest
+     * @throws CustomException if there was an issue getting the bookings from the database
+     */
+    @Override
+    public List<DoctorSlot> getEarliestSlots(List<Doctor> doctors, int count, boolean onePerDoctor) throws CustomException {
+        return availability.getEarliestSlots(doctors, LocalDateTime.now(), count, onePerDoctor);
+    }
 }
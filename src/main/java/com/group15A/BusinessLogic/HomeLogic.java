@@ -4,11 +4,15 @@ import com.group15A.CustomExceptions.CustomException;
 import com.group15A.CustomExceptions.DatabaseException;
 import com.group15A.CustomExceptions.InvalidDataException;
 import com.group15A.CustomExceptions.PatientNotFoundException;
-import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataAccess.LogWriter;
 import com.group15A.DataModel.Notification;
+import com.group15A.DataModel.NotificationChanges;
 import com.group15A.DataModel.Patient;
 import com.group15A.Session;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -17,7 +21,10 @@ import java.util.List;
  * @author Milovan Gveric
  */
 public class HomeLogic implements IHome {
-    private final DataAccess dataAccessLayer;
+    public static final int NOTIFICATION_PAGE_SIZE = 20;
+
+    private final IDataAccess dataAccessLayer;
+    private final LogWriter logWriter;
 
     /**
      * Constructor for home logic
@@ -25,7 +32,18 @@ public class HomeLogic implements IHome {
      * @throws DatabaseException if issues connecting to database
      */
     public HomeLogic() throws DatabaseException {
-        this.dataAccessLayer = new DataAccess();
+        this(DataAccessProvider.getDataAccess(), DataAccessProvider.getLogWriter());
+    }
+
+    /**
+     * Constructor for home logic, using the given data access layer
+     *
+     * @param dataAccessLayer the data access layer to use
+     * @param logWriter the writer used to record logs in the background
+     */
+    public HomeLogic(IDataAccess dataAccessLayer, LogWriter logWriter) {
+        this.dataAccessLayer = dataAccessLayer;
+        this.logWriter = logWriter;
     }
 
     /**
@@ -40,6 +58,72 @@ public class HomeLogic implements IHome {
         return this.dataAccessLayer.getNotifications(patient);
     }
 
+    /**
+     * Gets the changes to the patient's notifications since the last time they were read:
+     * the notifications created after the given one, the ids of the given notifications that have been read since,
+     * and the number of notifications that are still unread
+     *
+     * @param patient the patient whose notifications you want to get
+     * @param afterNotifID the id of the newest notification already shown, or null to get all notifications
+     * @param unreadNotifIDs the ids of the notifications shown as unread
+     * @return the changes to the patient's notifications
+     * @throws CustomException if issues with patient or notifications in database
+     */
+    @Override
+    public NotificationChanges getNotificationChanges(Patient patient, Integer afterNotifID, Collection<Integer> unreadNotifIDs) throws CustomException {
+        return this.dataAccessLayer.getNotificationChanges(patient, afterNotifID, unreadNotifIDs);
+    }
+
+    /**
+     * Gets the number of unread notifications of the patient
+     *
+     * @param patient the patient whose notifications you want to count
+     * @return the number of unread notifications
+     * @throws CustomException if issues with patient or notifications in database
+     */
+    @Override
+    public int countUnreadNotifications(Patient patient) throws CustomException {
+        return this.dataAccessLayer.countUnreadNotifications(patient);
+    }
+
+    /**
+     * Gets the number of read notifications of the patient
+     *
+     * @param patient the patient whose notifications you want to count
+     * @return the number of read notifications
+     * @throws CustomException if issues with patient or notifications in database
+     */
+    @Override
+    public int countArchivedNotifications(Patient patient) throws CustomException {
+        return this.dataAccessLayer.countArchivedNotifications(patient);
+    }
+
+    /**
+     * Gets the next page of the patient's unread notifications, from the newest to the oldest
+     *
+     * @param patient the patient whose notifications you want to get
+     * @param beforeNotifID the id of the oldest unread notification already shown, or null to get the first page
+     * @return at most NOTIFICATION_PAGE_SIZE unread notifications
+     * @throws CustomException if issues with patient or notifications in database
+     */
+    @Override
+    public List<Notification> getUnreadNotifications(Patient patient, Integer beforeNotifID) throws CustomException {
+        return this.dataAccessLayer.getUnreadNotifications(patient, beforeNotifID, NOTIFICATION_PAGE_SIZE);
+    }
+
+    /**
+     * Gets the next page of the patient's read notifications, from the newest to the oldest
+     *
+     * @param patient the patient whose notifications you want to get
+     * @param beforeNotifID the id of the oldest read notification already shown, or null to get the first page
+     * @return at most NOTIFICATION_PAGE_SIZE read notifications
+     * @throws CustomException if issues with patient or notifications in database
+     */
+    @Override
+    public List<Notification> getArchivedNotifications(Patient patient, Integer beforeNotifID) throws CustomException {
+        return this.dataAccessLayer.getArchivedNotifications(patient, beforeNotifID, NOTIFICATION_PAGE_SIZE);
+    }
+
     /**
      * Get the patient from the integer id
      *
@@ -66,12 +150,37 @@ public class HomeLogic implements IHome {
         this.dataAccessLayer.setNotificationSeen(notification);
     }
 
+    /**
+     * Marks the given notifications of the patient as read in a single update
+     *
+     * @param patient the patient whose notifications are read
+     * @param notifIDs the ids of the notifications to be marked as read
+     * @return the number of notifications which were marked as read
+     * @throws CustomException if issues in updating the notification records in the database
+     */
+    @Override
+    public int readNotifications(Patient patient, Collection<Integer> notifIDs) throws CustomException {
+        return this.dataAccessLayer.setNotificationsSeen(patient, notifIDs);
+    }
+
+    /**
+     * Marks all of the patient's unread notifications as read in a single update
+     *
+     * @param patient the patient whose notifications are read
+     * @return the number of notifications which were marked as read
+     * @throws CustomException if issues in updating the notification records in the database
+     */
+    @Override
+    public int readAllNotifications(Patient patient) throws CustomException {
+        return this.dataAccessLayer.setNotificationsSeen(patient);
+    }
+
     /**
      * Logs the log-out of the patient in the current session
      */
     @Override
     public void logOut() throws Exception {
         Patient patient = this.dataAccessLayer.getPatient(Session.loadFromFile().getLoggedInPatientID());
-        this.dataAccessLayer.createLog(patient, "Patient " + patient.getFirstName() + " " + patient.getLastName() + " has logged out");
+        this.logWriter.log(patient, "Patient " + patient.getFirstName() + " " + patient.getLastName() + " has logged out");
     }
 }
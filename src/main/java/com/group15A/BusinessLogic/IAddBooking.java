@@ -4,6 +4,11 @@ import com.group15A.DataModel.Booking;
 import com.group15A.DataModel.Doctor;
 import com.group15A.DataModel.Patient;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
 /**
  * The interface for AddBookingLogic
  *
@@ -12,9 +17,13 @@ import com.group15A.DataModel.Patient;
 public interface IAddBooking {
     void createNewBooking(String date, String hour, String minute, String type, Integer patientID) throws Exception;
 
-    void rescheduleBooking(String date, String hour, String minute, String type, Integer patientID, Booking booking) throws Exception;
+    Booking rescheduleBooking(String date, String hour, String minute, String type, Integer patientID, Booking booking) throws Exception;
 
     Doctor getPatientDoctor(Patient patient) throws Exception;
 
     Patient getPatient(Integer patientID) throws Exception;
+
+    List<LocalTime> getFreeSlots(Doctor doctor, LocalDate day) throws Exception;
+
+    List<LocalDateTime> getNextFreeSlots(Doctor doctor, int count) throws Exception;
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.group15A.BusinessLogic;
 
 import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.DoctorSlot;
 import java.util.List;
 
 /**
@@ -11,4 +12,6 @@ import java.util.List;
  */
 public interface IDoctor {
     List<Doctor> getDoctors() throws Exception;
+
+    List<DoctorSlot> getEarliestSlots(List<Doctor> doctors, int count, boolean onePerDoctor) throws Exception;
 }
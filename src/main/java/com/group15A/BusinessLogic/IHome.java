@@ -1,7 +1,9 @@
 package com.group15A.BusinessLogic;
 
 import com.group15A.DataModel.Notification;
+import com.group15A.DataModel.NotificationChanges;
 import com.group15A.DataModel.Patient;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -12,9 +14,23 @@ import java.util.List;
 public interface IHome {
     List<Notification> getNotifications(Patient patient) throws Exception;
 
+    NotificationChanges getNotificationChanges(Patient patient, Integer afterNotifID, Collection<Integer> unreadNotifIDs) throws Exception;
+
+    int countUnreadNotifications(Patient patient) throws Exception;
+
+    int countArchivedNotifications(Patient patient) throws Exception;
+
+    List<Notification> getUnreadNotifications(Patient patient, Integer beforeNotifID) throws Exception;
+
+    List<Notification> getArchivedNotifications(Patient patient, Integer beforeNotifID) throws Exception;
+
     Patient getPatient(Integer patientID) throws Exception;
 
     void readNotification(Notification notification) throws Exception;
 
+    int readNotifications(Patient patient, Collection<Integer> notifIDs) throws Exception;
+
+    int readAllNotifications(Patient patient) throws Exception;
+
     void logOut() throws Exception;
 }
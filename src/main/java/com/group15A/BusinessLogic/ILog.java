@@ -9,5 +9,5 @@ import java.util.List;
  * @author Milovan Gveric
  */
 public interface ILog {
-    List<Log> getLogs(Integer patientID) throws Exception;
+    List<Log> getLogs(Integer patientID, Integer beforeLogID) throws Exception;
 }
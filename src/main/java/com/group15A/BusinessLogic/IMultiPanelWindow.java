@@ -3,6 +3,8 @@ package com.group15A.BusinessLogic;
 import com.group15A.CustomExceptions.CustomException;
 import com.group15A.DataModel.Patient;
 
+import java.io.File;
+
 /**
  * The interface for MultiPanelWindowLogic
  *
@@ -15,5 +17,9 @@ public interface IMultiPanelWindow {
 
     Patient getPatient(Integer patientID) throws Exception;
 
+    void closeLogs();
+
+    void writeMetrics(File file);
+
 }
 
@@ -1,12 +1,15 @@
 package com.group15A.BusinessLogic;
 
 import com.group15A.CustomExceptions.DatabaseException;
-import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataAccess.LogWriter;
 import com.group15A.DataModel.Patient;
 import com.group15A.Session;
 import com.group15A.CustomExceptions.CustomException;
 import com.group15A.Utils.ErrorCode;
 import com.group15A.Validator.Validator;
+import com.group15A.Profiling.PasswordHashEvent;
 import org.mindrot.jbcrypt.BCrypt;
 import java.util.Arrays;
 import java.util.List;
@@ -18,7 +21,8 @@ import java.util.List;
  * @author Wenbo Wu
  */
 public class LogInLogic implements ILogIn {
-    private final DataAccess dataAccessLayer;
+    private final IDataAccess dataAccessLayer;
+    private final LogWriter logWriter;
     private final Validator validator;
 
     /**
@@ -29,7 +33,18 @@ public class LogInLogic implements ILogIn {
      * @throws DatabaseException if there was an issue connecting to the database
      */
     public LogInLogic() throws DatabaseException {
-        this.dataAccessLayer = new DataAccess();
+        this(DataAccessProvider.getDataAccess(), DataAccessProvider.getLogWriter());
+    }
+
+    /**
+     * Constructor for the LogInLogic class, using the given data access layer
+     *
+     * @param dataAccessLayer the data access layer to use
+     * @param logWriter the writer used to record logs in the background
+     */
+    public LogInLogic(IDataAccess dataAccessLayer, LogWriter logWriter) {
+        this.dataAccessLayer = dataAccessLayer;
+        this.logWriter = logWriter;
         this.validator = new Validator();
     }
 
@@ -55,11 +70,17 @@ public class LogInLogic implements ILogIn {
 
         Patient patientToLogIn = this.dataAccessLayer.getPatient(email);
         
-        if (!BCrypt.checkpw(password, patientToLogIn.getPassHash())) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        boolean passwordMatches = BCrypt.checkpw(password, patientToLogIn.getPassHash());
+        event.operation = PasswordHashEvent.VERIFY;
+        event.commit();
+
+        if (!passwordMatches) {
             throw new CustomException("Invalid Password", List.of(ErrorCode.WRONG_PASSWORD));
         }
 
-        dataAccessLayer.createLog(patientToLogIn, "Patient " + patientToLogIn.getFirstName() + " " + patientToLogIn.getLastName() + " manually logged in, successfully");
+        logWriter.log(patientToLogIn, "Patient " + patientToLogIn.getFirstName() + " " + patientToLogIn.getLastName() + " manually logged in, successfully");
 
         Session session = new Session(patientToLogIn, stayLoggedIn);
         session.saveToFile();
@@ -2,7 +2,9 @@ package com.group15A.BusinessLogic;
 
 import com.group15A.CustomExceptions.CustomException;
 import com.group15A.CustomExceptions.DatabaseException;
-import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataAccess.LogWriter;
 import com.group15A.DataModel.Log;
 import com.group15A.DataModel.Patient;
 
@@ -14,7 +16,10 @@ import java.util.List;
  * @author Milovan Gveric
  */
 public class LogLogic implements ILog {
-    private final DataAccess dataAccessLayer;
+    public static final int LOG_PAGE_SIZE = 50;
+
+    private final IDataAccess dataAccessLayer;
+    private final LogWriter logWriter;
 
     /**
      * Constructor for LogLogic
@@ -22,18 +27,34 @@ public class LogLogic implements ILog {
      * @throws DatabaseException if issues connecting to the database
      */
     public LogLogic() throws DatabaseException {
-        this.dataAccessLayer = new DataAccess();
+        this(DataAccessProvider.getDataAccess(), DataAccessProvider.getLogWriter());
+    }
+
+    /**
+     * Constructor for LogLogic, using the given data access layer
+     *
+     * @param dataAccessLayer the data access layer to use
+     * @param logWriter the writer used to record logs in the background
+     */
+    public LogLogic(IDataAccess dataAccessLayer, LogWriter logWriter) {
+        this.dataAccessLayer = dataAccessLayer;
+        this.logWriter = logWriter;
     }
 
     /**
-     * Gets a user's logs
+     * Gets a page of a user's logs, from the newest to the oldest.
+     * The first page includes the logs that were still waiting to be written to the database
      * @param patientID
-     * @return all logs of the user
+     * @param beforeLogID the id of the last log of the previous page, or null for the first page
+     * @return up to LOG_PAGE_SIZE logs of the user
      * @throws CustomException if issues getting logs from DAL
      */
     @Override
-    public List<Log> getLogs(Integer patientID) throws CustomException {
+    public List<Log> getLogs(Integer patientID, Integer beforeLogID) throws CustomException {
         Patient patient = this.dataAccessLayer.getPatient(patientID);
-        return this.dataAccessLayer.getLogs(patient);
+        if (beforeLogID == null) {
+            this.logWriter.flush();
+        }
+        return this.dataAccessLayer.getLogs(patient, beforeLogID, LOG_PAGE_SIZE);
     }
 }
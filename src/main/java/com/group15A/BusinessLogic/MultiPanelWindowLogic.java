@@ -4,10 +4,15 @@ import com.group15A.CustomExceptions.CustomException;
 import com.group15A.CustomExceptions.DatabaseException;
 import com.group15A.CustomExceptions.InvalidDataException;
 import com.group15A.CustomExceptions.PatientNotFoundException;
-import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataAccess.LogWriter;
 import com.group15A.DataModel.Patient;
 import com.group15A.Session;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * Contains backend functionality that relates to logging out and getting
  * patient information
@@ -15,7 +20,8 @@ import com.group15A.Session;
  * @author Milovan Gveric
  */
 public class MultiPanelWindowLogic implements IMultiPanelWindow {
-    private final DataAccess dataAccessLayer;
+    private final IDataAccess dataAccessLayer;
+    private final LogWriter logWriter;
 
     /**
      * Constructor for MultiPanelWindowLogic
@@ -23,7 +29,18 @@ public class MultiPanelWindowLogic implements IMultiPanelWindow {
      * @throws DatabaseException if issues connecting to the database
      */
     public MultiPanelWindowLogic() throws DatabaseException {
-        this.dataAccessLayer = new DataAccess();
+        this(DataAccessProvider.getDataAccess(), DataAccessProvider.getLogWriter());
+    }
+
+    /**
+     * Constructor for MultiPanelWindowLogic, using the given data access layer
+     *
+     * @param dataAccessLayer the data access layer to use
+     * @param logWriter the writer used to record logs in the background
+     */
+    public MultiPanelWindowLogic(IDataAccess dataAccessLayer, LogWriter logWriter) {
+        this.dataAccessLayer = dataAccessLayer;
+        this.logWriter = logWriter;
     }
 
     /**
@@ -58,6 +75,32 @@ public class MultiPanelWindowLogic implements IMultiPanelWindow {
      */
     @Override
     public void createLog(Patient patient, String msg) throws CustomException {
-        this.dataAccessLayer.createLog(patient, msg);
+        this.logWriter.log(patient, msg);
+    }
+
+    /**
+     * Writes every log that is still queued to the database.
+     * Called before the program exits, so that no logs are lost
+     */
+    @Override
+    public void closeLogs() {
+        if (!this.logWriter.close()) {
+            System.err.println("Timed out writing the remaining logs");
+        }
+    }
+
+    /**
+     * Writes the metrics of every database call made by the program to a file,
+     * so that the slowest and most frequent calls can be found
+     *
+     * @param file the file the metrics are written to
+     */
+    @Override
+    public void writeMetrics(File file) {
+        try {
+            DataAccessProvider.getMetrics().writeReport(file.toPath());
+        } catch (IOException e) {
+            System.err.println("Could not write the data access metrics: " + e.getMessage());
+        }
     }
 }
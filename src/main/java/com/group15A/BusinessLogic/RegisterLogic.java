@@ -1,12 +1,15 @@
 package com.group15A.BusinessLogic;
 
 import com.group15A.CustomExceptions.*;
-import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataAccess.LogWriter;
 import com.group15A.DataModel.Doctor;
 import com.group15A.DataModel.Patient;
 import com.group15A.Utils.DataModification;
 import com.group15A.Utils.ErrorCode;
 import com.group15A.Validator.Validator;
+import com.group15A.Profiling.PasswordHashEvent;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.text.DateFormat;
@@ -24,7 +27,8 @@ import java.util.*;
  * @author Wenbo Wu
  */
 public class RegisterLogic implements IRegister {
-    private final DataAccess dataAccessLayer;
+    private final IDataAccess dataAccessLayer;
+    private final LogWriter logWriter;
     private final Validator validator;
 
     /**
@@ -35,7 +39,18 @@ public class RegisterLogic implements IRegister {
      * @throws DatabaseException if there was an issue connecting to the database
      */
     public RegisterLogic() throws DatabaseException {
-        this.dataAccessLayer = new DataAccess();
+        this(DataAccessProvider.getDataAccess(), DataAccessProvider.getLogWriter());
+    }
+
+    /**
+     * Constructor for the RegisterLogic class, using the given data access layer
+     *
+     * @param dataAccessLayer the data access layer to use
+     * @param logWriter the writer used to record logs in the background
+     */
+    public RegisterLogic(IDataAccess dataAccessLayer, LogWriter logWriter) {
+        this.dataAccessLayer = dataAccessLayer;
+        this.logWriter = logWriter;
         this.validator = new Validator();
     }
 
@@ -71,7 +86,7 @@ public class RegisterLogic implements IRegister {
      */
     public void registerLog(Patient patient) throws InvalidDataException, NullDataException, DatabaseException {
         try {
-            dataAccessLayer.createLog(
+            logWriter.log(
                     patient,
                     "Patient " + patient.getFirstName() + " " + patient.getLastName() + " has successfully registered with Dr. " + dataAccessLayer.getDoctor(patient).getLastName()
             );
@@ -137,7 +152,11 @@ public class RegisterLogic implements IRegister {
         }
 
         // Hash password
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
         String passHash = BCrypt.hashpw(password, BCrypt.gensalt());
+        event.operation = PasswordHashEvent.HASH;
+        event.commit();
 
         return this.dataAccessLayer.registerPatient(
                 new Patient(email, passHash, fName, mName, lName, dateConv, gender, phoneNo),
@@ -2,15 +2,17 @@ package com.group15A.BusinessLogic;
 
 import com.group15A.CustomExceptions.CustomException;
 import com.group15A.CustomExceptions.DatabaseException;
-import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
 import com.group15A.DataModel.Booking;
-import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.BookingWithDoctor;
+import com.group15A.Utils.BookingPeriod;
 import com.group15A.Utils.ErrorCode;
 import com.group15A.Validator.Validator;
 
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Calendar;
 import java.util.List;
 
 /**
@@ -19,50 +21,47 @@ import java.util.List;
  * @author Milovan Gveric
  */
 public class ViewBookingLogic implements IViewBooking {
-    private final DataAccess dataAccessLayer;
+    private final IDataAccess dataAccessLayer;
     private final Validator validator;
+    private final BookingUpdateRetry bookingUpdateRetry;
 
     /**
      * Constructor for the view booking logic
      * @throws DatabaseException if issues connecting to the database
      */
     public ViewBookingLogic() throws DatabaseException {
-        this.dataAccessLayer = new DataAccess();
+        this(DataAccessProvider.getDataAccess());
+    }
+
+    /**
+     * Constructor for the view booking logic, using the given data access layer
+     *
+     * @param dataAccessLayer the data access layer to use
+     */
+    public ViewBookingLogic(IDataAccess dataAccessLayer) {
+        this.dataAccessLayer = dataAccessLayer;
         this.validator = new Validator();
+        this.bookingUpdateRetry = new BookingUpdateRetry(this.dataAccessLayer);
     }
 
     /**
-     * Gets all the bookings belonging to the patient
+     * Gets all the past or future bookings belonging to the patient.
+     * Future bookings are ordered from the earliest, past bookings from the most recent.
+     * Each booking comes with the doctor the patient is meeting, read in the same query
      * @param patientID
      * @param pastBookingFlag flag to get either all past or future bookings
-     * @return the list of all the patient's bookings
+     * @return the list of all the patient's bookings, along with their doctors
      * @throws CustomException if issues getting bookings, or with patient
      */
     @Override
-    public List<Booking> getBookings(Integer patientID, Boolean pastBookingFlag) throws CustomException {
-        List<Booking> patientBookings = this.dataAccessLayer.getBookings(this.dataAccessLayer.getPatient(patientID));
-        List<Booking> patientNewBookings = new ArrayList<>();
-        Timestamp today = new Timestamp(System.currentTimeMillis());
-
-        // Remove all old bookings from the return list
-        for (Booking b : patientBookings) {
-
-            if (pastBookingFlag) {
-                if (b.getBookingTime().before(today)) {
-                    patientNewBookings.add(b);
-                }
-            } else {
-                if (b.getBookingTime().after(today)) {
-                    patientNewBookings.add(b);
-                }
-            }
-        }
-
-        return patientNewBookings;
+    public List<BookingWithDoctor> getBookings(Integer patientID, Boolean pastBookingFlag) throws CustomException {
+        return this.getBookingsBetween(patientID, pastBookingFlag, null, null);
     }
 
     /**
-     * Filters the past/future bookings based on month and year dropdown selections
+     * Filters the past/future bookings based on month and year dropdown selections.
+     * A chosen year (and month) is turned into a time window so that only the matching bookings
+     * are read from the database
      * @param month could be integer (in string) or string: 'Month (All)'
      * @param year could be integer (in string) or string: 'Year (All)'
      * @param patientID
@@ -71,64 +70,87 @@ public class ViewBookingLogic implements IViewBooking {
      * @throws CustomException if any issues with getBookings DAL method
      */
     @Override
-    public List<Booking> filterBookings(String month, String year, Integer patientID, Boolean pastBookingFlag) throws CustomException {
+    public List<BookingWithDoctor> filterBookings(String month, String year, Integer patientID, Boolean pastBookingFlag) throws CustomException {
         if (!this.validator.isNum(year) && !this.validator.isNum(month) && !month.equals("Month (All)") && !year.equals("Year (All)")) {
             throw new CustomException("Month or Year aren't numbers", List.of(ErrorCode.WRONG_DATE));
         }
 
-        List<Booking> allBookings = this.getBookings(patientID, pastBookingFlag);
-        List<Booking> newBookings = new ArrayList<>();
-        Calendar cal = Calendar.getInstance();
+        boolean allMonths = month.equals("Month (All)");
+        boolean allYears = year.equals("Year (All)");
 
-        Timestamp filterDate;
-        int filterMonth = -1;
-        int filterYear = -1;
-
-        if (!month.equals("Month (All)")) {
-            filterDate = Timestamp.valueOf("1900" + "-" + month + "-" + "01 " + "00:00:00");
-            cal.setTimeInMillis(filterDate.getTime());
-            filterMonth = cal.get(Calendar.MONTH);
-        }
+        if (allYears) {
+            List<BookingWithDoctor> bookings = this.getBookingsBetween(patientID, pastBookingFlag, null, null);
+            if (allMonths) {
+                return bookings;
+            }
 
-        if (!year.equals("Year (All)")) {
-            filterDate = Timestamp.valueOf(year + "-" + "01" + "-" + "01 " + "00:00:00");
-            cal.setTimeInMillis(filterDate.getTime());
-            filterYear = cal.get(Calendar.YEAR);
+            // The same month across every year can't be expressed as a single time window
+            int filterMonth = Integer.parseInt(month);
+            List<BookingWithDoctor> newBookings = new ArrayList<>();
+            for (BookingWithDoctor b : bookings) {
+                if (b.getBooking().getBookingTime().toLocalDateTime().getMonthValue() == filterMonth) {
+                    newBookings.add(b);
+                }
+            }
+            return newBookings;
         }
 
-        for (Booking b : allBookings) {
-            cal.setTimeInMillis(b.getBookingTime().getTime());
-            // Check booking is in the same month and year
-            if ( (cal.get(Calendar.MONTH) == filterMonth && cal.get(Calendar.YEAR) == filterYear) ||
-                 (cal.get(Calendar.MONTH) == filterMonth && year.equals("Year (All)"))                   ||
-                 (month.equals("Month (All)") && cal.get(Calendar.YEAR) == filterYear)                    ||
-                 (month.equals("Month (All)") && year.equals("Year (All)"))
-            ) {
-                newBookings.add(b);
-            }
+        LocalDate windowStart;
+        LocalDate windowEnd;
+        if (allMonths) {
+            windowStart = LocalDate.of(Integer.parseInt(year), 1, 1);
+            windowEnd = windowStart.plusYears(1);
+        } else {
+            windowStart = LocalDate.of(Integer.parseInt(year), Integer.parseInt(month), 1);
+            windowEnd = windowStart.plusMonths(1);
         }
 
-        return newBookings;
+        return this.getBookingsBetween(
+                patientID,
+                pastBookingFlag,
+                Timestamp.valueOf(windowStart.atStartOfDay()),
+                Timestamp.valueOf(windowEnd.atStartOfDay())
+        );
     }
 
     /**
-     * Gets the doctor that the patient is meeting with in the booking
-     * @param doctorID
-     * @return doctor involved in the booking
-     * @throws CustomException if doctor is not found or database connection issues
+     * Gets the patient's past or future bookings within the given time window
+     * @param patientID
+     * @param pastBookingFlag flag to get either past or future bookings
+     * @param windowStart the start of the window, or null for no lower bound
+     * @param windowEnd the end of the window, or null for no upper bound
+     * @return the list of bookings, along with their doctors
+     * @throws CustomException if issues getting bookings, or with patient
      */
-    @Override
-    public Doctor getDoctor(Integer doctorID) throws CustomException {
-        return this.dataAccessLayer.getDoctor(doctorID);
+    private List<BookingWithDoctor> getBookingsBetween(Integer patientID, Boolean pastBookingFlag, Timestamp windowStart, Timestamp windowEnd) throws CustomException {
+        return this.dataAccessLayer.getBookingsWithDoctor(
+                this.dataAccessLayer.getPatient(patientID),
+                pastBookingFlag ? BookingPeriod.PAST : BookingPeriod.FUTURE,
+                windowStart,
+                windowEnd,
+                !pastBookingFlag
+        );
     }
 
     /**
-     * Updates the booking record in the database using a Booking instance
+     * Gives a booking a prescription and details, unless it already has a prescription.
+     * If the booking was changed by someone else since it was read, the latest copy is checked instead,
+     * so a prescription saved in the meantime is not overwritten
      * @param booking the booking instance
+     * @param prescription the prescription to give the booking
+     * @param details the details to give the booking
+     * @return the latest copy of the booking
      * @throws CustomException if issues updating booking record
      */
     @Override
-    public void updateBooking(Booking booking) throws CustomException {
-        this.dataAccessLayer.updateBooking(booking);
+    public Booking addPrescription(Booking booking, String prescription, String details) throws CustomException {
+        return this.bookingUpdateRetry.update(booking, latest -> {
+            if (latest.getPrescription() != null) {
+                return latest;
+            }
+            latest.setPrescription(prescription);
+            latest.setDetails(details);
+            return this.dataAccessLayer.updateBooking(latest);
+        });
     }
 }
@@ -3,7 +3,9 @@ package com.group15A.BusinessLogic;
 import com.group15A.CustomExceptions.CustomException;
 import com.group15A.CustomExceptions.DatabaseException;
 import com.group15A.CustomExceptions.SameDoctorException;
-import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.DataAccessProvider;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataAccess.LogWriter;
 import com.group15A.DataModel.Doctor;
 import com.group15A.DataModel.Patient;
 
@@ -14,14 +16,26 @@ import com.group15A.DataModel.Patient;
  * @author Milovan Gveric
  */
 public class ViewProfileLogic implements IViewProfile {
-    private final DataAccess dataAccessLayer;
+    private final IDataAccess dataAccessLayer;
+    private final LogWriter logWriter;
 
     /**
      * Constructor for view profile logic
      * @throws DatabaseException if issues connecting to the database
      */
     public ViewProfileLogic() throws DatabaseException {
-        this.dataAccessLayer = new DataAccess();
+        this(DataAccessProvider.getDataAccess(), DataAccessProvider.getLogWriter());
+    }
+
+    /**
+     * Constructor for view profile logic, using the given data access layer
+     *
+     * @param dataAccessLayer the data access layer to use
+     * @param logWriter the writer used to record logs in the background
+     */
+    public ViewProfileLogic(IDataAccess dataAccessLayer, LogWriter logWriter) {
+        this.dataAccessLayer = dataAccessLayer;
+        this.logWriter = logWriter;
     }
 
     /**
@@ -43,6 +57,6 @@ public class ViewProfileLogic implements IViewProfile {
 
         this.dataAccessLayer.changeDoctor(patient, newDoctor);
         this.dataAccessLayer.createNotification(patient, "Doctor Changed", "You changed your doctor from "+oldDoctor.getFullName()+" to "+newDoctor.getFullName());
-        this.dataAccessLayer.createLog(patient, "Patient " + patient.getFirstName() + " " + patient.getLastName() + " has changed their doctor from Dr. " +oldDoctor.getLastName() + " to Dr. " + newDoctor.getLastName());
+        this.logWriter.log(patient, "Patient " + patient.getFirstName() + " " + patient.getLastName() + " has changed their doctor from Dr. " +oldDoctor.getLastName() + " to Dr. " + newDoctor.getLastName());
     }
 }
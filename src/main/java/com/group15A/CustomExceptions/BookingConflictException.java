@@ -0,0 +1,18 @@
+package com.group15A.CustomExceptions;
+
+/**
+ * Exception encountered when a booking is updated from a copy which is out of date,
+ * because the booking was changed by someone else after the copy was read
+ *
+ * @author Milovan Gveric
+ */
+public class BookingConflictException extends CustomException
+{
+    /**
+     * Constructor for the BookingConflictException. It creates a Custom Exception with no error codes and a suitable error message
+     */
+    public BookingConflictException()
+    {
+        super("The booking was changed by someone else");
+    }
+}
@@ -0,0 +1,28 @@
+package com.group15A.CustomExceptions;
+
+/**
+ * Wraps a DatabaseException encountered while reading a stream of rows from the database,
+ * since the methods of a stream cannot throw checked exceptions
+ *
+ * @author Andrei Constantin
+ */
+public class UncheckedDatabaseException extends RuntimeException
+{
+    /**
+     * Constructor for the UncheckedDatabaseException
+     * @param cause The DatabaseException which was encountered
+     */
+    public UncheckedDatabaseException(DatabaseException cause)
+    {
+        super(cause.getMessage(), cause);
+    }
+
+    /**
+     * @return the DatabaseException which was encountered
+     */
+    @Override
+    public synchronized DatabaseException getCause()
+    {
+        return (DatabaseException) super.getCause();
+    }
+}
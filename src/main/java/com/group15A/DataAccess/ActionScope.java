@@ -0,0 +1,201 @@
+package com.group15A.DataAccess;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the statements sent to the database, and the rows they return, while a user action is carried out,
+ * so that actions which make one query per item instead of one query in total are noticed.
+ *
+ * A scope is opened around an action with try-with-resources, and is current on that thread until it is closed.
+ * Every call that reaches the database through DataAccessMetrics is counted in the current scope and in its parents.
+ * Work done on another thread is counted by opening a child scope there, with the original scope as its parent.
+ * A warning is printed the first time a scope goes over its statement budget, and tests can assert the counts.
+ *
+ * @author Andrei Constantin
+ */
+public class ActionScope implements AutoCloseable
+{
+    public static final int DEFAULT_STATEMENT_BUDGET = 10;
+
+    private static final ThreadLocal<ActionScope> currentScope = new ThreadLocal<>();
+
+    private final String name;
+    private final int statementBudget;
+    private final ActionScope parent;
+    private final ActionScope previous;
+    private final Thread thread;
+
+    private final AtomicInteger statementCount = new AtomicInteger();
+    private final AtomicLong rowCount = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicInteger> statementCounts = new ConcurrentHashMap<>();
+    private final AtomicBoolean warned = new AtomicBoolean();
+
+    private ActionScope(String name, int statementBudget, ActionScope parent)
+    {
+        if(name == null)
+            throw new IllegalArgumentException("The name of an action cannot be null");
+        if(statementBudget < 0)
+            throw new IllegalArgumentException("The statement budget of an action cannot be negative");
+
+        this.name = parent == null ? name : parent.name + "/" + name;
+        this.statementBudget = statementBudget;
+        this.parent = parent;
+        this.previous = currentScope.get();
+        this.thread = Thread.currentThread();
+        currentScope.set(this);
+    }
+
+    /**
+     * Open a scope with the default statement budget, inside the scope which is current on this thread, if any
+     * @param name The name of the action
+     * @return The scope, which is now current on this thread
+     */
+    public static ActionScope open(String name)
+    {
+        return open(name, DEFAULT_STATEMENT_BUDGET);
+    }
+
+    /**
+     * Open a scope inside the scope which is current on this thread, if any
+     * @param name The name of the action
+     * @param statementBudget The number of statements the action may run before a warning is printed
+     * @return The scope, which is now current on this thread
+     */
+    public static ActionScope open(String name, int statementBudget)
+    {
+        return new ActionScope(name, statementBudget, currentScope.get());
+    }
+
+    /**
+     * Open a scope with the default statement budget inside a scope from another thread,
+     * so that work handed to this thread is counted in the action which started it
+     * @param name The name of the work
+     * @param parent The scope of the action which started the work, or null if there is none
+     * @return The scope, which is now current on this thread
+     */
+    public static ActionScope open(String name, ActionScope parent)
+    {
+        return new ActionScope(name, DEFAULT_STATEMENT_BUDGET, parent);
+    }
+
+    /**
+     * @return the scope which is current on this thread, or null if no action is being counted
+     */
+    public static ActionScope current()
+    {
+        return currentScope.get();
+    }
+
+    /**
+     * Count a statement in the scope which is current on this thread, and in its parents
+     * @param statement The name of the statement
+     * @param rows The number of rows the statement returned
+     */
+    static void record(String statement, int rows)
+    {
+        for(ActionScope scope = currentScope.get(); scope != null; scope = scope.parent)
+            scope.add(statement, rows);
+    }
+
+    private void add(String statement, int rows)
+    {
+        statementCounts.computeIfAbsent(statement, key -> new AtomicInteger()).incrementAndGet();
+        rowCount.addAndGet(rows);
+        if(statementCount.incrementAndGet() > statementBudget && warned.compareAndSet(false, true))
+            System.err.println("Action '" + name + "' ran more than " + statementBudget + " statements: " + getStatementCounts());
+    }
+
+    /**
+     * Assert that the action ran no more statements than expected
+     * @param maxStatements The largest number of statements expected
+     * @throws AssertionError if the action ran more statements
+     */
+    public void assertStatementsAtMost(int maxStatements)
+    {
+        if(getStatementCount() > maxStatements)
+            throw new AssertionError("Expected at most " + maxStatements + " statements, but " + this);
+    }
+
+    /**
+     * Assert that the action ran a statement no more times than expected
+     * @param statement The name of the statement, as reported by DataAccessMetrics, such as "getDoctor(Patient)"
+     * @param maxStatements The largest number of times the statement is expected to run
+     * @throws AssertionError if the action ran the statement more times
+     */
+    public void assertStatementsAtMost(String statement, int maxStatements)
+    {
+        if(getStatementCount(statement) > maxStatements)
+            throw new AssertionError("Expected " + statement + " at most " + maxStatements + " times, but " + this);
+    }
+
+    /**
+     * Stop counting statements on this thread, making the scope which was current before it current again.
+     * Statements run by child scopes on other threads are still counted after the scope is closed
+     */
+    @Override
+    public void close()
+    {
+        if(Thread.currentThread() != thread)
+            throw new IllegalStateException("An action scope must be closed on the thread which opened it");
+
+        if(currentScope.get() == this) {
+            if(previous == null)
+                currentScope.remove();
+            else
+                currentScope.set(previous);
+        }
+    }
+
+    //region Statistics
+    public String getName() {return name;}
+
+    public int getStatementBudget() {return statementBudget;}
+
+    public int getStatementCount() {return statementCount.get();}
+
+    public long getRowCount() {return rowCount.get();}
+
+    public boolean isOverBudget() {return getStatementCount() > statementBudget;}
+
+    /**
+     * @param statement The name of the statement, as reported by DataAccessMetrics, such as "getDoctor(Patient)"
+     * @return the number of times the action ran the statement
+     */
+    public int getStatementCount(String statement)
+    {
+        AtomicInteger count = statementCounts.get(statement);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return the number of times the action ran each statement, by the name of the statement
+     */
+    public Map<String, Integer> getStatementCounts()
+    {
+        Map<String, Integer> counts = new TreeMap<>();
+        statementCounts.forEach((statement, count) -> counts.put(statement, count.get()));
+        return counts;
+    }
+
+    /**
+     * toString method for ActionScope
+     *
+     * @return a textual representation of the statements the action ran
+     */
+    @Override
+    public String toString() {
+        return "ActionScope{" +
+                "name='" + name + '\'' +
+                ", statements=" + getStatementCount() +
+                ", budget=" + statementBudget +
+                ", rows=" + getRowCount() +
+                ", counts=" + getStatementCounts() +
+                '}';
+    }
+    //endregion
+}
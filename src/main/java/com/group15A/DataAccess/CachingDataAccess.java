@@ -0,0 +1,461 @@
+package com.group15A.DataAccess;
+
+import com.group15A.CustomExceptions.*;
+import com.group15A.DataModel.*;
+import com.group15A.Utils.BookingPeriod;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * A Data Access Layer that keeps doctors and certifications in memory, since they almost never change,
+ * along with the patients that have been read, so the logged in patient is not read again on every page.
+ * Patients can be found by both their id and their email, and the same instance is returned for either.
+ * All other calls are passed straight to the underlying Data Access Layer.
+ *
+ * Cached entries expire after a while, so changes made directly in the database are eventually picked up.
+ * Writes to a patient made through this class invalidate the affected entries straight away.
+ *
+ * @author Andrei Constantin
+ */
+public class CachingDataAccess implements IDataAccess
+{
+    private static final int MAX_DOCTORS = 256;
+    private static final int MAX_PATIENT_DOCTORS = 1024;
+    private static final long DOCTOR_TIME_TO_LIVE_MS = 10 * 60_000;
+    private static final long PATIENT_DOCTOR_TIME_TO_LIVE_MS = 5 * 60_000;
+    private static final int MAX_PATIENTS = 1024;
+    private static final long PATIENT_TIME_TO_LIVE_MS = 60 * 60_000;
+    private static final String ALL_DOCTORS = "all";
+
+    private final IDataAccess dataAccess;
+    private final ExpiringCache<String, List<Doctor>> doctorListCache;
+    private final ExpiringCache<Integer, Doctor> doctorCache;
+    private final ExpiringCache<Integer, Doctor> patientDoctorCache;
+    private final ExpiringCache<Integer, List<Certification>> certificationCache;
+    private final ExpiringCache<Integer, Patient> patientByIdCache;
+    private final ExpiringCache<String, Patient> patientByEmailCache;
+
+    /**
+     * Constructor for the CachingDataAccess class.
+     * @param dataAccess The Data Access Layer whose results are cached
+     */
+    public CachingDataAccess(IDataAccess dataAccess)
+    {
+        this.dataAccess = dataAccess;
+        this.doctorListCache = new ExpiringCache<>("doctors", 1, DOCTOR_TIME_TO_LIVE_MS);
+        this.doctorCache = new ExpiringCache<>("doctor", MAX_DOCTORS, DOCTOR_TIME_TO_LIVE_MS);
+        this.patientDoctorCache = new ExpiringCache<>("patientDoctor", MAX_PATIENT_DOCTORS, PATIENT_DOCTOR_TIME_TO_LIVE_MS);
+        this.certificationCache = new ExpiringCache<>("certifications", MAX_DOCTORS, DOCTOR_TIME_TO_LIVE_MS);
+        this.patientByIdCache = new ExpiringCache<>("patientById", MAX_PATIENTS, PATIENT_TIME_TO_LIVE_MS);
+        this.patientByEmailCache = new ExpiringCache<>("patientByEmail", MAX_PATIENTS, PATIENT_TIME_TO_LIVE_MS);
+    }
+
+    //region Patient
+    @Override
+    public Patient getPatient(String email) throws NullDataException, PatientNotFoundException, DatabaseException
+    {
+        if(email == null)
+            return dataAccess.getPatient(email);
+
+        Patient patient = patientByEmailCache.get(getEmailKey(email));
+        if(patient == null) {
+            patient = dataAccess.getPatient(email);
+            cachePatient(patient);
+        }
+        return patient;
+    }
+
+    @Override
+    public Patient getPatient(int patientID) throws InvalidDataException, PatientNotFoundException, DatabaseException
+    {
+        Patient patient = patientByIdCache.get(patientID);
+        if(patient == null) {
+            patient = dataAccess.getPatient(patientID);
+            cachePatient(patient);
+        }
+        return patient;
+    }
+
+    @Override
+    public Patient registerPatient(Patient patient, Doctor doctor) throws NullDataException, EmailInUseException, DatabaseException, InvalidDataException, PatientNotFoundException
+    {
+        Patient registeredPatient = dataAccess.registerPatient(patient, doctor);
+        forgetPatient(registeredPatient.getPatientID());
+        cachePatient(registeredPatient);
+        return registeredPatient;
+    }
+
+    @Override
+    public Patient updatePatient(Patient patient) throws CustomException
+    {
+        Patient updatedPatient;
+        try {
+            updatedPatient = dataAccess.updatePatient(patient);
+        } finally {
+            if(patient != null && patient.getPatientID() != null)
+                forgetPatient(patient.getPatientID());
+        }
+        cachePatient(updatedPatient);
+        return updatedPatient;
+    }
+
+    @Override
+    public Patient changeDoctor(Patient patient, Doctor doctor) throws CustomException
+    {
+        Patient updatedPatient;
+        try {
+            updatedPatient = dataAccess.changeDoctor(patient, doctor);
+        } finally {
+            if(patient != null && patient.getPatientID() != null)
+                forgetPatient(patient.getPatientID());
+        }
+        cachePatient(updatedPatient);
+        return updatedPatient;
+    }
+
+    @Override
+    public void deletePatient(int patientID) throws InvalidDataException, DatabaseException
+    {
+        try {
+            dataAccess.deletePatient(patientID);
+        } finally {
+            forgetPatient(patientID);
+        }
+    }
+
+    /**
+     * Store the given patient, so it can be found by both its id and its email
+     * @param patient The patient
+     */
+    private void cachePatient(Patient patient)
+    {
+        patientByIdCache.put(patient.getPatientID(), patient);
+        patientByEmailCache.put(getEmailKey(patient.getEmail()), patient);
+    }
+
+    /**
+     * Forget the cached patient with the given id, along with their doctor
+     * @param patientID The patient id
+     */
+    private void forgetPatient(int patientID)
+    {
+        Patient patient = patientByIdCache.peek(patientID);
+        if(patient != null)
+            patientByEmailCache.invalidate(getEmailKey(patient.getEmail()));
+        patientByIdCache.invalidate(patientID);
+        patientDoctorCache.invalidate(patientID);
+    }
+
+    /**
+     * Emails are compared without regard to case by the database, so the cache does the same
+     * @param email The email
+     * @return The key of the email in the cache
+     */
+    private static String getEmailKey(String email)
+    {
+        return email.toLowerCase(Locale.ROOT);
+    }
+    //endregion
+
+    //region Doctor
+    @Override
+    public List<Doctor> getDoctors() throws DatabaseException
+    {
+        List<Doctor> doctors = doctorListCache.get(ALL_DOCTORS);
+        if(doctors == null) {
+            doctors = dataAccess.getDoctors();
+            doctorListCache.put(ALL_DOCTORS, doctors);
+            for(Doctor doctor : doctors)
+                doctorCache.put(doctor.getDoctorID(), doctor);
+        }
+        return new ArrayList<>(doctors);
+    }
+
+    @Override
+    public Doctor getDoctor(Patient patient) throws NullDataException, DoctorNotFoundException, DatabaseException, InvalidDataException
+    {
+        if(patient == null || patient.getPatientID() == null)
+            return dataAccess.getDoctor(patient);
+
+        Doctor doctor = patientDoctorCache.get(patient.getPatientID());
+        if(doctor == null) {
+            doctor = dataAccess.getDoctor(patient);
+            patientDoctorCache.put(patient.getPatientID(), doctor);
+            doctorCache.put(doctor.getDoctorID(), doctor);
+        }
+        return doctor;
+    }
+
+    @Override
+    public Doctor getDoctor(int doctorID) throws DoctorNotFoundException, DatabaseException, InvalidDataException
+    {
+        Doctor doctor = doctorCache.get(doctorID);
+        if(doctor == null) {
+            doctor = dataAccess.getDoctor(doctorID);
+            doctorCache.put(doctorID, doctor);
+        }
+        return doctor;
+    }
+    //endregion
+
+    //region Certification
+    @Override
+    public List<Certification> getCertifications(Doctor doctor) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(doctor == null || doctor.getDoctorID() == null)
+            return dataAccess.getCertifications(doctor);
+
+        List<Certification> certifications = certificationCache.get(doctor.getDoctorID());
+        if(certifications == null) {
+            certifications = dataAccess.getCertifications(doctor);
+            certificationCache.put(doctor.getDoctorID(), certifications);
+        }
+        return new ArrayList<>(certifications);
+    }
+    //endregion
+
+    //region Booking
+    @Override
+    public Booking getBooking(int bookingID) throws DatabaseException, InvalidDataException
+    {
+        return dataAccess.getBooking(bookingID);
+    }
+
+    @Override
+    public List<Booking> getBookings() throws DatabaseException
+    {
+        return dataAccess.getBookings();
+    }
+
+    @Override
+    public Stream<Booking> streamBookings() throws DatabaseException
+    {
+        return dataAccess.streamBookings();
+    }
+
+    @Override
+    public List<Booking> getBookings(Doctor doctor) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getBookings(doctor);
+    }
+
+    @Override
+    public List<Booking> getBookings(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getBookings(patient);
+    }
+
+    @Override
+    public List<Booking> getBookings(Patient patient, BookingPeriod period, Timestamp windowStart, Timestamp windowEnd, boolean ascending) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getBookings(patient, period, windowStart, windowEnd, ascending);
+    }
+
+    @Override
+    public List<BookingWithDoctor> getBookingsWithDoctor(Patient patient, BookingPeriod period, Timestamp windowStart, Timestamp windowEnd, boolean ascending) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getBookingsWithDoctor(patient, period, windowStart, windowEnd, ascending);
+    }
+
+    @Override
+    public boolean isBookingSlotTaken(int patientID, int doctorID, Timestamp bookingTime) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        return dataAccess.isBookingSlotTaken(patientID, doctorID, bookingTime);
+    }
+
+    @Override
+    public List<Timestamp> getBookingTimes(Doctor doctor, Timestamp windowStart, Timestamp windowEnd) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        return dataAccess.getBookingTimes(doctor, windowStart, windowEnd);
+    }
+
+    @Override
+    public Map<Integer, List<Timestamp>> getBookingTimes(Timestamp windowStart, Timestamp windowEnd) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        return dataAccess.getBookingTimes(windowStart, windowEnd);
+    }
+
+    @Override
+    public Booking createBooking(Patient patient, Doctor doctor, Timestamp bookingTime, String type) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException
+    {
+        return dataAccess.createBooking(patient, doctor, bookingTime, type);
+    }
+
+    @Override
+    public Booking updateBooking(Booking booking) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException, BookingNotFoundException, BookingConflictException
+    {
+        return dataAccess.updateBooking(booking);
+    }
+
+    @Override
+    public Booking createBookingWithAudit(Patient patient, Doctor doctor, Timestamp bookingTime, String type, String notificationHeader, String notificationMessage, String logMessage) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException
+    {
+        return dataAccess.createBookingWithAudit(patient, doctor, bookingTime, type, notificationHeader, notificationMessage, logMessage);
+    }
+
+    @Override
+    public Booking updateBookingWithAudit(Booking booking, String notificationHeader, String notificationMessage, String logMessage) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException, BookingNotFoundException, BookingConflictException
+    {
+        return dataAccess.updateBookingWithAudit(booking, notificationHeader, notificationMessage, logMessage);
+    }
+    //endregion
+
+    //region Notification
+    @Override
+    public Notification getNotification(int notificationID) throws DatabaseException
+    {
+        return dataAccess.getNotification(notificationID);
+    }
+
+    @Override
+    public Notification createNotification(Patient patient, String header, String message) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.createNotification(patient, header, message);
+    }
+
+    @Override
+    public List<Notification> getNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getNotifications(patient);
+    }
+
+    @Override
+    public Stream<Notification> streamNotifications() throws DatabaseException
+    {
+        return dataAccess.streamNotifications();
+    }
+
+    @Override
+    public NotificationChanges getNotificationChanges(Patient patient, Integer afterNotificationID, Collection<Integer> unreadNotificationIDs) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getNotificationChanges(patient, afterNotificationID, unreadNotificationIDs);
+    }
+
+    @Override
+    public int countUnreadNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.countUnreadNotifications(patient);
+    }
+
+    @Override
+    public int countArchivedNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.countArchivedNotifications(patient);
+    }
+
+    @Override
+    public List<Notification> getUnreadNotifications(Patient patient, Integer beforeNotificationID, int limit) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getUnreadNotifications(patient, beforeNotificationID, limit);
+    }
+
+    @Override
+    public List<Notification> getArchivedNotifications(Patient patient, Integer beforeNotificationID, int limit) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getArchivedNotifications(patient, beforeNotificationID, limit);
+    }
+
+    @Override
+    public Notification setNotificationSeen(Notification notification) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.setNotificationSeen(notification);
+    }
+
+    @Override
+    public int setNotificationsSeen(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.setNotificationsSeen(patient);
+    }
+
+    @Override
+    public int setNotificationsSeen(Patient patient, Collection<Integer> notificationIDs) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.setNotificationsSeen(patient, notificationIDs);
+    }
+    //endregion
+
+    //region Log
+    @Override
+    public List<Log> getLogs(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getLogs(patient);
+    }
+
+    @Override
+    public List<Log> getLogs(Patient patient, Integer beforeLogID, int limit) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        return dataAccess.getLogs(patient, beforeLogID, limit);
+    }
+
+    @Override
+    public List<Log> getLogs() throws DatabaseException
+    {
+        return dataAccess.getLogs();
+    }
+
+    @Override
+    public Stream<Log> streamLogs() throws DatabaseException
+    {
+        return dataAccess.streamLogs();
+    }
+
+    @Override
+    public Log createLog(Patient patient, String message) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        return dataAccess.createLog(patient, message);
+    }
+
+    @Override
+    public void createLogs(List<Log> logs) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        dataAccess.createLogs(logs);
+    }
+    //endregion
+
+    //region Cache
+    /**
+     * Forget every cached doctor, certification and patient, so they are read from the database again
+     */
+    public void invalidateAll()
+    {
+        doctorListCache.invalidateAll();
+        doctorCache.invalidateAll();
+        patientDoctorCache.invalidateAll();
+        certificationCache.invalidateAll();
+        patientByIdCache.invalidateAll();
+        patientByEmailCache.invalidateAll();
+    }
+
+    /**
+     * @return the caches used by this Data Access Layer, for reporting their hit and miss statistics
+     */
+    public List<ExpiringCache<?, ?>> getCaches()
+    {
+        return List.of(doctorListCache, doctorCache, patientDoctorCache, certificationCache, patientByIdCache, patientByEmailCache);
+    }
+
+    public long getHitCount() {return getCaches().stream().mapToLong(ExpiringCache::getHitCount).sum();}
+
+    public long getMissCount() {return getCaches().stream().mapToLong(ExpiringCache::getMissCount).sum();}
+
+    /**
+     * toString method for CachingDataAccess
+     *
+     * @return a textual representation of the caches' statistics
+     */
+    @Override
+    public String toString() {
+        return "CachingDataAccess{" +
+                "hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", caches=" + getCaches() +
+                '}';
+    }
+    //endregion
+}
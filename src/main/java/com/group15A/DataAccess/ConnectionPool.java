@@ -0,0 +1,375 @@
+package com.group15A.DataAccess;
+
+import com.group15A.CustomExceptions.DatabaseException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of database connections, shared by every DataAccess instance.
+ *
+ * Connections handed out by the pool are returned to it (rather than closed) when
+ * their close() method is called, so they should always be used in a try-with-resources block.
+ * Connections are validated when they are borrowed and idle connections are closed
+ * by a background thread after a period of inactivity.
+ *
+ * @author Andrei Constantin
+ */
+public class ConnectionPool
+{
+    private static final int MAX_SIZE = 10;
+    private static final int MIN_IDLE = 1;
+    private static final long BORROW_TIMEOUT_MS = 5_000;
+    private static final long IDLE_TIMEOUT_MS = 60_000;
+    private static final long EVICTION_INTERVAL_MS = 15_000;
+    private static final long VALIDATION_BYPASS_MS = 500;
+    private static final int VALIDATION_TIMEOUT_S = 2;
+
+    private static ConnectionPool instance;
+
+    private final String url;
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idleConnections;
+    private final ScheduledExecutorService evictor;
+
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong validationFailureCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private volatile boolean closed = false;
+
+    /**
+     * Get the shared connection pool, creating it on first use
+     * @param url The JDBC url of the database
+     * @return The connection pool
+     * @throws DatabaseException if the pool could not open its first connection to the database
+     * @throws IllegalStateException if the shared pool was already created for a different database
+     */
+    public static synchronized ConnectionPool getInstance(String url) throws DatabaseException
+    {
+        if(instance == null) {
+            ConnectionPool pool = new ConnectionPool(url);
+            // Open the first connection straight away, so an unreachable database is reported immediately
+            try {
+                pool.getConnection().close();
+            } catch (SQLException | DatabaseException ex) {
+                pool.close();
+                throw new DatabaseException("Could not connect to the database");
+            }
+            instance = pool;
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "connection-pool-shutdown"));
+        }
+        else if(!instance.url.equals(url))
+            throw new IllegalStateException("The connection pool is already connected to a different database");
+        return instance;
+    }
+
+    /**
+     * Constructor for the ConnectionPool class.
+     * @param url The JDBC url of the database
+     * @throws DatabaseException if the database driver could not be loaded
+     */
+    private ConnectionPool(String url) throws DatabaseException
+    {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException ex) {
+            throw new DatabaseException("Could not load the database driver");
+        }
+
+        this.url = url;
+        this.permits = new Semaphore(MAX_SIZE, true);
+        this.idleConnections = new ArrayDeque<>();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdleConnections, EVICTION_INTERVAL_MS, EVICTION_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection from the pool, waiting for one to be returned if the pool is at full capacity.
+     * Closing the returned connection gives it back to the pool.
+     * @return The connection
+     * @throws DatabaseException if no valid connection could be obtained
+     */
+    public Connection getConnection() throws DatabaseException
+    {
+        if(closed)
+            throw new DatabaseException("The connection pool has been closed");
+
+        long waitStart = System.nanoTime();
+        try {
+            if(!permits.tryAcquire(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new DatabaseException("Timed out waiting for a database connection");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while waiting for a database connection");
+        }
+        totalWaitNanos.addAndGet(System.nanoTime() - waitStart);
+
+        try {
+            Connection physical = takeValidIdleConnection();
+            if(physical == null)
+                physical = openConnection();
+
+            borrowCount.incrementAndGet();
+            return wrap(physical);
+        } catch (SQLException ex) {
+            permits.release();
+            throw new DatabaseException("Could not connect to the database");
+        }
+    }
+
+    /**
+     * Take the most recently used idle connection that is still valid, closing any invalid ones found on the way
+     * @return The connection, or null if there are no valid idle connections
+     */
+    private Connection takeValidIdleConnection()
+    {
+        IdleConnection idle;
+        while ((idle = pollIdleConnection()) != null) {
+            // Skip the validation round trip for connections that were in use a moment ago
+            boolean recentlyUsed = System.currentTimeMillis() - idle.returnedAt < VALIDATION_BYPASS_MS;
+            try {
+                if(recentlyUsed || idle.connection.isValid(VALIDATION_TIMEOUT_S))
+                    return idle.connection;
+            } catch (SQLException ignored) {
+            }
+            validationFailureCount.incrementAndGet();
+            destroy(idle.connection);
+        }
+        return null;
+    }
+
+    private synchronized IdleConnection pollIdleConnection()
+    {
+        return idleConnections.pollFirst();
+    }
+
+    /**
+     * Open a new physical connection to the database
+     * @return The connection
+     * @throws SQLException if the connection could not be established
+     */
+    private Connection openConnection() throws SQLException
+    {
+        Connection connection = DriverManager.getConnection(url);
+        createdCount.incrementAndGet();
+        return connection;
+    }
+
+    /**
+     * Give a borrowed connection back to the pool
+     * @param physical The underlying connection
+     */
+    private void release(Connection physical)
+    {
+        try {
+            if(closed || physical.isClosed()) {
+                destroy(physical);
+                return;
+            }
+            if(!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            synchronized (this) {
+                idleConnections.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+            }
+        } catch (SQLException ex) {
+            destroy(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Close the connections that have been idle for longer than the idle timeout,
+     * always leaving a minimum number of idle connections open
+     */
+    private void evictIdleConnections()
+    {
+        long now = System.currentTimeMillis();
+        Deque<Connection> evicted = new ArrayDeque<>();
+        synchronized (this) {
+            // The oldest connections are at the end of the deque
+            Iterator<IdleConnection> iterator = idleConnections.descendingIterator();
+            while (iterator.hasNext() && idleConnections.size() > MIN_IDLE) {
+                IdleConnection idle = iterator.next();
+                if(now - idle.returnedAt < IDLE_TIMEOUT_MS)
+                    break;
+                iterator.remove();
+                evicted.add(idle.connection);
+            }
+        }
+        evicted.forEach(this::destroy);
+    }
+
+    /**
+     * Close the given physical connection
+     * @param physical The connection
+     */
+    private void destroy(Connection physical)
+    {
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+        }
+        destroyedCount.incrementAndGet();
+    }
+
+    /**
+     * Close all idle connections and stop the pool from handing out new ones.
+     * Connections that are currently borrowed are closed when they are returned.
+     */
+    public void close()
+    {
+        closed = true;
+        evictor.shutdownNow();
+        Deque<IdleConnection> toClose;
+        synchronized (this) {
+            toClose = new ArrayDeque<>(idleConnections);
+            idleConnections.clear();
+        }
+        toClose.forEach(idle -> destroy(idle.connection));
+    }
+
+    /**
+     * Wrap a physical connection so that closing it returns it to the pool
+     * @param physical The underlying connection
+     * @return The pooled connection
+     */
+    private Connection wrap(Connection physical)
+    {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical)
+        );
+    }
+
+    //region Metrics
+    public int getMaxSize() {return MAX_SIZE;}
+
+    public int getActiveConnections() {return MAX_SIZE - permits.availablePermits();}
+
+    public synchronized int getIdleConnections() {return idleConnections.size();}
+
+    public long getCreatedCount() {return createdCount.get();}
+
+    public long getDestroyedCount() {return destroyedCount.get();}
+
+    public long getBorrowCount() {return borrowCount.get();}
+
+    public long getTimeoutCount() {return timeoutCount.get();}
+
+    public long getValidationFailureCount() {return validationFailureCount.get();}
+
+    /**
+     * @return the average time spent waiting for a connection to become available, in milliseconds
+     */
+    public double getAverageWaitMillis()
+    {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+    }
+
+    /**
+     * toString method for ConnectionPool
+     *
+     * @return a textual representation of the pool's metrics
+     */
+    @Override
+    public String toString() {
+        return "ConnectionPool{" +
+                "active=" + getActiveConnections() +
+                ", idle=" + getIdleConnections() +
+                ", max=" + MAX_SIZE +
+                ", created=" + getCreatedCount() +
+                ", destroyed=" + getDestroyedCount() +
+                ", borrowed=" + getBorrowCount() +
+                ", timeouts=" + getTimeoutCount() +
+                ", validationFailures=" + getValidationFailureCount() +
+                ", averageWaitMillis=" + getAverageWaitMillis() +
+                '}';
+    }
+    //endregion
+
+    /**
+     * An idle connection, along with the time it was returned to the pool
+     */
+    private static class IdleConnection
+    {
+        private final Connection connection;
+        private final long returnedAt;
+
+        private IdleConnection(Connection connection, long returnedAt)
+        {
+            this.connection = connection;
+            this.returnedAt = returnedAt;
+        }
+    }
+
+    /**
+     * Forwards calls to the physical connection, except close(), which returns it to the pool
+     */
+    private class PooledConnectionHandler implements InvocationHandler
+    {
+        private final Connection physical;
+        private boolean released = false;
+
+        private PooledConnectionHandler(Connection physical)
+        {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            switch (method.getName()) {
+                case "close":
+                    if(!released) {
+                        released = true;
+                        release(physical);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection{" + physical + "}";
+            }
+
+            if(released)
+                throw new SQLException("The connection has already been returned to the pool");
+
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+    }
+}
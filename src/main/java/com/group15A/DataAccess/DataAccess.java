@@ -2,10 +2,21 @@ package com.group15A.DataAccess;
 
 import com.group15A.CustomExceptions.*;
 import com.group15A.DataModel.*;
+import com.group15A.Utils.BookingPeriod;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.group15A.DataAccess.DataAccessValidator.*;
 
@@ -18,32 +29,27 @@ public class DataAccess implements IDataAccess
 {
     private static final String DB_USER = "root";
     private static final String DB_PASSWORD = "root";
+    // The url can be replaced with -Dthegp.db.url=..., for example to point the benchmarks at an embedded database
+    private static final String DB_URL_PROPERTY = "thegp.db.url";
+    private static final String DB_URL = System.getProperty(DB_URL_PROPERTY,
+            "jdbc:mysql://localhost/thegeneralpractitioner?user="+DB_USER+"&password="+DB_PASSWORD+"&rewriteBatchedStatements=true");
 
-    private Connection connection;
+    private static final int DUPLICATE_ENTRY_ERROR = 1062;
+    private static final Timestamp EARLIEST_TIME = Timestamp.valueOf("1000-01-01 00:00:00");
+    private static final Timestamp LATEST_TIME = Timestamp.valueOf("9999-12-31 23:59:59");
+    // Makes the MySQL driver read the rows of a result set one at a time, instead of loading them all into memory
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private final ConnectionPool connectionPool;
 
     /**
      * Constructor for the DataAccess class.
-     * It sets up the connection to the database
+     * It connects to the connection pool shared by all DataAccess instances
      * @throws DatabaseException if there was a problem connecting to the database
      */
     public DataAccess() throws DatabaseException
     {
-        setupConnection();
-    }
-
-    /**
-     * Set up the connection to the database
-     * @throws DatabaseException if the connection could not be established
-     */
-    private void setupConnection() throws DatabaseException
-    {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            connection = DriverManager.getConnection("jdbc:mysql://localhost/thegeneralpractitioner?user="+DB_USER+"&password="+DB_PASSWORD+"");
-        }catch (Exception ex)
-        {
-            throw new DatabaseException("Could not connect to the database");
-        }
+        connectionPool = ConnectionPool.getInstance(DB_URL);
     }
 
     //region Patient
@@ -60,9 +66,9 @@ public class DataAccess implements IDataAccess
     {
         if(email==null || email.isBlank() || email.isEmpty())
             throw new NullDataException("Null email in getPatient()");
-        try {
-            String query = "CALL find_patient(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL find_patient(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setString(1, email);
 
             ResultSet result = statement.executeQuery();
@@ -119,9 +125,9 @@ public class DataAccess implements IDataAccess
     {
         if(patientID<0)
             throw new InvalidDataException("Negative patient ID in the getPatient method");
-        try {
-            String query = "CALL get_patient(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_patient(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, patientID);
 
             ResultSet result = statement.executeQuery();
@@ -143,9 +149,10 @@ public class DataAccess implements IDataAccess
      * @throws InvalidDataException if the data is invalid
      * @throws DatabaseException if there was a problem querying the database
      * @throws EmailInUseException if the email address is already in use
+     * @throws PatientNotFoundException if the registered patient could not be read back
      */
     @Override
-    public Patient registerPatient(Patient patient, Doctor doctor) throws NullDataException, EmailInUseException, DatabaseException, InvalidDataException
+    public Patient registerPatient(Patient patient, Doctor doctor) throws NullDataException, EmailInUseException, DatabaseException, InvalidDataException, PatientNotFoundException
     {
         if(patient==null)
             throw new NullDataException("Null patient in the registerPatient method");
@@ -157,9 +164,9 @@ public class DataAccess implements IDataAccess
         if(isInvalidDoctor(doctor))
             throw new InvalidDataException("Invalid doctor in the registerPatient method");
 
-        try {
-            String query = "CALL insert_patient(?, ?, ?, ?, ?, ?, ?, ?, ?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL insert_patient(?, ?, ?, ?, ?, ?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setString(1, patient.getEmail());
             statement.setString(2, patient.getPassHash());
             statement.setString(3, patient.getFirstName());
@@ -171,14 +178,14 @@ public class DataAccess implements IDataAccess
             statement.setInt(9, doctor.getDoctorID());
 
             statement.executeQuery();
-
-            return getPatient(patient.getEmail());
         } catch (SQLIntegrityConstraintViolationException ex) {
             throw new EmailInUseException();
         } catch (Exception ex)
         {
             throw new DatabaseException("Could not register patient in the database");
         }
+
+        return getPatient(patient.getEmail());
     }
 
     /**
@@ -235,9 +242,9 @@ public class DataAccess implements IDataAccess
         if(isInvalidDoctor(doctor))
             throw new InvalidDataException("Invalid doctor in the updatePatientFull method");
 
-        try {
-            String query = "CALL update_patient(?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL update_patient(?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, patient.getPatientID());
             statement.setString(2, patient.getEmail());
             statement.setString(3, patient.getPassHash());
@@ -266,14 +273,15 @@ public class DataAccess implements IDataAccess
      * @throws InvalidDataException if an invalid value was sent as a parameter
      * @throws DatabaseException if there was a problem querying the database
      */
+    @Override
     public void deletePatient(int patientID) throws InvalidDataException, DatabaseException
     {
         if(patientID<0)
             throw new InvalidDataException("Negative patient ID in the deletePatient method");
 
-        try{
-            String query = "CALL delete_patient(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL delete_patient(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, patientID);
             statement.executeQuery();
         } catch (Exception ex)
@@ -301,9 +309,9 @@ public class DataAccess implements IDataAccess
         if(isInvalidPatient(patient))
             throw new InvalidDataException("Invalid patient in the getDoctor(patient) method overload");
 
-        try {
-            String query = "CALL find_doctor(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL find_doctor(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, patient.getPatientID());
 
             ResultSet result = statement.executeQuery();
@@ -331,9 +339,9 @@ public class DataAccess implements IDataAccess
         if(doctorID<0)
             throw new InvalidDataException("Negative doctor ID in the getDoctor(doctorID) method overload");
 
-        try {
-            String query = "CALL get_doctor(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_doctor(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, doctorID);
             ResultSet result = statement.executeQuery();
 
@@ -358,16 +366,7 @@ public class DataAccess implements IDataAccess
         Doctor doctor;
         try {
             result.next();
-            doctor = new Doctor(
-                    result.getInt("id_doctor"),
-                    result.getString("email"),
-                    result.getString("first_name"),
-                    result.getString("middle_name"),
-                    result.getString("last_name"),
-                    result.getDate("date_of_birth"),
-                    result.getString("gender"),
-                    result.getString("telephone_number")
-            );
+            doctor = getDoctorFromRow(result);
         } catch(Exception ex)
         {
             throw new DoctorNotFoundException();
@@ -376,6 +375,26 @@ public class DataAccess implements IDataAccess
         return doctor;
     }
 
+    /**
+     * Get the doctor stored in the current row of the given result set
+     * @param result The result set
+     * @return The doctor
+     * @throws SQLException if there was a problem retrieving the doctor
+     */
+    private Doctor getDoctorFromRow(ResultSet result) throws SQLException
+    {
+        return new Doctor(
+                result.getInt("id_doctor"),
+                result.getString("email"),
+                result.getString("first_name"),
+                result.getString("middle_name"),
+                result.getString("last_name"),
+                result.getDate("date_of_birth"),
+                result.getString("gender"),
+                result.getString("telephone_number")
+        );
+    }
+
 
     /**
      * Get the full list of doctors from the database
@@ -384,22 +403,13 @@ public class DataAccess implements IDataAccess
      */
     public List<Doctor> getDoctors() throws DatabaseException
     {
-        try {
-            String query = "CALL get_doctors();";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_doctors();";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             ResultSet result = statement.executeQuery();
             var doctors = new ArrayList<Doctor>();
             while (result.next()) {
-                doctors.add(new Doctor(
-                        result.getInt("id_doctor"),
-                        result.getString("email"),
-                        result.getString("first_name"),
-                        result.getString("middle_name"),
-                        result.getString("last_name"),
-                        result.getDate("date_of_birth"),
-                        result.getString("gender"),
-                        result.getString("telephone_number")
-                ));
+                doctors.add(getDoctorFromRow(result));
             }
 
             return doctors;
@@ -428,9 +438,9 @@ public class DataAccess implements IDataAccess
         if(isInvalidDoctor(doctor))
             throw new InvalidDataException("Invalid doctor in the getCertifications method");
 
-        try {
-            String query = "CALL get_certifications_doctor(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_certifications_doctor(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, doctor.getDoctorID());
             ResultSet result = statement.executeQuery();
             var certifications = new ArrayList<Certification>();
@@ -466,24 +476,15 @@ public class DataAccess implements IDataAccess
     {
         if(bookingID<0)
             throw new InvalidDataException("Negative booking ID in the getBooking(bookingID) method");
-        try {
-            String query = "CALL get_booking(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_booking(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, bookingID);
             ResultSet result = statement.executeQuery();
 
             result.next();
 
-            return new Booking(
-                    result.getInt("id_booking"),
-                    result.getInt("id_doctor"),
-                    result.getInt("id_patient"),
-                    result.getTimestamp("booking_time"),
-                    result.getTimestamp("timestamp"),
-                    result.getString("type"),
-                    result.getString("details"),
-                    result.getString("prescription")
-            );
+            return getBookingFromRow(result);
         }catch (Exception ex)
         {
             throw new DatabaseException("Could not get booking from the database");
@@ -499,9 +500,9 @@ public class DataAccess implements IDataAccess
     @Override
     public List<Booking> getBookings() throws DatabaseException
     {
-        try {
-            String query = "CALL get_bookings();";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_bookings();";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             ResultSet result = statement.executeQuery();
 
             return getBookingsFromDB(result);
@@ -511,6 +512,18 @@ public class DataAccess implements IDataAccess
         }
     }
 
+    /**
+     * Get all bookings from the database, reading them one at a time as the stream is consumed.
+     * The stream holds a database connection until it is closed, so it must be used in a try-with-resources block
+     * @return The bookings
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    @Override
+    public Stream<Booking> streamBookings() throws DatabaseException
+    {
+        return streamFromDB("CALL get_bookings();", this::getBookingFromRow, "Could not get bookings from the database");
+    }
+
     /**
      * Get all bookings of the given doctor
      * @return The bookings
@@ -526,9 +539,9 @@ public class DataAccess implements IDataAccess
         if(isInvalidDoctor(doctor))
             throw new InvalidDataException("Invalid doctor in the getBookings(doctor) method overload");
 
-        try {
-            String query = "CALL get_bookings_doctor(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_bookings_doctor(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, doctor.getDoctorID());
             ResultSet result = statement.executeQuery();
 
@@ -554,10 +567,55 @@ public class DataAccess implements IDataAccess
         if(isInvalidPatient(patient))
             throw new InvalidDataException("Invalid patient in the getBookings(patient) method overload");
 
-        try {
-            String query = "CALL get_bookings_patient(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_bookings_patient(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, patient.getPatientID());
+            ResultSet result = statement.executeQuery();
+
+            return getBookingsFromDB(result);
+        }catch (Exception ex)
+        {
+            throw new DatabaseException("Could not get bookings from the database");
+        }
+    }
+
+    /**
+     * Get the bookings of the given patient that fall within a time window, on one side of the current time.
+     * The window is narrowed to the past or the future, so only the matching rows are read from the database.
+     * @param patient The patient
+     * @param period Whether to get the bookings before or after the current time
+     * @param windowStart The start of the window (inclusive), or null for no lower bound
+     * @param windowEnd The end of the window (exclusive), or null for no upper bound
+     * @param ascending true to order the bookings from the earliest to the latest, false for the opposite
+     * @return The bookings
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public List<Booking> getBookings(Patient patient, BookingPeriod period, Timestamp windowStart, Timestamp windowEnd, boolean ascending) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getBookings(patient, period) method overload");
+        if(period==null)
+            throw new NullDataException("Null period in the getBookings(patient, period) method overload");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getBookings(patient, period) method overload");
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp start = getWindowStart(period, windowStart, now);
+        Timestamp end = getWindowEnd(period, windowEnd, now);
+        if(!start.before(end))
+            return new ArrayList<>();
+
+        String query = "CALL get_bookings_patient_between(?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, patient.getPatientID());
+            statement.setTimestamp(2, start);
+            statement.setTimestamp(3, end);
+            statement.setBoolean(4, ascending);
             ResultSet result = statement.executeQuery();
 
             return getBookingsFromDB(result);
@@ -577,20 +635,244 @@ public class DataAccess implements IDataAccess
     {
         var bookings = new ArrayList<Booking>();
         while (result.next()) {
-            bookings.add(new Booking(
-                    result.getInt("id_booking"),
-                    result.getInt("id_doctor"),
-                    result.getInt("id_patient"),
-                    result.getTimestamp("booking_time"),
-                    result.getTimestamp("timestamp"),
-                    result.getString("type"),
-                    result.getString("details"),
-                    result.getString("prescription")
-            ));
+            bookings.add(getBookingFromRow(result));
         }
         return bookings;
     }
 
+    /**
+     * Get the booking stored in the current row of the given result set
+     * @param result The result set
+     * @return The booking
+     * @throws SQLException if there was a problem retrieving the booking
+     */
+    private Booking getBookingFromRow(ResultSet result) throws SQLException
+    {
+        return new Booking(
+                result.getInt("id_booking"),
+                result.getInt("id_doctor"),
+                result.getInt("id_patient"),
+                result.getTimestamp("booking_time"),
+                result.getTimestamp("timestamp"),
+                result.getString("type"),
+                result.getString("details"),
+                result.getString("prescription"),
+                result.getInt("version")
+        );
+    }
+
+    /**
+     * Get the booking returned by a compare-and-set update, after checking that the update was made
+     * @param result The result set, holding the booking and the number of rows updated
+     * @return The updated booking
+     * @throws SQLException if there was a problem retrieving the booking
+     * @throws BookingNotFoundException if the booking no longer exists
+     * @throws BookingConflictException if the booking was changed by someone else since it was read, so nothing was updated
+     */
+    private Booking getUpdatedBookingFromDB(ResultSet result) throws SQLException, BookingNotFoundException, BookingConflictException
+    {
+        if(!result.next())
+            throw new BookingNotFoundException();
+        if(result.getInt("updated_count") == 0)
+            throw new BookingConflictException();
+        return getBookingFromRow(result);
+    }
+
+    /**
+     * Get the bookings of the given patient that fall within a time window, on one side of the current time,
+     * together with the doctor of each booking. The bookings and their doctors are read in a single query.
+     * @param patient The patient
+     * @param period Whether to get the bookings before or after the current time
+     * @param windowStart The start of the window (inclusive), or null for no lower bound
+     * @param windowEnd The end of the window (exclusive), or null for no upper bound
+     * @param ascending true to order the bookings from the earliest to the latest, false for the opposite
+     * @return The bookings, along with their doctors
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public List<BookingWithDoctor> getBookingsWithDoctor(Patient patient, BookingPeriod period, Timestamp windowStart, Timestamp windowEnd, boolean ascending) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getBookingsWithDoctor method");
+        if(period==null)
+            throw new NullDataException("Null period in the getBookingsWithDoctor method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getBookingsWithDoctor method");
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp start = getWindowStart(period, windowStart, now);
+        Timestamp end = getWindowEnd(period, windowEnd, now);
+        if(!start.before(end))
+            return new ArrayList<>();
+
+        String query = "CALL get_bookings_with_doctor_patient_between(?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, patient.getPatientID());
+            statement.setTimestamp(2, start);
+            statement.setTimestamp(3, end);
+            statement.setBoolean(4, ascending);
+            ResultSet result = statement.executeQuery();
+
+            var bookings = new ArrayList<BookingWithDoctor>();
+            while (result.next()) {
+                bookings.add(new BookingWithDoctor(getBookingFromRow(result), getDoctorFromRow(result)));
+            }
+            return bookings;
+        }catch (Exception ex)
+        {
+            throw new DatabaseException("Could not get bookings from the database");
+        }
+    }
+
+    /**
+     * Get the start of a booking time window, moved up to the current time for future bookings
+     * @param period Whether the window is before or after the current time
+     * @param windowStart The requested start of the window, or null for no lower bound
+     * @param now The current time
+     * @return The start of the window
+     */
+    private Timestamp getWindowStart(BookingPeriod period, Timestamp windowStart, Timestamp now)
+    {
+        Timestamp start = (windowStart == null) ? EARLIEST_TIME : windowStart;
+        if(period == BookingPeriod.FUTURE && start.before(now))
+            start = now;
+        return start;
+    }
+
+    /**
+     * Get the end of a booking time window, moved back to the current time for past bookings
+     * @param period Whether the window is before or after the current time
+     * @param windowEnd The requested end of the window, or null for no upper bound
+     * @param now The current time
+     * @return The end of the window
+     */
+    private Timestamp getWindowEnd(BookingPeriod period, Timestamp windowEnd, Timestamp now)
+    {
+        Timestamp end = (windowEnd == null) ? LATEST_TIME : windowEnd;
+        if(period == BookingPeriod.PAST && end.after(now))
+            end = now;
+        return end;
+    }
+
+
+    /**
+     * Check whether the patient or the doctor already has a booking at the given time.
+     * Both checks are single lookups on the unique (id_patient, booking_time) and (id_doctor, booking_time) keys
+     * @param patientID The patient id
+     * @param doctorID The doctor id
+     * @param bookingTime The date and time of the booking
+     * @return true if the slot is taken, false otherwise
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    @Override
+    public boolean isBookingSlotTaken(int patientID, int doctorID, Timestamp bookingTime) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(bookingTime==null)
+            throw new NullDataException("Null booking time in the isBookingSlotTaken method");
+        if(patientID<0)
+            throw new InvalidDataException("Negative patient ID in the isBookingSlotTaken method");
+        if(doctorID<0)
+            throw new InvalidDataException("Negative doctor ID in the isBookingSlotTaken method");
+
+        String query = "CALL is_booking_slot_taken(?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, patientID);
+            statement.setInt(2, doctorID);
+            statement.setTimestamp(3, bookingTime);
+            ResultSet result = statement.executeQuery();
+
+            result.next();
+            return result.getBoolean("taken");
+        }catch (Exception ex)
+        {
+            throw new DatabaseException("Could not check the booking slot in the database");
+        }
+    }
+
+    /**
+     * Get the times of the given doctor's bookings in the given window, from the earliest to the latest.
+     * Only the unique (id_doctor, booking_time) key is read, so no booking rows are fetched
+     * @param doctor The doctor
+     * @param windowStart The start of the window (inclusive)
+     * @param windowEnd The end of the window (exclusive)
+     * @return The booking times
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    @Override
+    public List<Timestamp> getBookingTimes(Doctor doctor, Timestamp windowStart, Timestamp windowEnd) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the getBookingTimes method");
+        if(windowStart==null || windowEnd==null)
+            throw new NullDataException("Null window in the getBookingTimes method");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the getBookingTimes method");
+        if(!windowStart.before(windowEnd))
+            throw new InvalidDataException("Empty window in the getBookingTimes method");
+
+        String query = "CALL get_booking_times_doctor_between(?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, doctor.getDoctorID());
+            statement.setTimestamp(2, windowStart);
+            statement.setTimestamp(3, windowEnd);
+            ResultSet result = statement.executeQuery();
+
+            var bookingTimes = new ArrayList<Timestamp>();
+            while (result.next()) {
+                bookingTimes.add(result.getTimestamp("booking_time"));
+            }
+            return bookingTimes;
+        }catch (Exception ex)
+        {
+            throw new DatabaseException("Could not get the booking times from the database");
+        }
+    }
+
+    /**
+     * Get the times of every doctor's bookings in the given window, with a single query,
+     * so the free slots of all doctors can be compared without querying each doctor
+     * @param windowStart The start of the window (inclusive)
+     * @param windowEnd The end of the window (exclusive)
+     * @return The booking times of each doctor with bookings in the window, from the earliest to the latest, by doctor id
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the window is empty
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    @Override
+    public Map<Integer, List<Timestamp>> getBookingTimes(Timestamp windowStart, Timestamp windowEnd) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(windowStart==null || windowEnd==null)
+            throw new NullDataException("Null window in the getBookingTimes method");
+        if(!windowStart.before(windowEnd))
+            throw new InvalidDataException("Empty window in the getBookingTimes method");
+
+        String query = "CALL get_booking_times_between(?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setTimestamp(1, windowStart);
+            statement.setTimestamp(2, windowEnd);
+            ResultSet result = statement.executeQuery();
+
+            var bookingTimes = new HashMap<Integer, List<Timestamp>>();
+            while (result.next()) {
+                bookingTimes.computeIfAbsent(result.getInt("id_doctor"), id -> new ArrayList<>())
+                        .add(result.getTimestamp("booking_time"));
+            }
+            return bookingTimes;
+        }catch (Exception ex)
+        {
+            throw new DatabaseException("Could not get the booking times from the database");
+        }
+    }
 
     /**
      * Create booking
@@ -602,9 +884,10 @@ public class DataAccess implements IDataAccess
      * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
      * @throws DatabaseException if there was an error querying the database
      * @throws InvalidDataException if the data is invalid
+     * @throws ExistingBookingException if the patient or the doctor already has a booking at that time
      */
     @Override
-    public Booking createBooking(Patient patient, Doctor doctor, Timestamp bookingTime, String type) throws DatabaseException, NullDataException, InvalidDataException
+    public Booking createBooking(Patient patient, Doctor doctor, Timestamp bookingTime, String type) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException
     {
         if(patient==null)
             throw new NullDataException("Null patient in the createBooking method");
@@ -620,46 +903,56 @@ public class DataAccess implements IDataAccess
         if(isInvalidDoctor(doctor))
             throw new InvalidDataException("Invalid doctor in the createBooking method");
 
-        try {
-            String query = "CALL insert_booking(?, ?, ?, ?, ?, ?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        int bookingID;
+        String query = "CALL insert_booking(?, ?, ?, ?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             CallableStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, patient.getPatientID());
             statement.setInt(2, doctor.getDoctorID());
             statement.setTimestamp(3, bookingTime);
             statement.setString(4, type);
             statement.setString(5, null);
             statement.setString(6, null);
+            statement.registerOutParameter(7, Types.INTEGER);
 
-            statement.executeQuery();
-
-            var bookings = getBookings();
-            return bookings.get(bookings.size()-1);
+            statement.execute();
+            bookingID = statement.getInt(7);
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            if(ex.getErrorCode() == DUPLICATE_ENTRY_ERROR)
+                throw new ExistingBookingException();
+            throw new DatabaseException("Could not insert booking in the database");
         } catch (Exception ex)
         {
             ex.printStackTrace();
             throw new DatabaseException("Could not insert booking in the database");
         }
+
+        return getBooking(bookingID);
     }
 
     /**
-     * Update the booking with the new details
+     * Update the booking with the new details, if it has not been changed since it was read.
+     * The booking's version is compared and incremented in the same statement, so no lock is held
      * @param booking The modified booking
      * @return The corresponding booking from the database
      * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
      * @throws DatabaseException if there was an error querying the database
      * @throws InvalidDataException if the data is invalid
+     * @throws ExistingBookingException if the patient or the doctor already has a booking at the new time
+     * @throws BookingNotFoundException if the booking no longer exists
+     * @throws BookingConflictException if the booking was changed by someone else since it was read
      */
     @Override
-    public Booking updateBooking(Booking booking) throws DatabaseException, NullDataException, InvalidDataException
+    public Booking updateBooking(Booking booking) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException, BookingNotFoundException, BookingConflictException
     {
         if(booking==null)
             throw new NullDataException("Null booking in the updateBooking method");
         if(isInvalidBooking(booking))
             throw new InvalidDataException("Invalid booking the updateBooking method");
 
-        try {
-            String query = "CALL update_booking(?, ?, ?, ?, ?, ?, ?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL update_booking(?, ?, ?, ?, ?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, booking.getBookingID());
             statement.setInt(2, booking.getPatientID());
             statement.setInt(3, booking.getDoctorID());
@@ -667,10 +960,16 @@ public class DataAccess implements IDataAccess
             statement.setString(5, booking.getType());
             statement.setString(6, booking.getDetails());
             statement.setString(7, booking.getPrescription());
+            statement.setInt(8, booking.getVersion());
 
-            statement.executeQuery();
-
-            return getBooking(booking.getBookingID());
+            ResultSet result = statement.executeQuery();
+            return getUpdatedBookingFromDB(result);
+        } catch (BookingNotFoundException | BookingConflictException ex) {
+            throw ex;
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            if(ex.getErrorCode() == DUPLICATE_ENTRY_ERROR)
+                throw new ExistingBookingException();
+            throw new DatabaseException("Could not update booking in the database");
         } catch (Exception ex)
         {
             ex.printStackTrace();
@@ -679,60 +978,172 @@ public class DataAccess implements IDataAccess
     }
 
     /**
-     * Delete the booking from the database
-     * @param booking The booking
+     * Create a booking, along with the notification and the log that record it, in a single transaction.
+     * Either all three rows are inserted, or none of them are
+     * @param patient The patient
+     * @param doctor The doctor
+     * @param bookingTime The date and time of the booking
+     * @param type The type of booking
+     * @param notificationHeader The header of the patient's notification
+     * @param notificationMessage The message of the patient's notification
+     * @param logMessage The message of the log
+     * @return The Booking from the database
      * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
-     * @throws DatabaseException if there was a problem querying the database
+     * @throws DatabaseException if there was an error querying the database
      * @throws InvalidDataException if the data is invalid
+     * @throws ExistingBookingException if the patient or the doctor already has a booking at that time
      */
-    public void deleteBooking(Booking booking) throws DatabaseException, NullDataException, InvalidDataException
+    @Override
+    public Booking createBookingWithAudit(Patient patient, Doctor doctor, Timestamp bookingTime, String type, String notificationHeader, String notificationMessage, String logMessage) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException
     {
-        if(booking==null)
-            throw new NullDataException("Null booking in the deleteBooking method");
-        if(isInvalidBooking(booking))
-            throw new InvalidDataException("Invalid booking in the deleteBooking method");
+        if(patient==null)
+            throw new NullDataException("Null patient in the createBookingWithAudit method");
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the createBookingWithAudit method");
+        if(bookingTime==null)
+            throw new NullDataException("Null booking time in the createBookingWithAudit method");
+        if(isNullOrEmpty(type))
+            throw new NullDataException("Null type in the createBookingWithAudit method");
+        if(isNullOrEmpty(notificationHeader) || isNullOrEmpty(notificationMessage))
+            throw new NullDataException("Null notification in the createBookingWithAudit method");
+        if(isNullOrEmpty(logMessage))
+            throw new NullDataException("Null log message in the createBookingWithAudit method");
 
-        try{
-            String query = "CALL delete_booking(?);";
-            PreparedStatement statement = connection.prepareCall(query);
-            statement.setInt(1, booking.getBookingID());
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the createBookingWithAudit method");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the createBookingWithAudit method");
 
-            statement.executeQuery();
-        } catch(Exception ex)
+        String query = "CALL insert_booking_with_audit(?, ?, ?, ?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, patient.getPatientID());
+            statement.setInt(2, doctor.getDoctorID());
+            statement.setTimestamp(3, bookingTime);
+            statement.setString(4, type);
+            statement.setString(5, notificationHeader);
+            statement.setString(6, notificationMessage);
+            statement.setString(7, logMessage);
+
+            ResultSet result = statement.executeQuery();
+            return getBookingsFromDB(result).get(0);
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            if(ex.getErrorCode() == DUPLICATE_ENTRY_ERROR)
+                throw new ExistingBookingException();
+            throw new DatabaseException("Could not insert booking in the database");
+        } catch (Exception ex)
         {
-            throw new DatabaseException("Could not delete the booking");
+            ex.printStackTrace();
+            throw new DatabaseException("Could not insert booking in the database");
         }
     }
 
-
-    //endregion
-
-    //region Notification
     /**
-     * Get the notification with the given id from the database
-     * @param notificationID The id of the notification
-     * @return The notification
+     * Update the booking with the new details, and insert the notification and the log that record the change,
+     * in a single transaction. Either the booking is updated and both rows are inserted, or nothing changes.
+     * As in updateBooking, nothing changes if the booking has been changed since it was read
+     * @param booking The modified booking
+     * @param notificationHeader The header of the patient's notification
+     * @param notificationMessage The message of the patient's notification
+     * @param logMessage The message of the log
+     * @return The corresponding booking from the database
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
      * @throws DatabaseException if there was an error querying the database
+     * @throws InvalidDataException if the data is invalid
+     * @throws ExistingBookingException if the patient or the doctor already has a booking at the new time
+     * @throws BookingNotFoundException if the booking no longer exists
+     * @throws BookingConflictException if the booking was changed by someone else since it was read
      */
     @Override
-    public Notification getNotification(int notificationID) throws DatabaseException
+    public Booking updateBookingWithAudit(Booking booking, String notificationHeader, String notificationMessage, String logMessage) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException, BookingNotFoundException, BookingConflictException
     {
-        try {
-            String query = "CALL get_notification(?);";
-            PreparedStatement statement = connection.prepareCall(query);
-            statement.setInt(1, notificationID);
-            ResultSet result = statement.executeQuery();
+        if(booking==null)
+            throw new NullDataException("Null booking in the updateBookingWithAudit method");
+        if(isNullOrEmpty(notificationHeader) || isNullOrEmpty(notificationMessage))
+            throw new NullDataException("Null notification in the updateBookingWithAudit method");
+        if(isNullOrEmpty(logMessage))
+            throw new NullDataException("Null log message in the updateBookingWithAudit method");
+        if(isInvalidBooking(booking))
+            throw new InvalidDataException("Invalid booking the updateBookingWithAudit method");
 
-            result.next();
+        String query = "CALL update_booking_with_audit(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, booking.getBookingID());
+            statement.setInt(2, booking.getPatientID());
+            statement.setInt(3, booking.getDoctorID());
+            statement.setTimestamp(4, booking.getBookingTime());
+            statement.setString(5, booking.getType());
+            statement.setString(6, booking.getDetails());
+            statement.setString(7, booking.getPrescription());
+            statement.setInt(8, booking.getVersion());
+            statement.setString(9, notificationHeader);
+            statement.setString(10, notificationMessage);
+            statement.setString(11, logMessage);
 
-            return new Notification(
-                    result.getInt("id_notif"),
-                    result.getInt("id_patient"),
-                    result.getString("header"),
-                    result.getString("message"),
-                    result.getTimestamp("booking_time"),
-                    result.getBoolean("is_new")
-            );
+            ResultSet result = statement.executeQuery();
+            return getUpdatedBookingFromDB(result);
+        } catch (BookingNotFoundException | BookingConflictException ex) {
+            throw ex;
+        } catch (SQLIntegrityConstraintViolationException ex) {
+            if(ex.getErrorCode() == DUPLICATE_ENTRY_ERROR)
+                throw new ExistingBookingException();
+            throw new DatabaseException("Could not update booking in the database");
+        } catch (Exception ex)
+        {
+            ex.printStackTrace();
+            throw new DatabaseException("Could not update booking in the database");
+        }
+    }
+
+    /**
+     * Delete the booking from the database
+     * @param booking The booking
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws InvalidDataException if the data is invalid
+     */
+    public void deleteBooking(Booking booking) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(booking==null)
+            throw new NullDataException("Null booking in the deleteBooking method");
+        if(isInvalidBooking(booking))
+            throw new InvalidDataException("Invalid booking in the deleteBooking method");
+
+        String query = "CALL delete_booking(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, booking.getBookingID());
+
+            statement.executeQuery();
+        } catch(Exception ex)
+        {
+            throw new DatabaseException("Could not delete the booking");
+        }
+    }
+
+
+    //endregion
+
+    //region Notification
+    /**
+     * Get the notification with the given id from the database
+     * @param notificationID The id of the notification
+     * @return The notification
+     * @throws DatabaseException if there was an error querying the database
+     */
+    @Override
+    public Notification getNotification(int notificationID) throws DatabaseException
+    {
+        String query = "CALL get_notification(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, notificationID);
+            ResultSet result = statement.executeQuery();
+
+            result.next();
+
+            return getNotificationFromRow(result);
         }catch (Exception ex)
         {
             throw new DatabaseException("Could not get notification from the database");
@@ -763,22 +1174,24 @@ public class DataAccess implements IDataAccess
         if(isInvalidPatient(patient))
             throw new InvalidDataException("Invalid patient in the createNotification method");
 
-        try {
-            String query = "CALL insert_notification(?, ?, ?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        int notificationID;
+        String query = "CALL insert_notification(?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             CallableStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, patient.getPatientID());
             statement.setString(2, header);
             statement.setString(3, message);
+            statement.registerOutParameter(4, Types.INTEGER);
 
-            statement.executeQuery();
-
-            var notifications = getNotifications();
-            return notifications.get(notifications.size()-1);
+            statement.execute();
+            notificationID = statement.getInt(4);
         } catch (Exception ex)
         {
             ex.printStackTrace();
-            throw new DatabaseException("Could not insert booking in the database");
+            throw new DatabaseException("Could not insert notification in the database");
         }
+
+        return getNotification(notificationID);
     }
 
     /**
@@ -796,9 +1209,9 @@ public class DataAccess implements IDataAccess
             throw new NullDataException("Null patient in the getNotifications method");
         if(isInvalidPatient(patient))
             throw new InvalidDataException("Invalid patient in the getNotification method");
-        try {
-            String query = "CALL get_notifications_patient(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_notifications_patient(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, patient.getPatientID());
             ResultSet result = statement.executeQuery();
 
@@ -809,6 +1222,198 @@ public class DataAccess implements IDataAccess
         }
     }
 
+    /**
+     * Get the changes to the given patient's notifications since the notification with the given id was read.
+     * The new notifications, the ids of the given notifications that have been read and the number of unread notifications
+     * are read in a single call, so a sync where nothing has changed returns no rows
+     * @param patient The patient
+     * @param afterNotificationID The id of the newest notification already read, or null to get all notifications
+     * @param unreadNotificationIDs The ids of the notifications shown as unread
+     * @return The notifications created after the given one, the ids of the given notifications which have been read since,
+     * and the number of unread notifications
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public NotificationChanges getNotificationChanges(Patient patient, Integer afterNotificationID, Collection<Integer> unreadNotificationIDs) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getNotificationChanges method");
+        if(unreadNotificationIDs==null)
+            throw new NullDataException("Null notification ids in the getNotificationChanges method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getNotificationChanges method");
+
+        var idList = new StringJoiner(",");
+        for(Integer notificationID : unreadNotificationIDs) {
+            if(notificationID==null || notificationID<=0)
+                throw new InvalidDataException("Invalid notification id in the getNotificationChanges method");
+            idList.add(notificationID.toString());
+        }
+
+        String query = "CALL get_notification_changes_patient(?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, patient.getPatientID());
+            statement.setInt(2, afterNotificationID == null ? 0 : afterNotificationID);
+            statement.setString(3, idList.toString());
+            statement.execute();
+
+            List<Notification> newNotifications = getNotificationsFromDB(statement.getResultSet());
+            statement.getMoreResults();
+            ResultSet result = statement.getResultSet();
+            var readNotificationIDs = new HashSet<Integer>();
+            while (result.next()) {
+                readNotificationIDs.add(result.getInt("id_notif"));
+            }
+            statement.getMoreResults();
+            result = statement.getResultSet();
+            int unreadCount = result.next() ? result.getInt("unread_count") : 0;
+
+            return new NotificationChanges(newNotifications, readNotificationIDs, unreadCount);
+        } catch (Exception ex)
+        {
+            throw new DatabaseException("Could not get notifications from the database");
+        }
+    }
+
+    /**
+     * Get the number of unread notifications of the given patient
+     * @param patient The patient
+     * @return The number of unread notifications
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public int countUnreadNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the countUnreadNotifications method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the countUnreadNotifications method");
+
+        return countNotifications(patient, true);
+    }
+
+    /**
+     * Get the number of read (archived) notifications of the given patient
+     * @param patient The patient
+     * @return The number of archived notifications
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public int countArchivedNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the countArchivedNotifications method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the countArchivedNotifications method");
+
+        return countNotifications(patient, false);
+    }
+
+    /**
+     * Count the notifications of the given patient that are (or are not) new
+     * @param patient The patient
+     * @param isNew Whether to count the unread notifications or the read ones
+     * @return The number of notifications
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    private int countNotifications(Patient patient, boolean isNew) throws DatabaseException
+    {
+        String query = "CALL count_notifications_patient(?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, patient.getPatientID());
+            statement.setBoolean(2, isNew);
+            ResultSet result = statement.executeQuery();
+
+            return result.next() ? result.getInt("notification_count") : 0;
+        } catch (Exception ex)
+        {
+            throw new DatabaseException("Could not count notifications in the database");
+        }
+    }
+
+    /**
+     * Get a page of the unread notifications of the given patient, from the newest to the oldest.
+     * The next page is read by passing the id of the last notification of the current page as beforeNotificationID
+     * @param patient The patient
+     * @param beforeNotificationID Only notifications with a smaller id than this are returned, or null to start from the newest one
+     * @param limit The maximum number of notifications to return
+     * @return The page of notifications
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public List<Notification> getUnreadNotifications(Patient patient, Integer beforeNotificationID, int limit) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getUnreadNotifications method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getUnreadNotifications method");
+        if(limit<=0)
+            throw new InvalidDataException("Non-positive limit in the getUnreadNotifications method");
+
+        return getNotificationsPage(patient, true, beforeNotificationID, limit);
+    }
+
+    /**
+     * Get a page of the read (archived) notifications of the given patient, from the newest to the oldest.
+     * The next page is read by passing the id of the last notification of the current page as beforeNotificationID
+     * @param patient The patient
+     * @param beforeNotificationID Only notifications with a smaller id than this are returned, or null to start from the newest one
+     * @param limit The maximum number of notifications to return
+     * @return The page of notifications
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public List<Notification> getArchivedNotifications(Patient patient, Integer beforeNotificationID, int limit) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getArchivedNotifications method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getArchivedNotifications method");
+        if(limit<=0)
+            throw new InvalidDataException("Non-positive limit in the getArchivedNotifications method");
+
+        return getNotificationsPage(patient, false, beforeNotificationID, limit);
+    }
+
+    /**
+     * Get a page of the notifications of the given patient that are (or are not) new, from the newest to the oldest
+     * @param patient The patient
+     * @param isNew Whether to get the unread notifications or the read ones
+     * @param beforeNotificationID Only notifications with a smaller id than this are returned, or null to start from the newest one
+     * @param limit The maximum number of notifications to return
+     * @return The page of notifications
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    private List<Notification> getNotificationsPage(Patient patient, boolean isNew, Integer beforeNotificationID, int limit) throws DatabaseException
+    {
+        String query = "CALL get_notifications_patient_before(?, ?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, patient.getPatientID());
+            statement.setBoolean(2, isNew);
+            statement.setInt(3, beforeNotificationID == null ? Integer.MAX_VALUE : beforeNotificationID);
+            statement.setInt(4, limit);
+            ResultSet result = statement.executeQuery();
+
+            return getNotificationsFromDB(result);
+        } catch (Exception ex)
+        {
+            throw new DatabaseException("Could not get notifications from the database");
+        }
+    }
+
     /**
      * Set the given notification as seen
      * @param notification The notification
@@ -825,9 +1430,9 @@ public class DataAccess implements IDataAccess
         if(!validateNotification(notification))
             throw new InvalidDataException("Invalid notification in the setNotification method");
 
-        try{
-            String query = "CALL notificationNotNew(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL notificationNotNew(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, notification.getNotifID());
 
             statement.executeQuery();
@@ -842,24 +1447,91 @@ public class DataAccess implements IDataAccess
     }
 
     /**
-     * Get all notifications from the database
-     * @return The notifications
+     * Set all the unread notifications of the given patient as seen, in a single statement
+     * @param patient The patient
+     * @return The number of notifications that were set as seen
      * @throws DatabaseException if there was a problem querying the database
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
      */
-    private List<Notification> getNotifications() throws DatabaseException
+    @Override
+    public int setNotificationsSeen(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
     {
-        try {
-            String query = "CALL get_notifications();";
-            PreparedStatement statement = connection.prepareCall(query);
+        if(patient==null)
+            throw new NullDataException("Null patient in the setNotificationsSeen method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the setNotificationsSeen method");
+
+        return setNotificationsSeen(patient, (String) null);
+    }
+
+    /**
+     * Set the given unread notifications of the given patient as seen, in a single statement.
+     * Notifications which belong to other patients are left unchanged
+     * @param patient The patient
+     * @param notificationIDs The ids of the notifications
+     * @return The number of notifications that were set as seen
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public int setNotificationsSeen(Patient patient, Collection<Integer> notificationIDs) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the setNotificationsSeen(patient, notificationIDs) method overload");
+        if(notificationIDs==null)
+            throw new NullDataException("Null notification ids in the setNotificationsSeen(patient, notificationIDs) method overload");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the setNotificationsSeen(patient, notificationIDs) method overload");
+
+        var idList = new StringJoiner(",");
+        for(Integer notificationID : notificationIDs) {
+            if(notificationID==null || notificationID<=0)
+                throw new InvalidDataException("Invalid notification id in the setNotificationsSeen(patient, notificationIDs) method overload");
+            idList.add(notificationID.toString());
+        }
+        if(notificationIDs.isEmpty())
+            return 0;
+
+        return setNotificationsSeen(patient, idList.toString());
+    }
+
+    /**
+     * Set the unread notifications of the given patient as seen
+     * @param patient The patient
+     * @param idList The comma-separated ids of the notifications, or null for all of them
+     * @return The number of notifications that were set as seen
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    private int setNotificationsSeen(Patient patient, String idList) throws DatabaseException
+    {
+        String query = "CALL notifications_not_new_patient(?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, patient.getPatientID());
+            statement.setString(2, idList);
             ResultSet result = statement.executeQuery();
 
-            return getNotificationsFromDB(result);
-        }catch (Exception ex)
+            return result.next() ? result.getInt("updated_count") : 0;
+        } catch(Exception ex)
         {
-            throw new DatabaseException("Could not get notifications from the database");
+            throw new DatabaseException("Could not update the notifications");
         }
     }
 
+    /**
+     * Get all notifications from the database, reading them one at a time as the stream is consumed.
+     * The stream holds a database connection until it is closed, so it must be used in a try-with-resources block
+     * @return The notifications
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    @Override
+    public Stream<Notification> streamNotifications() throws DatabaseException
+    {
+        return streamFromDB("CALL get_notifications();", this::getNotificationFromRow, "Could not get notifications from the database");
+    }
+
     /**
      * Get a list of notifications from the given result set
      * @param result The result set
@@ -870,19 +1542,30 @@ public class DataAccess implements IDataAccess
     {
         var notifications = new ArrayList<Notification>();
         while (result.next()) {
-            notifications.add(new Notification(
-                    result.getInt("id_notif"),
-                    result.getInt("id_patient"),
-                    result.getString("header"),
-                    result.getString("message"),
-                    result.getTimestamp("timestamp"),
-                    result.getBoolean("is_new")
-            ));
+            notifications.add(getNotificationFromRow(result));
         }
 
         return notifications;
     }
 
+    /**
+     * Get the notification stored in the current row of the given result set
+     * @param result The result set
+     * @return The notification
+     * @throws SQLException if there was a problem retrieving the notification
+     */
+    private Notification getNotificationFromRow(ResultSet result) throws SQLException
+    {
+        return new Notification(
+                result.getInt("id_notif"),
+                result.getInt("id_patient"),
+                result.getString("header"),
+                result.getString("message"),
+                result.getTimestamp("timestamp"),
+                result.getBoolean("is_new")
+        );
+    }
+
 
     /**
      * Delete the notification with the given id
@@ -894,9 +1577,9 @@ public class DataAccess implements IDataAccess
     {
         if(notificationID<0)
             throw new InvalidDataException("Negative notification ID in the deleteNotification method");
-        try{
-            String query = "CALL delete_notification(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL delete_notification(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, notificationID);
             statement.executeQuery();
         } catch (Exception ex)
@@ -909,6 +1592,30 @@ public class DataAccess implements IDataAccess
 
     //region Log
 
+    /**
+     * Get the log with the given id
+     * @param logID The log id
+     * @return The log
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws InvalidDataException if the data is invalid
+     */
+    public Log getLog(int logID) throws DatabaseException, InvalidDataException
+    {
+        if(logID<0)
+            throw new InvalidDataException("Negative log ID in the getLog method");
+        String query = "CALL get_log(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, logID);
+            ResultSet result = statement.executeQuery();
+
+            return getLogsFromDB(result).get(0);
+        }catch (Exception ex)
+        {
+            throw new DatabaseException("Could not get log from the database");
+        }
+    }
+
     /**
      * Get all logs
      * @return The logs
@@ -917,9 +1624,9 @@ public class DataAccess implements IDataAccess
     @Override
     public List<Log> getLogs() throws DatabaseException
     {
-        try {
-            String query = "CALL get_logs();";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_logs();";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             ResultSet result = statement.executeQuery();
 
             return getLogsFromDB(result);
@@ -929,6 +1636,18 @@ public class DataAccess implements IDataAccess
         }
     }
 
+    /**
+     * Get all logs, reading them one at a time as the stream is consumed.
+     * The stream holds a database connection until it is closed, so it must be used in a try-with-resources block
+     * @return The logs
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    @Override
+    public Stream<Log> streamLogs() throws DatabaseException
+    {
+        return streamFromDB("CALL get_logs();", this::getLogFromRow, "Could not get logs from the database");
+    }
+
     /**
      * Get the logs of the given patient
      * @param patient The patient
@@ -944,10 +1663,46 @@ public class DataAccess implements IDataAccess
             throw new NullDataException("Null patient in the getLogs method");
         if(isInvalidPatient(patient))
             throw new InvalidDataException("Invalid patient in the getLogs method");
-        try {
-            String query = "CALL get_logs_patient(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL get_logs_patient(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
+            statement.setInt(1, patient.getPatientID());
+            ResultSet result = statement.executeQuery();
+
+            return getLogsFromDB(result);
+        }catch (Exception ex)
+        {
+            throw new DatabaseException("Could not get logs from the database");
+        }
+    }
+
+    /**
+     * Get a page of the logs of the given patient, from the newest to the oldest.
+     * The next page is read by passing the id of the last log of the current page as beforeLogID
+     * @param patient The patient
+     * @param beforeLogID Only logs with a smaller id than this are returned, or null to start from the newest log
+     * @param limit The maximum number of logs to return
+     * @return The page of logs
+     * @throws DatabaseException if there was a problem querying the database
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public List<Log> getLogs(Patient patient, Integer beforeLogID, int limit) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getLogs(patient, beforeLogID, limit) method overload");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getLogs(patient, beforeLogID, limit) method overload");
+        if(limit<=0)
+            throw new InvalidDataException("Non-positive limit in the getLogs(patient, beforeLogID, limit) method overload");
+
+        String query = "CALL get_logs_patient_before(?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, patient.getPatientID());
+            statement.setInt(2, beforeLogID == null ? Integer.MAX_VALUE : beforeLogID);
+            statement.setInt(3, limit);
             ResultSet result = statement.executeQuery();
 
             return getLogsFromDB(result);
@@ -967,17 +1722,28 @@ public class DataAccess implements IDataAccess
     {
         var logs = new ArrayList<Log>();
         while (result.next()) {
-            logs.add(new Log(
-                    result.getInt("id_log"),
-                    result.getString("message"),
-                    result.getInt("id_patient"),
-                    result.getTimestamp("timestamp")
-            ));
+            logs.add(getLogFromRow(result));
         }
 
         return logs;
     }
 
+    /**
+     * Get the log stored in the current row of the given result set
+     * @param result The result set
+     * @return The log
+     * @throws SQLException if there was a problem retrieving the log
+     */
+    private Log getLogFromRow(ResultSet result) throws SQLException
+    {
+        return new Log(
+                result.getInt("id_log"),
+                result.getString("message"),
+                result.getInt("id_patient"),
+                result.getTimestamp("timestamp")
+        );
+    }
+
     /**
      * Create notification
      * @param patient The patient
@@ -997,21 +1763,99 @@ public class DataAccess implements IDataAccess
         if(isInvalidPatient(patient))
             throw new InvalidDataException("Invalid patient in the createLog method");
 
-        try {
-            String query = "CALL insert_log(?, ?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        int logID;
+        String query = "CALL insert_log(?, ?, ?);";
+        try (Connection connection = connectionPool.getConnection();
+             CallableStatement statement = connection.prepareCall(query)) {
             statement.setString(1, message);
             statement.setInt(2, patient.getPatientID());
+            statement.registerOutParameter(3, Types.INTEGER);
 
-            statement.executeQuery();
-
-            var logs = getLogs();
-            return logs.get(logs.size()-1);
+            statement.execute();
+            logID = statement.getInt(3);
         } catch (Exception ex)
         {
             ex.printStackTrace();
             throw new DatabaseException("Could not insert log in the database");
         }
+
+        return getLog(logID);
+    }
+
+    /**
+     * Insert the given logs in a single batch, in one transaction.
+     * The batch is a plain INSERT rather than a procedure call, so that the driver can rewrite it into one multi-row statement.
+     * If the batch fails, e.g. because the patient of one of the logs was deleted,
+     * the logs are inserted one by one instead, so that only the logs which cannot be inserted are lost.
+     * The logs keep the times they were created at, rather than the time they reach the database
+     * @param logs The logs to insert, each with its message, patient id and creation time
+     * @throws DatabaseException if there was a problem querying the database, or some of the logs could not be inserted
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public void createLogs(List<Log> logs) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(logs==null)
+            throw new NullDataException("Null logs in the createLogs method");
+        for(Log log : logs) {
+            if(log==null || isNullOrEmpty(log.getMessage()))
+                throw new NullDataException("Null log in the createLogs method");
+            if(log.getPatientID()==null || log.getPatientID()<0)
+                throw new InvalidDataException("Invalid patient in the createLogs method");
+        }
+        if(logs.isEmpty())
+            return;
+
+        String query = "INSERT INTO log (message, id_patient, timestamp) VALUES (?, ?, ?)";
+        int failedCount = 0;
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            connection.setAutoCommit(false);
+            try {
+                for(Log log : logs) {
+                    setLogParameters(statement, log);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+                return;
+            } catch (SQLException ex)
+            {
+                connection.rollback();
+                statement.clearBatch();
+            }
+
+            connection.setAutoCommit(true);
+            for(Log log : logs) {
+                try {
+                    setLogParameters(statement, log);
+                    statement.execute();
+                } catch (SQLException ex)
+                {
+                    failedCount++;
+                }
+            }
+        } catch (Exception ex)
+        {
+            throw new DatabaseException("Could not insert logs in the database");
+        }
+
+        if(failedCount > 0)
+            throw new DatabaseException("Could not insert " + failedCount + " of the logs in the database");
+    }
+
+    /**
+     * Set the parameters of the log INSERT statement to the values of the given log
+     * @param statement The INSERT statement
+     * @param log The log
+     * @throws SQLException if a parameter could not be set
+     */
+    private void setLogParameters(PreparedStatement statement, Log log) throws SQLException
+    {
+        statement.setString(1, log.getMessage());
+        statement.setInt(2, log.getPatientID());
+        statement.setTimestamp(3, log.getTimestamp() != null ? log.getTimestamp() : new Timestamp(System.currentTimeMillis()));
     }
 
     /**
@@ -1024,9 +1868,9 @@ public class DataAccess implements IDataAccess
     {
         if(logID<0)
             throw new InvalidDataException("Negative log ID in the deleteLog method");
-        try{
-            String query = "CALL delete_log(?);";
-            PreparedStatement statement = connection.prepareCall(query);
+        String query = "CALL delete_log(?);";
+        try (Connection connection = connectionPool.getConnection();
+             PreparedStatement statement = connection.prepareCall(query)) {
             statement.setInt(1, logID);
             statement.executeQuery();
         } catch (Exception ex)
@@ -1038,4 +1882,83 @@ public class DataAccess implements IDataAccess
 
     //endregion
 
+    //region Streaming
+    /**
+     * Run a query whose rows are read one at a time as the returned stream is consumed, so that whole tables
+     * can be processed without loading them into memory. The result set is forward-only and read-only,
+     * and the driver keeps no more than one row of it in memory.
+     * The connection, statement and result set are closed when the stream is closed.
+     * Closing the stream before all rows were read makes the driver skip the remaining rows.
+     * @param query The query
+     * @param rowReader Reads the object stored in the current row of the result set
+     * @param errorMessage The message of the exceptions thrown if the rows could not be read
+     * @param <T> The type of the objects read
+     * @return The stream of objects
+     * @throws DatabaseException if there was a problem querying the database
+     */
+    private <T> Stream<T> streamFromDB(String query, RowReader<T> rowReader, String errorMessage) throws DatabaseException
+    {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet result;
+        try {
+            connection = connectionPool.getConnection();
+            statement = connection.prepareCall(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAMING_FETCH_SIZE);
+            result = statement.executeQuery();
+        } catch (Exception ex)
+        {
+            closeQuietly(statement, connection);
+            throw new DatabaseException(errorMessage);
+        }
+
+        Connection openConnection = connection;
+        PreparedStatement openStatement = statement;
+        var rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL)
+        {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action)
+            {
+                try {
+                    if(!result.next())
+                        return false;
+                    action.accept(rowReader.read(result));
+                    return true;
+                } catch (SQLException ex)
+                {
+                    throw new UncheckedDatabaseException(new DatabaseException(errorMessage));
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> closeQuietly(result, openStatement, openConnection));
+    }
+
+    /**
+     * Close each of the given resources, ignoring any that are null and reporting any that fail to close
+     * @param resources The resources
+     */
+    private static void closeQuietly(AutoCloseable... resources)
+    {
+        for(AutoCloseable resource : resources) {
+            if(resource == null)
+                continue;
+            try {
+                resource.close();
+            } catch (Exception ex)
+            {
+                System.err.println("Could not close a database resource: " + ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the object stored in the current row of a result set
+     * @param <T> The type of the object
+     */
+    @FunctionalInterface
+    private interface RowReader<T>
+    {
+        T read(ResultSet result) throws SQLException;
+    }
+    //endregion
 }
@@ -0,0 +1,207 @@
+package com.group15A.DataAccess;
+
+import com.group15A.DataModel.NotificationChanges;
+import com.group15A.Profiling.DataAccessEvent;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.BaseStream;
+import java.util.stream.Collectors;
+
+/**
+ * Records how often each method of a Data Access Layer is called, how often it fails,
+ * how long it takes and how many rows it returns, so that hot and slow queries can be found.
+ *
+ * The Data Access Layer is wrapped in a dynamic proxy, so that every method of IDataAccess is measured,
+ * including the ones added later, and the exceptions each method declares are passed on unchanged.
+ * The statistics can be read while the program runs, and written to a file before it exits.
+ * Every call is also counted in the ActionScope which is current on the calling thread,
+ * and recorded as a DataAccessEvent when a flight recording is running.
+ *
+ * @author Andrei Constantin
+ */
+public class DataAccessMetrics
+{
+    private final ConcurrentHashMap<Method, MethodMetrics> metricsByMethod = new ConcurrentHashMap<>();
+    private final LocalDateTime startTime = LocalDateTime.now();
+
+    /**
+     * Wrap a Data Access Layer, so that every call made through the wrapper is recorded in these metrics
+     * @param dataAccess The Data Access Layer to measure
+     * @return The measured Data Access Layer
+     */
+    public IDataAccess wrap(IDataAccess dataAccess)
+    {
+        if(dataAccess == null)
+            throw new IllegalArgumentException("The Data Access Layer to measure cannot be null");
+
+        return (IDataAccess) Proxy.newProxyInstance(
+                IDataAccess.class.getClassLoader(),
+                new Class<?>[]{IDataAccess.class},
+                new MeteringHandler(dataAccess)
+        );
+    }
+
+    /**
+     * Get the statistics of a method
+     * @param name The name of the method, with its parameter types, such as "getPatient(String)"
+     * @return The method's statistics, or null if it has not been called
+     */
+    public MethodMetrics getMethodMetrics(String name)
+    {
+        return metricsByMethod.values().stream()
+                .filter(metrics -> metrics.getName().equals(name))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * @return the statistics of every method called so far, the ones which took the longest in total first
+     */
+    public List<MethodMetrics> getMethodMetrics()
+    {
+        return metricsByMethod.values().stream()
+                .sorted(Comparator.comparingLong(MethodMetrics::getTotalNanos).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Write the statistics of every method called so far to a file, replacing its contents
+     * @param file The file to write to
+     * @throws IOException if the file could not be written
+     */
+    public void writeReport(Path file) throws IOException
+    {
+        try(PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("Data access metrics from " + startTime + " to " + LocalDateTime.now());
+            writer.println(String.format("%-40s %10s %8s %12s %12s %10s %10s %10s %10s %10s",
+                    "method", "calls", "errors", "rows", "total ms", "mean us", "p50 us", "p90 us", "p99 us", "max us"));
+            for(MethodMetrics metrics : getMethodMetrics()) {
+                LatencyHistogram latencies = metrics.getLatencies();
+                writer.println(String.format("%-40s %10d %8d %12d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f",
+                        metrics.getName(),
+                        metrics.getCallCount(),
+                        metrics.getErrorCount(),
+                        metrics.getRowCount(),
+                        metrics.getTotalNanos() / 1_000_000.0,
+                        LatencyHistogram.toMicros(latencies.getMean()),
+                        LatencyHistogram.toMicros(latencies.getValueAtPercentile(50)),
+                        LatencyHistogram.toMicros(latencies.getValueAtPercentile(90)),
+                        LatencyHistogram.toMicros(latencies.getValueAtPercentile(99)),
+                        LatencyHistogram.toMicros(latencies.getMax())));
+            }
+        }
+    }
+
+    /**
+     * Count the rows returned by a call.
+     * A list counts each of its elements, a map each element of its values,
+     * notification changes count their new notifications and read ids,
+     * no result counts none, and neither does a stream, since its rows are read after the call returns.
+     * Any other result counts as a single row
+     * @param result The value returned by the call
+     * @return The number of rows
+     */
+    private static int countRows(Object result)
+    {
+        if(result == null || result instanceof Boolean || result instanceof BaseStream)
+            return 0;
+        if(result instanceof Collection<?> collection)
+            return collection.size();
+        if(result instanceof Map<?, ?> map)
+            return map.values().stream().mapToInt(value -> value instanceof Collection<?> collection ? collection.size() : 1).sum();
+        if(result instanceof NotificationChanges changes)
+            return changes.getNewNotifications().size() + changes.getReadNotificationIDs().size();
+        return 1;
+    }
+
+    /**
+     * Get the name a method is reported under, made of its name and the simple names of its parameter types
+     * @param method The method
+     * @return The name of the method
+     */
+    private static String getName(Method method)
+    {
+        return method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    /**
+     * toString method for DataAccessMetrics
+     *
+     * @return a textual representation of the statistics of every method called so far
+     */
+    @Override
+    public String toString() {
+        return "DataAccessMetrics{" +
+                "since=" + startTime +
+                ", methods=" + getMethodMetrics() +
+                '}';
+    }
+
+    /**
+     * Passes every call on to the measured Data Access Layer, timing it and counting the rows it returns
+     */
+    private class MeteringHandler implements InvocationHandler
+    {
+        private final IDataAccess dataAccess;
+
+        private MeteringHandler(IDataAccess dataAccess)
+        {
+            this.dataAccess = dataAccess;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            // equals, hashCode and toString are not database calls
+            if(method.getDeclaringClass() == Object.class)
+                return method.invoke(dataAccess, args);
+
+            MethodMetrics metrics = metricsByMethod.computeIfAbsent(method, key -> new MethodMetrics(getName(key)));
+            DataAccessEvent event = new DataAccessEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                Object result = method.invoke(dataAccess, args);
+                int rows = countRows(result);
+                metrics.record(System.nanoTime() - start, rows, false);
+                ActionScope.record(metrics.getName(), rows);
+                commit(event, metrics.getName(), rows, false);
+                return result;
+            }
+            catch(InvocationTargetException e) {
+                metrics.record(System.nanoTime() - start, 0, true);
+                ActionScope.record(metrics.getName(), 0);
+                commit(event, metrics.getName(), 0, true);
+                throw e.getCause();
+            }
+        }
+
+        private void commit(DataAccessEvent event, String method, int rows, boolean failed)
+        {
+            event.end();
+            if(event.shouldCommit()) {
+                event.method = method;
+                event.rows = rows;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+}
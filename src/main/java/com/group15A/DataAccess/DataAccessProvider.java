@@ -0,0 +1,54 @@
+package com.group15A.DataAccess;
+
+import com.group15A.CustomExceptions.DatabaseException;
+
+/**
+ * Provides the Data Access Layer shared by the whole application,
+ * so that every part of the program reads through the same caches and connection pool,
+ * along with the writer that records logs in the background
+ * and the metrics of every call that reaches the database.
+ *
+ * @author Andrei Constantin
+ */
+public class DataAccessProvider
+{
+    private static CachingDataAccess dataAccess;
+    private static LogWriter logWriter;
+    private static final DataAccessMetrics metrics = new DataAccessMetrics();
+
+    private DataAccessProvider() {}
+
+    /**
+     * Get the shared Data Access Layer, creating it on first use
+     * @return The Data Access Layer
+     * @throws DatabaseException if there was a problem connecting to the database
+     */
+    public static synchronized IDataAccess getDataAccess() throws DatabaseException
+    {
+        if(dataAccess == null)
+            dataAccess = new CachingDataAccess(metrics.wrap(new DataAccess()));
+        return dataAccess;
+    }
+
+    /**
+     * Get the shared log writer, creating it on first use
+     * @return The log writer
+     * @throws DatabaseException if there was a problem connecting to the database
+     */
+    public static synchronized LogWriter getLogWriter() throws DatabaseException
+    {
+        if(logWriter == null)
+            logWriter = new LogWriter(getDataAccess());
+        return logWriter;
+    }
+
+    /**
+     * Get the metrics of the shared Data Access Layer.
+     * Calls answered from the caches are not included, only the ones which reach the database
+     * @return The metrics
+     */
+    public static DataAccessMetrics getMetrics()
+    {
+        return metrics;
+    }
+}
@@ -0,0 +1,178 @@
+package com.group15A.DataAccess;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe cache with a maximum size, whose entries expire a fixed time after they were stored.
+ * When the cache is full, the entry closest to expiring is evicted to make room for a new one.
+ * Null values are not supported, since a null result means the value has to be loaded.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the cached values
+ * @author Andrei Constantin
+ */
+public class ExpiringCache<K, V>
+{
+    private final String name;
+    private final int maxSize;
+    private final long timeToLiveMs;
+    private final ConcurrentHashMap<K, Entry<V>> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Constructor for the ExpiringCache class.
+     * @param name The name of the cache, used when reporting its statistics
+     * @param maxSize The maximum number of entries kept in the cache
+     * @param timeToLiveMs How long an entry stays valid after it was stored, in milliseconds
+     */
+    public ExpiringCache(String name, int maxSize, long timeToLiveMs)
+    {
+        if(maxSize <= 0)
+            throw new IllegalArgumentException("The maximum size of a cache must be positive");
+        if(timeToLiveMs <= 0)
+            throw new IllegalArgumentException("The time to live of a cache entry must be positive");
+
+        this.name = name;
+        this.maxSize = maxSize;
+        this.timeToLiveMs = timeToLiveMs;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Get the value stored for the given key
+     * @param key The key
+     * @return The value, or null if it is not in the cache or has expired
+     */
+    public V get(K key)
+    {
+        Entry<V> entry = entries.get(key);
+        if(entry == null || entry.expiresAt <= System.currentTimeMillis()) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        hitCount.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Get the value stored for the given key, without counting the read in the cache's statistics
+     * @param key The key
+     * @return The value, or null if it is not in the cache or has expired
+     */
+    public V peek(K key)
+    {
+        Entry<V> entry = entries.get(key);
+        return (entry == null || entry.expiresAt <= System.currentTimeMillis()) ? null : entry.value;
+    }
+
+    /**
+     * Store the value for the given key, evicting other entries if the cache is full
+     * @param key The key
+     * @param value The value
+     */
+    public void put(K key, V value)
+    {
+        long now = System.currentTimeMillis();
+        if(!entries.containsKey(key) && entries.size() >= maxSize)
+            makeRoom(now);
+        entries.put(key, new Entry<>(value, now + timeToLiveMs));
+    }
+
+    /**
+     * Remove the expired entries and, if the cache is still full, the entry closest to expiring
+     * @param now The current time
+     */
+    private void makeRoom(long now)
+    {
+        if(entries.entrySet().removeIf(e -> e.getValue().expiresAt <= now) && entries.size() < maxSize)
+            return;
+
+        Map.Entry<K, Entry<V>> oldest = null;
+        for(Map.Entry<K, Entry<V>> e : entries.entrySet()) {
+            if(oldest == null || e.getValue().expiresAt < oldest.getValue().expiresAt)
+                oldest = e;
+        }
+        if(oldest != null && entries.remove(oldest.getKey(), oldest.getValue()))
+            evictionCount.incrementAndGet();
+    }
+
+    /**
+     * Remove the entry with the given key, so the next read loads it again
+     * @param key The key
+     */
+    public void invalidate(K key)
+    {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove all entries from the cache
+     */
+    public void invalidateAll()
+    {
+        entries.clear();
+    }
+
+    //region Statistics
+    public String getName() {return name;}
+
+    public int getSize() {return entries.size();}
+
+    public int getMaxSize() {return maxSize;}
+
+    public long getHitCount() {return hitCount.get();}
+
+    public long getMissCount() {return missCount.get();}
+
+    public long getEvictionCount() {return evictionCount.get();}
+
+    /**
+     * @return the fraction of reads that were answered from the cache
+     */
+    public double getHitRate()
+    {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * toString method for ExpiringCache
+     *
+     * @return a textual representation of the cache's statistics
+     */
+    @Override
+    public String toString() {
+        return "ExpiringCache{" +
+                "name='" + name + '\'' +
+                ", size=" + getSize() +
+                ", max=" + maxSize +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                ", hitRate=" + getHitRate() +
+                '}';
+    }
+    //endregion
+
+    /**
+     * A cached value, along with the time it expires
+     */
+    private static class Entry<V>
+    {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt)
+        {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
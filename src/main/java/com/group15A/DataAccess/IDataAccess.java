@@ -1,11 +1,14 @@
 package com.group15A.DataAccess;
 
-import com.group15A.CustomExceptions.CustomException;
-import com.group15A.CustomExceptions.PatientNotFoundException;
+import com.group15A.CustomExceptions.*;
 import com.group15A.DataModel.*;
+import com.group15A.Utils.BookingPeriod;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * An interface to the Data Access Layer
@@ -14,47 +17,87 @@ import java.util.List;
  */
 public interface IDataAccess
 {
-    Patient getPatient(String email) throws CustomException;
+    Patient getPatient(String email) throws NullDataException, PatientNotFoundException, DatabaseException;
 
-    Patient getPatient(int patientID) throws CustomException;
+    Patient getPatient(int patientID) throws InvalidDataException, PatientNotFoundException, DatabaseException;
 
-    Patient registerPatient(Patient patient, Doctor doctor) throws CustomException;
+    Patient registerPatient(Patient patient, Doctor doctor) throws NullDataException, EmailInUseException, DatabaseException, InvalidDataException, PatientNotFoundException;
 
     Patient updatePatient(Patient patient) throws CustomException;
 
     Patient changeDoctor(Patient patient, Doctor doctor) throws CustomException;
 
-    List<Doctor> getDoctors() throws CustomException;
+    void deletePatient(int patientID) throws InvalidDataException, DatabaseException;
 
-    Doctor getDoctor(Patient patient) throws CustomException;
+    List<Doctor> getDoctors() throws DatabaseException;
 
-    Doctor getDoctor(int doctorID) throws CustomException;
+    Doctor getDoctor(Patient patient) throws NullDataException, DoctorNotFoundException, DatabaseException, InvalidDataException;
 
-    List<Certification> getCertifications(Doctor doctor) throws CustomException;
+    Doctor getDoctor(int doctorID) throws DoctorNotFoundException, DatabaseException, InvalidDataException;
 
-    Booking getBooking(int bookingID) throws CustomException;
+    List<Certification> getCertifications(Doctor doctor) throws DatabaseException, NullDataException, InvalidDataException;
 
-    List<Booking> getBookings() throws CustomException;
+    Booking getBooking(int bookingID) throws DatabaseException, InvalidDataException;
 
-    List<Booking> getBookings(Doctor doctor) throws CustomException;
+    List<Booking> getBookings() throws DatabaseException;
 
-    List<Booking> getBookings(Patient patient) throws CustomException;
+    Stream<Booking> streamBookings() throws DatabaseException;
 
-    Booking createBooking(Patient patient, Doctor doctor, Timestamp bookingTime, String type) throws CustomException;
+    List<Booking> getBookings(Doctor doctor) throws DatabaseException, NullDataException, InvalidDataException;
 
-    Booking updateBooking(Booking booking) throws CustomException;
+    List<Booking> getBookings(Patient patient) throws DatabaseException, NullDataException, InvalidDataException;
 
-    Notification getNotification(int notificationID) throws CustomException;
+    List<Booking> getBookings(Patient patient, BookingPeriod period, Timestamp windowStart, Timestamp windowEnd, boolean ascending) throws DatabaseException, NullDataException, InvalidDataException;
 
-    Notification createNotification(Patient patient, String header, String message) throws CustomException;
+    List<BookingWithDoctor> getBookingsWithDoctor(Patient patient, BookingPeriod period, Timestamp windowStart, Timestamp windowEnd, boolean ascending) throws DatabaseException, NullDataException, InvalidDataException;
 
-    List<Notification> getNotifications(Patient patient) throws CustomException;
+    boolean isBookingSlotTaken(int patientID, int doctorID, Timestamp bookingTime) throws NullDataException, InvalidDataException, DatabaseException;
 
-    Notification setNotificationSeen(Notification notification) throws CustomException;
+    List<Timestamp> getBookingTimes(Doctor doctor, Timestamp windowStart, Timestamp windowEnd) throws NullDataException, InvalidDataException, DatabaseException;
 
-    List<Log> getLogs(Patient patient) throws CustomException;
+    Map<Integer, List<Timestamp>> getBookingTimes(Timestamp windowStart, Timestamp windowEnd) throws NullDataException, InvalidDataException, DatabaseException;
 
-    List<Log> getLogs() throws CustomException;
+    Booking createBooking(Patient patient, Doctor doctor, Timestamp bookingTime, String type) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException;
 
-    Log createLog(Patient patient, String message) throws CustomException;
+    Booking updateBooking(Booking booking) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException, BookingNotFoundException, BookingConflictException;
+
+    Booking createBookingWithAudit(Patient patient, Doctor doctor, Timestamp bookingTime, String type, String notificationHeader, String notificationMessage, String logMessage) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException;
+
+    Booking updateBookingWithAudit(Booking booking, String notificationHeader, String notificationMessage, String logMessage) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException, BookingNotFoundException, BookingConflictException;
+
+    Notification getNotification(int notificationID) throws DatabaseException;
+
+    Notification createNotification(Patient patient, String header, String message) throws DatabaseException, NullDataException, InvalidDataException;
+
+    List<Notification> getNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException;
+
+    Stream<Notification> streamNotifications() throws DatabaseException;
+
+    NotificationChanges getNotificationChanges(Patient patient, Integer afterNotificationID, Collection<Integer> unreadNotificationIDs) throws DatabaseException, NullDataException, InvalidDataException;
+
+    int countUnreadNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException;
+
+    int countArchivedNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException;
+
+    List<Notification> getUnreadNotifications(Patient patient, Integer beforeNotificationID, int limit) throws DatabaseException, NullDataException, InvalidDataException;
+
+    List<Notification> getArchivedNotifications(Patient patient, Integer beforeNotificationID, int limit) throws DatabaseException, NullDataException, InvalidDataException;
+
+    Notification setNotificationSeen(Notification notification) throws DatabaseException, NullDataException, InvalidDataException;
+
+    int setNotificationsSeen(Patient patient) throws DatabaseException, NullDataException, InvalidDataException;
+
+    int setNotificationsSeen(Patient patient, Collection<Integer> notificationIDs) throws DatabaseException, NullDataException, InvalidDataException;
+
+    List<Log> getLogs(Patient patient) throws DatabaseException, NullDataException, InvalidDataException;
+
+    List<Log> getLogs(Patient patient, Integer beforeLogID, int limit) throws DatabaseException, NullDataException, InvalidDataException;
+
+    List<Log> getLogs() throws DatabaseException;
+
+    Stream<Log> streamLogs() throws DatabaseException;
+
+    Log createLog(Patient patient, String message) throws NullDataException, InvalidDataException, DatabaseException;
+
+    void createLogs(List<Log> logs) throws NullDataException, InvalidDataException, DatabaseException;
 }
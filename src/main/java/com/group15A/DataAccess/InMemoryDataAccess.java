@@ -0,0 +1,1393 @@
+package com.group15A.DataAccess;
+
+import com.group15A.CustomExceptions.*;
+import com.group15A.DataModel.*;
+import com.group15A.Utils.BookingPeriod;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.group15A.DataAccess.DataAccessValidator.*;
+
+/**
+ * A Data Access Layer that keeps every table in memory instead of in the database,
+ * so tests, benchmarks and demos run quickly and repeatably without a MySQL server.
+ *
+ * Each table is a concurrent map ordered by id, with sorted indexes for the unique keys of the database:
+ * the patient email, (id_patient, booking_time) and (id_doctor, booking_time).
+ * Writes are serialised, so the unique and foreign keys are checked and every index is updated together,
+ * while reads go straight to the maps and never block.
+ * A broken key throws the same exception DataAccess throws for it, and times are stored to the second, as in the database.
+ * Rows are copied on the way in and out, so changing a returned object does not change the stored row.
+ *
+ * Doctors and certifications cannot be created through IDataAccess,
+ * so they are added with addDoctor and addCertification, or with addSampleDoctors.
+ *
+ * @author Andrei Constantin
+ */
+public class InMemoryDataAccess implements IDataAccess
+{
+    private static final Timestamp EARLIEST_TIME = Timestamp.valueOf("1000-01-01 00:00:00");
+    private static final Timestamp LATEST_TIME = Timestamp.valueOf("9999-12-31 23:59:59");
+
+    private final AtomicInteger lastPatientID = new AtomicInteger();
+    private final AtomicInteger lastCertificationID = new AtomicInteger();
+    private final AtomicInteger lastBookingID = new AtomicInteger();
+    private final AtomicInteger lastNotificationID = new AtomicInteger();
+    private final AtomicInteger lastLogID = new AtomicInteger();
+
+    private final ConcurrentSkipListMap<Integer, Doctor> doctors = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Integer> doctorEmails = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Certification> certifications = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Integer, Patient> patients = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Integer> patientEmails = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Integer> patientDoctors = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Booking> bookings = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListMap<Timestamp, Integer>> patientBookingTimes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListMap<Timestamp, Integer>> doctorBookingTimes = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Notification> notifications = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<Integer>> patientNotifications = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Log> logs = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<Integer>> patientLogs = new ConcurrentHashMap<>();
+
+    //region Seeding
+    /**
+     * Add a doctor, keeping the doctor's id
+     * @param doctor The doctor
+     * @return The stored doctor
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid or a doctor with the same id already exists
+     * @throws EmailInUseException if another doctor already has the same email address
+     */
+    public synchronized Doctor addDoctor(Doctor doctor) throws NullDataException, InvalidDataException, EmailInUseException
+    {
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the addDoctor method");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the addDoctor method");
+        if(doctors.containsKey(doctor.getDoctorID()))
+            throw new InvalidDataException("Existing doctor ID in the addDoctor method");
+        if(doctorEmails.containsKey(getEmailKey(doctor.getEmail())))
+            throw new EmailInUseException();
+
+        Doctor stored = copyOf(doctor);
+        doctors.put(stored.getDoctorID(), stored);
+        doctorEmails.put(getEmailKey(stored.getEmail()), stored.getDoctorID());
+        return copyOf(stored);
+    }
+
+    /**
+     * Add a certification of an existing doctor.
+     * A certification without an id is given the next free id
+     * @param certification The certification
+     * @return The stored certification
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if a certification with the same id already exists
+     * @throws DatabaseException if the doctor does not exist
+     */
+    public synchronized Certification addCertification(Certification certification) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(certification==null || certification.getDoctorID()==null)
+            throw new NullDataException("Null certification in the addCertification method");
+        if(isNullOrEmpty(certification.getName()) || isNullOrEmpty(certification.getField()) || certification.getDateObtained()==null)
+            throw new NullDataException("Null certification details in the addCertification method");
+        if(certification.getCertID()!=null && certifications.containsKey(certification.getCertID()))
+            throw new InvalidDataException("Existing certification ID in the addCertification method");
+        if(!doctors.containsKey(certification.getDoctorID()))
+            throw new DatabaseException("Could not insert certification in the database");
+
+        int certificationID = (certification.getCertID() == null) ? lastCertificationID.incrementAndGet() : certification.getCertID();
+        lastCertificationID.accumulateAndGet(certificationID, Math::max);
+        Certification stored = new Certification(
+                certification.getDoctorID(),
+                certificationID,
+                certification.getName(),
+                certification.getField(),
+                toDate(certification.getDateObtained())
+        );
+        certifications.put(certificationID, stored);
+        return copyOf(stored);
+    }
+
+    /**
+     * Add the doctors of the sample database, along with their certifications
+     * @throws CustomException if any of the doctors or certifications already exist
+     */
+    public void addSampleDoctors() throws CustomException
+    {
+        addDoctor(new Doctor(1, "asiacollins@nhs.net", "Asia", "", "Collins", Date.valueOf("1985-10-20"), "Male", "07863684908"));
+        addDoctor(new Doctor(2, "kassandrashah@nhs.net", "Kassandra", "", "Shah", Date.valueOf("1980-11-26"), "Male", "07977806202"));
+        addDoctor(new Doctor(3, "cadencelewis@nhs.net", "Cadence", "", "Lewis", Date.valueOf("1971-10-22"), "Female", "07784297949"));
+        addDoctor(new Doctor(4, "jaylahedwards@nhs.net", "Jaylah", "", "Edwards", Date.valueOf("1984-05-24"), "Female", "07851078318"));
+        addDoctor(new Doctor(5, "abrahambarrett@nhs.net", "Abraham", "", "Barrett", Date.valueOf("1989-05-20"), "Female", "07707557305"));
+        addDoctor(new Doctor(6, "angelinecooke@nhs.net", "Angeline", "Porter", "Cooke", Date.valueOf("1982-09-20"), "Male", "07851292719"));
+        addDoctor(new Doctor(7, "katiebarajas@nhs.net", "Katie", "", "Barajas", Date.valueOf("1992-07-20"), "Female", "07081927597"));
+        addDoctor(new Doctor(8, "jessicahill@nhs.net", "Jessica", "", "Hill", Date.valueOf("1980-06-19"), "Male", "07055854798"));
+        addDoctor(new Doctor(9, "adambarkley@nhs.net", "Adam", "", "Barkley", Date.valueOf("1987-04-21"), "Male", "07703207352"));
+        addDoctor(new Doctor(10, "nathandavis@nhs.net", "Nathan", "", "Davis", Date.valueOf("1987-05-01"), "Male", "07938555998"));
+
+        addCertification(new Certification(1, 1, "phD", "Neurology", Date.valueOf("2010-07-10")));
+        addCertification(new Certification(2, 2, "MSc", "Dermatology", Date.valueOf("2005-07-10")));
+        addCertification(new Certification(3, 3, "phD", "Medical genetics", Date.valueOf("1996-07-10")));
+        addCertification(new Certification(4, 4, "phD", "Dermatology", Date.valueOf("2009-07-10")));
+        addCertification(new Certification(5, 5, "MSc", "Neurology", Date.valueOf("2014-07-10")));
+        addCertification(new Certification(6, 6, "phD", "Radiation oncology", Date.valueOf("2007-07-10")));
+        addCertification(new Certification(7, 7, "MSc", "Neurology", Date.valueOf("2017-07-10")));
+        addCertification(new Certification(8, 8, "MSc", "Ophthalmology", Date.valueOf("2005-07-10")));
+        addCertification(new Certification(9, 9, "phD", "Dermatology", Date.valueOf("2012-07-10")));
+        addCertification(new Certification(10, 10, "phD", "Medical genetics", Date.valueOf("2012-07-10")));
+    }
+    //endregion
+
+    //region Patient
+    @Override
+    public Patient getPatient(String email) throws NullDataException, PatientNotFoundException, DatabaseException
+    {
+        if(email==null || email.isBlank() || email.isEmpty())
+            throw new NullDataException("Null email in getPatient()");
+
+        Integer patientID = patientEmails.get(getEmailKey(email));
+        Patient patient = (patientID == null) ? null : patients.get(patientID);
+        if(patient == null)
+            throw new PatientNotFoundException();
+        return copyOf(patient);
+    }
+
+    @Override
+    public Patient getPatient(int patientID) throws InvalidDataException, PatientNotFoundException, DatabaseException
+    {
+        if(patientID<0)
+            throw new InvalidDataException("Negative patient ID in the getPatient method");
+
+        Patient patient = patients.get(patientID);
+        if(patient == null)
+            throw new PatientNotFoundException();
+        return copyOf(patient);
+    }
+
+    /**
+     * Registers a new patient.
+     * As in the database, breaking either the unique email or the doctor foreign key is reported as the email being in use
+     * @param patient The new patient
+     * @param doctor The doctor assigned to the patient
+     * @return The stored patient, with its new id
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     * @throws EmailInUseException if the email address is already in use, or the doctor does not exist
+     * @throws PatientNotFoundException if the registered patient could not be read back
+     * @throws DatabaseException if there was a problem reading the patient back
+     */
+    @Override
+    public Patient registerPatient(Patient patient, Doctor doctor) throws NullDataException, EmailInUseException, DatabaseException, InvalidDataException, PatientNotFoundException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the registerPatient method");
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the registerPatient method");
+
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the registerPatient method");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the registerPatient method");
+
+        synchronized (this) {
+            if(!doctors.containsKey(doctor.getDoctorID()) || patientEmails.containsKey(getEmailKey(patient.getEmail())))
+                throw new EmailInUseException();
+
+            Patient stored = copyOf(lastPatientID.incrementAndGet(), patient);
+            patients.put(stored.getPatientID(), stored);
+            patientEmails.put(getEmailKey(stored.getEmail()), stored.getPatientID());
+            patientDoctors.put(stored.getPatientID(), doctor.getDoctorID());
+        }
+
+        return getPatient(patient.getEmail());
+    }
+
+    @Override
+    public Patient updatePatient(Patient patient) throws CustomException
+    {
+        updatePatientFull(patient, getDoctor(patient));
+
+        return getPatient(patient.getEmail());
+    }
+
+    @Override
+    public Patient changeDoctor(Patient patient, Doctor doctor) throws CustomException
+    {
+        updatePatientFull(patient, doctor);
+        return getPatient(patient.getPatientID());
+    }
+
+    /**
+     * Update the given patient with the new information, including a new doctor.
+     * As in the database, nothing changes if the patient does not exist
+     * @param patient The modified patient
+     * @param doctor The new doctor
+     * @throws InvalidDataException if the data is invalid
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws EmailInUseException if the email address is already in use, or the doctor does not exist
+     */
+    private void updatePatientFull(Patient patient, Doctor doctor) throws NullDataException, EmailInUseException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the updatePatient method");
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the updatePatient method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the updatePatientFull method");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the updatePatientFull method");
+
+        synchronized (this) {
+            Patient current = patients.get(patient.getPatientID());
+            if(current == null)
+                return;
+
+            Integer emailOwner = patientEmails.get(getEmailKey(patient.getEmail()));
+            if(!doctors.containsKey(doctor.getDoctorID()) || (emailOwner != null && !emailOwner.equals(current.getPatientID())))
+                throw new EmailInUseException();
+
+            Patient stored = copyOf(current.getPatientID(), patient);
+            patientEmails.remove(getEmailKey(current.getEmail()));
+            patients.put(stored.getPatientID(), stored);
+            patientEmails.put(getEmailKey(stored.getEmail()), stored.getPatientID());
+            patientDoctors.put(stored.getPatientID(), doctor.getDoctorID());
+        }
+    }
+
+    /**
+     * Delete the patient with the given id.
+     * As in the database, a patient who still has bookings, notifications or logs cannot be deleted
+     * @param patientID The patient id
+     * @throws InvalidDataException if an invalid value was sent as a parameter
+     * @throws DatabaseException if the patient still has bookings, notifications or logs
+     */
+    @Override
+    public synchronized void deletePatient(int patientID) throws InvalidDataException, DatabaseException
+    {
+        if(patientID<0)
+            throw new InvalidDataException("Negative patient ID in the deletePatient method");
+
+        if(!getTimeIndex(patientBookingTimes, patientID).isEmpty()
+                || !getIDIndex(patientNotifications, patientID).isEmpty()
+                || !getIDIndex(patientLogs, patientID).isEmpty())
+            throw new DatabaseException("Could not delete the patient from the database");
+
+        Patient patient = patients.remove(patientID);
+        if(patient != null)
+            patientEmails.remove(getEmailKey(patient.getEmail()));
+        patientDoctors.remove(patientID);
+        patientBookingTimes.remove(patientID);
+        patientNotifications.remove(patientID);
+        patientLogs.remove(patientID);
+    }
+
+    //endregion
+
+    //region Doctor
+    @Override
+    public List<Doctor> getDoctors() throws DatabaseException
+    {
+        var doctorList = new ArrayList<Doctor>();
+        for(Doctor doctor : doctors.values()) {
+            doctorList.add(copyOf(doctor));
+        }
+        return doctorList;
+    }
+
+    @Override
+    public Doctor getDoctor(Patient patient) throws NullDataException, DoctorNotFoundException, DatabaseException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getDoctor(patient) method overload");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getDoctor(patient) method overload");
+
+        Integer doctorID = patientDoctors.get(patient.getPatientID());
+        Doctor doctor = (doctorID == null) ? null : doctors.get(doctorID);
+        if(doctor == null)
+            throw new DoctorNotFoundException();
+        return copyOf(doctor);
+    }
+
+    @Override
+    public Doctor getDoctor(int doctorID) throws DoctorNotFoundException, DatabaseException, InvalidDataException
+    {
+        if(doctorID<0)
+            throw new InvalidDataException("Negative doctor ID in the getDoctor(doctorID) method overload");
+
+        Doctor doctor = doctors.get(doctorID);
+        if(doctor == null)
+            throw new DoctorNotFoundException();
+        return copyOf(doctor);
+    }
+
+    //endregion
+
+    //region Certification
+    @Override
+    public List<Certification> getCertifications(Doctor doctor) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the getCertifications method");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the getCertifications method");
+
+        var certificationList = new ArrayList<Certification>();
+        for(Certification certification : certifications.values()) {
+            if(certification.getDoctorID().equals(doctor.getDoctorID()))
+                certificationList.add(copyOf(certification));
+        }
+        return certificationList;
+    }
+
+    //endregion
+
+    //region Booking
+    @Override
+    public Booking getBooking(int bookingID) throws DatabaseException, InvalidDataException
+    {
+        if(bookingID<0)
+            throw new InvalidDataException("Negative booking ID in the getBooking(bookingID) method");
+
+        Booking booking = bookings.get(bookingID);
+        if(booking == null)
+            throw new DatabaseException("Could not get booking from the database");
+        return copyOf(booking);
+    }
+
+    @Override
+    public List<Booking> getBookings() throws DatabaseException
+    {
+        var bookingList = new ArrayList<Booking>();
+        for(Booking booking : bookings.values()) {
+            bookingList.add(copyOf(booking));
+        }
+        return bookingList;
+    }
+
+    @Override
+    public Stream<Booking> streamBookings() throws DatabaseException
+    {
+        return bookings.values().stream().map(InMemoryDataAccess::copyOf);
+    }
+
+    @Override
+    public List<Booking> getBookings(Doctor doctor) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the getBookings(doctor) method overload");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the getBookings(doctor) method overload");
+
+        return getBookingsByID(getTimeIndex(doctorBookingTimes, doctor.getDoctorID()).values());
+    }
+
+    @Override
+    public List<Booking> getBookings(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getBookings(patient) method overload.");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getBookings(patient) method overload");
+
+        return getBookingsByID(getTimeIndex(patientBookingTimes, patient.getPatientID()).values());
+    }
+
+    @Override
+    public List<Booking> getBookings(Patient patient, BookingPeriod period, Timestamp windowStart, Timestamp windowEnd, boolean ascending) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getBookings(patient, period) method overload");
+        if(period==null)
+            throw new NullDataException("Null period in the getBookings(patient, period) method overload");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getBookings(patient, period) method overload");
+
+        var bookingList = new ArrayList<Booking>();
+        for(Integer bookingID : getPatientBookingIDs(patient, period, windowStart, windowEnd, ascending)) {
+            Booking booking = bookings.get(bookingID);
+            if(booking != null)
+                bookingList.add(copyOf(booking));
+        }
+        return bookingList;
+    }
+
+    @Override
+    public List<BookingWithDoctor> getBookingsWithDoctor(Patient patient, BookingPeriod period, Timestamp windowStart, Timestamp windowEnd, boolean ascending) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getBookingsWithDoctor method");
+        if(period==null)
+            throw new NullDataException("Null period in the getBookingsWithDoctor method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getBookingsWithDoctor method");
+
+        var bookingList = new ArrayList<BookingWithDoctor>();
+        for(Integer bookingID : getPatientBookingIDs(patient, period, windowStart, windowEnd, ascending)) {
+            Booking booking = bookings.get(bookingID);
+            if(booking != null)
+                bookingList.add(new BookingWithDoctor(copyOf(booking), copyOf(doctors.get(booking.getDoctorID()))));
+        }
+        return bookingList;
+    }
+
+    /**
+     * Get the ids of the given patient's bookings that fall within a time window, on one side of the current time,
+     * ordered by the time of the booking
+     * @param patient The patient
+     * @param period Whether to get the bookings before or after the current time
+     * @param windowStart The start of the window (inclusive), or null for no lower bound
+     * @param windowEnd The end of the window (exclusive), or null for no upper bound
+     * @param ascending true to order the bookings from the earliest to the latest, false for the opposite
+     * @return The booking ids
+     */
+    private Collection<Integer> getPatientBookingIDs(Patient patient, BookingPeriod period, Timestamp windowStart, Timestamp windowEnd, boolean ascending)
+    {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp start = (windowStart == null) ? EARLIEST_TIME : windowStart;
+        if(period == BookingPeriod.FUTURE && start.before(now))
+            start = now;
+        Timestamp end = (windowEnd == null) ? LATEST_TIME : windowEnd;
+        if(period == BookingPeriod.PAST && end.after(now))
+            end = now;
+        if(!start.before(end))
+            return List.of();
+
+        NavigableMap<Timestamp, Integer> window = getTimeIndex(patientBookingTimes, patient.getPatientID()).subMap(start, true, end, false);
+        return new ArrayList<>(ascending ? window.values() : window.descendingMap().values());
+    }
+
+    /**
+     * Get the bookings with the given ids, ordered by id
+     * @param bookingIDs The booking ids
+     * @return The bookings
+     */
+    private List<Booking> getBookingsByID(Collection<Integer> bookingIDs)
+    {
+        var sortedIDs = new ArrayList<>(bookingIDs);
+        Collections.sort(sortedIDs);
+
+        var bookingList = new ArrayList<Booking>();
+        for(Integer bookingID : sortedIDs) {
+            Booking booking = bookings.get(bookingID);
+            if(booking != null)
+                bookingList.add(copyOf(booking));
+        }
+        return bookingList;
+    }
+
+    @Override
+    public boolean isBookingSlotTaken(int patientID, int doctorID, Timestamp bookingTime) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(bookingTime==null)
+            throw new NullDataException("Null booking time in the isBookingSlotTaken method");
+        if(patientID<0)
+            throw new InvalidDataException("Negative patient ID in the isBookingSlotTaken method");
+        if(doctorID<0)
+            throw new InvalidDataException("Negative doctor ID in the isBookingSlotTaken method");
+
+        Timestamp time = toSeconds(bookingTime);
+        return getTimeIndex(patientBookingTimes, patientID).containsKey(time)
+                || getTimeIndex(doctorBookingTimes, doctorID).containsKey(time);
+    }
+
+    @Override
+    public List<Timestamp> getBookingTimes(Doctor doctor, Timestamp windowStart, Timestamp windowEnd) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the getBookingTimes method");
+        if(windowStart==null || windowEnd==null)
+            throw new NullDataException("Null window in the getBookingTimes method");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the getBookingTimes method");
+        if(!windowStart.before(windowEnd))
+            throw new InvalidDataException("Empty window in the getBookingTimes method");
+
+        return getBookingTimes(getTimeIndex(doctorBookingTimes, doctor.getDoctorID()), windowStart, windowEnd);
+    }
+
+    @Override
+    public Map<Integer, List<Timestamp>> getBookingTimes(Timestamp windowStart, Timestamp windowEnd) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(windowStart==null || windowEnd==null)
+            throw new NullDataException("Null window in the getBookingTimes method");
+        if(!windowStart.before(windowEnd))
+            throw new InvalidDataException("Empty window in the getBookingTimes method");
+
+        var bookingTimes = new HashMap<Integer, List<Timestamp>>();
+        for(Map.Entry<Integer, ConcurrentSkipListMap<Timestamp, Integer>> doctorTimes : doctorBookingTimes.entrySet()) {
+            List<Timestamp> times = getBookingTimes(doctorTimes.getValue(), windowStart, windowEnd);
+            if(!times.isEmpty())
+                bookingTimes.put(doctorTimes.getKey(), times);
+        }
+        return bookingTimes;
+    }
+
+    /**
+     * Get the booking times of an index that fall within the given window, from the earliest to the latest
+     * @param index The booking times of a doctor or a patient
+     * @param windowStart The start of the window (inclusive)
+     * @param windowEnd The end of the window (exclusive)
+     * @return The booking times
+     */
+    private List<Timestamp> getBookingTimes(NavigableMap<Timestamp, Integer> index, Timestamp windowStart, Timestamp windowEnd)
+    {
+        var bookingTimes = new ArrayList<Timestamp>();
+        for(Timestamp time : index.subMap(windowStart, true, windowEnd, false).keySet()) {
+            bookingTimes.add(copyOf(time));
+        }
+        return bookingTimes;
+    }
+
+    @Override
+    public Booking createBooking(Patient patient, Doctor doctor, Timestamp bookingTime, String type) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the createBooking method");
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the createBooking method");
+        if(bookingTime==null)
+            throw new NullDataException("Null booking time in the createBooking method");
+        if(isNullOrEmpty(type))
+            throw new NullDataException("Null type in the createBooking method");
+
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the createBooking method");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the createBooking method");
+
+        Booking booking;
+        synchronized (this) {
+            booking = insertBooking(patient.getPatientID(), doctor.getDoctorID(), bookingTime, type);
+        }
+        return copyOf(booking);
+    }
+
+    @Override
+    public Booking updateBooking(Booking booking) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException, BookingNotFoundException, BookingConflictException
+    {
+        if(booking==null)
+            throw new NullDataException("Null booking in the updateBooking method");
+        if(isInvalidBooking(booking))
+            throw new InvalidDataException("Invalid booking the updateBooking method");
+
+        Booking updated;
+        synchronized (this) {
+            updated = saveBooking(booking);
+        }
+        return copyOf(updated);
+    }
+
+    @Override
+    public Booking createBookingWithAudit(Patient patient, Doctor doctor, Timestamp bookingTime, String type, String notificationHeader, String notificationMessage, String logMessage) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the createBookingWithAudit method");
+        if(doctor==null)
+            throw new NullDataException("Null doctor in the createBookingWithAudit method");
+        if(bookingTime==null)
+            throw new NullDataException("Null booking time in the createBookingWithAudit method");
+        if(isNullOrEmpty(type))
+            throw new NullDataException("Null type in the createBookingWithAudit method");
+        if(isNullOrEmpty(notificationHeader) || isNullOrEmpty(notificationMessage))
+            throw new NullDataException("Null notification in the createBookingWithAudit method");
+        if(isNullOrEmpty(logMessage))
+            throw new NullDataException("Null log message in the createBookingWithAudit method");
+
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the createBookingWithAudit method");
+        if(isInvalidDoctor(doctor))
+            throw new InvalidDataException("Invalid doctor in the createBookingWithAudit method");
+
+        Booking booking;
+        synchronized (this) {
+            booking = insertBooking(patient.getPatientID(), doctor.getDoctorID(), bookingTime, type);
+            insertNotification(booking.getPatientID(), notificationHeader, notificationMessage);
+            insertLog(logMessage, booking.getPatientID(), now());
+        }
+        return copyOf(booking);
+    }
+
+    @Override
+    public Booking updateBookingWithAudit(Booking booking, String notificationHeader, String notificationMessage, String logMessage) throws DatabaseException, NullDataException, InvalidDataException, ExistingBookingException, BookingNotFoundException, BookingConflictException
+    {
+        if(booking==null)
+            throw new NullDataException("Null booking in the updateBookingWithAudit method");
+        if(isNullOrEmpty(notificationHeader) || isNullOrEmpty(notificationMessage))
+            throw new NullDataException("Null notification in the updateBookingWithAudit method");
+        if(isNullOrEmpty(logMessage))
+            throw new NullDataException("Null log message in the updateBookingWithAudit method");
+        if(isInvalidBooking(booking))
+            throw new InvalidDataException("Invalid booking the updateBookingWithAudit method");
+
+        Booking updated;
+        synchronized (this) {
+            updated = saveBooking(booking);
+            insertNotification(updated.getPatientID(), notificationHeader, notificationMessage);
+            insertLog(logMessage, updated.getPatientID(), now());
+        }
+        return copyOf(updated);
+    }
+
+    /**
+     * Insert a new booking, after checking the foreign and unique keys of the booking table.
+     * Must be called while holding the write lock
+     * @param patientID The patient id
+     * @param doctorID The doctor id
+     * @param bookingTime The date and time of the booking
+     * @param type The type of booking
+     * @return The stored booking
+     * @throws DatabaseException if the patient or the doctor does not exist
+     * @throws ExistingBookingException if the patient or the doctor already has a booking at that time
+     */
+    private Booking insertBooking(int patientID, int doctorID, Timestamp bookingTime, String type) throws DatabaseException, ExistingBookingException
+    {
+        if(!patients.containsKey(patientID) || !doctors.containsKey(doctorID))
+            throw new DatabaseException("Could not insert booking in the database");
+
+        Timestamp time = toSeconds(bookingTime);
+        if(getTimeIndex(patientBookingTimes, patientID).containsKey(time) || getTimeIndex(doctorBookingTimes, doctorID).containsKey(time))
+            throw new ExistingBookingException();
+
+        Booking booking = new Booking(lastBookingID.incrementAndGet(), doctorID, patientID, time, now(), type, null, null, 0);
+        bookings.put(booking.getBookingID(), booking);
+        indexBooking(booking);
+        return booking;
+    }
+
+    /**
+     * Update a booking if it has not been changed since it was read, incrementing its version.
+     * Must be called while holding the write lock
+     * @param booking The modified booking
+     * @return The stored booking
+     * @throws DatabaseException if the booking has no type, or the patient or the doctor does not exist
+     * @throws ExistingBookingException if the patient or the doctor already has a booking at the new time
+     * @throws BookingNotFoundException if the booking no longer exists
+     * @throws BookingConflictException if the booking was changed by someone else since it was read
+     */
+    private Booking saveBooking(Booking booking) throws DatabaseException, ExistingBookingException, BookingNotFoundException, BookingConflictException
+    {
+        Booking current = bookings.get(booking.getBookingID());
+        if(current == null)
+            throw new BookingNotFoundException();
+        if(!Objects.equals(current.getVersion(), booking.getVersion()))
+            throw new BookingConflictException();
+        if(booking.getType() == null || !patients.containsKey(booking.getPatientID()) || !doctors.containsKey(booking.getDoctorID()))
+            throw new DatabaseException("Could not update booking in the database");
+
+        Timestamp time = toSeconds(booking.getBookingTime());
+        Integer patientBooking = getTimeIndex(patientBookingTimes, booking.getPatientID()).get(time);
+        Integer doctorBooking = getTimeIndex(doctorBookingTimes, booking.getDoctorID()).get(time);
+        if((patientBooking != null && !patientBooking.equals(current.getBookingID()))
+                || (doctorBooking != null && !doctorBooking.equals(current.getBookingID())))
+            throw new ExistingBookingException();
+
+        Booking updated = new Booking(
+                current.getBookingID(),
+                booking.getDoctorID(),
+                booking.getPatientID(),
+                time,
+                now(),
+                booking.getType(),
+                booking.getDetails(),
+                booking.getPrescription(),
+                current.getVersion() + 1
+        );
+        unindexBooking(current);
+        bookings.put(updated.getBookingID(), updated);
+        indexBooking(updated);
+        return updated;
+    }
+
+    /**
+     * Delete the booking
+     * @param booking The booking
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    public synchronized void deleteBooking(Booking booking) throws NullDataException, InvalidDataException
+    {
+        if(booking==null)
+            throw new NullDataException("Null booking in the deleteBooking method");
+        if(isInvalidBooking(booking))
+            throw new InvalidDataException("Invalid booking in the deleteBooking method");
+
+        Booking current = bookings.remove(booking.getBookingID());
+        if(current != null)
+            unindexBooking(current);
+    }
+
+    /**
+     * Add the booking to the (id_patient, booking_time) and (id_doctor, booking_time) indexes
+     * @param booking The stored booking
+     */
+    private void indexBooking(Booking booking)
+    {
+        patientBookingTimes.computeIfAbsent(booking.getPatientID(), id -> new ConcurrentSkipListMap<>())
+                .put(booking.getBookingTime(), booking.getBookingID());
+        doctorBookingTimes.computeIfAbsent(booking.getDoctorID(), id -> new ConcurrentSkipListMap<>())
+                .put(booking.getBookingTime(), booking.getBookingID());
+    }
+
+    /**
+     * Remove the booking from the (id_patient, booking_time) and (id_doctor, booking_time) indexes
+     * @param booking The stored booking
+     */
+    private void unindexBooking(Booking booking)
+    {
+        getTimeIndex(patientBookingTimes, booking.getPatientID()).remove(booking.getBookingTime(), booking.getBookingID());
+        getTimeIndex(doctorBookingTimes, booking.getDoctorID()).remove(booking.getBookingTime(), booking.getBookingID());
+    }
+
+    //endregion
+
+    //region Notification
+    @Override
+    public Notification getNotification(int notificationID) throws DatabaseException
+    {
+        Notification notification = notifications.get(notificationID);
+        if(notification == null)
+            throw new DatabaseException("Could not get notification from the database");
+        return copyOf(notification);
+    }
+
+    @Override
+    public Notification createNotification(Patient patient, String header, String message) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the createNotification method");
+        if(isNullOrEmpty(header))
+            throw new NullDataException("Null header in the createNotification method");
+        if(isNullOrEmpty(message))
+            throw new NullDataException("Null message in the createNotification method");
+
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the createNotification method");
+
+        Notification notification;
+        synchronized (this) {
+            notification = insertNotification(patient.getPatientID(), header, message);
+        }
+        return copyOf(notification);
+    }
+
+    /**
+     * Insert a new, unread notification, after checking that its patient exists.
+     * Must be called while holding the write lock
+     * @param patientID The patient id
+     * @param header The header of the notification
+     * @param message The main body of the notification
+     * @return The stored notification
+     * @throws DatabaseException if the patient does not exist
+     */
+    private Notification insertNotification(int patientID, String header, String message) throws DatabaseException
+    {
+        if(!patients.containsKey(patientID))
+            throw new DatabaseException("Could not insert notification in the database");
+
+        Notification notification = new Notification(lastNotificationID.incrementAndGet(), patientID, header, message, now(), true);
+        notifications.put(notification.getNotifID(), notification);
+        patientNotifications.computeIfAbsent(patientID, id -> new ConcurrentSkipListSet<>()).add(notification.getNotifID());
+        return notification;
+    }
+
+    @Override
+    public List<Notification> getNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getNotifications method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getNotification method");
+
+        return getNotifications(getIDIndex(patientNotifications, patient.getPatientID()), null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Stream<Notification> streamNotifications() throws DatabaseException
+    {
+        return notifications.values().stream().map(InMemoryDataAccess::copyOf);
+    }
+
+    @Override
+    public NotificationChanges getNotificationChanges(Patient patient, Integer afterNotificationID, Collection<Integer> unreadNotificationIDs) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getNotificationChanges method");
+        if(unreadNotificationIDs==null)
+            throw new NullDataException("Null notification ids in the getNotificationChanges method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getNotificationChanges method");
+        for(Integer notificationID : unreadNotificationIDs) {
+            if(notificationID==null || notificationID<=0)
+                throw new InvalidDataException("Invalid notification id in the getNotificationChanges method");
+        }
+
+        NavigableSet<Integer> notificationIDs = getIDIndex(patientNotifications, patient.getPatientID());
+        List<Notification> newNotifications = getNotifications(
+                notificationIDs.tailSet(afterNotificationID == null ? 0 : afterNotificationID, false), null, Integer.MAX_VALUE);
+        var readNotificationIDs = new HashSet<Integer>();
+        for(Integer notificationID : unreadNotificationIDs) {
+            Notification notification = notifications.get(notificationID);
+            if(notification != null && notificationIDs.contains(notificationID) && !notification.isNew()) {
+                readNotificationIDs.add(notificationID);
+            }
+        }
+
+        return new NotificationChanges(newNotifications, readNotificationIDs, countUnreadNotifications(patient));
+    }
+
+    @Override
+    public int countUnreadNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the countUnreadNotifications method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the countUnreadNotifications method");
+
+        return getNotifications(getIDIndex(patientNotifications, patient.getPatientID()), true, Integer.MAX_VALUE).size();
+    }
+
+    @Override
+    public int countArchivedNotifications(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the countArchivedNotifications method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the countArchivedNotifications method");
+
+        return getNotifications(getIDIndex(patientNotifications, patient.getPatientID()), false, Integer.MAX_VALUE).size();
+    }
+
+    @Override
+    public List<Notification> getUnreadNotifications(Patient patient, Integer beforeNotificationID, int limit) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getUnreadNotifications method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getUnreadNotifications method");
+        if(limit<=0)
+            throw new InvalidDataException("Non-positive limit in the getUnreadNotifications method");
+
+        return getNotifications(getPageIDs(patientNotifications, patient.getPatientID(), beforeNotificationID), true, limit);
+    }
+
+    @Override
+    public List<Notification> getArchivedNotifications(Patient patient, Integer beforeNotificationID, int limit) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getArchivedNotifications method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getArchivedNotifications method");
+        if(limit<=0)
+            throw new InvalidDataException("Non-positive limit in the getArchivedNotifications method");
+
+        return getNotifications(getPageIDs(patientNotifications, patient.getPatientID(), beforeNotificationID), false, limit);
+    }
+
+    /**
+     * Get the notifications with the given ids, in the order of the ids
+     * @param notificationIDs The notification ids
+     * @param isNew Whether to get only the unread notifications or only the read ones, or null to get both
+     * @param limit The maximum number of notifications to return
+     * @return The notifications
+     */
+    private List<Notification> getNotifications(Collection<Integer> notificationIDs, Boolean isNew, int limit)
+    {
+        var notificationList = new ArrayList<Notification>();
+        for(Integer notificationID : notificationIDs) {
+            if(notificationList.size() >= limit)
+                break;
+            Notification notification = notifications.get(notificationID);
+            if(notification != null && (isNew == null || notification.isNew() == isNew))
+                notificationList.add(copyOf(notification));
+        }
+        return notificationList;
+    }
+
+    @Override
+    public Notification setNotificationSeen(Notification notification) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(notification==null)
+            throw new NullDataException("Null notification in the setNotificationSeen method");
+        if(!validateNotification(notification))
+            throw new InvalidDataException("Invalid notification in the setNotification method");
+
+        synchronized (this) {
+            Notification current = notifications.get(notification.getNotifID());
+            if(current != null && current.isNew())
+                notifications.put(current.getNotifID(), asSeen(current));
+        }
+
+        notification.setIsNew(false);
+        return notification;
+    }
+
+    @Override
+    public int setNotificationsSeen(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the setNotificationsSeen method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the setNotificationsSeen method");
+
+        return setNotificationsSeen(patient.getPatientID(), null);
+    }
+
+    @Override
+    public int setNotificationsSeen(Patient patient, Collection<Integer> notificationIDs) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the setNotificationsSeen(patient, notificationIDs) method overload");
+        if(notificationIDs==null)
+            throw new NullDataException("Null notification ids in the setNotificationsSeen(patient, notificationIDs) method overload");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the setNotificationsSeen(patient, notificationIDs) method overload");
+
+        for(Integer notificationID : notificationIDs) {
+            if(notificationID==null || notificationID<=0)
+                throw new InvalidDataException("Invalid notification id in the setNotificationsSeen(patient, notificationIDs) method overload");
+        }
+        if(notificationIDs.isEmpty())
+            return 0;
+
+        return setNotificationsSeen(patient.getPatientID(), new HashSet<>(notificationIDs));
+    }
+
+    /**
+     * Set the unread notifications of the given patient as seen
+     * @param patientID The patient id
+     * @param notificationIDs The ids of the notifications, or null for all of them
+     * @return The number of notifications that were set as seen
+     */
+    private synchronized int setNotificationsSeen(int patientID, Set<Integer> notificationIDs)
+    {
+        int updatedCount = 0;
+        for(Integer notificationID : getIDIndex(patientNotifications, patientID)) {
+            Notification current = notifications.get(notificationID);
+            if(current != null && current.isNew() && (notificationIDs == null || notificationIDs.contains(notificationID))) {
+                notifications.put(notificationID, asSeen(current));
+                updatedCount++;
+            }
+        }
+        return updatedCount;
+    }
+
+    /**
+     * Delete the notification with the given id
+     * @param notificationID The notification id
+     * @throws InvalidDataException if the data is invalid
+     */
+    public synchronized void deleteNotification(int notificationID) throws InvalidDataException
+    {
+        if(notificationID<0)
+            throw new InvalidDataException("Negative notification ID in the deleteNotification method");
+
+        Notification notification = notifications.remove(notificationID);
+        if(notification != null)
+            getIDIndex(patientNotifications, notification.getPatientID()).remove(notificationID);
+    }
+
+    //endregion
+
+    //region Log
+    /**
+     * Get the log with the given id
+     * @param logID The log id
+     * @return The log
+     * @throws DatabaseException if the log does not exist
+     * @throws InvalidDataException if the data is invalid
+     */
+    public Log getLog(int logID) throws DatabaseException, InvalidDataException
+    {
+        if(logID<0)
+            throw new InvalidDataException("Negative log ID in the getLog method");
+
+        Log log = logs.get(logID);
+        if(log == null)
+            throw new DatabaseException("Could not get log from the database");
+        return copyOf(log);
+    }
+
+    @Override
+    public List<Log> getLogs() throws DatabaseException
+    {
+        return getLogs(logs.keySet(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Stream<Log> streamLogs() throws DatabaseException
+    {
+        return logs.values().stream().map(InMemoryDataAccess::copyOf);
+    }
+
+    @Override
+    public List<Log> getLogs(Patient patient) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getLogs method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getLogs method");
+
+        return getLogs(getIDIndex(patientLogs, patient.getPatientID()), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Log> getLogs(Patient patient, Integer beforeLogID, int limit) throws DatabaseException, NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the getLogs(patient, beforeLogID, limit) method overload");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the getLogs(patient, beforeLogID, limit) method overload");
+        if(limit<=0)
+            throw new InvalidDataException("Non-positive limit in the getLogs(patient, beforeLogID, limit) method overload");
+
+        return getLogs(getPageIDs(patientLogs, patient.getPatientID(), beforeLogID), limit);
+    }
+
+    /**
+     * Get the logs with the given ids, in the order of the ids
+     * @param logIDs The log ids
+     * @param limit The maximum number of logs to return
+     * @return The logs
+     */
+    private List<Log> getLogs(Collection<Integer> logIDs, int limit)
+    {
+        var logList = new ArrayList<Log>();
+        for(Integer logID : logIDs) {
+            if(logList.size() >= limit)
+                break;
+            Log log = logs.get(logID);
+            if(log != null)
+                logList.add(copyOf(log));
+        }
+        return logList;
+    }
+
+    @Override
+    public Log createLog(Patient patient, String message) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the createLog method");
+        if(isNullOrEmpty(message))
+            throw new NullDataException("Null message in the createLog method");
+
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the createLog method");
+
+        Log log;
+        synchronized (this) {
+            log = insertLog(message, patient.getPatientID(), now());
+        }
+        return copyOf(log);
+    }
+
+    /**
+     * Insert the given logs. A log whose patient does not exist is not inserted, but the others still are.
+     * The logs keep the times they were created at
+     * @param logs The logs to insert, each with its message, patient id and creation time
+     * @throws DatabaseException if the patient of any of the logs does not exist
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    @Override
+    public void createLogs(List<Log> logs) throws NullDataException, InvalidDataException, DatabaseException
+    {
+        if(logs==null)
+            throw new NullDataException("Null logs in the createLogs method");
+        for(Log log : logs) {
+            if(log==null || isNullOrEmpty(log.getMessage()))
+                throw new NullDataException("Null log in the createLogs method");
+            if(log.getPatientID()==null || log.getPatientID()<0)
+                throw new InvalidDataException("Invalid patient in the createLogs method");
+        }
+        if(logs.isEmpty())
+            return;
+
+        int failedCount = 0;
+        synchronized (this) {
+            for(Log log : logs) {
+                try {
+                    insertLog(log.getMessage(), log.getPatientID(), log.getTimestamp() != null ? toSeconds(log.getTimestamp()) : now());
+                } catch (DatabaseException ex)
+                {
+                    failedCount++;
+                }
+            }
+        }
+
+        if(failedCount > 0)
+            throw new DatabaseException("Could not insert " + failedCount + " of the logs in the database");
+    }
+
+    /**
+     * Insert a new log, after checking that its patient exists.
+     * Must be called while holding the write lock
+     * @param message The content of the log
+     * @param patientID The patient id
+     * @param timestamp The time the log was created at
+     * @return The stored log
+     * @throws DatabaseException if the patient does not exist
+     */
+    private Log insertLog(String message, int patientID, Timestamp timestamp) throws DatabaseException
+    {
+        if(!patients.containsKey(patientID))
+            throw new DatabaseException("Could not insert log in the database");
+
+        Log log = new Log(lastLogID.incrementAndGet(), message, patientID, timestamp);
+        logs.put(log.getLogID(), log);
+        patientLogs.computeIfAbsent(patientID, id -> new ConcurrentSkipListSet<>()).add(log.getLogID());
+        return log;
+    }
+
+    /**
+     * Delete the log with the given id
+     * @param logID The log id
+     * @throws InvalidDataException if the data is invalid
+     */
+    public synchronized void deleteLog(int logID) throws InvalidDataException
+    {
+        if(logID<0)
+            throw new InvalidDataException("Negative log ID in the deleteLog method");
+
+        Log log = logs.remove(logID);
+        if(log != null)
+            getIDIndex(patientLogs, log.getPatientID()).remove(logID);
+    }
+
+    //endregion
+
+    //region Helpers
+    /**
+     * Get the booking times of a patient or a doctor, or an empty index if there are none
+     * @param index The (id_patient, booking_time) or (id_doctor, booking_time) index
+     * @param id The id of the patient or the doctor
+     * @return The booking ids by booking time
+     */
+    private static NavigableMap<Timestamp, Integer> getTimeIndex(Map<Integer, ConcurrentSkipListMap<Timestamp, Integer>> index, int id)
+    {
+        NavigableMap<Timestamp, Integer> entries = index.get(id);
+        return (entries == null) ? Collections.emptyNavigableMap() : entries;
+    }
+
+    /**
+     * Get the ids of a patient's notifications or logs, or an empty index if there are none
+     * @param index The notification or log index
+     * @param patientID The patient id
+     * @return The ids, from the oldest to the newest
+     */
+    private static NavigableSet<Integer> getIDIndex(Map<Integer, ConcurrentSkipListSet<Integer>> index, int patientID)
+    {
+        NavigableSet<Integer> entries = index.get(patientID);
+        return (entries == null) ? Collections.emptyNavigableSet() : entries;
+    }
+
+    /**
+     * Get the ids of a page of a patient's notifications or logs, from the newest to the oldest
+     * @param index The notification or log index
+     * @param patientID The patient id
+     * @param beforeID Only ids smaller than this are returned, or null to start from the newest one
+     * @return The ids
+     */
+    private static NavigableSet<Integer> getPageIDs(Map<Integer, ConcurrentSkipListSet<Integer>> index, int patientID, Integer beforeID)
+    {
+        return getIDIndex(index, patientID).headSet(beforeID == null ? Integer.MAX_VALUE : beforeID, false).descendingSet();
+    }
+
+    /**
+     * Get the key of an email address in the email indexes, which ignore case as the database does
+     * @param email The email address
+     * @return The key
+     */
+    private static String getEmailKey(String email)
+    {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the current time, to the second
+     * @return The current time
+     */
+    private static Timestamp now()
+    {
+        return toSeconds(new Timestamp(System.currentTimeMillis()));
+    }
+
+    /**
+     * Round the given time to the second, as the database does when it stores a time
+     * @param time The time
+     * @return The rounded time
+     */
+    private static Timestamp toSeconds(Timestamp time)
+    {
+        return new Timestamp(Math.floorDiv(time.getTime() + 500, 1000) * 1000);
+    }
+
+    /**
+     * Get the day of the given date, as the database stores it
+     * @param date The date
+     * @return The day
+     */
+    private static Date toDate(java.util.Date date)
+    {
+        return (date == null) ? null : Date.valueOf(new Date(date.getTime()).toLocalDate());
+    }
+
+    /**
+     * Copy the given time
+     * @param time The time, or null
+     * @return The copy
+     */
+    private static Timestamp copyOf(Timestamp time)
+    {
+        return (time == null) ? null : new Timestamp(time.getTime());
+    }
+
+    /**
+     * Copy the given patient
+     * @param patient The patient
+     * @return The copy
+     */
+    private static Patient copyOf(Patient patient)
+    {
+        return copyOf(patient.getPatientID(), patient);
+    }
+
+    /**
+     * Copy the given patient, with the given id
+     * @param patientID The id of the copy
+     * @param patient The patient
+     * @return The copy
+     */
+    private static Patient copyOf(int patientID, Patient patient)
+    {
+        return new Patient(
+                patientID,
+                patient.getEmail(),
+                patient.getPassHash(),
+                patient.getFirstName(),
+                patient.getMiddleName(),
+                patient.getLastName(),
+                toDate(patient.getDob()),
+                patient.getGender(),
+                patient.getPhoneNo()
+        );
+    }
+
+    /**
+     * Copy the given doctor
+     * @param doctor The doctor
+     * @return The copy
+     */
+    private static Doctor copyOf(Doctor doctor)
+    {
+        return new Doctor(
+                doctor.getDoctorID(),
+                doctor.getEmail(),
+                doctor.getFirstName(),
+                doctor.getMiddleName(),
+                doctor.getLastName(),
+                toDate(doctor.getDob()),
+                doctor.getGender(),
+                doctor.getPhoneNo()
+        );
+    }
+
+    /**
+     * Copy the given certification
+     * @param certification The certification
+     * @return The copy
+     */
+    private static Certification copyOf(Certification certification)
+    {
+        return new Certification(
+                certification.getDoctorID(),
+                certification.getCertID(),
+                certification.getName(),
+                certification.getField(),
+                toDate(certification.getDateObtained())
+        );
+    }
+
+    /**
+     * Copy the given booking
+     * @param booking The booking
+     * @return The copy
+     */
+    private static Booking copyOf(Booking booking)
+    {
+        return new Booking(
+                booking.getBookingID(),
+                booking.getDoctorID(),
+                booking.getPatientID(),
+                copyOf(booking.getBookingTime()),
+                copyOf(booking.getTimestamp()),
+                booking.getType(),
+                booking.getDetails(),
+                booking.getPrescription(),
+                booking.getVersion()
+        );
+    }
+
+    /**
+     * Copy the given notification
+     * @param notification The notification
+     * @return The copy
+     */
+    private static Notification copyOf(Notification notification)
+    {
+        return new Notification(
+                notification.getNotifID(),
+                notification.getPatientID(),
+                notification.getHeader(),
+                notification.getMessage(),
+                copyOf(notification.getTimestamp()),
+                notification.isNew()
+        );
+    }
+
+    /**
+     * Get a copy of the given notification, set as seen
+     * @param notification The stored notification
+     * @return The seen notification, whose time is updated as the database does on every change
+     */
+    private static Notification asSeen(Notification notification)
+    {
+        return new Notification(
+                notification.getNotifID(),
+                notification.getPatientID(),
+                notification.getHeader(),
+                notification.getMessage(),
+                now(),
+                false
+        );
+    }
+
+    /**
+     * Copy the given log
+     * @param log The log
+     * @return The copy
+     */
+    private static Log copyOf(Log log)
+    {
+        return new Log(log.getLogID(), log.getMessage(), log.getPatientID(), copyOf(log.getTimestamp()));
+    }
+    //endregion
+}
@@ -0,0 +1,143 @@
+package com.group15A.DataAccess;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of latencies in nanoseconds, with a fixed relative precision.
+ *
+ * As in an HDR histogram, values are counted in buckets whose width grows with the value:
+ * every power of two is split into SUB_BUCKET_HALF_COUNT equal buckets,
+ * so any recorded value is reported within about 3% of its true value, whatever its magnitude.
+ * Recording a value never allocates or locks, so it can be done on every database call.
+ *
+ * @author Andrei Constantin
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = SUB_BUCKET_HALF_COUNT * (Long.SIZE + 1 - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a latency
+     * @param nanos The latency, in nanoseconds. Negative values are recorded as 0
+     */
+    public void record(long nanos)
+    {
+        if(nanos < 0)
+            nanos = 0;
+
+        counts.incrementAndGet(getBucketIndex(nanos));
+        totalCount.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Get the latency below which the given percentage of the recorded latencies fall
+     * @param percentile The percentage, between 0 and 100
+     * @return The latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        if(percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("A percentile must be between 0 and 100");
+
+        long count = getCount();
+        if(count == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for(int index = 0; index < BUCKET_COUNT; index++) {
+            seen += counts.get(index);
+            if(seen >= target)
+                return Math.min(getBucketUpperBound(index), getMax());
+        }
+        return getMax();
+    }
+
+    //region Statistics
+    public long getCount() {return totalCount.sum();}
+
+    public long getTotalNanos() {return totalNanos.sum();}
+
+    public long getMax() {return maxNanos.get();}
+
+    /**
+     * @return the mean of the recorded latencies in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean()
+    {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getTotalNanos() / count;
+    }
+
+    /**
+     * toString method for LatencyHistogram
+     *
+     * @return a textual representation of the histogram's percentiles, in microseconds
+     */
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+                "count=" + getCount() +
+                ", meanUs=" + toMicros(getMean()) +
+                ", p50Us=" + toMicros(getValueAtPercentile(50)) +
+                ", p90Us=" + toMicros(getValueAtPercentile(90)) +
+                ", p99Us=" + toMicros(getValueAtPercentile(99)) +
+                ", maxUs=" + toMicros(getMax()) +
+                '}';
+    }
+    //endregion
+
+    /**
+     * Get the bucket a value is counted in.
+     * Values below SUB_BUCKET_COUNT each have their own bucket;
+     * larger values are shifted right until they fit in the upper half of the sub-buckets
+     * @param value The value, which is not negative
+     * @return The index of the bucket
+     */
+    private static int getBucketIndex(long value)
+    {
+        if(value < SUB_BUCKET_COUNT)
+            return (int) value;
+
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_HALF_COUNT * shift + (int) (value >>> shift);
+    }
+
+    /**
+     * Get the largest value counted in a bucket
+     * @param index The index of the bucket
+     * @return The largest value
+     */
+    private static long getBucketUpperBound(int index)
+    {
+        if(index < SUB_BUCKET_COUNT)
+            return index;
+
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        long upperBound = ((subBucket + 1) << shift) - 1;
+        return upperBound < 0 ? Long.MAX_VALUE : upperBound;
+    }
+
+    /**
+     * Convert nanoseconds to microseconds, rounded to one decimal
+     * @param nanos The time in nanoseconds
+     * @return The time in microseconds
+     */
+    static double toMicros(double nanos)
+    {
+        return Math.round(nanos / 100) / 10.0;
+    }
+}
@@ -0,0 +1,258 @@
+package com.group15A.DataAccess;
+
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.CustomExceptions.InvalidDataException;
+import com.group15A.CustomExceptions.NullDataException;
+import com.group15A.DataModel.Log;
+import com.group15A.DataModel.Patient;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.group15A.DataAccess.DataAccessValidator.*;
+
+/**
+ * Writes logs to the database in the background, so that recording an action does not delay the user.
+ *
+ * Logs are put in a bounded queue and a background thread inserts them in batches,
+ * either once a batch is full or once the oldest queued log has waited long enough.
+ * If the queue is full, the caller waits briefly for room and then writes its log itself.
+ * close() must be called before the program exits, so that no queued logs are lost.
+ *
+ * @author Andrei Constantin
+ */
+public class LogWriter
+{
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final int BATCH_SIZE = 50;
+    private static final long FLUSH_INTERVAL_MS = 500;
+    private static final long ENQUEUE_TIMEOUT_MS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5_000;
+
+    private final IDataAccess dataAccess;
+    private final BlockingQueue<Log> queue;
+    private final Thread writerThread;
+
+    // Held for reading while a log is queued, and for writing while the writer is closed,
+    // so that no log can be queued once the writer has been closed
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private final Object progressMonitor = new Object();
+    private long submittedCount = 0;
+    private long completedCount = 0;
+    private volatile int flushWaiters = 0;
+    private volatile boolean closed = false;
+
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong synchronousWriteCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * Constructor for the LogWriter class. Starts the background thread that writes the logs.
+     * @param dataAccess The Data Access Layer used to insert the logs
+     */
+    public LogWriter(IDataAccess dataAccess)
+    {
+        this.dataAccess = dataAccess;
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        writerThread = new Thread(this::run, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queue a log for the given patient. The log keeps the time it was queued at.
+     * @param patient The patient
+     * @param message The content of the log
+     * @throws NullDataException if a null value was sent as a parameter where a non-null value is expected
+     * @throws InvalidDataException if the data is invalid
+     */
+    public void log(Patient patient, String message) throws NullDataException, InvalidDataException
+    {
+        if(patient==null)
+            throw new NullDataException("Null patient in the log method");
+        if(isNullOrEmpty(message))
+            throw new NullDataException("Null message in the log method");
+        if(isInvalidPatient(patient))
+            throw new InvalidDataException("Invalid patient in the log method");
+
+        Log log = new Log(null, message, patient.getPatientID(), new Timestamp(System.currentTimeMillis()));
+        synchronized (progressMonitor) {
+            submittedCount++;
+        }
+
+        boolean queued = false;
+        closeLock.readLock().lock();
+        try {
+            if(!closed)
+                queued = queue.offer(log, ENQUEUE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeLock.readLock().unlock();
+        }
+
+        // The writer cannot keep up (or has stopped), so write the log on this thread instead of dropping it
+        if(!queued) {
+            synchronousWriteCount.incrementAndGet();
+            write(List.of(log));
+        }
+    }
+
+    /**
+     * Wait until every log queued so far has been written to the database
+     * @return true if all the logs were written in time, false if the wait timed out
+     */
+    public boolean flush()
+    {
+        long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT_MS;
+        synchronized (progressMonitor) {
+            long target = submittedCount;
+            flushWaiters++;
+            try {
+                while (completedCount < target) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if(remaining <= 0)
+                        return false;
+                    progressMonitor.wait(remaining);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                flushWaiters--;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write every queued log and let the background thread stop.
+     * Logs made after the writer is closed are written straight away.
+     * @return true if all the queued logs were written in time, false otherwise
+     */
+    public boolean close()
+    {
+        boolean flushed = flush();
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+
+        // No more logs can be queued, so once the background thread stops, write whatever it left on this thread
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        List<Log> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if(!remaining.isEmpty())
+            write(remaining);
+        return flushed;
+    }
+
+    /**
+     * Take the queued logs in batches and write them, until the writer is closed
+     */
+    private void run()
+    {
+        List<Log> batch = new ArrayList<>(BATCH_SIZE);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Log first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if(first == null)
+                    continue;
+                batch.add(first);
+                fillBatch(batch, System.currentTimeMillis() + FLUSH_INTERVAL_MS);
+            } catch (InterruptedException ex) {
+                // Write whatever is left without waiting for more
+                queue.drainTo(batch);
+            }
+
+            if(!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Add queued logs to the batch until it is full, the deadline has passed or a flush is requested
+     * @param batch The batch
+     * @param deadline The time after which the batch is written even if it is not full
+     * @throws InterruptedException if the thread is interrupted while waiting for logs
+     */
+    private void fillBatch(List<Log> batch, long deadline) throws InterruptedException
+    {
+        while (batch.size() < BATCH_SIZE) {
+            queue.drainTo(batch, BATCH_SIZE - batch.size());
+            long remaining = deadline - System.currentTimeMillis();
+            if(batch.size() >= BATCH_SIZE || remaining <= 0 || flushWaiters > 0 || closed)
+                return;
+
+            Log next = queue.poll(Math.min(remaining, 50), TimeUnit.MILLISECONDS);
+            if(next != null)
+                batch.add(next);
+        }
+    }
+
+    /**
+     * Insert the given logs in the database, then report them as completed
+     * @param logs The logs
+     */
+    private void write(List<Log> logs)
+    {
+        try {
+            dataAccess.createLogs(logs);
+            writtenCount.addAndGet(logs.size());
+            batchCount.incrementAndGet();
+        } catch (CustomException ex) {
+            failedCount.addAndGet(logs.size());
+            System.err.println("Could not write " + logs.size() + " log(s): " + ex.getMessage());
+        } finally {
+            synchronized (progressMonitor) {
+                completedCount += logs.size();
+                progressMonitor.notifyAll();
+            }
+        }
+    }
+
+    //region Metrics
+    public int getQueuedCount() {return queue.size();}
+
+    public long getWrittenCount() {return writtenCount.get();}
+
+    public long getFailedCount() {return failedCount.get();}
+
+    public long getSynchronousWriteCount() {return synchronousWriteCount.get();}
+
+    public long getBatchCount() {return batchCount.get();}
+
+    /**
+     * toString method for LogWriter
+     *
+     * @return a textual representation of the writer's metrics
+     */
+    @Override
+    public String toString() {
+        return "LogWriter{" +
+                "queued=" + getQueuedCount() +
+                ", written=" + getWrittenCount() +
+                ", failed=" + getFailedCount() +
+                ", synchronousWrites=" + getSynchronousWriteCount() +
+                ", batches=" + getBatchCount() +
+                '}';
+    }
+    //endregion
+}
@@ -0,0 +1,71 @@
+package com.group15A.DataAccess;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics recorded for one method of the Data Access Layer:
+ * how often it was called, how often it failed, how long it took and how many rows it returned
+ *
+ * @author Andrei Constantin
+ */
+public class MethodMetrics
+{
+    private final String name;
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder rowCount = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Constructor for the MethodMetrics class.
+     * @param name The name of the method, with its parameter types
+     */
+    public MethodMetrics(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * Record a call to the method
+     * @param nanos How long the call took, in nanoseconds
+     * @param rows The number of rows the call returned
+     * @param failed Whether the call threw an exception
+     */
+    public void record(long nanos, int rows, boolean failed)
+    {
+        latencies.record(nanos);
+        rowCount.add(rows);
+        if(failed)
+            errorCount.increment();
+    }
+
+    //region Statistics
+    public String getName() {return name;}
+
+    public long getCallCount() {return latencies.getCount();}
+
+    public long getErrorCount() {return errorCount.sum();}
+
+    public long getRowCount() {return rowCount.sum();}
+
+    public long getTotalNanos() {return latencies.getTotalNanos();}
+
+    public LatencyHistogram getLatencies() {return latencies;}
+
+    /**
+     * toString method for MethodMetrics
+     *
+     * @return a textual representation of the method's statistics
+     */
+    @Override
+    public String toString() {
+        return "MethodMetrics{" +
+                "name='" + name + '\'' +
+                ", calls=" + getCallCount() +
+                ", errors=" + getErrorCount() +
+                ", rows=" + getRowCount() +
+                ", totalMs=" + LatencyHistogram.toMicros(getTotalNanos() / 1000.0) +
+                ", latencies=" + latencies +
+                '}';
+    }
+    //endregion
+}
@@ -19,6 +19,7 @@ public class Booking {
     private String type;
     private String details;
     private String prescription;
+    private final Integer version;
 
     /**
      *
@@ -30,8 +31,9 @@ public class Booking {
      * @param type the type of the booking
      * @param details the details for the booking
      * @param prescription the prescription from the doctor
+     * @param version how many times the booking has been updated, used to detect updates made from an out of date copy
      */
-    public Booking(Integer bookingID, Integer doctorID, Integer patientID, Timestamp bookingTime, Timestamp timestamp, String type, String details, String prescription) {
+    public Booking(Integer bookingID, Integer doctorID, Integer patientID, Timestamp bookingTime, Timestamp timestamp, String type, String details, String prescription, Integer version) {
         this.bookingID = bookingID;
         this.doctorID = doctorID;
         this.patientID = patientID;
@@ -40,6 +42,7 @@ public class Booking {
         this.type = type;
         this.details = details;
         this.prescription = prescription;
+        this.version = version;
     }
 
     public Integer getBookingID() {return bookingID;}
@@ -69,6 +72,8 @@ public class Booking {
 
     public void setPrescription(String prescription) {this.prescription = prescription;}
 
+    public Integer getVersion() {return version;}
+
     /**
      * Method for equality testing
      *
@@ -80,7 +85,7 @@ public class Booking {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Booking booking = (Booking) o;
-        return getBookingID().equals(booking.getBookingID()) && getDoctorID().equals(booking.getDoctorID()) && getPatientID().equals(booking.getPatientID()) && getBookingTime().equals(booking.getBookingTime()) && getTimestamp().equals(booking.getTimestamp()) && getType().equals(booking.getType()) && getDetails().equals(booking.getDetails()) && getPrescription().equals(booking.getPrescription());
+        return getBookingID().equals(booking.getBookingID()) && getDoctorID().equals(booking.getDoctorID()) && getPatientID().equals(booking.getPatientID()) && getBookingTime().equals(booking.getBookingTime()) && getTimestamp().equals(booking.getTimestamp()) && getType().equals(booking.getType()) && getDetails().equals(booking.getDetails()) && getPrescription().equals(booking.getPrescription()) && getVersion().equals(booking.getVersion());
     }
 
     /**
@@ -90,7 +95,7 @@ public class Booking {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(getBookingID(), getDoctorID(), getPatientID(), getBookingTime(), getTimestamp(), getType(), getDetails(), getPrescription());
+        return Objects.hash(getBookingID(), getDoctorID(), getPatientID(), getBookingTime(), getTimestamp(), getType(), getDetails(), getPrescription(), getVersion());
     }
 
     /**
@@ -109,6 +114,7 @@ public class Booking {
                 ", type='" + type + '\'' +
                 ", details='" + details + '\'' +
                 ", prescription='" + prescription + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,66 @@
+package com.group15A.DataModel;
+
+import java.util.Objects;
+
+/**
+ *  Used to represent a booking together with the doctor the patient is meeting,
+ *  so that a list of bookings can be displayed without looking up each doctor separately.
+ *
+ *  @author Wenbo Wu
+ */
+public class BookingWithDoctor {
+
+    private final Booking booking;
+    private final Doctor doctor;
+
+    /**
+     *
+     * @param booking the booking
+     * @param doctor the doctor assigned to the booking
+     */
+    public BookingWithDoctor(Booking booking, Doctor doctor) {
+        this.booking = booking;
+        this.doctor = doctor;
+    }
+
+    public Booking getBooking() {return booking;}
+
+    public Doctor getDoctor() {return doctor;}
+
+    /**
+     * Method for equality testing
+     *
+     * @param o
+     * @return whether object 'o' is equal to BookingWithDoctor 'this'
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BookingWithDoctor that = (BookingWithDoctor) o;
+        return getBooking().equals(that.getBooking()) && getDoctor().equals(that.getDoctor());
+    }
+
+    /**
+     * Hashing for BookingWithDoctor object
+     *
+     * @return hashed object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(getBooking(), getDoctor());
+    }
+
+    /**
+     * toString method for BookingWithDoctor
+     *
+     * @return a textual representation of BookingWithDoctor and its data
+     */
+    @Override
+    public String toString() {
+        return "BookingWithDoctor{" +
+                "booking=" + booking +
+                ", doctor=" + doctor +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.group15A.DataModel;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ *  Used to represent a free booking slot together with the doctor who is free at that time,
+ *  so that the earliest slots of several doctors can be listed together.
+ *
+ *  @author Wenbo Wu
+ */
+public class DoctorSlot {
+
+    private final Doctor doctor;
+    private final LocalDateTime slotTime;
+
+    /**
+     *
+     * @param doctor the doctor who is free
+     * @param slotTime the time the slot starts
+     */
+    public DoctorSlot(Doctor doctor, LocalDateTime slotTime) {
+        this.doctor = doctor;
+        this.slotTime = slotTime;
+    }
+
+    public Doctor getDoctor() {return doctor;}
+
+    public LocalDateTime getSlotTime() {return slotTime;}
+
+    /**
+     * Method for equality testing
+     *
+     * @param o
+     * @return whether object 'o' is equal to DoctorSlot 'this'
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DoctorSlot that = (DoctorSlot) o;
+        return getDoctor().equals(that.getDoctor()) && getSlotTime().equals(that.getSlotTime());
+    }
+
+    /**
+     * Hashing for DoctorSlot object
+     *
+     * @return hashed object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(getDoctor(), getSlotTime());
+    }
+
+    /**
+     * toString method for DoctorSlot
+     *
+     * @return a textual representation of DoctorSlot and its data
+     */
+    @Override
+    public String toString() {
+        return "DoctorSlot{" +
+                "doctor=" + doctor +
+                ", slotTime=" + slotTime +
+                '}';
+    }
+}
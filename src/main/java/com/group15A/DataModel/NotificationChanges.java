@@ -0,0 +1,76 @@
+package com.group15A.DataModel;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ *  Used to represent the changes to a patient's notifications since they were last read:
+ *  the notifications created since then, the ids of the notifications shown as unread which have been read since,
+ *  and the number of notifications that are still unread.
+ *  Nothing is returned for a notification that has not changed.
+ *
+ *  @author Wenbo Wu
+ */
+public class NotificationChanges {
+
+    private final List<Notification> newNotifications;
+    private final Set<Integer> readNotificationIDs;
+    private final int unreadCount;
+
+    /**
+     *
+     * @param newNotifications the notifications created since the last read, from the oldest to the newest
+     * @param readNotificationIDs the ids of the notifications shown as unread which have been read since
+     * @param unreadCount the number of the patient's unread notifications
+     */
+    public NotificationChanges(List<Notification> newNotifications, Set<Integer> readNotificationIDs, int unreadCount) {
+        this.newNotifications = newNotifications;
+        this.readNotificationIDs = readNotificationIDs;
+        this.unreadCount = unreadCount;
+    }
+
+    public List<Notification> getNewNotifications() {return newNotifications;}
+
+    public Set<Integer> getReadNotificationIDs() {return readNotificationIDs;}
+
+    public int getUnreadCount() {return unreadCount;}
+
+    /**
+     * Method for equality testing
+     *
+     * @param o
+     * @return whether object 'o' is equal to NotificationChanges 'this'
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        NotificationChanges that = (NotificationChanges) o;
+        return getUnreadCount() == that.getUnreadCount() && getNewNotifications().equals(that.getNewNotifications()) && getReadNotificationIDs().equals(that.getReadNotificationIDs());
+    }
+
+    /**
+     * Hashing for NotificationChanges object
+     *
+     * @return hashed object
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(getNewNotifications(), getReadNotificationIDs(), getUnreadCount());
+    }
+
+    /**
+     * toString method for NotificationChanges
+     *
+     * @return a textual representation of NotificationChanges and its data
+     */
+    @Override
+    public String toString() {
+        return "NotificationChanges{" +
+                "newNotifications=" + newNotifications +
+                ", readNotificationIDs=" + readNotificationIDs +
+                ", unreadCount=" + unreadCount +
+                '}';
+    }
+}
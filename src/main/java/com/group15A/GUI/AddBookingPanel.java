@@ -1,7 +1,7 @@
 package com.group15A.GUI;
 
 import com.group15A.BusinessLogic.AddBookingLogic;
-import com.group15A.CustomExceptions.CustomException;
+import com.group15A.CustomExceptions.BookingConflictException;
 import com.group15A.CustomExceptions.DatabaseException;
 import com.group15A.CustomExceptions.DoctorNotFoundException;
 import com.group15A.CustomExceptions.ExistingBookingException;
@@ -15,7 +15,13 @@ import com.group15A.Utils.ReceiveType;
 import javax.swing.*;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 
 /**
  * To allow for communication to the business layer and to take care of event handling
@@ -32,23 +38,27 @@ public class AddBookingPanel extends BasePanel {
     private JButton createBookingButton;
     private JPanel contentPanel;
     private JPanel bookingSelectionPanel;
-    private JComboBox dayCombo;
+    private JComboBox<String> dayCombo;
     private JPanel dateSelectionPanel;
-    private JComboBox monthCombo;
-    private JComboBox yearCombo;
-    private JComboBox hourCombo;
-    private JComboBox minuteCombo;
+    private JComboBox<String> monthCombo;
+    private JComboBox<String> yearCombo;
+    private JComboBox<String> hourCombo;
+    private JComboBox<String> minuteCombo;
     private JPanel timeSelectionPanel;
     private JLabel bookingErrorLabel;
     private JLabel promptLabel;
     private JLabel bookingTitle;
-    private JComboBox typeComboBox;
+    private JComboBox<String> typeComboBox;
     private JPanel typeLabel;
     private JLabel typeTitle;
 
     private AddBookingLogic addBookingLogic;
     private PageType returningPage;
     private Booking bookingToEdit;
+    private Doctor patientDoctor;
+    private List<LocalTime> freeSlots = new ArrayList<>();
+    private LocalTime wantedTime;
+    private boolean updatingForm;
 
     /**
      * Constructor for AddBookingPanel class
@@ -117,24 +127,151 @@ public class AddBookingPanel extends BasePanel {
      */
     private void populateBookingForm(Booking booking) {
         Timestamp timestamp = booking.getBookingTime();
+        this.updatingForm = true;
         yearCombo.setSelectedItem((new SimpleDateFormat("yyyy")).format(timestamp));
         monthCombo.setSelectedItem((new SimpleDateFormat("MM")).format(timestamp));
         dayCombo.setSelectedItem((new SimpleDateFormat("dd")).format(timestamp));
-        hourCombo.setSelectedItem((new SimpleDateFormat("HH")).format(timestamp));
-        minuteCombo.setSelectedItem((new SimpleDateFormat("mm")).format(timestamp));
         typeComboBox.setSelectedItem(booking.getType());
+        this.updatingForm = false;
+
+        // The hour and minute are selected once the free slots of the day have been loaded
+        this.wantedTime = timestamp.toLocalDateTime().toLocalTime();
+        this.loadFreeSlots();
     }
 
     /**
      * Set dropdowns to their default values
      */
     private void resetBookingForm() {
+        this.updatingForm = true;
         yearCombo.setSelectedItem(String.valueOf(Calendar.getInstance().get(Calendar.YEAR)));
         monthCombo.setSelectedItem("Month");
         dayCombo.setSelectedItem("Day");
-        hourCombo.setSelectedItem("Hour");
-        minuteCombo.setSelectedItem("Minute");
         typeComboBox.setSelectedItem("Type");
+        this.updatingForm = false;
+
+        this.wantedTime = null;
+        this.freeSlots = new ArrayList<>();
+        this.showFreeSlots();
+    }
+
+    /**
+     * Select the given date in the date dropdowns, and load its free slots
+     * so that the given time can be selected
+     * @param dateTime the date and time to select
+     */
+    private void selectDateTime(LocalDateTime dateTime) {
+        this.updatingForm = true;
+        yearCombo.setSelectedItem(String.valueOf(dateTime.getYear()));
+        monthCombo.setSelectedItem(String.format("%02d", dateTime.getMonthValue()));
+        dayCombo.setSelectedItem(String.format("%02d", dateTime.getDayOfMonth()));
+        this.updatingForm = false;
+
+        this.wantedTime = dateTime.toLocalTime();
+        this.loadFreeSlots();
+    }
+
+    /**
+     * @return the date selected in the dropdowns, or null if no valid date is selected
+     */
+    private LocalDate getSelectedDate() {
+        try {
+            return LocalDate.of(
+                    Integer.parseInt(yearCombo.getSelectedItem().toString()),
+                    Integer.parseInt(monthCombo.getSelectedItem().toString()),
+                    Integer.parseInt(dayCombo.getSelectedItem().toString())
+            );
+        } catch (NumberFormatException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Load the doctor's free slots on the selected date in the background,
+     * then offer only those times in the hour and minute dropdowns
+     */
+    private void loadFreeSlots() {
+        LocalDate day = this.getSelectedDate();
+        Doctor doctor = this.patientDoctor;
+        if (day == null || doctor == null) {
+            cancelBackgroundTask("freeSlots");
+            this.freeSlots = new ArrayList<>();
+            this.showFreeSlots();
+            return;
+        }
+
+        Booking booking = this.bookingToEdit;
+        loadInBackground(
+                "freeSlots",
+                () -> this.addBookingLogic.getFreeSlots(doctor, day),
+                slots -> {
+                    this.freeSlots = new ArrayList<>(slots);
+                    // A booking being rescheduled can stay at its own time
+                    if (booking != null) {
+                        LocalDateTime bookingTime = booking.getBookingTime().toLocalDateTime();
+                        if (bookingTime.toLocalDate().equals(day) && bookingTime.isAfter(LocalDateTime.now())
+                                && !this.freeSlots.contains(bookingTime.toLocalTime())) {
+                            this.freeSlots.add(bookingTime.toLocalTime());
+                            this.freeSlots.sort(null);
+                        }
+                    }
+                    this.showFreeSlots();
+                },
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(addBookingPanel)
+        );
+    }
+
+    /**
+     * Fill the hour dropdown with the hours which have a free slot, keeping the selected time where possible
+     */
+    private void showFreeSlots() {
+        LocalTime selectedTime = this.wantedTime;
+        String selectedHour = (selectedTime != null)
+                ? String.format("%02d", selectedTime.getHour())
+                : hourCombo.getSelectedItem() == null ? "Hour" : hourCombo.getSelectedItem().toString();
+        this.wantedTime = null;
+
+        this.updatingForm = true;
+        hourCombo.removeAllItems();
+        hourCombo.addItem("Hour");
+        for (LocalTime slot : this.freeSlots) {
+            String hour = String.format("%02d", slot.getHour());
+            if (!hour.equals(hourCombo.getItemAt(hourCombo.getItemCount() - 1))) {
+                hourCombo.addItem(hour);
+            }
+        }
+        hourCombo.setSelectedItem(selectedHour);
+        this.updatingForm = false;
+
+        this.showFreeMinutes(selectedTime);
+
+        boolean noSlots = this.freeSlots.isEmpty() && this.getSelectedDate() != null && this.patientDoctor != null;
+        this.bookingErrorLabel.setVisible(noSlots);
+        if (noSlots) {
+            this.bookingErrorLabel.setText("No free slots on this day");
+        }
+    }
+
+    /**
+     * Fill the minute dropdown with the free minutes of the selected hour
+     * @param selectedTime the time whose minute should be selected, or null to keep the selected minute
+     */
+    private void showFreeMinutes(LocalTime selectedTime) {
+        String selectedMinute = (selectedTime != null)
+                ? String.format("%02d", selectedTime.getMinute())
+                : minuteCombo.getSelectedItem() == null ? "Minute" : minuteCombo.getSelectedItem().toString();
+        String selectedHour = hourCombo.getSelectedItem().toString();
+
+        this.updatingForm = true;
+        minuteCombo.removeAllItems();
+        minuteCombo.addItem("Minute");
+        for (LocalTime slot : this.freeSlots) {
+            if (String.format("%02d", slot.getHour()).equals(selectedHour)) {
+                minuteCombo.addItem(String.format("%02d", slot.getMinute()));
+            }
+        }
+        minuteCombo.setSelectedItem(selectedMinute);
+        this.updatingForm = false;
     }
 
     /**
@@ -151,14 +288,53 @@ public class AddBookingPanel extends BasePanel {
      * @param patientID The ID of the patient
      */
     private void updateDoctorLabels(Integer patientID) {
-        try {
-            Patient patient = this.addBookingLogic.getPatient(patientID);
-            Doctor patientDoctor = this.addBookingLogic.getPatientDoctor(patient);
-            this.promptLabel.setText("Make your appointment with Dr "+patientDoctor.getFullName());
-            this.bookingErrorLabel.setVisible(false);
-        } catch (CustomException e) {
-            JWidgetShortcuts.showDatabaseExceptionPopupAndExit(addBookingPanel);
-        }
+        loadInBackground(
+                "doctor",
+                () -> {
+                    Patient patient = this.addBookingLogic.getPatient(patientID);
+                    return this.addBookingLogic.getPatientDoctor(patient);
+                },
+                patientDoctor -> {
+                    this.patientDoctor = patientDoctor;
+                    this.promptLabel.setText("Make your appointment with Dr "+patientDoctor.getFullName());
+                    this.bookingErrorLabel.setVisible(false);
+                    if (this.bookingToEdit == null) {
+                        this.selectNextFreeSlot();
+                    } else {
+                        this.loadFreeSlots();
+                    }
+                },
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(addBookingPanel)
+        );
+    }
+
+    /**
+     * Start a new booking at the doctor's earliest free slot
+     */
+    private void selectNextFreeSlot() {
+        Doctor doctor = this.patientDoctor;
+        loadInBackground(
+                "freeSlots",
+                () -> this.addBookingLogic.getNextFreeSlots(doctor, 1),
+                nextSlots -> {
+                    if (!nextSlots.isEmpty()) {
+                        this.selectDateTime(nextSlots.get(0));
+                    }
+                },
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(addBookingPanel)
+        );
+    }
+
+    /**
+     * Clear the form and the booking being rescheduled
+     */
+    @Override
+    public void resetPage() {
+        super.resetPage();
+        this.patientDoctor = null;
+        this.resetBookingForm();
+        this.bookingToEdit = null;
+        this.bookingErrorLabel.setVisible(false);
     }
 
     /**
@@ -172,10 +348,24 @@ public class AddBookingPanel extends BasePanel {
             bookingToEdit = null;
         });
         createBookingButton.addActionListener(e -> this.createOrEditBooking());
+
+        // Only the free slots of the chosen day are offered
+        for (JComboBox<?> dateCombo : List.of(dayCombo, monthCombo, yearCombo)) {
+            dateCombo.addActionListener(e -> {
+                if (!updatingForm) {
+                    this.loadFreeSlots();
+                }
+            });
+        }
+        hourCombo.addActionListener(e -> {
+            if (!updatingForm) {
+                this.showFreeMinutes(null);
+            }
+        });
     }
 
     /**
-     * Reads inputs
+     * Reads inputs, then saves the booking in the background
      *
      * If successful:
      * - calls createNewBooking or rescheduleBooking if a booking to be edited is not provided,
@@ -185,45 +375,75 @@ public class AddBookingPanel extends BasePanel {
      * Otherwise, shows different error messages depending on the thrown exception
      */
     private void createOrEditBooking() {
-        try {
+        String date = yearCombo.getSelectedItem().toString()+"-"+
+                      monthCombo.getSelectedItem().toString()+"-"+
+                      dayCombo.getSelectedItem().toString();
 
-            String date = yearCombo.getSelectedItem().toString()+"-"+
-                          monthCombo.getSelectedItem().toString()+"-"+
-                          dayCombo.getSelectedItem().toString();
+        String hour = hourCombo.getSelectedItem().toString();
+        String minute = minuteCombo.getSelectedItem().toString();
+        Integer patientID = this.panelController.getSession().getLoggedInPatientID();
+        String type = typeComboBox.getSelectedItem().toString();
+        Booking booking = bookingToEdit;
 
-            String hour = hourCombo.getSelectedItem().toString();
-            String minute = minuteCombo.getSelectedItem().toString();
-            Integer patientID = this.panelController.getSession().getLoggedInPatientID();
-            String type = typeComboBox.getSelectedItem().toString();
+        runInBackground(
+                "saveBooking",
+                () -> {
+                    if (booking == null) {
+                        this.addBookingLogic.createNewBooking(date, hour, minute, type, patientID);
+                    } else {
+                        this.addBookingLogic.rescheduleBooking(date, hour, minute, type, patientID, booking);
+                    }
+                    return null;
+                },
+                result -> {
+                    this.bookingErrorLabel.setVisible(false);
+                    this.panelController.showPage(
+                            PageType.VIEW_BOOKINGS,
+                            new ReceivePair(ReceiveType.PATIENT_ID, patientID)
+                    );
 
-            if (bookingToEdit == null) {
-                this.addBookingLogic.createNewBooking(date, hour, minute, type, patientID);
-            } else {
-                this.addBookingLogic.rescheduleBooking(date, hour, minute, type, patientID, bookingToEdit);
-            }
-
-            this.bookingErrorLabel.setVisible(false);
-            this.panelController.showPage(
-                    PageType.VIEW_BOOKINGS,
-                    new ReceivePair(ReceiveType.PATIENT_ID, patientID)
-            );
+                    bookingToEdit = null;
+                },
+                this::showBookingError
+        );
+    }
 
-            bookingToEdit = null;
-        } catch (DoctorNotFoundException e) {
+    /**
+     * Shows different error messages depending on the exception thrown when saving the booking
+     *
+     * @param e the exception thrown when saving the booking
+     */
+    private void showBookingError(Exception e) {
+        if (e instanceof DoctorNotFoundException) {
             this.bookingErrorLabel.setVisible(true);
             this.bookingErrorLabel.setText("The requested doctor is unavailable");
 
-        } catch (DatabaseException e) {
+        } else if (e instanceof DatabaseException) {
             JWidgetShortcuts.showDatabaseExceptionPopupAndExit(addBookingPanel);
 
-        } catch (ExistingBookingException e) {
+        } else if (e instanceof ExistingBookingException) {
             this.bookingErrorLabel.setVisible(true);
             this.bookingErrorLabel.setText("A booking with that time already exists");
 
-        } catch (CustomException e) {
+        } else if (e instanceof BookingConflictException) {
+            this.bookingErrorLabel.setVisible(true);
+            this.bookingErrorLabel.setText("The booking was changed elsewhere, please try again");
+
+        } else {
             this.bookingErrorLabel.setVisible(true);
             this.bookingErrorLabel.setText("The requested booking slot is unavailable");
         }
     }
 
+    /**
+     * Stop the booking being saved again while it is being saved
+     *
+     * @param loading true if the booking is being saved, or the doctor or their free slots are being loaded
+     */
+    @Override
+    protected void setLoading(boolean loading) {
+        super.setLoading(loading);
+        createBookingButton.setEnabled(!loading);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package com.group15A.GUI;
+
+import com.group15A.DataAccess.ActionScope;
+import com.group15A.Profiling.BackgroundTaskEvent;
+
+import javax.swing.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs the database work of a page on a background thread, so that the window
+ * keeps responding while it waits, and hands the result back to the Swing event dispatch thread.
+ *
+ * Every task has a key. Starting a task replaces the unfinished task with the same key,
+ * whose result is then ignored, and leaving the page cancels all of the page's tasks.
+ * Each task counts its database statements in an ActionScope named after the owner and the key,
+ * inside the scope of the action which started it, such as the page being shown,
+ * and is recorded as a BackgroundTaskEvent when a flight recording is running.
+ * The methods of this class must be called on the event dispatch thread.
+ *
+ * @author Milovan Gveric
+ */
+public class BackgroundTasks {
+    private static final int FALLBACK_THREAD_COUNT = 4;
+    private static final ExecutorService executor = createExecutor();
+
+    private final Map<String, Task> runningTasks = new HashMap<>();
+    private final String name;
+    private final Consumer<Boolean> onLoadingChanged;
+
+    /**
+     * Constructor for BackgroundTasks
+     *
+     * @param name the name of the owner of the tasks, used to name the actions they count statements in
+     * @param onLoadingChanged called with true when the first task starts,
+     *                         and with false once no tasks are running
+     */
+    public BackgroundTasks(String name, Consumer<Boolean> onLoadingChanged) {
+        this.name = name;
+        this.onLoadingChanged = onLoadingChanged;
+    }
+
+    /**
+     * Use a virtual thread per task where the JDK supports them,
+     * otherwise a small pool of daemon threads
+     *
+     * @return the executor which runs the tasks
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newFixedThreadPool(FALLBACK_THREAD_COUNT, runnable -> {
+                Thread thread = new Thread(runnable, "gui-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Run work whose result is only wanted while it is current, e.g. loading data to display.
+     * If the task is cancelled before it starts, the work is skipped.
+     *
+     * @param key the key of the task
+     * @param work the work to run in the background
+     * @param onSuccess called on the event dispatch thread with the result of the work
+     * @param onFailure called on the event dispatch thread with the exception thrown by the work
+     * @param <T> the type of the result
+     */
+    public <T> void load(String key, Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        submit(key, work, onSuccess, onFailure, true);
+    }
+
+    /**
+     * Run work which has to be completed even if its result is no longer wanted, e.g. saving data.
+     * If the task is cancelled, the work still runs but its result is ignored.
+     *
+     * @param key the key of the task
+     * @param work the work to run in the background
+     * @param onSuccess called on the event dispatch thread with the result of the work
+     * @param onFailure called on the event dispatch thread with the exception thrown by the work
+     * @param <T> the type of the result
+     */
+    public <T> void run(String key, Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        submit(key, work, onSuccess, onFailure, false);
+    }
+
+    private <T> void submit(String key, Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure, boolean skippable) {
+        Task task = new Task(skippable);
+        Task replaced = runningTasks.put(key, task);
+        if (replaced != null) {
+            replaced.cancel();
+        } else if (runningTasks.size() == 1) {
+            onLoadingChanged.accept(true);
+        }
+
+        ActionScope startedBy = ActionScope.current();
+        task.future = executor.submit(() -> {
+            BackgroundTaskEvent event = new BackgroundTaskEvent();
+            event.begin();
+            try (ActionScope scope = ActionScope.open(name + ":" + key, startedBy)) {
+                event.action = scope.getName();
+                T result = work.call();
+                event.commit();
+                SwingUtilities.invokeLater(() -> {
+                    if (finish(key, task)) {
+                        onSuccess.accept(result);
+                    }
+                });
+            } catch (Exception e) {
+                event.failed = true;
+                event.commit();
+                SwingUtilities.invokeLater(() -> {
+                    if (finish(key, task)) {
+                        onFailure.accept(e);
+                    }
+                });
+            } catch (Error e) {
+                // The task is still finished so the page stops loading, and the error is thrown on the event dispatch thread to be reported
+                event.failed = true;
+                event.commit();
+                SwingUtilities.invokeLater(() -> {
+                    finish(key, task);
+                    throw e;
+                });
+            }
+        });
+    }
+
+    /**
+     * Remove a finished task from the running tasks
+     *
+     * @return true if the task's result is still wanted
+     */
+    private boolean finish(String key, Task task) {
+        if (task.cancelled) {
+            return false;
+        }
+
+        runningTasks.remove(key);
+        if (runningTasks.isEmpty()) {
+            onLoadingChanged.accept(false);
+        }
+        return true;
+    }
+
+    /**
+     * @param key the key of the task
+     * @return true if a task with the given key is running
+     */
+    public boolean isRunning(String key) {
+        return runningTasks.containsKey(key);
+    }
+
+    /**
+     * Cancel the task with the given key, if it is running
+     *
+     * @param key the key of the task
+     */
+    public void cancel(String key) {
+        Task task = runningTasks.remove(key);
+        if (task != null) {
+            task.cancel();
+            if (runningTasks.isEmpty()) {
+                onLoadingChanged.accept(false);
+            }
+        }
+    }
+
+    /**
+     * Cancel all running tasks, e.g. when the user leaves the page
+     */
+    public void cancelAll() {
+        if (runningTasks.isEmpty()) {
+            return;
+        }
+
+        runningTasks.values().forEach(Task::cancel);
+        runningTasks.clear();
+        onLoadingChanged.accept(false);
+    }
+
+    /**
+     * A submitted task, and whether its result is still wanted
+     */
+    private static class Task {
+        private final boolean skippable;
+        private volatile boolean cancelled;
+        private Future<?> future;
+
+        private Task(boolean skippable) {
+            this.skippable = skippable;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            // Running queries are left to finish, since interrupting JDBC calls can break the connection
+            if (skippable && future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.group15A.GUI;
 
 import com.group15A.Utils.ReceivePair;
 import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * All panels in the card layout inherit from this, allows using JPanels
@@ -12,6 +15,9 @@ import javax.swing.*;
  * panelController is the instance of multiPanelWindow in order for
  * events from this panel to call showPage
  *
+ * backgroundTasks runs the panel's database work off the event dispatch thread,
+ * and is cancelled when the user leaves the panel
+ *
  * @author Milovan Gveric
  * @author Filip Fois
  */
@@ -19,7 +25,7 @@ public abstract class BasePanel {
     protected MultiPanelWindow panelController;
     protected String windowTitle;
     private final String panelFieldName;
-
+    private final BackgroundTasks backgroundTasks;
 
     /**
      * Constructor for BasePanel class
@@ -34,6 +40,7 @@ public abstract class BasePanel {
         this.panelController = panelController;
         this.panelFieldName = panelFieldName;
         this.windowTitle = windowTitle;
+        this.backgroundTasks = new BackgroundTasks(panelFieldName, this::setLoading);
     }
 
     public String getPanelFieldName()
@@ -46,6 +53,90 @@ public abstract class BasePanel {
         return this.windowTitle;
     }
 
+    /**
+     * Load data in the background, replacing the unfinished task with the same key.
+     * The callbacks run on the event dispatch thread, unless the task was cancelled
+     *
+     * @param key the key of the task
+     * @param work the work to run in the background
+     * @param onSuccess called with the result of the work
+     * @param onFailure called with the exception thrown by the work
+     * @param <T> the type of the result
+     */
+    protected <T> void loadInBackground(String key, Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure)
+    {
+        backgroundTasks.load(key, work, onSuccess, onFailure);
+    }
+
+    /**
+     * Run work in the background which has to complete even if the user leaves the panel, such as saving data.
+     * The callbacks run on the event dispatch thread, unless the task was cancelled
+     *
+     * @param key the key of the task
+     * @param work the work to run in the background
+     * @param onSuccess called with the result of the work
+     * @param onFailure called with the exception thrown by the work
+     * @param <T> the type of the result
+     */
+    protected <T> void runInBackground(String key, Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure)
+    {
+        backgroundTasks.run(key, work, onSuccess, onFailure);
+    }
+
+    /**
+     * @param key the key of the task
+     * @return true if a background task with the given key is running
+     */
+    protected boolean isLoading(String key)
+    {
+        return backgroundTasks.isRunning(key);
+    }
+
+    /**
+     * @param key the key of the background task to cancel
+     */
+    protected void cancelBackgroundTask(String key)
+    {
+        backgroundTasks.cancel(key);
+    }
+
+    /**
+     * Called when the user leaves the panel, so that results which arrive afterwards are ignored
+     */
+    public void leavePage()
+    {
+        backgroundTasks.cancelAll();
+    }
+
+    /**
+     * Called before the program exits, on the event dispatch thread.
+     * Panels which wait before saving data override this to save it straight away,
+     * as background work is stopped when the program exits
+     */
+    public void closePage()
+    {
+    }
+
+    /**
+     * Called when the session changes, instead of creating the panel again.
+     * Panels which show data from the session override this to clear it
+     */
+    public void resetPage()
+    {
+        leavePage();
+    }
+
+    /**
+     * Show whether the panel is waiting for background work.
+     * Panels can override this to also disable the widgets which start the work
+     *
+     * @param loading true if any background task is running
+     */
+    protected void setLoading(boolean loading)
+    {
+        getPagePanel().setCursor(loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+    }
+
     public abstract JPanel getPagePanel();
 
     public abstract void receiveData(ReceivePair pair);
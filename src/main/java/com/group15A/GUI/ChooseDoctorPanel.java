@@ -3,6 +3,8 @@ package com.group15A.GUI;
 import com.group15A.BusinessLogic.DoctorLogic;
 import com.group15A.CustomExceptions.DatabaseException;
 import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.DoctorSlot;
+import com.group15A.Utils.DataModification;
 import com.group15A.Utils.JWidgetShortcuts;
 import com.group15A.Utils.PageType;
 import com.group15A.Utils.ReceivePair;
@@ -10,6 +12,7 @@ import com.group15A.Utils.ReceiveType;
 
 import javax.swing.*;
 import java.awt.*;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -51,12 +54,80 @@ public class ChooseDoctorPanel extends BasePanel {
         try {
             doctorLogic = new DoctorLogic();
             doctorButtons = new ArrayList<JButton>();
-            doctorsList = doctorLogic.getDoctors();
         } catch (DatabaseException e) {
             JWidgetShortcuts.showDatabaseExceptionPopupAndExit(chooseDoctorPanel);
         }
+    }
+
+    /**
+     * Load the doctors in the background the first time the page is shown,
+     * then add them to the panel
+     */
+    private void loadDoctors() {
+        if (doctorsList != null) {
+            this.loadEarliestSlots();
+            return;
+        }
+        if (isLoading("doctors")) {
+            return;
+        }
 
-        addDoctorsToPanel();
+        loadInBackground(
+                "doctors",
+                () -> doctorLogic.getDoctors(),
+                doctors -> {
+                    doctorsList = doctors;
+                    addDoctorsToPanel();
+                    doctorListPanel.revalidate();
+                    doctorListPanel.repaint();
+                    this.loadEarliestSlots();
+                },
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(chooseDoctorPanel)
+        );
+    }
+
+    /**
+     * Load the earliest free slot of each doctor in the background,
+     * then list the doctors who can see the patient soonest first
+     */
+    private void loadEarliestSlots() {
+        List<Doctor> doctors = doctorsList;
+        loadInBackground(
+                "earliestSlots",
+                () -> doctorLogic.getEarliestSlots(doctors, doctors.size(), true),
+                this::showEarliestSlots,
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(chooseDoctorPanel)
+        );
+    }
+
+    /**
+     * Show each doctor's earliest free slot on their button, and order the buttons by it.
+     * Doctors with no free slots are listed last
+     *
+     * @param earliestSlots the earliest free slot of each doctor, from the earliest to the latest
+     */
+    private void showEarliestSlots(List<DoctorSlot> earliestSlots) {
+        List<JButton> orderedButtons = new ArrayList<>();
+        for (DoctorSlot slot : earliestSlots) {
+            JButton doctorButton = doctorButtons.get(doctorsList.indexOf(slot.getDoctor()));
+            doctorButton.setText(slot.getDoctor().getFullName()+" (free "+
+                    DataModification.shortDateTime(Timestamp.valueOf(slot.getSlotTime()))+")");
+            orderedButtons.add(doctorButton);
+        }
+        for (int i = 0; i < doctorButtons.size(); i++) {
+            if (!orderedButtons.contains(doctorButtons.get(i))) {
+                doctorButtons.get(i).setText(doctorsList.get(i).getFullName());
+                orderedButtons.add(doctorButtons.get(i));
+            }
+        }
+
+        GridBagConstraints gbc = JWidgetShortcuts.getStackGBC();
+        doctorListPanel.removeAll();
+        for (JButton doctorButton : orderedButtons) {
+            doctorListPanel.add(doctorButton, gbc);
+        }
+        doctorListPanel.revalidate();
+        doctorListPanel.repaint();
     }
 
     private void chooseDoctor(JButton clickedButton) {
@@ -96,13 +167,16 @@ public class ChooseDoctorPanel extends BasePanel {
 
     /**
      * Receives:
+     *  - An event when the page is shown, to load the doctors and their earliest free slots
      *  - Which page to switch back to (as Choose Doctor Panel is shared)
      *
      * @param pair the received data from another page
      */
     @Override
     public void receiveData(ReceivePair pair) {
-        if (pair.getFirst().equals(ReceiveType.RETURN_PAGE)) {
+        if (pair.getFirst().equals(ReceiveType.EVENT)) {
+            this.loadDoctors();
+        } else if (pair.getFirst().equals(ReceiveType.RETURN_PAGE)) {
             this.returningPage = (PageType) pair.getSecond();
         }
     }
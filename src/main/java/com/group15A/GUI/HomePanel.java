@@ -3,12 +3,14 @@ package com.group15A.GUI;
 import com.group15A.BusinessLogic.HomeLogic;
 import com.group15A.CustomExceptions.CustomException;
 import com.group15A.DataModel.Notification;
+import com.group15A.DataModel.NotificationChanges;
 import com.group15A.DataModel.Patient;
 import com.group15A.Session;
 import com.group15A.Utils.*;
 
 import javax.swing.*;
-import java.util.List;
+import javax.swing.Timer;
+import java.util.*;
 
 /**
  * To allow for communication to the business layer and to take care of event handling
@@ -24,6 +26,7 @@ public class HomePanel extends BasePanel {
     private JButton logOutButton;
     private JPanel contentScrollPane;
     private JLabel titleLabel;
+    private JLabel logOutErrorLabel;
     private JPanel notificationPanel;
     private JPanel navigationPanel;
     private JButton viewBookingsButton;
@@ -36,9 +39,30 @@ public class HomePanel extends BasePanel {
     private JPanel inboxPanel;
     private JPanel archivePanel;
     private JButton myActivityButton;
+    private JButton markAllReadButton;
 
     private HomeLogic homeLogic;
-    private List<Notification> notifList;
+
+    // The state of the displayed notifications, so that only the changes are fetched and displayed
+    private Patient shownPatient;
+    private Integer lastNotifID;
+    private int unreadCount;
+    private int archivedCount;
+    private final Map<Integer, Notification> unreadNotifications = new HashMap<>();
+    private final Map<Integer, MessageListItem> unreadMessages = new HashMap<>();
+    private final TreeSet<Integer> archivedNotifIDs = new TreeSet<>(Comparator.reverseOrder());
+
+    // Only a page of each list is loaded at first, and older pages are loaded as the lists are scrolled
+    private Integer oldestUnreadID;
+    private Integer oldestArchivedID;
+    private boolean hasMoreUnread;
+    private boolean hasMoreArchived;
+
+    // Notifications marked as read in quick succession are saved together, once the clicks stop
+    private static final int READ_BATCH_DELAY_MS = 500;
+    private final Set<Integer> pendingReadIDs = new LinkedHashSet<>();
+    private final Timer readTimer;
+    private int readBatchCount;
 
     private final MessageListPanel newMessageList;
     private final MessageListPanel oldMessageList;
@@ -57,15 +81,23 @@ public class HomePanel extends BasePanel {
         newMessageList = new MessageListPanel(
                 "New messages",
                 "No new messages.",
+                true,
                 true
         );
 
         oldMessageList = new MessageListPanel(
                 "Archived messages",
                 "No archived messages.",
+                true,
                 true
         );
 
+        newMessageList.setOnScrolledToEnd(() -> SwingUtilities.invokeLater(this::loadNextUnreadNotifications));
+        oldMessageList.setOnScrolledToEnd(() -> SwingUtilities.invokeLater(this::loadNextArchivedNotifications));
+
+        readTimer = new Timer(READ_BATCH_DELAY_MS, e -> this.savePendingReads());
+        readTimer.setRepeats(false);
+
         inboxPanel.add(newMessageList.getPanel());
         archivePanel.add(oldMessageList.getPanel());
 
@@ -79,60 +111,315 @@ public class HomePanel extends BasePanel {
     }
 
     /**
-     * For each notification in `notifList`,
-     * if it's marked as new, add a message to the new MessageListPanel
-     * and assign an action to the "mark as read" button,
-     * otherwise, add it the old MessageListPanel
+     * Clear both message lists and show the newest page of each,
+     * along with the total number of unread and archived notifications,
+     * once they have been loaded in the background
+     *
+     * @param patient the patient whose notifications are shown
      */
-    private void displayNotifications() {
+    private void resetNotifications(Patient patient) {
+        cancelBackgroundTask("unreadPage");
+        cancelBackgroundTask("archivedPage");
         newMessageList.clearMessages();
         oldMessageList.clearMessages();
-        newMessageList.showNoMessagesLabel();
-        oldMessageList.showNoMessagesLabel();
-
-        if(!notifList.isEmpty()) {
-            for (int i=notifList.size()-1; i>=0; i--) {
-                Notification notification = notifList.get(i);
-                if (!notification.isNew()) {
-                    oldMessageList.hideNoMessagesLabel();
-                    oldMessageList.addMessage(
-                            notification.getHeader(),
-                            "(" + DataModification.shortDateTime(notification.getTimestamp()) + ")",
-                            notification.getMessage(),
-                            ""
-                    );
-                }
-                else{
-                    newMessageList.hideNoMessagesLabel();
-                    MessagePanel newNotificationDisplay = newMessageList.addMessage(
-                            notification.getHeader(),
-                            "(" + DataModification.shortDateTime(notification.getTimestamp()) + ")",
-                            notification.getMessage(),
-                            "Mark as read"
-                    );
-
-                    newNotificationDisplay.getButton().addActionListener(e -> {
-                        newNotificationDisplay.getButton().setVisible(false);
-                        this.markAsRead(notification);
-                    });
-                }
+        shownPatient = patient;
+        lastNotifID = null;
+        unreadNotifications.clear();
+        unreadMessages.clear();
+        archivedNotifIDs.clear();
+        oldestUnreadID = null;
+        oldestArchivedID = null;
+        hasMoreUnread = false;
+        hasMoreArchived = false;
+
+        loadInBackground(
+                "notifications",
+                () -> new FirstPages(
+                        this.homeLogic.countUnreadNotifications(patient),
+                        this.homeLogic.countArchivedNotifications(patient),
+                        this.homeLogic.getUnreadNotifications(patient, null),
+                        this.homeLogic.getArchivedNotifications(patient, null)
+                ),
+                this::displayFirstPages,
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(homePanel)
+        );
+    }
+
+    /**
+     * Show the newest page of each list and the total number of unread and archived notifications
+     *
+     * @param firstPages the counts and first pages of the patient's notifications
+     */
+    private void displayFirstPages(FirstPages firstPages) {
+        unreadCount = firstPages.unreadCount;
+        archivedCount = firstPages.archivedCount;
+        this.displayUnreadNotifications(firstPages.unreadNotifications);
+        this.displayArchivedNotifications(firstPages.archivedNotifications);
+
+        // The first pages hold the newest notifications, so anything newer than them is new since this load
+        for (Integer notifID : unreadNotifications.keySet()) {
+            lastNotifID = lastNotifID == null ? notifID : Math.max(lastNotifID, notifID);
+        }
+        if (!archivedNotifIDs.isEmpty()) {
+            lastNotifID = lastNotifID == null ? archivedNotifIDs.first() : Math.max(lastNotifID, archivedNotifIDs.first());
+        }
+        this.updateCounts();
+    }
+
+    /**
+     * Show the next page of older unread notifications, if there is one and nothing is already being loaded
+     */
+    private void loadNextUnreadNotifications() {
+        if (!hasMoreUnread || isLoading("unreadPage") || isLoading("notifications") || shownPatient == null) {
+            return;
+        }
+
+        Patient patient = shownPatient;
+        Integer beforeNotifID = oldestUnreadID;
+        loadInBackground(
+                "unreadPage",
+                () -> this.homeLogic.getUnreadNotifications(patient, beforeNotifID),
+                this::displayUnreadNotifications,
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(homePanel)
+        );
+    }
+
+    /**
+     * Show the next page of older archived notifications, if there is one and nothing is already being loaded
+     */
+    private void loadNextArchivedNotifications() {
+        if (!hasMoreArchived || isLoading("archivedPage") || isLoading("notifications") || shownPatient == null) {
+            return;
+        }
+
+        Patient patient = shownPatient;
+        Integer beforeNotifID = oldestArchivedID;
+        loadInBackground(
+                "archivedPage",
+                () -> this.homeLogic.getArchivedNotifications(patient, beforeNotifID),
+                this::displayArchivedNotifications,
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(homePanel)
+        );
+    }
+
+    /**
+     * Add a page of unread notifications to the bottom of the new messages
+     *
+     * @param notifications the page of unread notifications, from the newest to the oldest
+     */
+    private void displayUnreadNotifications(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (!unreadNotifications.containsKey(notification.getNotifID())) {
+                this.addUnreadNotification(notification, newMessageList.getMessageCount());
+            }
+            oldestUnreadID = notification.getNotifID();
+        }
+        hasMoreUnread = notifications.size() == HomeLogic.NOTIFICATION_PAGE_SIZE;
+
+        newMessageList.getContentPanel().revalidate();
+        newMessageList.getContentPanel().repaint();
+    }
+
+    /**
+     * Add a page of archived notifications to the archived messages
+     *
+     * @param notifications the page of archived notifications, from the newest to the oldest
+     */
+    private void displayArchivedNotifications(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            // The notification may already have been moved to the archive when it was read
+            if (!archivedNotifIDs.contains(notification.getNotifID())) {
+                this.addArchivedNotification(notification);
+            }
+            oldestArchivedID = notification.getNotifID();
+        }
+        hasMoreArchived = notifications.size() == HomeLogic.NOTIFICATION_PAGE_SIZE;
+
+        oldMessageList.getContentPanel().revalidate();
+        oldMessageList.getContentPanel().repaint();
+    }
+
+    /**
+     * Show the total number of unread and archived notifications in the headers of the message lists,
+     * since the lists only hold the pages loaded so far
+     */
+    private void updateCounts() {
+        newMessageList.setTotalCount(unreadCount);
+        oldMessageList.setTotalCount(archivedCount);
+    }
 
+    /**
+     * Load the changes to the patient's notifications since the last sync in the background, then apply them.
+     * Nothing is loaded while the first pages are still loading, since they will be up to date
+     */
+    private void loadNotificationChanges() {
+        if (isLoading("notifications")) {
+            return;
+        }
+
+        Patient patient = shownPatient;
+        Integer afterNotifID = lastNotifID;
+        // Only the notifications shown as unread, or still being saved as read, are checked for having been read
+        Set<Integer> unreadNotifIDs = new HashSet<>(unreadNotifications.keySet());
+        unreadNotifIDs.addAll(pendingReadIDs);
+        loadInBackground(
+                "notifications",
+                () -> this.homeLogic.getNotificationChanges(patient, afterNotifID, unreadNotifIDs),
+                this::syncNotifications,
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(homePanel)
+        );
+    }
+
+    /**
+     * Apply the changes to the patient's notifications since the last sync to the message lists:
+     * notifications that have been read since are moved to the archive,
+     * and new notifications are added to the top of the matching list
+     *
+     * @param changes the notifications created since the last sync, the ids of the shown notifications read since,
+     *                and the number of unread notifications
+     */
+    private void syncNotifications(NotificationChanges changes) {
+        int totalCount = unreadCount + archivedCount + changes.getNewNotifications().size();
+        // Notifications marked as read which are still being saved are already counted as read
+        int unsavedReadCount = (int) pendingReadIDs.stream()
+                .filter(notifID -> !changes.getReadNotificationIDs().contains(notifID))
+                .count();
+        unreadCount = Math.max(changes.getUnreadCount() - unsavedReadCount, 0);
+        archivedCount = totalCount - unreadCount;
+
+        for (Integer notifID : changes.getReadNotificationIDs()) {
+            this.archiveNotification(notifID);
+        }
+
+        for (Notification notification : changes.getNewNotifications()) {
+            if (!notification.isNew()) {
+                this.addArchivedNotification(notification);
+            } else {
+                this.addUnreadNotification(notification, 0);
             }
+            lastNotifID = notification.getNotifID();
+        }
+        this.updateCounts();
+
+        if (!changes.getNewNotifications().isEmpty()) {
+            homePanel.revalidate();
+            homePanel.repaint();
+        }
+    }
 
+    /**
+     * Add an unread notification to the new messages, with a button to mark it as read
+     *
+     * @param notification the unread notification
+     * @param position the position of the notification in the new messages, where 0 is the top
+     */
+    private void addUnreadNotification(Notification notification, int position) {
+        newMessageList.hideNoMessagesLabel();
+        MessageListItem newNotificationDisplay = newMessageList.addItem(
+                notification.getHeader(),
+                "(" + DataModification.shortDateTime(notification.getTimestamp()) + ")",
+                notification.getMessage(),
+                "Mark as read",
+                position
+        );
+
+        // The message is removed from the new messages straight away, so it cannot be marked twice
+        newNotificationDisplay.setOnButtonClicked(() -> this.markAsRead(notification));
+        unreadNotifications.put(notification.getNotifID(), notification);
+        unreadMessages.put(notification.getNotifID(), newNotificationDisplay);
+    }
+
+    /**
+     * Move an unread notification from the new messages to the archived messages
+     *
+     * @param notifID the id of the notification
+     */
+    private void archiveNotification(Integer notifID) {
+        Notification notification = unreadNotifications.remove(notifID);
+        MessageListItem message = unreadMessages.remove(notifID);
+        if (notification == null) {
+            return;
         }
+
+        newMessageList.removeItem(message);
+        notification.setIsNew(false);
+        this.addArchivedNotification(notification);
+    }
+
+    /**
+     * Add a notification to the archived messages, keeping the newest notifications at the top
+     *
+     * @param notification the read notification
+     */
+    private void addArchivedNotification(Notification notification) {
+        archivedNotifIDs.add(notification.getNotifID());
+        oldMessageList.hideNoMessagesLabel();
+        oldMessageList.addItem(
+                notification.getHeader(),
+                "(" + DataModification.shortDateTime(notification.getTimestamp()) + ")",
+                notification.getMessage(),
+                "",
+                archivedNotifIDs.headSet(notification.getNotifID()).size()
+        );
     }
 
 
     /**
-     * Mark a given notification's isNew attribute to false
+     * Move a given notification to the archived messages straight away,
+     * and save it as read along with any others marked as read shortly after it
      */
     private void markAsRead(Notification notification) {
-        try {
-            this.homeLogic.readNotification(notification);
-            this.receiveData(null);
-        } catch (CustomException e) {
-            JWidgetShortcuts.showDatabaseExceptionPopupAndExit(homePanel);
+        pendingReadIDs.add(notification.getNotifID());
+        this.archiveNotification(notification.getNotifID());
+        unreadCount--;
+        archivedCount++;
+        this.updateCounts();
+        readTimer.restart();
+    }
+
+    /**
+     * Save the notifications marked as read since the last save in the background, in a single update.
+     * They stay pending until the update is done
+     */
+    private void savePendingReads() {
+        readTimer.stop();
+        if (pendingReadIDs.isEmpty() || shownPatient == null) {
+            return;
         }
+
+        Patient patient = shownPatient;
+        List<Integer> notifIDs = new ArrayList<>(pendingReadIDs);
+        runInBackground(
+                "saveReads" + (readBatchCount++),
+                () -> this.homeLogic.readNotifications(patient, notifIDs),
+                readCount -> pendingReadIDs.removeAll(notifIDs),
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(homePanel)
+        );
+    }
+
+    /**
+     * Mark all of the patient's unread notifications as read in a single update,
+     * then show the lists again
+     */
+    private void markAllAsRead() {
+        if (shownPatient == null || unreadCount == 0) {
+            return;
+        }
+
+        // Every pending notification is included in the update
+        readTimer.stop();
+        pendingReadIDs.clear();
+        Patient patient = shownPatient;
+        runInBackground(
+                "readAll",
+                () -> this.homeLogic.readAllNotifications(patient),
+                readCount -> {
+                    this.resetNotifications(patient);
+                    homePanel.revalidate();
+                    homePanel.repaint();
+                },
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(homePanel)
+        );
     }
 
     /**
@@ -149,15 +436,84 @@ public class HomePanel extends BasePanel {
      */
     @Override
     public void receiveData(ReceivePair pair) {
+        this.savePendingReads();
+        Integer patientID = panelController.getSession().getLoggedInPatientID();
+        loadInBackground(
+                "patient",
+                () -> homeLogic.getPatient(patientID),
+                patient -> {
+                    titleLabel.setText("Welcome, " + patient.getFirstName() + ".");
+
+                    // A different patient has logged in, so none of the displayed notifications are theirs
+                    if (shownPatient == null || !patient.getPatientID().equals(shownPatient.getPatientID())) {
+                        this.resetNotifications(patient);
+                    } else {
+                        this.loadNotificationChanges();
+                    }
+                },
+                e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(homePanel)
+        );
+    }
+
+    /**
+     * Save the notifications marked as read when leaving the page,
+     * instead of waiting for the rest of the batch delay
+     */
+    @Override
+    public void leavePage() {
+        this.savePendingReads();
+        super.leavePage();
+    }
+
+    /**
+     * Save the notifications marked as read straight away, as the program is exiting
+     * and a save in the background may not finish
+     */
+    @Override
+    public void closePage() {
+        readTimer.stop();
+        if (pendingReadIDs.isEmpty() || shownPatient == null) {
+            return;
+        }
+
         try {
-            Patient patient = homeLogic.getPatient(panelController.getSession().getLoggedInPatientID());
-            titleLabel.setText("Welcome, " + patient.getFirstName() + ".");
-            this.notifList = this.homeLogic.getNotifications(patient);
-            this.displayNotifications();
+            this.homeLogic.readNotifications(shownPatient, new ArrayList<>(pendingReadIDs));
+            pendingReadIDs.clear();
         } catch (CustomException e) {
-            JWidgetShortcuts.showDatabaseExceptionPopupAndExit(homePanel);
+            System.err.println("Could not save the notifications marked as read: " + e.getMessage());
         }
+    }
+
+    /**
+     * Save the notifications marked as read, then forget the shown patient and their notifications,
+     * so that the next patient's notifications are loaded when the page is shown
+     */
+    @Override
+    public void resetPage() {
+        super.resetPage();
+        newMessageList.clearMessages();
+        oldMessageList.clearMessages();
+        shownPatient = null;
+        lastNotifID = null;
+        unreadNotifications.clear();
+        unreadMessages.clear();
+        archivedNotifIDs.clear();
+        pendingReadIDs.clear();
+        hasMoreUnread = false;
+        hasMoreArchived = false;
+        titleLabel.setText("");
+        logOutErrorLabel.setVisible(false);
+    }
 
+    /**
+     * Stop all notifications being marked as read while the lists are loading
+     *
+     * @param loading true if any background task is running
+     */
+    @Override
+    protected void setLoading(boolean loading) {
+        super.setLoading(loading);
+        markAllReadButton.setEnabled(!loading);
     }
 
     /**
@@ -179,23 +535,48 @@ public class HomePanel extends BasePanel {
         ));
 
         viewProfileButton.addActionListener(e -> this.panelController.showPage(PageType.VIEW_PROFILE));
+        markAllReadButton.addActionListener(e -> markAllAsRead());
     }
 
     /**
-     * Delete the log-in session file and go to log in page.
+     * Record the log-out, delete the log-in session file and go to log in page.
+     * If the log-out could not be recorded, the patient stays logged in and the error label is shown
      */
     private void logOutUser()
     {
-        try {
-            homeLogic.logOut();
-        } catch(Exception e) {
-            System.out.println("Error logging out");
-        } finally {
-            Session.deleteSession();
-        }
+        this.savePendingReads();
+        logOutErrorLabel.setVisible(false);
+        runInBackground(
+                "logOut",
+                () -> {
+                    homeLogic.logOut();
+                    Session.deleteSession();
+                    return null;
+                },
+                result -> {
+                    panelController.refreshSession();
+                    panelController.showPage(PageType.LOGIN);
+                },
+                e -> logOutErrorLabel.setVisible(true)
+        );
+    }
 
-        panelController.refreshSession();
-        panelController.showPage(PageType.LOGIN);
+    /**
+     * The counts and the newest page of each list of the patient's notifications,
+     * loaded together when the home page is reset
+     */
+    private static class FirstPages {
+        private final int unreadCount;
+        private final int archivedCount;
+        private final List<Notification> unreadNotifications;
+        private final List<Notification> archivedNotifications;
+
+        private FirstPages(int unreadCount, int archivedCount, List<Notification> unreadNotifications, List<Notification> archivedNotifications) {
+            this.unreadCount = unreadCount;
+            this.archivedCount = archivedCount;
+            this.unreadNotifications = unreadNotifications;
+            this.archivedNotifications = archivedNotifications;
+        }
     }
 
 }
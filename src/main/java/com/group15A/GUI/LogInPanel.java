@@ -1,9 +1,7 @@
 package com.group15A.GUI;
 
 import com.group15A.BusinessLogic.LogInLogic;
-import com.group15A.CustomExceptions.CustomException;
 import com.group15A.CustomExceptions.DatabaseException;
-import com.group15A.Session;
 import com.group15A.Utils.JWidgetShortcuts;
 import com.group15A.Utils.PageType;
 import com.group15A.Utils.ReceivePair;
@@ -79,6 +77,18 @@ public class LogInPanel extends BasePanel {
 
     }
 
+    /**
+     * Clear the form, so the previous patient's details are not shown
+     */
+    @Override
+    public void resetPage() {
+        super.resetPage();
+        emailField.setText("");
+        passwordField.setText("");
+        stayLoggedInCheckBox.setSelected(false);
+        logInErrorLabel.setVisible(false);
+    }
+
     /**
      * To create all event handlers, which will point to other methods in the class
      */
@@ -96,23 +106,33 @@ public class LogInPanel extends BasePanel {
      */
     private void logInPatient() {
         Boolean stayLoggedIn = stayLoggedInCheckBox.isSelected();
+        String email = emailField.getText();
+        String password = new String(passwordField.getPassword());
         logInErrorLabel.setVisible(false);
+        passwordField.setText("");
 
-        try {
-            Session newSession = logInLogic.login(
-                    emailField.getText(),
-                    new String(passwordField.getPassword()),
-                    stayLoggedIn
-            );
-            panelController.setSession(newSession);
-            panelController.showPage(PageType.HOME);
-            logInErrorLabel.setVisible(false);
-
-        } catch (CustomException e) {
-            logInErrorLabel.setVisible(true);
-        }
+        // Checking the password hash is slow, so the log in runs in the background
+        runInBackground(
+                "logIn",
+                () -> logInLogic.login(email, password, stayLoggedIn),
+                newSession -> {
+                    panelController.setSession(newSession);
+                    panelController.showPage(PageType.HOME);
+                    logInErrorLabel.setVisible(false);
+                },
+                e -> logInErrorLabel.setVisible(true)
+        );
+    }
 
-        passwordField.setText("");
+    /**
+     * Stop the log in button being pressed again while a log in is in progress
+     *
+     * @param loading true if a log in is in progress
+     */
+    @Override
+    protected void setLoading(boolean loading) {
+        super.setLoading(loading);
+        logInButton.setEnabled(!loading);
     }
 
 }
@@ -24,8 +24,9 @@ public class LogPanel extends BasePanel {
     private JPanel logsPanel;
     private final MessageListPanel messageListPanel;
 
-    private List<Log> userLogs;
     private LogLogic logLogic;
+    private Integer lastLogID;
+    private boolean hasMoreLogs;
 
     /**
      * Constructor for the LogPanel class
@@ -39,7 +40,8 @@ public class LogPanel extends BasePanel {
     {
         super("Activity logs", "loggingPanel", panelController);
 
-        messageListPanel = new MessageListPanel("My activity","No logs.", false);
+        messageListPanel = new MessageListPanel("My activity","No logs.", false, true);
+        messageListPanel.setOnScrolledToEnd(() -> SwingUtilities.invokeLater(this::loadNextLogs));
         logsPanel.add(messageListPanel.getPanel());
 
         try{
@@ -52,24 +54,69 @@ public class LogPanel extends BasePanel {
     }
 
     /**
-     * For each message provided by the LogLogic object,
-     * create a LogDisplay object and add it to the log display panel.
+     * Clear the displayed logs and show the newest page of logs,
+     * replacing any page which is still being loaded
      */
-    private void displayLogs() throws CustomException {
+    private void reloadLogs() {
         messageListPanel.clearMessages();
-        if(!userLogs.isEmpty()){
+        lastLogID = null;
+        hasMoreLogs = true;
+        this.loadLogs(null);
+    }
+
+    /**
+     * Show the next page of older logs, if there is one and it is not already being loaded
+     */
+    private void loadNextLogs() {
+        if (!hasMoreLogs || isLoading("logs") || lastLogID == null) {
+            return;
+        }
+
+        this.loadLogs(lastLogID);
+    }
+
+    /**
+     * Load a page of logs in the background, then display it
+     *
+     * @param beforeLogID the id of the oldest log already displayed, or null for the newest page
+     */
+    private void loadLogs(Integer beforeLogID) {
+        Integer patientID = panelController.getSession().getLoggedInPatientID();
+        loadInBackground(
+                "logs",
+                () -> logLogic.getLogs(patientID, beforeLogID),
+                this::displayLogs,
+                e -> {
+                    e.printStackTrace();
+                    JWidgetShortcuts.showDatabaseExceptionPopupAndExit(loggingPanel);
+                }
+        );
+    }
+
+    /**
+     * For each log in the page provided by the LogLogic object,
+     * add a message to the end of the log display panel.
+     * The logs are ordered from the newest to the oldest
+     *
+     * @param logs The page of logs
+     */
+    private void displayLogs(List<Log> logs) {
+        if(!logs.isEmpty()){
             messageListPanel.hideNoMessagesLabel();
-            for (int i = userLogs.size()-1; i >= 0; i--) {
-                Log log = userLogs.get(i);
-                messageListPanel.addMessage(
+            for (Log log : logs) {
+                messageListPanel.addItem(
                         "",
                         DataModification.shortDateTime(log.getTimestamp()),
                         log.getMessage(),
                         ""
                 );
             }
+            lastLogID = logs.get(logs.size()-1).getLogID();
         }
+        hasMoreLogs = logs.size() == LogLogic.LOG_PAGE_SIZE;
 
+        messageListPanel.getContentPanel().revalidate();
+        messageListPanel.getContentPanel().repaint();
     }
 
 
@@ -89,16 +136,21 @@ public class LogPanel extends BasePanel {
     public void receiveData(ReceivePair pair)
     {
         if (pair.getFirst().equals(ReceiveType.EVENT)) {
-            try {
-                this.userLogs = this.logLogic.getLogs(panelController.getSession().getLoggedInPatientID());
-                this.displayLogs();
-            } catch (CustomException e) {
-                e.printStackTrace();
-                JWidgetShortcuts.showDatabaseExceptionPopupAndExit(loggingPanel);
-            }
+            this.reloadLogs();
         }
     }
 
+    /**
+     * Clear the displayed logs, so the previous patient's logs are not shown
+     */
+    @Override
+    public void resetPage() {
+        super.resetPage();
+        messageListPanel.clearMessages();
+        lastLogID = null;
+        hasMoreLogs = false;
+    }
+
     /**
      * To create all event handlers, which will point to other methods in the class
      */
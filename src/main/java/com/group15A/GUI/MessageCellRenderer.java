@@ -0,0 +1,125 @@
+package com.group15A.GUI;
+
+import javax.swing.*;
+import javax.swing.border.Border;
+import java.awt.*;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Draws the messages of a virtualized MessageListPanel
+ *
+ * A single MessagePanel is filled in with each visible message in turn and stamped onto the list,
+ * so the number of components does not grow with the number of messages.
+ * The height each message needs at the width of the list is measured once and remembered,
+ * until the width of the list changes
+ *
+ * @author Filip Fois
+ */
+public class MessageCellRenderer implements ListCellRenderer<MessageListItem>
+{
+    private static final int FOCUS_BORDER_WIDTH = 2;
+
+    private final MessagePanel messagePanel = new MessagePanel("", "", "", "");
+    private final JPanel cellPanel = new JPanel(new BorderLayout());
+    private final Border noFocusBorder = BorderFactory.createEmptyBorder(FOCUS_BORDER_WIDTH, FOCUS_BORDER_WIDTH, FOCUS_BORDER_WIDTH, FOCUS_BORDER_WIDTH);
+    private final Map<MessageListItem, Integer> heights = new WeakHashMap<>();
+    private int measuredWidth = -1;
+
+    /**
+     * The constructor for the MessageCellRenderer class
+     */
+    public MessageCellRenderer()
+    {
+        cellPanel.setOpaque(false);
+        cellPanel.add(messagePanel.getMainPanel(), BorderLayout.CENTER);
+    }
+
+    /**
+     * Fill in the shared MessagePanel with the given message,
+     * sized to the height the message needs at the width of the list
+     *
+     * @param list The list being drawn
+     * @param item The message to draw
+     * @param index The position of the message in the list
+     * @param isSelected If the message is selected, in which case it is outlined while the list has focus
+     * @param cellHasFocus Ignored, as the selected message is the one whose button is clicked with the keyboard
+     * @return The panel holding the MessagePanel's main panel
+     */
+    @Override
+    public Component getListCellRendererComponent(JList<? extends MessageListItem> list, MessageListItem item, int index, boolean isSelected, boolean cellHasFocus)
+    {
+        messagePanel.setContent(item.getHeading(), item.getSubheading(), item.getMessage(), item.getButtonText());
+        cellPanel.setBorder(isSelected && list.hasFocus()
+                ? BorderFactory.createLineBorder(list.getSelectionBackground(), FOCUS_BORDER_WIDTH)
+                : noFocusBorder);
+
+        int width = list.getWidth();
+        if(width <= 0) {
+            cellPanel.setPreferredSize(null);
+            return cellPanel;
+        }
+        if(width != measuredWidth) {
+            heights.clear();
+            measuredWidth = width;
+        }
+        int height = heights.computeIfAbsent(item, key -> measureHeight(width));
+        cellPanel.setPreferredSize(new Dimension(width, height));
+        return cellPanel;
+    }
+
+    /**
+     * Measure the height the filled in MessagePanel needs at the given width,
+     * laying it out at that width first so that its message text wraps
+     *
+     * @param width The width of the list
+     * @return The height of the cell
+     */
+    private int measureHeight(int width)
+    {
+        cellPanel.setPreferredSize(null);
+        cellPanel.setSize(width, Short.MAX_VALUE);
+        layOut(cellPanel);
+        return cellPanel.getPreferredSize().height;
+    }
+
+    /**
+     * Check if a point in a message's cell is on the message's button.
+     * The MessagePanel is laid out at the size of the cell, to find where its button is drawn
+     *
+     * @param list The list
+     * @param item The message
+     * @param index The position of the message in the list
+     * @param cellBounds The bounds of the message's cell in the list
+     * @param point The point, relative to the list
+     * @return true if the point is on the button
+     */
+    public boolean isOnButton(JList<? extends MessageListItem> list, MessageListItem item, int index, Rectangle cellBounds, Point point)
+    {
+        if(!item.hasButton()) {
+            return false;
+        }
+
+        Component cell = getListCellRendererComponent(list, item, index, false, false);
+        cell.setBounds(0, 0, cellBounds.width, cellBounds.height);
+        layOut(cell);
+        Component clicked = SwingUtilities.getDeepestComponentAt(cell, point.x - cellBounds.x, point.y - cellBounds.y);
+        return clicked != null && SwingUtilities.isDescendingFrom(clicked, messagePanel.getButton());
+    }
+
+    /**
+     * Lay out a component and everything inside it, as it is not part of a shown window
+     *
+     * @param component The component
+     */
+    private void layOut(Component component)
+    {
+        if(component instanceof Container) {
+            Container container = (Container) component;
+            container.doLayout();
+            for(Component child : container.getComponents()) {
+                layOut(child);
+            }
+        }
+    }
+}
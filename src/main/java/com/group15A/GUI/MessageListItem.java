@@ -0,0 +1,84 @@
+package com.group15A.GUI;
+
+/**
+ * The data for one message in a virtualized MessageListPanel
+ *
+ * Unlike a MessagePanel, a MessageListItem holds no Swing components,
+ * so a list can hold any number of them and only the visible ones are drawn
+ *
+ * @author Filip Fois
+ */
+public class MessageListItem
+{
+    private final String heading;
+    private final String subheading;
+    private final String message;
+    private final String buttonText;
+    private Runnable onButtonClicked;
+
+    /**
+     * The constructor for the MessageListItem class
+     *
+     * Blank strings are not shown, as in MessagePanel
+     *
+     * @param heading The text for the message heading
+     * @param subheading The text for the message subheading
+     * @param message The text of the message
+     * @param buttonText The text for the message button
+     */
+    public MessageListItem(String heading, String subheading, String message, String buttonText)
+    {
+        this.heading = heading;
+        this.subheading = subheading;
+        this.message = message;
+        this.buttonText = buttonText;
+    }
+
+    public String getHeading()
+    {
+        return heading;
+    }
+
+    public String getSubheading()
+    {
+        return subheading;
+    }
+
+    public String getMessage()
+    {
+        return message;
+    }
+
+    public String getButtonText()
+    {
+        return buttonText;
+    }
+
+    /**
+     * @return true if the message has a button
+     */
+    public boolean hasButton()
+    {
+        return !buttonText.equals("");
+    }
+
+    /**
+     * Set the action to run when the message's button is clicked
+     *
+     * @param onButtonClicked The action, or null for no action
+     */
+    public void setOnButtonClicked(Runnable onButtonClicked)
+    {
+        this.onButtonClicked = onButtonClicked;
+    }
+
+    /**
+     * Run the action of the message's button, if it has one
+     */
+    public void clickButton()
+    {
+        if(onButtonClicked != null) {
+            onButtonClicked.run();
+        }
+    }
+}
@@ -4,6 +4,12 @@ import com.group15A.Utils.JWidgetShortcuts;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 
 /**
  * A JPanel containing:
@@ -11,6 +17,9 @@ import java.awt.*;
  * - a JLabel title
  * - a JLabel "no messages" message
  *
+ * In virtualized mode, the messages are MessageListItems in a JList instead of MessagePanels,
+ * so only the visible messages are drawn and long lists stay cheap to create and lay out
+ *
  * @author Filip Fois
  */
 public class MessageListPanel {
@@ -24,6 +33,14 @@ public class MessageListPanel {
     private final String headerText;
     private final String noMessagesText;
     private final boolean showCount;
+    private Runnable onScrolledToEnd;
+    private Integer totalCount;
+    private final boolean virtualized;
+    private DefaultListModel<MessageListItem> listModel;
+    private JList<MessageListItem> messageList;
+
+    private static final int SCROLL_END_THRESHOLD = 50;
+    private static final String CLICK_BUTTON_ACTION = "clickMessageButton";
 
     /**
      * The constructor for the MessageListPanel
@@ -34,12 +51,168 @@ public class MessageListPanel {
      */
     public MessageListPanel(String headerText, String noMessagesText, boolean showCount)
     {
+        this(headerText, noMessagesText, showCount, false);
+    }
+
+    /**
+     * The constructor for the MessageListPanel
+     *
+     * @param headerText The text to be shown in the header label
+     * @param noMessagesText The text to be shown in the "no messages" label
+     * @param showCount A boolean determining if the MessagePanel count will be shown
+     * @param virtualized A boolean determining if the messages are MessageListItems drawn by a JList,
+     *                    which should be used for lists which can grow long
+     */
+    public MessageListPanel(String headerText, String noMessagesText, boolean showCount, boolean virtualized)
+    {
+        this.virtualized = virtualized;
         this.headerText = headerText;
         this.showCount = showCount;
         this.noMessagesText = noMessagesText;
         this.headerLabel.setText(this.headerText);
         this.noMessagesLabel.setText(this.noMessagesText);
         gbc = JWidgetShortcuts.getStackGBC();
+
+        messageScrollPanel.getVerticalScrollBar().addAdjustmentListener(e -> {
+            BoundedRangeModel model = messageScrollPanel.getVerticalScrollBar().getModel();
+            if (onScrolledToEnd != null && model.getValue() + model.getExtent() >= model.getMaximum() - SCROLL_END_THRESHOLD) {
+                onScrolledToEnd.run();
+            }
+        });
+
+        if(virtualized) {
+            createMessageList();
+        }
+    }
+
+    /**
+     * Create the JList which holds the messages in virtualized mode
+     *
+     * Every row is as tall as its message needs at the width of the list,
+     * and the heights are measured again when the width of the list changes.
+     * The buttons are only drawn, so the list can be focused and a message selected with the arrow keys,
+     * and Enter or Space clicks the button of the selected message
+     */
+    private void createMessageList()
+    {
+        listModel = new DefaultListModel<>();
+        messageList = new JList<>(listModel) {
+            @Override
+            public boolean getScrollableTracksViewportWidth()
+            {
+                return true;
+            }
+        };
+        MessageCellRenderer renderer = new MessageCellRenderer();
+        messageList.setCellRenderer(renderer);
+        messageList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        messageList.getAccessibleContext().setAccessibleDescription("Press Enter to click the button of the selected message");
+
+        messageList.addComponentListener(new ComponentAdapter() {
+            private int width = -1;
+
+            @Override
+            public void componentResized(ComponentEvent e)
+            {
+                if(messageList.getWidth() != width) {
+                    width = messageList.getWidth();
+                    // The list only measures its rows again when its cell height setting changes
+                    messageList.setFixedCellHeight(0);
+                    messageList.setFixedCellHeight(-1);
+                }
+            }
+        });
+
+        messageList.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), CLICK_BUTTON_ACTION);
+        messageList.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0), CLICK_BUTTON_ACTION);
+        messageList.getActionMap().put(CLICK_BUTTON_ACTION, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                MessageListItem item = messageList.getSelectedValue();
+                if(item != null && item.hasButton()) {
+                    item.clickButton();
+                }
+            }
+        });
+
+        // The buttons are only drawn, so clicks on them are passed to their messages
+        messageList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                int index = messageList.locationToIndex(e.getPoint());
+                if(index < 0) {
+                    return;
+                }
+                Rectangle cellBounds = messageList.getCellBounds(index, index);
+                MessageListItem item = listModel.get(index);
+                if(cellBounds.contains(e.getPoint()) && renderer.isOnButton(messageList, item, index, cellBounds, e.getPoint())) {
+                    item.clickButton();
+                }
+            }
+        });
+
+        messageScrollPanel.setViewportView(messageExtraPanel);
+    }
+
+    /**
+     * Add a message to the end of a virtualized list
+     *
+     * @param heading The text for the message heading
+     * @param subheading The text for the message subheading
+     * @param message The text of the message
+     * @param buttonText The text for the message button
+     * @return The MessageListItem object
+     */
+    public MessageListItem addItem(String heading, String subheading, String message, String buttonText)
+    {
+        return addItem(heading, subheading, message, buttonText, listModel.size());
+    }
+
+    /**
+     * Add a message to a virtualized list at the given position,
+     * where position 0 is the top of the list
+     *
+     * @param heading The text for the message heading
+     * @param subheading The text for the message subheading
+     * @param message The text of the message
+     * @param buttonText The text for the message button
+     * @param position The position of the message in the list
+     * @return The MessageListItem object
+     */
+    public MessageListItem addItem(String heading, String subheading, String message, String buttonText, int position)
+    {
+        MessageListItem item = new MessageListItem(heading, subheading, message, buttonText);
+        listModel.add(position, item);
+        updateCount();
+        return item;
+    }
+
+    /**
+     * Remove a message from a virtualized list,
+     * showing the "no messages" label if it was the last message
+     *
+     * @param item The MessageListItem object
+     */
+    public void removeItem(MessageListItem item)
+    {
+        listModel.removeElement(item);
+        updateCount();
+        if(getMessageCount() == 0) {
+            showNoMessagesLabel();
+        }
+    }
+
+    /**
+     * Set the action to run when the list is scrolled to (or near) its end,
+     * e.g. to load more messages
+     *
+     * @param onScrolledToEnd The action, or null for no action
+     */
+    public void setOnScrolledToEnd(Runnable onScrolledToEnd)
+    {
+        this.onScrolledToEnd = onScrolledToEnd;
     }
 
     /**
@@ -59,15 +232,75 @@ public class MessageListPanel {
         return messagePanel;
     }
 
+    /**
+     * Add a MessagePanel's JPanel to the messageContentPanel JPanel at the given position,
+     * where position 0 is the top of the list
+     *
+     * @param heading The text for the message heading label
+     * @param subheading The text for the message subheading label
+     * @param message The text for the message text pane
+     * @param buttonText The text for the message button
+     * @param position The position of the message in the list
+     * @return The MessagePanel object
+     */
+    public MessagePanel addMessage(String heading, String subheading, String message, String buttonText, int position)
+    {
+        MessagePanel messagePanel = new MessagePanel(heading,subheading,message,buttonText);
+        int noMessagesIndex = messageContentPanel.getComponentZOrder(noMessagesLabel);
+        messageContentPanel.add(messagePanel.getMainPanel(), gbc, noMessagesIndex + 1 + position);
+        updateCount();
+        return messagePanel;
+    }
+
+    /**
+     * Remove a MessagePanel's JPanel from the messageContentPanel JPanel,
+     * showing the "no messages" label if it was the last message
+     *
+     * @param messagePanel The MessagePanel object
+     */
+    public void removeMessage(MessagePanel messagePanel)
+    {
+        messageContentPanel.remove(messagePanel.getMainPanel());
+        updateCount();
+        if(getMessageCount() == 0) {
+            showNoMessagesLabel();
+        }
+        messageContentPanel.revalidate();
+        messageContentPanel.repaint();
+    }
+
+    /**
+     * @return the number of messages in the list
+     */
+    public int getMessageCount()
+    {
+        if(virtualized) {
+            return listModel.size();
+        }
+        return messageContentPanel.getComponentCount()-1;
+    }
+
+    /**
+     * Set the count to show in the header instead of the number of messages in the list,
+     * for lists which only hold some of the messages at a time
+     *
+     * @param totalCount The total number of messages, or null to show the number of messages in the list
+     */
+    public void setTotalCount(Integer totalCount)
+    {
+        this.totalCount = totalCount;
+        updateCount();
+    }
+
     /**
      * If the count is to be shown,
-     * get the number of components in the messageContentPanel JPanel (besides the "no message" label)
-     * and display the count in the panel header
+     * get the number of components in the messageContentPanel JPanel (besides the "no message" label),
+     * or the total count if one was set, and display the count in the panel header
      */
     private void updateCount()
     {
         if(showCount) {
-            setHeaderText(headerText + " (" + (messageContentPanel.getComponentCount()-1) + ")");
+            setHeaderText(headerText + " (" + (totalCount != null ? totalCount : getMessageCount()) + ")");
         }
     }
 
@@ -95,13 +328,18 @@ public class MessageListPanel {
     /**
      * Remove all elements from the panel given by getContentPanel()
      * Add the "no messages" label after it was removed
-     * Update the count
+     * Forget the total count and update the count
      * Show the no messages label
      */
     public void clearMessages()
     {
-        JWidgetShortcuts.clearJPanel(getContentPanel());
-        messageContentPanel.add(noMessagesLabel);
+        if(virtualized) {
+            listModel.clear();
+        } else {
+            JWidgetShortcuts.clearJPanel(getContentPanel());
+            messageContentPanel.add(noMessagesLabel);
+        }
+        totalCount = null;
         updateCount();
         showNoMessagesLabel();
 
@@ -110,11 +348,17 @@ public class MessageListPanel {
     public void hideNoMessagesLabel()
     {
         getNoMessagesLabel().setVisible(false);
+        if(virtualized && messageScrollPanel.getViewport().getView() != messageList) {
+            messageScrollPanel.setViewportView(messageList);
+        }
     }
 
     public void showNoMessagesLabel()
     {
         getNoMessagesLabel().setVisible(true);
+        if(virtualized && messageScrollPanel.getViewport().getView() != messageExtraPanel) {
+            messageScrollPanel.setViewportView(messageExtraPanel);
+        }
     }
 
     public void setHeaderText(String string)
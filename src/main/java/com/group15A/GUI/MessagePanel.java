@@ -36,6 +36,22 @@ public class MessagePanel
      * @param buttonText The text for the message button
      */
     public MessagePanel(String heading, String subheading, String message, String buttonText)
+    {
+        setContent(heading, subheading, message, buttonText);
+    }
+
+    /**
+     * Set the text of each component, so that one MessagePanel can show different messages
+     *
+     * If the string for a given component's text is blank,
+     * make the component invisible, otherwise make it visible
+     *
+     * @param heading The text for the message heading label
+     * @param subheading The text for the message subheading label
+     * @param message The text for the message text pane
+     * @param buttonText The text for the message button
+     */
+    public void setContent(String heading, String subheading, String message, String buttonText)
     {
         HashMap<JComponent, String> widgets = new HashMap<>() {{
             put(headingLabel, heading);
@@ -49,6 +65,7 @@ public class MessagePanel
                component.setVisible(false);
             }
             else{
+                component.setVisible(true);
                 if(component instanceof JButton){
                     ((JButton)component).setText(widgets.get(component));
                 }
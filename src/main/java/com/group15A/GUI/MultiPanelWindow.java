@@ -3,8 +3,10 @@ package com.group15A.GUI;
 import com.group15A.BusinessLogic.HomeLogic;
 import com.group15A.BusinessLogic.MultiPanelWindowLogic;
 import com.group15A.CustomExceptions.*;
+import com.group15A.DataAccess.ActionScope;
 import com.group15A.DataAccess.DataAccess;
 import com.group15A.DataModel.Patient;
+import com.group15A.Profiling.PageEvent;
 import com.group15A.Session;
 import com.group15A.Utils.PageType;
 import com.group15A.Utils.ReceivePair;
@@ -16,7 +18,7 @@ import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.File;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 /**
@@ -25,7 +27,7 @@ import java.util.Map;
  *
  * cardLayout is needed to add pages to be switched between
  *
- * cards is the list of BasePanels to be stored
+ * cards is the list of BasePanels to be stored, each created the first time it is shown
  *
  * panelCards is the parent that holds all JPanels, of which
  * its layout is cardLayout
@@ -36,7 +38,8 @@ import java.util.Map;
 public class MultiPanelWindow extends JFrame {
     private CardLayout cardLayout;
     private JPanel panelCards;
-    private Map<PageType, BasePanel> cards;
+    private final Map<PageType, BasePanel> cards = new EnumMap<>(PageType.class);
+    private BasePanel currentPanel;
     private Session session;
     private MultiPanelWindowLogic multiPanelWindowLogic;
     private Patient patient;
@@ -51,6 +54,7 @@ public class MultiPanelWindow extends JFrame {
     public MultiPanelWindow() {
         // Create session
         this.session = new Session(null, false);
+        this.cardLayout = (CardLayout) (panelCards.getLayout());
 
         // Set session (if file exists) and creates pages
         refreshSession();
@@ -103,43 +107,78 @@ public class MultiPanelWindow extends JFrame {
 
 
     /**
-     * Creates a hashmap linking the types of pages to the actual
-     * BasePanel instances
+     * Get the BasePanel instance of the given type of page,
+     * creating it and adding it to the card layout the first time it is needed
+     *
+     * @param page the type of page
+     * @return the page
      */
-    private void createPages() {
-        this.cards = new HashMap<>();
-        this.cards.put(PageType.LOGIN, new LogInPanel(this));
-        this.cards.put(PageType.REGISTER, new RegisterPanel(this));
-        this.cards.put(PageType.HOME, new HomePanel(this));
-        this.cards.put(PageType.CHOOSE_DOCTOR, new ChooseDoctorPanel(this));
-        this.cards.put(PageType.VIEW_BOOKINGS, new ViewBookingsPanel(this));
-        this.cards.put(PageType.ADD_BOOKING, new AddBookingPanel(this));
-        this.cards.put(PageType.VIEW_PROFILE, new ViewProfilePanel(this));
-        this.cards.put(PageType.LOG, new LogPanel(this));
-
-        PageType[] pages = PageType.values();
-
-        this.cardLayout = (CardLayout) (panelCards.getLayout());
-        for (PageType page: pages) {
-            BasePanel basePanel = this.cards.get(page);
+    private BasePanel getPage(PageType page) {
+        BasePanel basePanel = this.cards.get(page);
+        if (basePanel == null) {
+            basePanel = createPage(page);
             basePanel.getPagePanel().setBorder(new EmptyBorder(20,20,20,20));
-           this.panelCards.add(basePanel.getPagePanel(), basePanel.getPanelFieldName());
+            this.panelCards.add(basePanel.getPagePanel(), basePanel.getPanelFieldName());
+            this.cards.put(page, basePanel);
         }
+        return basePanel;
     }
 
     /**
-     * Switches to a given JPanel that is in the card layout
+     * Create the BasePanel instance of the given type of page
+     *
+     * @param page the type of page
+     * @return the new page
+     */
+    private BasePanel createPage(PageType page) {
+        return switch (page) {
+            case LOGIN -> new LogInPanel(this);
+            case REGISTER -> new RegisterPanel(this);
+            case HOME -> new HomePanel(this);
+            case CHOOSE_DOCTOR -> new ChooseDoctorPanel(this);
+            case VIEW_BOOKINGS -> new ViewBookingsPanel(this);
+            case ADD_BOOKING -> new AddBookingPanel(this);
+            case VIEW_PROFILE -> new ViewProfilePanel(this);
+            case LOG -> new LogPanel(this);
+        };
+    }
+
+    /**
+     * Reset the pages created so far, so that nothing from the previous session is shown,
+     * instead of creating them again
+     */
+    private void resetPages() {
+        this.cards.values().forEach(BasePanel::resetPage);
+    }
+
+    /**
+     * Switches to a given JPanel that is in the card layout.
+     * The database statements run to load the page are counted together, including the ones run in the background
      *
      * @param page the page to switch to, contains window title and the required JPanel
      */
     public void showPage(PageType page, ReceivePair... pairs) {
-        BasePanel nextPanel = this.cards.get(page);
-        this.setTitle(nextPanel.getWindowTitle());
-        this.cardLayout.show(panelCards, nextPanel.getPanelFieldName());
-        // To trigger any passive events in pages, such as dynamically updating notifications on the home panel
-        nextPanel.receiveData(new ReceivePair(ReceiveType.EVENT, null));
-        for (ReceivePair pair: pairs) {
-            nextPanel.receiveData(pair);
+        PageEvent event = new PageEvent();
+        event.begin();
+        try (ActionScope scope = ActionScope.open("showPage(" + page + ")")) {
+            BasePanel nextPanel = getPage(page);
+            if (currentPanel != null && currentPanel != nextPanel) {
+                currentPanel.leavePage();
+            }
+            currentPanel = nextPanel;
+            this.setTitle(nextPanel.getWindowTitle());
+            this.cardLayout.show(panelCards, nextPanel.getPanelFieldName());
+            // To trigger any passive events in pages, such as dynamically updating notifications on the home panel
+            nextPanel.receiveData(new ReceivePair(ReceiveType.EVENT, null));
+            for (ReceivePair pair: pairs) {
+                nextPanel.receiveData(pair);
+            }
+            event.statements = scope.getStatementCount();
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.page = page.name();
+            event.commit();
         }
     }
 
@@ -163,26 +202,26 @@ public class MultiPanelWindow extends JFrame {
         } catch (Exception e) {
             System.out.println("No session file found. Going to log-in page.");
         }
-        createPages();
+        resetPages();
     }
 
     /**
-     * A method for other classes to call createPages()
+     * A method for other classes to call resetPages()
      */
     public void refreshPages()
     {
-        createPages();
+        resetPages();
     }
 
     /**
-     * Sets session and refreshes pages.
+     * Sets session and resets pages.
      *
      * @param session new session (Patient object and stay-logged-in status)
      */
     public void setSession(Session session)
     {
         this.session = session;
-        createPages();
+        resetPages();
     }
 
     /**
@@ -192,6 +231,9 @@ public class MultiPanelWindow extends JFrame {
      */
     public void closeProgram()
     {
+        // Save the data the pages are waiting to save, as background work is stopped when the program exits
+        this.cards.values().forEach(BasePanel::closePage);
+
         // Delete session file if user doesn't want to stay logged in (i.e. log out user)
         if(session != null && !session.isKeepLoggedIn()) {
             try {
@@ -214,6 +256,12 @@ public class MultiPanelWindow extends JFrame {
             }
         }
 
+        // Write the queued logs and the data access metrics before the program exits
+        if(multiPanelWindowLogic != null) {
+            multiPanelWindowLogic.closeLogs();
+            multiPanelWindowLogic.writeMetrics(new File(new JFileChooser().getFileSystemView().getDefaultDirectory().toString() + "/DataAccessMetrics.txt"));
+        }
+
         // Exit program
         System.exit(0);
     }
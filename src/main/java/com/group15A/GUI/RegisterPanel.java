@@ -78,6 +78,7 @@ public class RegisterPanel extends BasePanel {
     private JLabel doctorLabel;
     private JButton chooseDoctorButton;
     private JLabel doctorErrorLabel;
+    private JLabel registerErrorLabel;
     private JComboBox doctorCombo;
 
     private RegisterLogic registerLogic;
@@ -133,6 +134,7 @@ public class RegisterPanel extends BasePanel {
             put(ErrorCode.WRONG_PASSWORD, passwordErrorLabel);
             put(ErrorCode.WRONG_CONFIRMED_PASSWORD, confirmPasswordErrorLabel);
             put(ErrorCode.DOCTOR_NOT_CHOSEN, doctorErrorLabel);
+            put(ErrorCode.DATABASE_ERROR, registerErrorLabel);
         }};
     }
 
@@ -159,6 +161,25 @@ public class RegisterPanel extends BasePanel {
         }
     }
 
+    /**
+     * Clear the form, so the previous patient's details are not shown
+     */
+    @Override
+    public void resetPage() {
+        super.resetPage();
+        for (JTextField field : new JTextField[]{
+                firstNameField, middleNameField, lastNameField, phoneField,
+                emailField, confirmEmailField, passwordField, confirmPasswordField}) {
+            field.setText("");
+        }
+        for (JComboBox<?> combo : new JComboBox<?>[]{sexCombo, dayCombo, monthCombo, yearCombo}) {
+            combo.setSelectedIndex(0);
+        }
+        this.chosenDoctor = null;
+        this.chooseDoctorButton.setText("Choose doctor");
+        clearErrorLabels();
+    }
+
     /**
      * To create all event handlers, which will point to other methods in the class
      */
@@ -177,42 +198,75 @@ public class RegisterPanel extends BasePanel {
 
     /**
      * Try to register patient by passing given inputs to
-     * registerLogic.register() method
+     * registerLogic.register() method, in the background
      *
      * If registration is successful, go to the home panel,
      * otherwise, show relevant error labels for invalid inputs
      */
     private void registerNewPatient() {
-        try {
-            Patient newPatient = registerLogic.register(
-                firstNameField.getText(),
-                middleNameField.getText(),
-                lastNameField.getText(),
-            yearCombo.getSelectedItem().toString()+"-"+
+        String firstName = firstNameField.getText();
+        String middleName = middleNameField.getText();
+        String lastName = lastNameField.getText();
+        String dateOfBirth = yearCombo.getSelectedItem().toString()+"-"+
                 monthCombo.getSelectedItem().toString()+"-"+
-                dayCombo.getSelectedItem().toString(),
-                sexCombo.getSelectedItem().toString(),
-                phoneField.getText(),
-                emailField.getText(),
-                confirmEmailField.getText(),
-                new String(passwordField.getPassword()),
-                new String(confirmPasswordField.getPassword()),
-                chosenDoctor
-            );
-
-            Session currentSession = panelController.getSession();
-            currentSession.setLoggedInPatient(newPatient);
-            currentSession.setKeepLoggedIn(false);
-            registerLogic.registerNotification(newPatient);
-            registerLogic.registerLog(newPatient);
-            panelController.refreshPages();
-            currentSession.saveToFile();
-            panelController.showPage(PageType.HOME);
-        } catch (CustomException e) {
-            clearErrorLabels();
-            setErrorLabels(e);
-        }
+                dayCombo.getSelectedItem().toString();
+        String sex = sexCombo.getSelectedItem().toString();
+        String phone = phoneField.getText();
+        String email = emailField.getText();
+        String confirmEmail = confirmEmailField.getText();
+        String password = new String(passwordField.getPassword());
+        String confirmPassword = new String(confirmPasswordField.getPassword());
+        Doctor doctor = chosenDoctor;
+
+        // Hashing the password is slow, so the registration runs in the background
+        runInBackground(
+                "register",
+                () -> {
+                    Patient newPatient = registerLogic.register(
+                        firstName,
+                        middleName,
+                        lastName,
+                        dateOfBirth,
+                        sex,
+                        phone,
+                        email,
+                        confirmEmail,
+                        password,
+                        confirmPassword,
+                        doctor
+                    );
+                    registerLogic.registerNotification(newPatient);
+                    registerLogic.registerLog(newPatient);
+                    return newPatient;
+                },
+                newPatient -> {
+                    Session currentSession = panelController.getSession();
+                    currentSession.setLoggedInPatient(newPatient);
+                    currentSession.setKeepLoggedIn(false);
+                    panelController.refreshPages();
+                    currentSession.saveToFile();
+                    panelController.showPage(PageType.HOME);
+                },
+                e -> {
+                    clearErrorLabels();
+                    if (e instanceof CustomException) {
+                        setErrorLabels((CustomException) e);
+                    } else {
+                        registerErrorLabel.setVisible(true);
+                    }
+                }
+        );
+    }
 
+    /**
+     * Stop the form being submitted again while the patient is being registered
+     *
+     * @param loading true if the patient is being registered
+     */
+    @Override
+    protected void setLoading(boolean loading) {
+        super.setLoading(loading);
+        continueButton.setEnabled(!loading);
     }
 
     /**
@@ -4,6 +4,7 @@ import com.group15A.BusinessLogic.ViewBookingLogic;
 import com.group15A.CustomExceptions.CustomException;
 import com.group15A.CustomExceptions.DatabaseException;
 import com.group15A.DataModel.Booking;
+import com.group15A.DataModel.BookingWithDoctor;
 import com.group15A.DataModel.Doctor;
 import com.group15A.Utils.*;
 
@@ -37,8 +38,8 @@ public class ViewBookingsPanel extends BasePanel {
     private JLabel yearLabel;
 
     private ViewBookingLogic viewBookingLogic;
-    private List<Booking> bookingsList;
-    private List<JPanel> bookingLabelsList;
+    private List<BookingWithDoctor> bookingsList;
+    private List<MessageListItem> bookingLabelsList;
 
     private final MessageListPanel messageListPanel;
 
@@ -59,6 +60,7 @@ public class ViewBookingsPanel extends BasePanel {
         messageListPanel = new MessageListPanel(
                 "My bookings",
                 "No bookings.",
+                true,
                 true
         );
         JWidgetShortcuts.addItemsToCombo(monthComboBox,1,12,1,"Month (All)");
@@ -84,13 +86,17 @@ public class ViewBookingsPanel extends BasePanel {
     {
         if (pair.getFirst().equals(ReceiveType.PATIENT_ID)) {
             Integer patientID = (Integer) pair.getSecond();
-            try {
-                bookingsList = this.viewBookingLogic.getBookings(patientID, pastBookingFlag);
-                messageListPanel.hideNoMessagesLabel();
-                this.displayBookings();
-            } catch (CustomException e) {
-                JWidgetShortcuts.showDatabaseExceptionPopupAndExit(viewBookingsPanel);
-            }
+            boolean pastBookings = pastBookingFlag;
+            loadInBackground(
+                    "bookings",
+                    () -> this.completePastBookings(this.viewBookingLogic.getBookings(patientID, pastBookings), pastBookings),
+                    bookings -> {
+                        bookingsList = bookings;
+                        messageListPanel.hideNoMessagesLabel();
+                        this.displayBookings();
+                    },
+                    e -> JWidgetShortcuts.showDatabaseExceptionPopupAndExit(viewBookingsPanel)
+            );
         } else if (pair.getFirst().equals(ReceiveType.NEW_BOOKINGS)) {
             pastBookingFlag = false;
             this.updateBookingLabels("My current bookings");
@@ -110,32 +116,48 @@ public class ViewBookingsPanel extends BasePanel {
         this.titleLabel.setText(newBookingPageText);
     }
 
+    /**
+     * Give past bookings without a prescription a prescription and details, and save them.
+     * Run in the background, before the bookings are displayed
+     *
+     * @param bookings the bookings to be displayed
+     * @param pastBookings true if the bookings are past bookings
+     * @return the bookings
+     * @throws CustomException when a past booking cannot be updated
+     */
+    private List<BookingWithDoctor> completePastBookings(List<BookingWithDoctor> bookings, boolean pastBookings) throws CustomException {
+        if (pastBookings) {
+            Randomiser randomiser = new Randomiser();
+            for (int i = 0; i < bookings.size(); i++) {
+                Booking b = bookings.get(i).getBooking();
+                if (b.getPrescription() == null) {
+                    Booking completed = this.viewBookingLogic.addPrescription(b, randomiser.getRandPrescription(), randomiser.getRandDetails());
+                    bookings.set(i, new BookingWithDoctor(completed, bookings.get(i).getDoctor()));
+                }
+            }
+        }
+        return bookings;
+    }
+
     /**
      * For each notification in `notifList`,
      * add a message to the new MessageListPanel
      * and assign an action to the "Reschedule" button
-     *
-     * @throws CustomException when patient's doctor cannot be accessed
      */
-    public void displayBookings() throws CustomException {
+    public void displayBookings() {
         messageListPanel.clearMessages();
+        bookingLabelsList.clear();
         messageListPanel.showNoMessagesLabel();
 
         String message;
-        Randomiser randomiser = new Randomiser();
 
         if(!bookingsList.isEmpty()){
             messageListPanel.hideNoMessagesLabel();
-            for (Booking b : bookingsList) {
-                Doctor doctor = this.viewBookingLogic.getDoctor(b.getDoctorID());
+            for (BookingWithDoctor bookingWithDoctor : bookingsList) {
+                Booking b = bookingWithDoctor.getBooking();
+                Doctor doctor = bookingWithDoctor.getDoctor();
 
                 if (pastBookingFlag) {
-                    if (b.getPrescription() == null) {
-                        b.setPrescription(randomiser.getRandPrescription());
-                        b.setDetails(randomiser.getRandDetails());
-                        this.viewBookingLogic.updateBooking(b);
-                    }
-
                     message = "Booking at "+
                             DataModification.getTime(b.getBookingTime())+
                             " on "+DataModification.fullDate(b.getBookingTime())+"."+
@@ -147,18 +169,17 @@ public class ViewBookingsPanel extends BasePanel {
                             " on "+DataModification.fullDate(b.getBookingTime());
                 }
 
-                MessagePanel bookingMessage = messageListPanel.addMessage(
+                // Past bookings cannot be rescheduled, so they have no button
+                MessageListItem bookingMessage = messageListPanel.addItem(
                         "",
                         "With Dr. "+doctor.getFullName()+" ("+b.getType()+")",
                         message,
-                        "Reschedule");
+                        pastBookingFlag ? "" : "Reschedule");
 
-                bookingLabelsList.add(bookingMessage.getMainPanel());
+                bookingLabelsList.add(bookingMessage);
 
                 if (!pastBookingFlag) {
-                    bookingMessage.getButton().addActionListener(e -> this.rescheduleBooking(b));
-                } else {
-                    bookingMessage.getButton().setVisible(false);
+                    bookingMessage.setOnButtonClicked(() -> this.rescheduleBooking(b));
                 }
             }
         }
@@ -187,20 +208,29 @@ public class ViewBookingsPanel extends BasePanel {
      */
     private void filterBookings()
     {
-        try {
-            bookingsList = this.viewBookingLogic.filterBookings(
-                    monthComboBox.getSelectedItem().toString(),
-                    yearComboBox.getSelectedItem().toString(),
-                    panelController.getSession().getLoggedInPatientID(),
-                    pastBookingFlag
-            );
-            dateErrorLabel.setVisible(false);
-            this.displayBookings();
-        } catch (DatabaseException e) {
-            JWidgetShortcuts.showDatabaseExceptionPopupAndExit(viewBookingsPanel);
-        } catch (CustomException e) {
-            dateErrorLabel.setVisible(true);
-        }
+        String month = monthComboBox.getSelectedItem().toString();
+        String year = yearComboBox.getSelectedItem().toString();
+        Integer patientID = panelController.getSession().getLoggedInPatientID();
+        boolean pastBookings = pastBookingFlag;
+        loadInBackground(
+                "bookings",
+                () -> this.completePastBookings(
+                        this.viewBookingLogic.filterBookings(month, year, patientID, pastBookings),
+                        pastBookings
+                ),
+                bookings -> {
+                    bookingsList = bookings;
+                    dateErrorLabel.setVisible(false);
+                    this.displayBookings();
+                },
+                e -> {
+                    if (e instanceof DatabaseException) {
+                        JWidgetShortcuts.showDatabaseExceptionPopupAndExit(viewBookingsPanel);
+                    } else {
+                        dateErrorLabel.setVisible(true);
+                    }
+                }
+        );
     }
 
     /**
@@ -212,6 +242,20 @@ public class ViewBookingsPanel extends BasePanel {
         return this.viewBookingsPanel;
     }
 
+    /**
+     * Clear the displayed bookings and the filters, so the previous patient's bookings are not shown
+     */
+    @Override
+    public void resetPage() {
+        super.resetPage();
+        messageListPanel.clearMessages();
+        bookingLabelsList.clear();
+        monthComboBox.setSelectedIndex(0);
+        yearComboBox.setSelectedIndex(0);
+        dateErrorLabel.setVisible(false);
+        pastBookingFlag = false;
+    }
+
     /**
      * To create all event handlers, which will point to other methods in the class
      */
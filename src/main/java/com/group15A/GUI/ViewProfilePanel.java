@@ -1,7 +1,6 @@
 package com.group15A.GUI;
 
 import com.group15A.BusinessLogic.ViewProfileLogic;
-import com.group15A.CustomExceptions.CustomException;
 import com.group15A.CustomExceptions.DatabaseException;
 import com.group15A.CustomExceptions.SameDoctorException;
 import com.group15A.DataModel.Doctor;
@@ -72,22 +71,28 @@ public class ViewProfilePanel extends BasePanel {
     @Override
     public void receiveData(ReceivePair pair) {
         if (pair.getFirst().equals(ReceiveType.DOCTOR)) {
-            try {
-                this.viewProfileLogic.updatePatientDoctor(
-                        this.panelController.getSession().getLoggedInPatientID(),
-                        (Doctor) pair.getSecond()
-                );
-                this.panelController.showPage(PageType.HOME);
-            } catch (SameDoctorException e) {
-                JOptionPane.showMessageDialog(
-                        viewProfilePanel,
-                        "You can't change to the same doctor as you already have",
-                        "ERROR: Same Doctor",
-                        JOptionPane.ERROR_MESSAGE
-                );
-            } catch (CustomException e) {
-                JWidgetShortcuts.showDatabaseExceptionPopupAndExit(viewProfilePanel);
-            }
+            Integer patientID = this.panelController.getSession().getLoggedInPatientID();
+            Doctor doctor = (Doctor) pair.getSecond();
+            runInBackground(
+                    "changeDoctor",
+                    () -> {
+                        this.viewProfileLogic.updatePatientDoctor(patientID, doctor);
+                        return null;
+                    },
+                    result -> this.panelController.showPage(PageType.HOME),
+                    e -> {
+                        if (e instanceof SameDoctorException) {
+                            JOptionPane.showMessageDialog(
+                                    viewProfilePanel,
+                                    "You can't change to the same doctor as you already have",
+                                    "ERROR: Same Doctor",
+                                    JOptionPane.ERROR_MESSAGE
+                            );
+                        } else {
+                            JWidgetShortcuts.showDatabaseExceptionPopupAndExit(viewProfilePanel);
+                        }
+                    }
+            );
         }
     }
 
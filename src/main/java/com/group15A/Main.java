@@ -1,6 +1,7 @@
 package com.group15A;
 
 import com.group15A.GUI.MultiPanelWindow;
+import com.group15A.Profiling.FlightRecording;
 
 import javax.swing.*;
 
@@ -10,9 +11,12 @@ import javax.swing.*;
 public class Main {
 
     /**
-     * Entry into the GUI
+     * Entry into the GUI.
+     * Start the program with --record, or --record=file.jfr, to record it with Java Flight Recorder
      */
     public static void main(String[] args) {
+        FlightRecording.startFromArguments(args);
+
         JFrame panelHandler = new MultiPanelWindow();
         panelHandler.setVisible(true);
     }
@@ -0,0 +1,25 @@
+package com.group15A.Profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for the work of a background task started by a page, such as loading the data it shows
+ *
+ * @author Milovan Gveric
+ */
+@Name("com.group15A.BackgroundTask")
+@Label("Background Task")
+@Description("Work run in the background for a page, such as loading the data it shows")
+@Category({"The GP", "GUI"})
+public class BackgroundTaskEvent extends jdk.jfr.Event {
+    @Label("Action")
+    @Description("The action the task belongs to, e.g. showPage(HOME)/homePanel:notifications")
+    public String action;
+
+    @Label("Failed")
+    @Description("Whether the work threw an exception")
+    public boolean failed;
+}
@@ -0,0 +1,29 @@
+package com.group15A.Profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for a call to the Data Access Layer which reached the database
+ *
+ * @author Milovan Gveric
+ */
+@Name("com.group15A.DataAccess")
+@Label("Data Access Call")
+@Description("A call to the Data Access Layer which reached the database")
+@Category({"The GP", "Data Access"})
+public class DataAccessEvent extends jdk.jfr.Event {
+    @Label("Method")
+    @Description("The method of the Data Access Layer, with its parameter types")
+    public String method;
+
+    @Label("Rows")
+    @Description("The number of rows returned")
+    public int rows;
+
+    @Label("Failed")
+    @Description("Whether the call threw an exception")
+    public boolean failed;
+}
@@ -0,0 +1,76 @@
+package com.group15A.Profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Starts a Java Flight Recorder recording of the whole program when it is started with the --record flag,
+ * so that a slow program can be analysed in JDK Mission Control without attaching a profiler.
+ *
+ * The recording uses the JDK's low overhead "default" settings, along with the program's own events
+ * for database calls, pages, background tasks and password hashing.
+ * Only the last MAX_AGE of the recording is kept, and it is written to a file when the program exits.
+ *
+ * @author Milovan Gveric
+ */
+public class FlightRecording {
+    public static final String FLAG = "--record";
+    private static final Duration MAX_AGE = Duration.ofHours(6);
+    private static final long MAX_SIZE_BYTES = 250L * 1024 * 1024;
+
+    private FlightRecording() {}
+
+    /**
+     * Start a recording if the program's arguments contain the --record flag.
+     * The file the recording is written to can be given as --record=file.jfr,
+     * otherwise it is written to TheGP-(date and time).jfr in the working directory
+     *
+     * @param args the arguments the program was started with
+     * @return the recording, or null if none was requested or it could not be started
+     */
+    public static Recording startFromArguments(String[] args) {
+        for (String arg : args) {
+            if (arg.equals(FLAG)) {
+                return start(Path.of("TheGP-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss")) + ".jfr"));
+            }
+            if (arg.startsWith(FLAG + "=")) {
+                return start(Path.of(arg.substring(FLAG.length() + 1)));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Start a recording which is written to the given file when the program exits
+     *
+     * @param file the file to write the recording to
+     * @return the recording, or null if it could not be started
+     */
+    public static Recording start(Path file) {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("The GP");
+            recording.enable(DataAccessEvent.class);
+            recording.enable(PageEvent.class);
+            recording.enable(BackgroundTaskEvent.class);
+            recording.enable(PasswordHashEvent.class);
+            recording.setMaxAge(MAX_AGE);
+            recording.setMaxSize(MAX_SIZE_BYTES);
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            recording.setDumpOnExit(true);
+            recording.start();
+            return recording;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            System.err.println("Could not start the flight recording: " + e.getMessage());
+            return null;
+        }
+    }
+}
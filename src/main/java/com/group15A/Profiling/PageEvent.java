@@ -0,0 +1,26 @@
+package com.group15A.Profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for switching to a page of the window.
+ * The data shown on the page is loaded afterwards, by the background tasks recorded as BackgroundTaskEvents
+ *
+ * @author Milovan Gveric
+ */
+@Name("com.group15A.Page")
+@Label("Show Page")
+@Description("Switching to a page of the window, on the event dispatch thread")
+@Category({"The GP", "GUI"})
+public class PageEvent extends jdk.jfr.Event {
+    @Label("Page")
+    @Description("The page which was shown")
+    public String page;
+
+    @Label("Statements")
+    @Description("The database statements run while switching, not counting the ones run afterwards in the background")
+    public int statements;
+}
@@ -0,0 +1,24 @@
+package com.group15A.Profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for hashing a password, or checking a password against its hash, with BCrypt
+ *
+ * @author Milovan Gveric
+ */
+@Name("com.group15A.PasswordHash")
+@Label("Password Hash")
+@Description("Hashing a password, or checking a password against its hash, with BCrypt")
+@Category({"The GP", "Security"})
+public class PasswordHashEvent extends jdk.jfr.Event {
+    public static final String HASH = "hash";
+    public static final String VERIFY = "verify";
+
+    @Label("Operation")
+    @Description("Either hash or verify")
+    public String operation;
+}
@@ -0,0 +1,11 @@
+package com.group15A.Utils;
+
+/**
+ * Whether to look at the bookings before or after the current time
+ *
+ * @author Milovan Gveric
+ */
+public enum BookingPeriod {
+    PAST,
+    FUTURE
+}
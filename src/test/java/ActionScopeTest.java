@@ -0,0 +1,128 @@
+import com.group15A.BusinessLogic.AddBookingLogic;
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.CustomExceptions.ExistingBookingException;
+import com.group15A.DataAccess.*;
+import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.Patient;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for counting the database statements run by a user action
+ *
+ * @author Andrei Constantin
+ */
+public class ActionScopeTest extends TestCase {
+
+    private IDataAccess dataAccess;
+    private Doctor doctor;
+    private Patient patient;
+
+    @Override
+    protected void setUp() {
+        try {
+            InMemoryDataAccess inMemoryDataAccess = new InMemoryDataAccess();
+            inMemoryDataAccess.addSampleDoctors();
+            dataAccess = new DataAccessMetrics().wrap(inMemoryDataAccess);
+            doctor = dataAccess.getDoctor(1);
+            patient = dataAccess.registerPatient(new Patient("patient@mail.com", "myPass", "Test", null, "Testing", Date.valueOf("1990-01-01"), "Male", "08858271"), doctor);
+        } catch (CustomException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCreateBookingStatements() {
+        try (ActionScope scope = ActionScope.open("createNewBooking")) {
+            new AddBookingLogic(dataAccess).createNewBooking(LocalDate.now().plusDays(7).toString(), "10", "30", "Surgery", patient.getPatientID());
+
+            scope.assertStatementsAtMost("getDoctor(Patient)", 1);
+            scope.assertStatementsAtMost(ActionScope.DEFAULT_STATEMENT_BUDGET);
+            assertEquals(1, scope.getStatementCount("createBookingWithAudit(Patient, Doctor, Timestamp, String, String, String, String)"));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+        assertNull(ActionScope.current());
+    }
+
+    @Test
+    public void testTakenSlotRejectedBeforeInsert() {
+        LocalDate day = LocalDate.now().plusDays(7);
+        ExistingBookingException taken = null;
+        try (ActionScope scope = ActionScope.open("createNewBooking")) {
+            dataAccess.createBooking(patient, doctor, Timestamp.valueOf(day.atTime(11, 0)), "Surgery");
+            try {
+                new AddBookingLogic(dataAccess).createNewBooking(day.toString(), "11", "00", "Surgery", patient.getPatientID());
+            } catch (ExistingBookingException ex) {
+                taken = ex;
+            }
+
+            //The taken slot is found by the existence check, without starting the booking transaction
+            assertEquals(1, scope.getStatementCount("isBookingSlotTaken(int, int, Timestamp)"));
+            assertEquals(0, scope.getStatementCount("createBookingWithAudit(Patient, Doctor, Timestamp, String, String, String, String)"));
+        } catch (CustomException ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+        assertNotNull(taken);
+    }
+
+    @Test
+    public void testChildScopes() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (ActionScope page = ActionScope.open("showPage(HOME)")) {
+            dataAccess.getDoctors();
+
+            //Work handed to another thread is counted in the action which started it
+            executor.submit(() -> {
+                try (ActionScope task = ActionScope.open("bookings", page)) {
+                    dataAccess.getBookings(patient);
+                    dataAccess.getBookings(patient);
+                    assertEquals(2, task.getStatementCount());
+                    assertEquals("showPage(HOME)/bookings", task.getName());
+                }
+                return null;
+            }).get();
+
+            assertEquals(3, page.getStatementCount());
+            assertEquals(10, page.getRowCount());
+            assertEquals(2, page.getStatementCount("getBookings(Patient)"));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testOverBudget() {
+        try (ActionScope scope = ActionScope.open("displayBookings", 2)) {
+            for (int i = 0; i < 3; i++) {
+                dataAccess.getDoctor(patient);
+            }
+
+            assertTrue(scope.isOverBudget());
+            AssertionError overBudget = null;
+            try {
+                scope.assertStatementsAtMost(2);
+            } catch (AssertionError ex) {
+                overBudget = ex;
+            }
+            assertNotNull(overBudget);
+            assertTrue(overBudget.getMessage().contains("getDoctor(Patient)=3"));
+        } catch (CustomException ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+}
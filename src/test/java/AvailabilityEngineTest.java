@@ -0,0 +1,140 @@
+import com.group15A.BusinessLogic.AvailabilityEngine;
+import com.group15A.DataAccess.IDataAccess;
+import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.DoctorSlot;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the earliest slot search of the AvailabilityEngine,
+ * against 100 doctors whose bookings are generated in memory
+ *
+ * Doctor 0 is booked for all of the first day except 9:10 and 9:30,
+ * and every other doctor i is booked for all of the first 3*i days,
+ * so the bookings span most of a year
+ *
+ * @author Milovan Gveric
+ */
+public class AvailabilityEngineTest extends TestCase {
+    private static final int DOCTOR_COUNT = 100;
+
+    private final LocalDate firstDay = LocalDate.now().plusDays(1);
+    private List<Doctor> doctors;
+    private int doctorQueries;
+    private int windowQueries;
+    private AvailabilityEngine availability;
+
+    @Override
+    protected void setUp() {
+        doctors = new ArrayList<>();
+        for (int i = 0; i < DOCTOR_COUNT; i++) {
+            doctors.add(new Doctor(i + 1, "doctor"+i+"@thegp.com", "First"+i, null, "Last"+i, Date.valueOf("1980-01-01"), "F", "0123456789"));
+        }
+
+        // Only the booking time queries are needed by the engine
+        IDataAccess dataAccess = (IDataAccess) Proxy.newProxyInstance(
+                IDataAccess.class.getClassLoader(),
+                new Class<?>[]{IDataAccess.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getBookingTimes") && args.length == 2) {
+                        windowQueries++;
+                        return getBookingTimes((Timestamp) args[0], (Timestamp) args[1]);
+                    }
+                    if (method.getName().equals("getBookingTimes")) {
+                        doctorQueries++;
+                        return getBookingTimes((Timestamp) args[1], (Timestamp) args[2])
+                                .getOrDefault(((Doctor) args[0]).getDoctorID(), List.of());
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }
+        );
+        availability = new AvailabilityEngine(dataAccess);
+    }
+
+    private Map<Integer, List<Timestamp>> getBookingTimes(Timestamp windowStart, Timestamp windowEnd) {
+        Map<Integer, List<Timestamp>> bookingTimes = new HashMap<>();
+        for (LocalDate day = windowStart.toLocalDateTime().toLocalDate(); day.isBefore(windowEnd.toLocalDateTime().toLocalDate()); day = day.plusDays(1)) {
+            int dayIndex = (int) (day.toEpochDay() - firstDay.toEpochDay());
+            for (int d = 0; d < DOCTOR_COUNT; d++) {
+                boolean fullyBooked = dayIndex >= 0 && dayIndex < 3 * d;
+                if (!fullyBooked && !(d == 0 && dayIndex == 0)) {
+                    continue;
+                }
+
+                for (int slot = 0; slot < AvailabilityEngine.SLOTS_PER_DAY; slot++) {
+                    LocalDateTime time = day.atTime(AvailabilityEngine.FIRST_SLOT).plusMinutes((long) slot * AvailabilityEngine.SLOT_MINUTES);
+                    if (d == 0 && (time.getMinute() == 10 || time.getMinute() == 30) && time.getHour() == 9) {
+                        continue;
+                    }
+                    bookingTimes.computeIfAbsent(doctors.get(d).getDoctorID(), id -> new ArrayList<>()).add(Timestamp.valueOf(time));
+                }
+            }
+        }
+        return bookingTimes;
+    }
+
+    @Test
+    public void testEarliestSlots() {
+        try {
+            List<DoctorSlot> slots = availability.getEarliestSlots(doctors, firstDay.atStartOfDay(), 4, false);
+
+            assertEquals(List.of(
+                    new DoctorSlot(doctors.get(0), firstDay.atTime(9, 10)),
+                    new DoctorSlot(doctors.get(0), firstDay.atTime(9, 30)),
+                    new DoctorSlot(doctors.get(0), firstDay.plusDays(1).atTime(9, 0)),
+                    new DoctorSlot(doctors.get(0), firstDay.plusDays(1).atTime(9, 5))
+            ), slots);
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testEarliestSlotPerDoctor() {
+        try {
+            List<DoctorSlot> slots = availability.getEarliestSlots(doctors, firstDay.atStartOfDay(), DOCTOR_COUNT, true);
+
+            assertEquals(DOCTOR_COUNT, slots.size());
+            assertEquals(new DoctorSlot(doctors.get(0), firstDay.atTime(9, 10)), slots.get(0));
+            for (int d = 1; d < DOCTOR_COUNT; d++) {
+                assertEquals(new DoctorSlot(doctors.get(d), firstDay.plusDays(3L * d).atTime(9, 0)), slots.get(d));
+            }
+
+            // The bookings of all doctors are loaded together, one window of days at a time
+            assertEquals(0, doctorQueries);
+            assertTrue(windowQueries <= 3 * DOCTOR_COUNT / 14 + 2);
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testEarliestSlotsAfterBooking() {
+        try {
+            availability.getEarliestSlots(doctors, firstDay.atStartOfDay(), 1, false);
+            availability.markTaken(doctors.get(0).getDoctorID(), Timestamp.valueOf(firstDay.atTime(9, 10)));
+
+            List<DoctorSlot> slots = availability.getEarliestSlots(doctors, firstDay.atStartOfDay(), 1, false);
+
+            assertEquals(new DoctorSlot(doctors.get(0), firstDay.atTime(9, 30)), slots.get(0));
+            assertEquals(1, windowQueries);
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+}
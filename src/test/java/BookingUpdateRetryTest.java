@@ -0,0 +1,140 @@
+import com.group15A.BusinessLogic.AddBookingLogic;
+import com.group15A.BusinessLogic.BookingUpdateRetry;
+import com.group15A.CustomExceptions.BookingConflictException;
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.CustomExceptions.ExistingBookingException;
+import com.group15A.DataAccess.InMemoryDataAccess;
+import com.group15A.DataModel.Booking;
+import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.Patient;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for retrying booking updates which were rejected because the booking was changed by someone else,
+ * where the other users are simulated by updating the booking in the in-memory Data Access Layer in between
+ *
+ * @author Milovan Gveric
+ */
+public class BookingUpdateRetryTest extends TestCase {
+    private final LocalDate day = LocalDate.now().plusDays(7);
+    private InMemoryDataAccess dataAccess;
+    private BookingUpdateRetry bookingUpdateRetry;
+    private Patient patient;
+    private Doctor doctor;
+    private Booking booking;
+    private int attempts;
+
+    @Override
+    protected void setUp() {
+        try {
+            dataAccess = new InMemoryDataAccess();
+            dataAccess.addSampleDoctors();
+            doctor = dataAccess.getDoctor(1);
+            patient = dataAccess.registerPatient(new Patient("patient@mail.com", "myPass", "Test", null, "Testing", Date.valueOf("1990-01-01"), "Male", "08858271"), doctor);
+            booking = dataAccess.createBooking(patient, doctor, Timestamp.valueOf(day.atTime(10, 0)), "Surgery");
+            bookingUpdateRetry = new BookingUpdateRetry(dataAccess);
+            attempts = 0;
+        } catch (CustomException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Update the booking as another user would, so that any copy read before is out of date
+     */
+    private void changeBookingElsewhere() throws CustomException {
+        Booking latest = dataAccess.getBooking(booking.getBookingID());
+        latest.setDetails("Changed by someone else");
+        dataAccess.updateBooking(latest);
+    }
+
+    @Test
+    public void testRetryAfterConflict() {
+        try {
+            changeBookingElsewhere();
+
+            Booking updated = bookingUpdateRetry.update(booking, latest -> {
+                attempts++;
+                latest.setType("Routine Checkup");
+                return dataAccess.updateBooking(latest);
+            });
+
+            // The change is made again to the latest copy, keeping the other user's change
+            assertEquals(2, attempts);
+            assertEquals("Routine Checkup", updated.getType());
+            assertEquals("Changed by someone else", updated.getDetails());
+            assertEquals(booking.getVersion() + 2, (int) updated.getVersion());
+            assertEquals("Surgery", booking.getType());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testGiveUpAfterMaxAttempts() {
+        BookingConflictException conflict = null;
+        try {
+            bookingUpdateRetry.update(booking, latest -> {
+                attempts++;
+                changeBookingElsewhere();
+                latest.setType("Routine Checkup");
+                return dataAccess.updateBooking(latest);
+            });
+        } catch (BookingConflictException ex) {
+            conflict = ex;
+        } catch (CustomException ex) {
+            System.err.println(ex.getMessage());
+        }
+
+        assertNotNull(conflict);
+        assertEquals(BookingUpdateRetry.MAX_ATTEMPTS, attempts);
+        assertEquals("Surgery", booking.getType());
+    }
+
+    @Test
+    public void testFailedRescheduleLeavesBooking() {
+        ExistingBookingException clash = null;
+        Timestamp bookingTime = booking.getBookingTime();
+        try {
+            Patient otherPatient = dataAccess.registerPatient(new Patient("other@mail.com", "myPass", "Other", null, "Testing", Date.valueOf("1990-01-01"), "Male", "08858271"), doctor);
+            dataAccess.createBooking(otherPatient, doctor, Timestamp.valueOf(day.atTime(11, 0)), "Surgery");
+
+            new AddBookingLogic(dataAccess).rescheduleBooking(day.toString(), "11", "00", "Routine Checkup", patient.getPatientID(), booking);
+        } catch (ExistingBookingException ex) {
+            clash = ex;
+        } catch (CustomException ex) {
+            System.err.println(ex.getMessage());
+        }
+
+        assertNotNull(clash);
+        assertEquals(bookingTime, booking.getBookingTime());
+        assertEquals("Surgery", booking.getType());
+    }
+
+    @Test
+    public void testRescheduleUpdatesBooking() {
+        try {
+            Timestamp bookingTime = booking.getBookingTime();
+            Booking rescheduled = new AddBookingLogic(dataAccess).rescheduleBooking(day.toString(), "11", "30", "Routine Checkup", patient.getPatientID(), booking);
+
+            //The saved booking is returned, with its new version, and the given booking is left as it was
+            assertEquals(Timestamp.valueOf(day.atTime(11, 30)), rescheduled.getBookingTime());
+            assertEquals("Routine Checkup", rescheduled.getType());
+            assertEquals(booking.getVersion() + 1, (int) rescheduled.getVersion());
+            assertEquals(rescheduled.getVersion(), dataAccess.getBooking(booking.getBookingID()).getVersion());
+            assertEquals(bookingTime, booking.getBookingTime());
+            assertEquals("Surgery", booking.getType());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+}
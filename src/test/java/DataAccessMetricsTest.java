@@ -0,0 +1,109 @@
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.CustomExceptions.PatientNotFoundException;
+import com.group15A.DataAccess.*;
+import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.Patient;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the metrics recorded for each method of the Data Access Layer
+ *
+ * @author Andrei Constantin
+ */
+public class DataAccessMetricsTest extends TestCase {
+
+    private DataAccessMetrics metrics;
+    private IDataAccess dataAccess;
+    private Patient patient;
+
+    @Override
+    protected void setUp() {
+        try {
+            InMemoryDataAccess inMemoryDataAccess = new InMemoryDataAccess();
+            inMemoryDataAccess.addSampleDoctors();
+            metrics = new DataAccessMetrics();
+            dataAccess = metrics.wrap(inMemoryDataAccess);
+            Doctor doctor = dataAccess.getDoctor(1);
+            patient = dataAccess.registerPatient(new Patient("patient@mail.com", "myPass", "Test", null, "Testing", Date.valueOf("1990-01-01"), "Male", "08858271"), doctor);
+        } catch (CustomException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCallsAndRows() {
+        try {
+            dataAccess.getDoctors();
+            dataAccess.getDoctors();
+            dataAccess.getPatient(patient.getPatientID());
+
+            MethodMetrics doctors = metrics.getMethodMetrics("getDoctors()");
+            assertEquals(2, doctors.getCallCount());
+            assertEquals(20, doctors.getRowCount());
+            assertEquals(0, doctors.getErrorCount());
+            assertEquals(1, metrics.getMethodMetrics("getPatient(int)").getCallCount());
+            assertNull(metrics.getMethodMetrics("getPatient(String)"));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testErrorsArePassedOn() {
+        try {
+            dataAccess.getPatient("unknown@mail.com");
+            fail();
+        } catch (PatientNotFoundException ex) {
+            MethodMetrics getPatient = metrics.getMethodMetrics("getPatient(String)");
+            assertEquals(1, getPatient.getCallCount());
+            assertEquals(1, getPatient.getErrorCount());
+            assertEquals(0, getPatient.getRowCount());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 1_000_000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+
+        //Values are reported within about 3% of their true value
+        assertEquals(500_000_000, histogram.getValueAtPercentile(50), 500_000_000 * 0.03);
+        assertEquals(990_000_000, histogram.getValueAtPercentile(99), 990_000_000 * 0.03);
+        assertEquals(1_000_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(1_000_000_000, histogram.getMax());
+        assertEquals(1_000_000, histogram.getCount());
+    }
+
+    @Test
+    public void testWriteReport() {
+        try {
+            dataAccess.getDoctors();
+            dataAccess.getLogs(patient);
+
+            Path file = Files.createTempFile("metrics", ".txt");
+            metrics.writeReport(file);
+            List<String> lines = Files.readAllLines(file);
+            Files.delete(file);
+
+            assertTrue(lines.stream().anyMatch(line -> line.startsWith("getDoctors()")));
+            assertTrue(lines.stream().anyMatch(line -> line.startsWith("getLogs(Patient)")));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+}
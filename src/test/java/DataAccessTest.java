@@ -1,13 +1,21 @@
 import com.group15A.CustomExceptions.*;
+import com.group15A.DataAccess.CachingDataAccess;
 import com.group15A.DataAccess.DataAccess;
+import com.group15A.DataAccess.LogWriter;
 import com.group15A.DataModel.*;
+import com.group15A.Utils.BookingPeriod;
 import junit.framework.TestCase;
 import org.junit.Test;
 
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -223,6 +231,54 @@ public class DataAccessTest extends TestCase {
         }
     }
 
+    public void testCachedPatient()
+    {
+        Patient patient = null;
+        try
+        {
+            CachingDataAccess cachingDataAccess = new CachingDataAccess(dataAccess);
+
+            //Create a new patient
+            patient = new Patient("mynewmail1@mail.com", "myPass", "Test", null, "Testing", new Date(), "Male", "08858271");
+            Doctor doctor = cachingDataAccess.getDoctors().get(0);
+            patient = cachingDataAccess.registerPatient(patient, doctor);
+
+            //The same patient is returned when retrieved by id or by email
+            Patient patientById = cachingDataAccess.getPatient(patient.getPatientID());
+            assertSame(patientById, cachingDataAccess.getPatient("MyNewMail1@mail.com"));
+
+            //Updating the patient replaces the cached patient
+            Patient modifiedPatient = new Patient(patient.getPatientID(), patient.getEmail(), patient.getPassHash(), patient.getFirstName(), "MiddleTest", patient.getLastName(), patient.getDob(), patient.getGender(), patient.getPhoneNo());
+            cachingDataAccess.updatePatient(modifiedPatient);
+            assertEquals("MiddleTest", cachingDataAccess.getPatient(patient.getPatientID()).getMiddleName());
+            assertEquals("MiddleTest", cachingDataAccess.getPatient(patient.getEmail()).getMiddleName());
+
+            //Deleting the patient removes them from the cache
+            cachingDataAccess.deletePatient(patient.getPatientID());
+            patient = null;
+            try {
+                cachingDataAccess.getPatient(patientById.getPatientID());
+                fail();
+            } catch (PatientNotFoundException ex) {
+                //A PatientNotFoundException is expected
+                assertTrue(true);
+            }
+
+        }catch(Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            //Delete the dummy data from the database
+            if(patient!=null) {
+                try {
+                    dataAccess.deletePatient(patient.getPatientID());
+                } catch (CustomException e) {
+                    System.err.println(e.getMessage());
+                }
+            }
+        }
+    }
+
     public void testChangeDoctor()
     {
         Patient patient = null;
@@ -295,6 +351,44 @@ public class DataAccessTest extends TestCase {
         }
     }
 
+    public void testCachedChangeDoctor()
+    {
+        Patient patient = null;
+        try
+        {
+            CachingDataAccess cachingDataAccess = new CachingDataAccess(dataAccess);
+
+            //Create a new patient and cache their doctor
+            patient = new Patient("mynewmail1@mail.com", "myPass", "Test", null, "Testing", new Date(), "Male", "08858271");
+            Doctor doctor = cachingDataAccess.getDoctors().get(0);
+            patient = cachingDataAccess.registerPatient(patient, doctor);
+            Doctor originalDoctor = cachingDataAccess.getDoctor(patient);
+
+            //The second read is answered by the cache
+            long hits = cachingDataAccess.getHitCount();
+            assertEquals(originalDoctor, cachingDataAccess.getDoctor(patient));
+            assertEquals(hits + 1, cachingDataAccess.getHitCount());
+
+            //Changing the doctor invalidates the cached doctor of the patient
+            doctor = cachingDataAccess.getDoctors().get(1);
+            patient = cachingDataAccess.changeDoctor(patient, doctor);
+            assertEquals(doctor, cachingDataAccess.getDoctor(patient));
+
+        }catch(Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            //Delete the dummy data from the database
+            if(patient!=null) {
+                try {
+                    dataAccess.deletePatient(patient.getPatientID());
+                } catch (CustomException e) {
+                    System.err.println(e.getMessage());
+                }
+            }
+        }
+    }
+
     public void testCreateBooking()
     {
         try {
@@ -336,6 +430,246 @@ public class DataAccessTest extends TestCase {
         }
     }
 
+    public void testUpdateBookingConflict()
+    {
+        Booking booking = null;
+        try {
+            Patient patient = dataAccess.getPatient(1);
+            Doctor doctor = dataAccess.getDoctor(patient);
+            var time = Timestamp.valueOf(LocalDateTime.of(LocalDateTime.now().getYear() + 5, 6, 2, 11, 35, 0));
+            booking = dataAccess.createBooking(patient, doctor, time, "Check-up");
+            Booking firstCopy = dataAccess.getBooking(booking.getBookingID());
+            Booking secondCopy = dataAccess.getBooking(booking.getBookingID());
+
+            firstCopy.setType("Surgery");
+            firstCopy = dataAccess.updateBooking(firstCopy);
+            assertEquals(booking.getVersion() + 1, (int) firstCopy.getVersion());
+
+            //The second copy was read before the first update, so it is out of date
+            secondCopy.setType("Blood Testing");
+            dataAccess.updateBooking(secondCopy);
+            fail();
+        } catch(BookingConflictException ex) {
+            //A BookingConflictException is expected
+            assertTrue(true);
+        } catch(Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            try {
+                if(booking!=null)
+                    dataAccess.deleteBooking(booking);
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
+    public void testGetBookingsInWindow()
+    {
+        Booking insideWindow = null;
+        Booking outsideWindow = null;
+        try {
+            Patient patient = dataAccess.getPatient(1);
+            Doctor doctor = dataAccess.getDoctor(patient);
+            int year = LocalDateTime.now().getYear() + 5;
+            insideWindow = dataAccess.createBooking(patient, doctor, Timestamp.valueOf(LocalDateTime.of(year, 3, 10, 10, 0, 0)), "Check-up");
+            outsideWindow = dataAccess.createBooking(patient, doctor, Timestamp.valueOf(LocalDateTime.of(year, 4, 10, 10, 0, 0)), "Check-up");
+
+            var bookings = dataAccess.getBookings(
+                    patient,
+                    BookingPeriod.FUTURE,
+                    Timestamp.valueOf(LocalDateTime.of(year, 3, 1, 0, 0, 0)),
+                    Timestamp.valueOf(LocalDateTime.of(year, 4, 1, 0, 0, 0)),
+                    true
+            );
+            var pastBookings = dataAccess.getBookings(patient, BookingPeriod.PAST, null, null, false);
+
+            assertEquals(1, bookings.size());
+            assertEquals(insideWindow.getBookingID(), bookings.get(0).getBookingID());
+            assertFalse(pastBookings.contains(insideWindow));
+            assertFalse(pastBookings.contains(outsideWindow));
+        } catch(Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            try {
+                if(insideWindow!=null)
+                    dataAccess.deleteBooking(insideWindow);
+                if(outsideWindow!=null)
+                    dataAccess.deleteBooking(outsideWindow);
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
+    public void testGetBookingsWithDoctor()
+    {
+        Booking booking = null;
+        try {
+            Patient patient = dataAccess.getPatient(1);
+            Doctor doctor = dataAccess.getDoctor(patient);
+            int year = LocalDateTime.now().getYear() + 5;
+            booking = dataAccess.createBooking(patient, doctor, Timestamp.valueOf(LocalDateTime.of(year, 5, 10, 10, 0, 0)), "Check-up");
+
+            var bookings = dataAccess.getBookingsWithDoctor(
+                    patient,
+                    BookingPeriod.FUTURE,
+                    Timestamp.valueOf(LocalDateTime.of(year, 5, 1, 0, 0, 0)),
+                    Timestamp.valueOf(LocalDateTime.of(year, 6, 1, 0, 0, 0)),
+                    true
+            );
+
+            assertEquals(1, bookings.size());
+            assertEquals(booking, bookings.get(0).getBooking());
+            assertEquals(doctor, bookings.get(0).getDoctor());
+        } catch(Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            try {
+                if(booking!=null)
+                    dataAccess.deleteBooking(booking);
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
+    public void testBookingSlotTaken()
+    {
+        Booking booking = null;
+        try {
+            Patient patient = dataAccess.getPatient(1);
+            Doctor doctor = dataAccess.getDoctor(patient);
+            var time = Timestamp.valueOf(LocalDateTime.of(LocalDateTime.now().getYear() + 5, 6, 1, 11, 30, 0));
+            assertFalse(dataAccess.isBookingSlotTaken(patient.getPatientID(), doctor.getDoctorID(), time));
+
+            booking = dataAccess.createBooking(patient, doctor, time, "Check-up");
+
+            assertTrue(dataAccess.isBookingSlotTaken(patient.getPatientID(), doctor.getDoctorID(), time));
+            assertTrue(dataAccess.isBookingSlotTaken(2, doctor.getDoctorID(), time));
+        } catch(Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            try {
+                if(booking!=null)
+                    dataAccess.deleteBooking(booking);
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
+    public void testGetBookingTimes()
+    {
+        Booking booking = null;
+        try {
+            Patient patient = dataAccess.getPatient(1);
+            Doctor doctor = dataAccess.getDoctor(patient);
+            int year = LocalDateTime.now().getYear() + 5;
+            var time = Timestamp.valueOf(LocalDateTime.of(year, 7, 1, 14, 5, 0));
+            booking = dataAccess.createBooking(patient, doctor, time, "Check-up");
+
+            var bookingTimes = dataAccess.getBookingTimes(
+                    doctor,
+                    Timestamp.valueOf(LocalDateTime.of(year, 7, 1, 0, 0, 0)),
+                    Timestamp.valueOf(LocalDateTime.of(year, 7, 2, 0, 0, 0))
+            );
+            var emptyTimes = dataAccess.getBookingTimes(
+                    doctor,
+                    Timestamp.valueOf(LocalDateTime.of(year, 7, 2, 0, 0, 0)),
+                    Timestamp.valueOf(LocalDateTime.of(year, 7, 3, 0, 0, 0))
+            );
+
+            assertEquals(List.of(time), bookingTimes);
+            assertTrue(emptyTimes.isEmpty());
+        } catch(Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            try {
+                if(booking!=null)
+                    dataAccess.deleteBooking(booking);
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
+    public void testCreateBookingExistingTime()
+    {
+        Booking booking = null;
+        Booking secondBooking = null;
+        try {
+            Patient patient = dataAccess.getPatient(1);
+            Doctor doctor = dataAccess.getDoctor(patient);
+            var time = Timestamp.valueOf(LocalDateTime.of(LocalDateTime.now().getYear() + 5, 6, 1, 11, 35, 0));
+            booking = dataAccess.createBooking(patient, doctor, time, "Check-up");
+
+            //Try booking the same slot again
+            secondBooking = dataAccess.createBooking(patient, doctor, time, "Check-up");
+            fail();
+        } catch(ExistingBookingException ex) {
+            //An ExistingBookingException is expected
+            assertTrue(true);
+        } catch(Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            try {
+                if(booking!=null)
+                    dataAccess.deleteBooking(booking);
+                if(secondBooking!=null)
+                    dataAccess.deleteBooking(secondBooking);
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
+    public void testCreateBookingWithAudit()
+    {
+        Booking booking = null;
+        Notification notification = null;
+        Log log = null;
+        try {
+            Patient patient = dataAccess.getPatient(1);
+            Doctor doctor = dataAccess.getDoctor(patient);
+            var time = Timestamp.valueOf(LocalDateTime.of(LocalDateTime.now().getYear() + 5, 6, 1, 12, 0, 0));
+            booking = dataAccess.createBookingWithAudit(patient, doctor, time, "Check-up", "Test header", "Test audited booking", "Test audited booking log");
+
+            assertEquals(time, booking.getBookingTime());
+
+            //The notification and the log were created together with the booking
+            for (Notification n : dataAccess.getNotifications(patient))
+                if (n.getMessage().equals("Test audited booking"))
+                    notification = n;
+            for (Log l : dataAccess.getLogs(patient))
+                if (l.getMessage().equals("Test audited booking log"))
+                    log = l;
+            assertNotNull(notification);
+            assertNotNull(log);
+        } catch(Exception ex) {
+            ex.printStackTrace();
+            fail();
+        } finally {
+            //Delete the dummy data from the database
+            try {
+                if(booking!=null)
+                    dataAccess.deleteBooking(booking);
+                if(notification!=null)
+                    dataAccess.deleteNotification(notification.getNotifID());
+                if(log!=null)
+                    dataAccess.deleteLog(log.getLogID());
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
     public void testCreateNotification()
     {
         Notification notification = null;
@@ -364,6 +698,38 @@ public class DataAccessTest extends TestCase {
         }
     }
 
+    public void testCreateNotificationReturnsRow()
+    {
+        Notification notification = null;
+        try
+        {
+            Patient patient = dataAccess.getPatient(1);
+            notification = dataAccess.createNotification(patient, "Test", "This is a test");
+
+            //The returned notification is the inserted row, read back by its id
+            Notification notificationFromDB = dataAccess.getNotification(notification.getNotifID());
+            assertEquals(notificationFromDB, notification);
+            assertEquals(patient.getPatientID(), notification.getPatientID());
+            assertEquals("Test", notification.getHeader());
+            assertEquals("This is a test", notification.getMessage());
+            assertNotNull(notification.getTimestamp());
+            assertTrue(notification.isNew());
+
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            if (notification!=null) {
+                try {
+                    dataAccess.deleteNotification(notification.getNotifID());
+                } catch (CustomException e) {
+                    e.printStackTrace();
+                    fail();
+                }
+            }
+        }
+    }
+
     public void testSetSeenNotification()
     {
         Notification notification = null;
@@ -392,6 +758,150 @@ public class DataAccessTest extends TestCase {
         }
     }
 
+    public void testGetNotificationChanges()
+    {
+        Notification notification = null;
+        try
+        {
+            Patient patient = dataAccess.getPatient(1);
+            var changes = dataAccess.getNotificationChanges(patient, null, List.of());
+            int lastNotifID = 0;
+            var unreadNotifIDs = new HashSet<Integer>();
+            for (Notification n : changes.getNewNotifications()) {
+                lastNotifID = Math.max(lastNotifID, n.getNotifID());
+                if (n.isNew())
+                    unreadNotifIDs.add(n.getNotifID());
+            }
+            int unreadCount = changes.getUnreadCount();
+
+            //Nothing has changed since the last call, so nothing is returned
+            changes = dataAccess.getNotificationChanges(patient, lastNotifID, unreadNotifIDs);
+            assertTrue(changes.getNewNotifications().isEmpty());
+            assertTrue(changes.getReadNotificationIDs().isEmpty());
+            assertEquals(unreadCount, changes.getUnreadCount());
+
+            //A new notification is returned, and is unread
+            notification = dataAccess.createNotification(patient, "Test", "This is a test");
+            changes = dataAccess.getNotificationChanges(patient, lastNotifID, unreadNotifIDs);
+            assertEquals(1, changes.getNewNotifications().size());
+            assertTrue(changes.getNewNotifications().get(0).isNew());
+            assertTrue(changes.getReadNotificationIDs().isEmpty());
+            assertEquals(unreadCount + 1, changes.getUnreadCount());
+            unreadNotifIDs.add(notification.getNotifID());
+
+            //Once read, the notification is returned as read
+            dataAccess.setNotificationSeen(notification);
+            changes = dataAccess.getNotificationChanges(patient, notification.getNotifID(), unreadNotifIDs);
+            assertTrue(changes.getNewNotifications().isEmpty());
+            assertEquals(Set.of(notification.getNotifID()), changes.getReadNotificationIDs());
+            assertEquals(unreadCount, changes.getUnreadCount());
+
+        } catch(Exception ex) {
+            ex.printStackTrace();
+            fail();
+        } finally {
+            if (notification!=null) {
+                try {
+                    dataAccess.deleteNotification(notification.getNotifID());
+                } catch (CustomException e) {
+                    e.printStackTrace();
+                    fail();
+                }
+            }
+        }
+    }
+
+    public void testNotificationPages()
+    {
+        var notifications = new ArrayList<Notification>();
+        try
+        {
+            Patient patient = dataAccess.getPatient(1);
+            int unreadCount = dataAccess.countUnreadNotifications(patient);
+            int archivedCount = dataAccess.countArchivedNotifications(patient);
+            for (int i = 0; i < 3; i++)
+                notifications.add(dataAccess.createNotification(patient, "Test", "This is test " + i));
+            assertEquals(unreadCount + 3, dataAccess.countUnreadNotifications(patient));
+
+            //The newest unread notifications come first, and the next page starts after the last one
+            var page = dataAccess.getUnreadNotifications(patient, null, 2);
+            assertEquals(2, page.size());
+            assertEquals(notifications.get(2).getNotifID(), page.get(0).getNotifID());
+            assertEquals(notifications.get(1).getNotifID(), page.get(1).getNotifID());
+            page = dataAccess.getUnreadNotifications(patient, page.get(1).getNotifID(), 2);
+            assertEquals(notifications.get(0).getNotifID(), page.get(0).getNotifID());
+
+            //Once read, a notification moves to the archived pages
+            dataAccess.setNotificationSeen(notifications.get(2));
+            assertEquals(unreadCount + 2, dataAccess.countUnreadNotifications(patient));
+            assertEquals(archivedCount + 1, dataAccess.countArchivedNotifications(patient));
+            page = dataAccess.getArchivedNotifications(patient, null, 1);
+            assertEquals(notifications.get(2).getNotifID(), page.get(0).getNotifID());
+            assertFalse(page.get(0).isNew());
+
+        } catch(Exception ex) {
+            ex.printStackTrace();
+            fail();
+        } finally {
+            for (Notification notification : notifications) {
+                try {
+                    dataAccess.deleteNotification(notification.getNotifID());
+                } catch (CustomException e) {
+                    e.printStackTrace();
+                    fail();
+                }
+            }
+        }
+    }
+
+    public void testSetNotificationsSeen()
+    {
+        var notifications = new ArrayList<Notification>();
+        Patient patient = null;
+        try
+        {
+            //Create a new patient, so that the notifications of the sample patients stay unread
+            patient = new Patient("notificationsseen@mail.com", "myPass", "Test", null, "Testing", new Date(), "Male", "08858271");
+            patient = dataAccess.registerPatient(patient, dataAccess.getDoctors().get(0));
+            Patient otherPatient = dataAccess.getPatient(2);
+            for (int i = 0; i < 3; i++)
+                notifications.add(dataAccess.createNotification(patient, "Test", "This is test " + i));
+            notifications.add(dataAccess.createNotification(otherPatient, "Test", "This is another test"));
+
+            //Only the given notifications of the given patient are read
+            var ids = List.of(notifications.get(0).getNotifID(), notifications.get(3).getNotifID());
+            assertEquals(1, dataAccess.setNotificationsSeen(patient, ids));
+            assertFalse(dataAccess.getNotification(notifications.get(0).getNotifID()).isNew());
+            assertTrue(dataAccess.getNotification(notifications.get(1).getNotifID()).isNew());
+            assertTrue(dataAccess.getNotification(notifications.get(3).getNotifID()).isNew());
+            assertEquals(0, dataAccess.setNotificationsSeen(patient, new ArrayList<>()));
+
+            //All the remaining unread notifications of the patient are read
+            assertTrue(dataAccess.setNotificationsSeen(patient) >= 2);
+            assertEquals(0, dataAccess.countUnreadNotifications(patient));
+            assertTrue(dataAccess.getNotification(notifications.get(3).getNotifID()).isNew());
+
+        } catch(Exception ex) {
+            ex.printStackTrace();
+            fail();
+        } finally {
+            for (Notification notification : notifications) {
+                try {
+                    dataAccess.deleteNotification(notification.getNotifID());
+                } catch (CustomException e) {
+                    e.printStackTrace();
+                    fail();
+                }
+            }
+            try {
+                if(patient!=null)
+                    dataAccess.deletePatient(patient.getPatientID());
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
     public void testCreateLog()
     {
         Log log = null;
@@ -415,6 +925,70 @@ public class DataAccessTest extends TestCase {
         }
     }
 
+    public void testGetLogsPage()
+    {
+        Log olderLog = null;
+        Log newerLog = null;
+        try {
+            Patient patient = dataAccess.getPatient(1);
+            olderLog = dataAccess.createLog(patient, "Test older log");
+            newerLog = dataAccess.createLog(patient, "Test newer log");
+
+            //The first page starts from the newest log
+            var firstPage = dataAccess.getLogs(patient, null, 1);
+            assertEquals(1, firstPage.size());
+            assertEquals(newerLog, firstPage.get(0));
+
+            //The next page continues from the last log of the previous page
+            var secondPage = dataAccess.getLogs(patient, firstPage.get(0).getLogID(), 1);
+            assertEquals(1, secondPage.size());
+            assertEquals(olderLog, secondPage.get(0));
+        } catch(Exception ex) {
+            ex.printStackTrace();
+            fail();
+        } finally {
+            //Delete the dummy data from the database
+            try {
+                if(olderLog!=null)
+                    dataAccess.deleteLog(olderLog.getLogID());
+                if(newerLog!=null)
+                    dataAccess.deleteLog(newerLog.getLogID());
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
+    public void testLogWriter()
+    {
+        Log log = null;
+        try {
+            Patient patient = dataAccess.getPatient(1);
+            String test = "Test queued log";
+            LogWriter logWriter = new LogWriter(dataAccess);
+            logWriter.log(patient, test);
+
+            //The log is in the database once the writer has been flushed
+            assertTrue(logWriter.close());
+            for (Log l : dataAccess.getLogs(patient))
+                if (l.getMessage().equals(test))
+                    log = l;
+            assertNotNull(log);
+            assertEquals(1, logWriter.getWrittenCount());
+        } catch(Exception ex) {
+            ex.printStackTrace();
+            fail();
+        } finally {
+            //Delete the dummy data from the database
+            try {
+                if(log!=null)
+                    dataAccess.deleteLog(log.getLogID());
+            } catch (CustomException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+
     public void testGetLogs()
     {
         Patient patient = null;
@@ -450,4 +1024,50 @@ public class DataAccessTest extends TestCase {
             }
         }
     }
-}
\ No newline at end of file
+
+    public void testStreamLogs()
+    {
+        Patient patient = null;
+        Log log = null;
+
+        try
+        {
+            //Create a new patient
+            patient = new Patient("mynewmail1@mail.com", "myPass", "Test", null, "Testing", new Date(), "Male", "08858271");
+            Doctor doctor = dataAccess.getDoctors().get(0);
+            patient = dataAccess.registerPatient(patient, doctor);
+
+            //Create the log, and find it by reading the whole table one row at a time
+            log = dataAccess.createLog(patient, "Test log");
+            int patientID = patient.getPatientID();
+            List<Log> logs;
+            try (var stream = dataAccess.streamLogs()) {
+                logs = stream.filter(l -> l.getPatientID() == patientID).collect(Collectors.toList());
+            }
+
+            assertEquals(1, logs.size());
+            assertEquals(log, logs.get(0));
+
+            //The connection is given back when the stream is closed, even if not every row was read
+            for (int i = 0; i < 3; i++) {
+                try (var stream = dataAccess.streamLogs()) {
+                    assertTrue(stream.findFirst().isPresent());
+                }
+            }
+        }catch(Exception ex) {
+            ex.printStackTrace();
+            fail();
+        } finally {
+            //Delete the dummy data from the database
+            try {
+                if(log!=null)
+                    dataAccess.deleteLog(log.getLogID());
+                if(patient!=null)
+                    dataAccess.deletePatient(patient.getPatientID());
+            } catch (CustomException ex) {
+                ex.printStackTrace();
+                System.err.println(ex.getMessage());
+            }
+        }
+    }
+}
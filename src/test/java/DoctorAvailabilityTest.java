@@ -0,0 +1,117 @@
+import com.group15A.BusinessLogic.AddBookingLogic;
+import com.group15A.BusinessLogic.AvailabilityEngine;
+import com.group15A.CustomExceptions.CustomException;
+import com.group15A.DataAccess.InMemoryDataAccess;
+import com.group15A.DataModel.Doctor;
+import com.group15A.DataModel.Patient;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the free slots of a single doctor's days kept by the AvailabilityEngine,
+ * against the in-memory Data Access Layer
+ *
+ * @author Milovan Gveric
+ */
+public class DoctorAvailabilityTest extends TestCase {
+    private final LocalDate day = LocalDate.now().plusDays(7);
+    private InMemoryDataAccess dataAccess;
+    private Doctor doctor;
+    private Patient patient;
+    private AvailabilityEngine availability;
+
+    @Override
+    protected void setUp() {
+        try {
+            dataAccess = new InMemoryDataAccess();
+            dataAccess.addSampleDoctors();
+            doctor = dataAccess.getDoctor(1);
+            patient = dataAccess.registerPatient(new Patient("patient@mail.com", "myPass", "Test", null, "Testing", Date.valueOf("1990-01-01"), "Male", "08858271"), doctor);
+            availability = new AvailabilityEngine(dataAccess);
+        } catch (CustomException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private Timestamp at(int hour, int minute) {
+        return Timestamp.valueOf(day.atTime(hour, minute));
+    }
+
+    @Test
+    public void testFreeSlots() {
+        try {
+            dataAccess.createBooking(patient, doctor, at(10, 0), "Surgery");
+
+            List<LocalTime> slots = availability.getFreeSlots(doctor, day);
+            assertEquals(AvailabilityEngine.SLOTS_PER_DAY - 1, slots.size());
+            assertEquals(AvailabilityEngine.FIRST_SLOT, slots.get(0));
+            assertFalse(slots.contains(LocalTime.of(10, 0)));
+            assertTrue(slots.contains(LocalTime.of(10, 5)));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testMarkTakenAndFree() {
+        try {
+            assertTrue(availability.getFreeSlots(doctor, day).contains(LocalTime.of(11, 0)));
+
+            availability.markTaken(doctor.getDoctorID(), at(11, 0));
+            assertFalse(availability.getFreeSlots(doctor, day).contains(LocalTime.of(11, 0)));
+
+            availability.markFree(doctor.getDoctorID(), at(11, 0));
+            assertTrue(availability.getFreeSlots(doctor, day).contains(LocalTime.of(11, 0)));
+
+            // Other doctors are not affected
+            availability.markTaken(doctor.getDoctorID(), at(11, 0));
+            assertTrue(availability.getFreeSlots(dataAccess.getDoctor(2), day).contains(LocalTime.of(11, 0)));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testStaleSlots() {
+        try {
+            AvailabilityEngine alwaysStale = new AvailabilityEngine(dataAccess, -1);
+            assertTrue(availability.getFreeSlots(doctor, day).contains(LocalTime.of(12, 0)));
+            assertTrue(alwaysStale.getFreeSlots(doctor, day).contains(LocalTime.of(12, 0)));
+
+            // A booking made by someone else is not seen until the loaded day goes stale or is invalidated
+            dataAccess.createBooking(patient, doctor, at(12, 0), "Surgery");
+            assertTrue(availability.getFreeSlots(doctor, day).contains(LocalTime.of(12, 0)));
+            assertFalse(alwaysStale.getFreeSlots(doctor, day).contains(LocalTime.of(12, 0)));
+
+            availability.invalidate(doctor.getDoctorID(), day);
+            assertFalse(availability.getFreeSlots(doctor, day).contains(LocalTime.of(12, 0)));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testSharedEngine() {
+        try {
+            assertTrue(availability.getFreeSlots(doctor, day).contains(LocalTime.of(9, 0)));
+
+            // A booking made through a logic class using the same engine is seen straight away
+            new AddBookingLogic(dataAccess, availability).createNewBooking(day.toString(), "09", "00", "Surgery", patient.getPatientID());
+            assertFalse(availability.getFreeSlots(doctor, day).contains(LocalTime.of(9, 0)));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+}
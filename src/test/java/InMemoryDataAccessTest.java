@@ -0,0 +1,371 @@
+import com.group15A.BusinessLogic.AddBookingLogic;
+import com.group15A.CustomExceptions.*;
+import com.group15A.DataAccess.InMemoryDataAccess;
+import com.group15A.DataAccess.LogWriter;
+import com.group15A.DataModel.*;
+import com.group15A.Utils.BookingPeriod;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the in-memory Data Access Layer, which must keep the same keys as the database
+ *
+ * @author Andrei Constantin
+ */
+public class InMemoryDataAccessTest extends TestCase {
+
+    private InMemoryDataAccess dataAccess;
+    private Doctor doctor;
+    private Patient patient;
+    private Timestamp bookingTime;
+
+    @Override
+    protected void setUp() {
+        try {
+            dataAccess = new InMemoryDataAccess();
+            dataAccess.addSampleDoctors();
+            doctor = dataAccess.getDoctor(1);
+            patient = dataAccess.registerPatient(newPatient("patient@mail.com"), doctor);
+            bookingTime = Timestamp.valueOf(LocalDateTime.now().plusYears(1).withHour(10).withMinute(30).withSecond(0).withNano(0));
+        } catch (CustomException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private Patient newPatient(String email) {
+        return new Patient(email, "myPass", "Test", null, "Testing", Date.valueOf("1990-01-01"), "Male", "08858271");
+    }
+
+    @Test
+    public void testRegisterPatient() {
+        try {
+            assertEquals(patient, dataAccess.getPatient("PATIENT@mail.com"));
+            assertEquals(doctor, dataAccess.getDoctor(patient));
+            assertEquals(10, dataAccess.getDoctors().size());
+            assertEquals(1, dataAccess.getCertifications(doctor).size());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testDuplicateEmail() {
+        try {
+            //Emails are compared without case, as in the database
+            dataAccess.registerPatient(newPatient("Patient@Mail.com"), doctor);
+            fail();
+        } catch (EmailInUseException ex) {
+            assertTrue(true);
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testDuplicateBooking() {
+        try {
+            Patient otherPatient = dataAccess.registerPatient(newPatient("other@mail.com"), doctor);
+            dataAccess.createBooking(patient, doctor, bookingTime, "Surgery");
+
+            //The same patient at the same time, with a different doctor
+            try {
+                dataAccess.createBooking(patient, dataAccess.getDoctor(2), bookingTime, "Surgery");
+                fail();
+            } catch (ExistingBookingException ex) {
+                assertTrue(true);
+            }
+
+            //The same doctor at the same time, with a different patient
+            try {
+                dataAccess.createBooking(otherPatient, doctor, bookingTime, "Surgery");
+                fail();
+            } catch (ExistingBookingException ex) {
+                assertTrue(true);
+            }
+
+            assertEquals(1, dataAccess.getBookings().size());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testForeignKeys() {
+        try {
+            Patient unknownPatient = new Patient(999, "unknown@mail.com", "myPass", "Test", null, "Testing", Date.valueOf("1990-01-01"), "Male", "08858271");
+            try {
+                dataAccess.createBooking(unknownPatient, doctor, bookingTime, "Surgery");
+                fail();
+            } catch (DatabaseException ex) {
+                assertTrue(true);
+            }
+
+            //A patient with bookings cannot be deleted
+            Booking booking = dataAccess.createBooking(patient, doctor, bookingTime, "Surgery");
+            try {
+                dataAccess.deletePatient(patient.getPatientID());
+                fail();
+            } catch (DatabaseException ex) {
+                assertTrue(true);
+            }
+
+            dataAccess.deleteBooking(booking);
+            dataAccess.deletePatient(patient.getPatientID());
+            assertTrue(dataAccess.getBookings().isEmpty());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testUpdateBookingConflict() {
+        try {
+            Booking booking = dataAccess.createBooking(patient, doctor, bookingTime, "Surgery");
+            Booking firstCopy = dataAccess.getBooking(booking.getBookingID());
+            Booking secondCopy = dataAccess.getBooking(booking.getBookingID());
+
+            firstCopy.setType("Blood Testing");
+            firstCopy = dataAccess.updateBooking(firstCopy);
+            assertEquals(booking.getVersion() + 1, (int) firstCopy.getVersion());
+
+            //The second copy was read before the first update, so it is out of date
+            secondCopy.setType("Other");
+            dataAccess.updateBooking(secondCopy);
+            fail();
+        } catch (BookingConflictException ex) {
+            assertTrue(true);
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testReturnedRowsAreCopies() {
+        try {
+            Booking booking = dataAccess.createBooking(patient, doctor, bookingTime, "Surgery");
+            booking.setType("Other");
+
+            assertEquals("Surgery", dataAccess.getBooking(booking.getBookingID()).getType());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testNotificationPages() {
+        try {
+            for (int i = 0; i < 5; i++) {
+                dataAccess.createNotification(patient, "Header "+i, "Message "+i);
+            }
+            List<Notification> firstPage = dataAccess.getUnreadNotifications(patient, null, 3);
+            List<Notification> secondPage = dataAccess.getUnreadNotifications(patient, firstPage.get(2).getNotifID(), 3);
+            assertEquals("Header 4", firstPage.get(0).getHeader());
+            assertEquals(2, secondPage.size());
+            assertEquals("Header 0", secondPage.get(1).getHeader());
+
+            //Only the patient's own unread notifications are counted
+            assertEquals(2, dataAccess.setNotificationsSeen(patient, List.of(firstPage.get(0).getNotifID(), firstPage.get(1).getNotifID(), 999)));
+            assertEquals(0, dataAccess.setNotificationsSeen(patient, List.of(firstPage.get(0).getNotifID())));
+            assertEquals(3, dataAccess.countUnreadNotifications(patient));
+            assertEquals(2, dataAccess.countArchivedNotifications(patient));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testNotificationChanges() {
+        try {
+            Notification first = dataAccess.createNotification(patient, "Header 0", "Message 0");
+            Notification second = dataAccess.createNotification(patient, "Header 1", "Message 1");
+            Set<Integer> unreadNotifIDs = Set.of(first.getNotifID(), second.getNotifID());
+
+            //Nothing has changed since the last sync, so nothing is returned
+            NotificationChanges changes = dataAccess.getNotificationChanges(patient, second.getNotifID(), unreadNotifIDs);
+            assertTrue(changes.getNewNotifications().isEmpty());
+            assertTrue(changes.getReadNotificationIDs().isEmpty());
+            assertEquals(2, changes.getUnreadCount());
+
+            //Only the shown notification that was read is returned
+            dataAccess.setNotificationSeen(first);
+            Notification third = dataAccess.createNotification(patient, "Header 2", "Message 2");
+            changes = dataAccess.getNotificationChanges(patient, second.getNotifID(), unreadNotifIDs);
+            assertEquals(List.of(third), changes.getNewNotifications());
+            assertEquals(Set.of(first.getNotifID()), changes.getReadNotificationIDs());
+            assertEquals(2, changes.getUnreadCount());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testLogicInjection() {
+        try {
+            LocalDate day = LocalDate.now().plusDays(7);
+            var logic = new AddBookingLogic(dataAccess);
+            logic.createNewBooking(day.toString(), "10", "30", "Surgery", patient.getPatientID());
+
+            List<Booking> bookings = dataAccess.getBookings(patient, BookingPeriod.FUTURE, null, null, true);
+            assertEquals(1, bookings.size());
+            assertEquals(Timestamp.valueOf(day.atTime(10, 30)), bookings.get(0).getBookingTime());
+            assertEquals(1, dataAccess.getNotifications(patient).size());
+            assertEquals(1, dataAccess.getLogs(patient).size());
+            assertFalse(logic.getFreeSlots(doctor, day).contains(LocalTime.of(10, 30)));
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testConcurrentBookings() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            //Many patients try to book the same doctor at the same time, and only one of them may succeed
+            var attempts = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 32; i++) {
+                Patient bookingPatient = dataAccess.registerPatient(newPatient("patient"+i+"@mail.com"), doctor);
+                attempts.add(executor.submit(() -> {
+                    try {
+                        dataAccess.createBooking(bookingPatient, doctor, bookingTime, "Surgery");
+                        return true;
+                    } catch (ExistingBookingException ex) {
+                        return false;
+                    }
+                }));
+            }
+
+            int created = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get())
+                    created++;
+            }
+            assertEquals(1, created);
+            assertEquals(1, dataAccess.getBookings(doctor).size());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testStreams() {
+        try {
+            Booking booking = dataAccess.createBooking(patient, doctor, bookingTime, "Surgery");
+            dataAccess.createNotification(patient, "Header", "Message");
+            dataAccess.createLog(patient, "First log");
+            dataAccess.createLog(patient, "Second log");
+
+            try (Stream<Booking> bookings = dataAccess.streamBookings()) {
+                assertEquals(List.of(booking.getBookingID()), bookings.map(Booking::getBookingID).collect(Collectors.toList()));
+            }
+            try (Stream<Notification> notifications = dataAccess.streamNotifications()) {
+                assertEquals(1, notifications.count());
+            }
+            try (Stream<Log> logs = dataAccess.streamLogs()) {
+                assertEquals(List.of("First log", "Second log"), logs.map(Log::getMessage).collect(Collectors.toList()));
+            }
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testCreateLogsWithMissingPatient() {
+        try {
+            Timestamp time = new Timestamp(System.currentTimeMillis());
+            try {
+                dataAccess.createLogs(List.of(
+                        new Log(null, "First log", patient.getPatientID(), time),
+                        new Log(null, "Unknown patient", 999, time),
+                        new Log(null, "Second log", patient.getPatientID(), time)
+                ));
+                fail();
+            } catch (DatabaseException ex) {
+                assertTrue(true);
+            }
+
+            //Only the log of the missing patient is lost
+            assertEquals(2, dataAccess.getLogs(patient).size());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+
+    @Test
+    public void testLogWriterClose() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            //Logs made while the writer is being closed are either queued before it closes or written straight away
+            LogWriter logWriter = new LogWriter(dataAccess);
+            var writes = new ArrayList<Future<?>>();
+            for (int i = 0; i < 200; i++) {
+                int number = i;
+                writes.add(executor.submit(() -> {
+                    logWriter.log(patient, "Log " + number);
+                    return null;
+                }));
+            }
+            logWriter.close();
+            for (Future<?> write : writes) {
+                write.get();
+            }
+
+            assertEquals(200, dataAccess.getLogs(patient).size());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRescheduleToSameTime() {
+        try {
+            LocalDate day = LocalDate.now().plusDays(7);
+            var logic = new AddBookingLogic(dataAccess);
+            logic.createNewBooking(day.toString(), "10", "30", "Surgery", patient.getPatientID());
+            Booking booking = dataAccess.getBookings(patient).get(0);
+
+            try {
+                logic.rescheduleBooking(day.toString(), "10", "30", "Surgery", patient.getPatientID(), booking);
+                fail();
+            } catch (ExistingBookingException ex) {
+                assertTrue(true);
+            }
+            assertEquals(booking.getVersion(), dataAccess.getBooking(booking.getBookingID()).getVersion());
+        } catch (Exception ex) {
+            System.err.println(ex.getMessage());
+            fail();
+        }
+    }
+}